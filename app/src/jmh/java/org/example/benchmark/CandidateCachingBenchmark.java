@@ -0,0 +1,56 @@
+package org.example.benchmark;
+
+import org.example.data.DatasetGenerator;
+import org.example.matcher.CandidateCaching;
+import org.example.matcher.MatchResult;
+import org.example.matcher.ShowMatcher;
+import org.example.model.CSVRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Benchmarks matching rows whose titles repeat, with and without the candidate cache.
+ * Rows cycle through a batch of 1,000, so once warmed up every title is cached.
+ */
+@State(Scope.Benchmark)
+public class CandidateCachingBenchmark {
+
+    @Param({"10000", "100000"})
+    private int catalogShows;
+
+    @Param({"false", "true"})
+    private boolean cached;
+
+    private ShowMatcher matcher;
+    private List<CSVRow> rows;
+    private int nextRow;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(catalogShows)
+                .rowCount(1_000)
+                .build();
+        this.matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        if (cached) {
+            this.matcher.setCandidateCaching(CandidateCaching.builder().build());
+        }
+        this.rows = generator.csvRows().toList();
+    }
+
+    /**
+     * Matches a single row, cycling through the batch.
+     */
+    @Benchmark
+    public List<MatchResult> findMatchesForRow() {
+        final CSVRow row = rows.get(nextRow);
+        nextRow = nextRow + 1 == rows.size() ? 0 : nextRow + 1;
+        return matcher.findMatchesForRow(row);
+    }
+}
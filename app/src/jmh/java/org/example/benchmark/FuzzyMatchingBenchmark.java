@@ -0,0 +1,71 @@
+package org.example.benchmark;
+
+import org.example.data.DatasetGenerator;
+import org.example.matcher.FuzzyMatching;
+import org.example.matcher.MatchResult;
+import org.example.matcher.ShowMatcher;
+import org.example.model.CSVRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Benchmarks matching rows whose titles have a typo, with fuzzy matching enabled.
+ * Each row has one letter of its original title replaced.
+ */
+@State(Scope.Benchmark)
+public class FuzzyMatchingBenchmark {
+
+    @Param({"10000", "100000"})
+    private int catalogShows;
+
+    @Param({"1", "2"})
+    private int maxDistance;
+
+    private ShowMatcher matcher;
+    private List<CSVRow> rows;
+    private int nextRow;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(catalogShows)
+                .rowCount(1_000)
+                .build();
+        this.matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        this.matcher.setFuzzyMatching(FuzzyMatching.builder().maxDistance(maxDistance).build());
+        this.rows = generator.csvRows()
+                .map(row -> CSVRow.builder()
+                        .originalTitle(withTypo(row.getOriginalTitle()))
+                        .translatedTitle(row.getTranslatedTitle())
+                        .producers(row.getProducers())
+                        .productionYear(row.getProductionYear())
+                        .type(row.getType())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Matches a single row, cycling through the batch.
+     */
+    @Benchmark
+    public List<MatchResult> findMatchesForRow() {
+        final CSVRow row = rows.get(nextRow);
+        nextRow = nextRow + 1 == rows.size() ? 0 : nextRow + 1;
+        return matcher.findMatchesForRow(row);
+    }
+
+    private static String withTypo(String title) {
+        if (title == null || title.length() < 2) {
+            return title;
+        }
+        final int position = title.length() / 2;
+        final char typo = title.charAt(position) == 'x' ? 'y' : 'x';
+        return title.substring(0, position) + typo + title.substring(position + 1);
+    }
+}
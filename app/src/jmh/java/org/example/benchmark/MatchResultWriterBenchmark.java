@@ -0,0 +1,61 @@
+package org.example.benchmark;
+
+import org.example.data.DatasetGenerator;
+import org.example.io.MatchResultWriter;
+import org.example.matcher.MatchResults;
+import org.example.matcher.ShowMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Benchmarks writing the matches of a batch of 30,000 rows to a file, to compare the cost of
+ * the output with the cost of the matching itself.
+ */
+@State(Scope.Benchmark)
+public class MatchResultWriterBenchmark {
+
+    @Param({"CSV", "JSON_LINES"})
+    private MatchResultWriter.Format format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private MatchResults results;
+    private Path output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(10_000)
+                .rowCount(30_000)
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        this.results = matcher.findMatchResults(generator.csvRows().toList());
+        this.output = Files.createTempFile("matches", ".out");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(output);
+    }
+
+    /**
+     * Writes every match of the batch.
+     */
+    @Benchmark
+    public long write() throws IOException {
+        try (MatchResultWriter writer = MatchResultWriter.builder().format(format).gzip(gzip).open(output)) {
+            writer.write(results);
+            return writer.getMatchCount();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.benchmark;
+
+import org.example.util.ProducerParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Benchmarks parsing and comparing producer lists.
+ */
+@State(Scope.Benchmark)
+public class ProducerParserBenchmark {
+
+    @Param({"Warner Bros.", "20th Century Fox, Davis Entertainment", "Warner Bros.; Village Roadshow Pictures; Silver Pictures; Groucho II Film Partnership"})
+    private String producers;
+
+    private List<String> parsedProducers;
+    private List<String> showProducers;
+
+    @Setup
+    public void setUp() {
+        this.parsedProducers = ProducerParser.parse(producers);
+        this.showProducers = List.of("Legendary Pictures", "Syncopy", "SILVER  PICTURES", "Warner Bros.");
+    }
+
+    @Benchmark
+    public List<String> parse() {
+        return ProducerParser.parse(producers);
+    }
+
+    @Benchmark
+    public boolean hasCommonProducer() {
+        return ProducerParser.hasCommonProducer(parsedProducers, showProducers);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.benchmark;
+
+import org.example.data.DatasetGenerator;
+import org.example.matcher.MatchResult;
+import org.example.matcher.ShowMatcher;
+import org.example.model.CSVRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks matching a batch of 30,000 rows, a share of which repeat earlier rows of the
+ * batch, as partner feeds do.
+ */
+@State(Scope.Benchmark)
+public class RowDeduplicationBenchmark {
+
+    @Param({"100000"})
+    private int catalogShows;
+
+    @Param({"0", "0.5"})
+    private double repeatedRows;
+
+    private ShowMatcher matcher;
+    private List<CSVRow> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(catalogShows)
+                .rowCount(30_000)
+                .build();
+        this.matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        final Random random = new Random(42);
+        final List<CSVRow> generated = generator.csvRows().toList();
+        this.rows = new ArrayList<>(generated.size());
+        for (final CSVRow row : generated) {
+            rows.add(!rows.isEmpty() && random.nextDouble() < repeatedRows ? rows.get(random.nextInt(rows.size())) : row);
+        }
+    }
+
+    /**
+     * Matches the whole batch.
+     */
+    @Benchmark
+    public List<MatchResult> findMatches() {
+        return matcher.findMatches(rows);
+    }
+}
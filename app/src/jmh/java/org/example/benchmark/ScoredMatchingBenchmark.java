@@ -0,0 +1,68 @@
+package org.example.benchmark;
+
+import org.example.data.DatasetGenerator;
+import org.example.matcher.MatchResult;
+import org.example.matcher.MatchScoring;
+import org.example.matcher.ScoredMatch;
+import org.example.matcher.ShowMatcher;
+import org.example.model.CSVRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Benchmarks scored top-K matching against unscored matching. With a single show kept, an
+ * exact match agreeing on year, type and producers ends the search before the substring lookup.
+ */
+@State(Scope.Benchmark)
+public class ScoredMatchingBenchmark {
+
+    @Param({"10000", "100000"})
+    private int catalogShows;
+
+    @Param({"1", "10"})
+    private int maxShows;
+
+    private ShowMatcher matcher;
+    private MatchScoring scoring;
+    private List<CSVRow> rows;
+    private int nextRow;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(catalogShows)
+                .rowCount(1_000)
+                .build();
+        this.matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        this.scoring = MatchScoring.builder().maxShows(maxShows).build();
+        this.rows = generator.csvRows().toList();
+    }
+
+    /**
+     * Matches a single row without scoring, cycling through the batch.
+     */
+    @Benchmark
+    public List<MatchResult> findMatchesForRow() {
+        return matcher.findMatchesForRow(nextRow());
+    }
+
+    /**
+     * Matches a single row keeping the best scored shows, cycling through the batch.
+     */
+    @Benchmark
+    public List<ScoredMatch> findTopMatchesForRow() {
+        return matcher.findTopMatchesForRow(nextRow(), scoring);
+    }
+
+    private CSVRow nextRow() {
+        final CSVRow row = rows.get(nextRow);
+        nextRow = nextRow + 1 == rows.size() ? 0 : nextRow + 1;
+        return row;
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.benchmark;
+
+import org.example.data.DatasetGenerator;
+import org.example.matcher.MatchResult;
+import org.example.matcher.MatchResults;
+import org.example.matcher.ShowMatcher;
+import org.example.model.CSVRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Benchmarks matching CSV rows against catalogs of several sizes.
+ * <p>
+ * {@code findMatches} with a batch of 30,000 rows measures the goal stated in
+ * {@code docs/performance.md}: the average time per operation must stay under a minute.
+ */
+@State(Scope.Benchmark)
+public class ShowMatcherBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int catalogShows;
+
+    @Param({"1000", "30000"})
+    private int batchRows;
+
+    private ShowMatcher matcher;
+    private List<CSVRow> rows;
+    private int nextRow;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(catalogShows)
+                .rowCount(batchRows)
+                .build();
+        this.matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        this.rows = generator.csvRows().toList();
+    }
+
+    /**
+     * Matches a single row, cycling through the batch.
+     */
+    @Benchmark
+    public List<MatchResult> findMatchesForRow() {
+        final CSVRow row = rows.get(nextRow);
+        nextRow = nextRow + 1 == rows.size() ? 0 : nextRow + 1;
+        return matcher.findMatchesForRow(row);
+    }
+
+    /**
+     * Matches the whole batch in parallel.
+     */
+    @Benchmark
+    public List<MatchResult> findMatches() {
+        return matcher.findMatches(rows);
+    }
+
+    /**
+     * Matches the whole batch in parallel, keeping the matches in compact form.
+     */
+    @Benchmark
+    public MatchResults findMatchResults() {
+        return matcher.findMatchResults(rows);
+    }
+}
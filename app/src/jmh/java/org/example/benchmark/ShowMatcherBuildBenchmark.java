@@ -0,0 +1,41 @@
+package org.example.benchmark;
+
+import org.example.data.DatasetGenerator;
+import org.example.matcher.ShowMatcher;
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Benchmarks building the matcher indexes for catalogs of several sizes.
+ */
+@State(Scope.Benchmark)
+public class ShowMatcherBuildBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int catalogShows;
+
+    private List<Show> shows;
+    private List<ShowTitle> showTitles;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(catalogShows)
+                .build();
+        this.shows = generator.shows().toList();
+        this.showTitles = generator.showTitles().toList();
+    }
+
+    @Benchmark
+    public ShowMatcher build() {
+        return new ShowMatcher(shows, showTitles);
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.benchmark;
+
+import org.example.data.DatasetGenerator;
+import org.example.matcher.MatchResult;
+import org.example.matcher.ShowMatcher;
+import org.example.matcher.SimilarityMatching;
+import org.example.model.CSVRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Benchmarks matching rows whose titles have their words reordered, with similarity
+ * matching enabled. Each row has the first word of its original title moved to the end.
+ */
+@State(Scope.Benchmark)
+public class SimilarityMatchingBenchmark {
+
+    @Param({"10000", "100000"})
+    private int catalogShows;
+
+    @Param({"0.5", "0.7"})
+    private double threshold;
+
+    private ShowMatcher matcher;
+    private List<CSVRow> rows;
+    private int nextRow;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(catalogShows)
+                .rowCount(1_000)
+                .build();
+        this.matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        this.matcher.setSimilarityMatching(SimilarityMatching.builder().threshold(threshold).build());
+        this.rows = generator.csvRows()
+                .map(row -> CSVRow.builder()
+                        .originalTitle(reordered(row.getOriginalTitle()))
+                        .translatedTitle(row.getTranslatedTitle())
+                        .producers(row.getProducers())
+                        .productionYear(row.getProductionYear())
+                        .type(row.getType())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Matches a single row, cycling through the batch.
+     */
+    @Benchmark
+    public List<MatchResult> findMatchesForRow() {
+        final CSVRow row = rows.get(nextRow);
+        nextRow = nextRow + 1 == rows.size() ? 0 : nextRow + 1;
+        return matcher.findMatchesForRow(row);
+    }
+
+    private static String reordered(String title) {
+        if (title == null || title.indexOf(' ') < 0) {
+            return title;
+        }
+        final int space = title.indexOf(' ');
+        return title.substring(space + 1) + ", " + title.substring(0, space);
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.benchmark;
+
+import org.example.util.TitleNormalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks title normalization, on both the ASCII fast path and the Unicode path.
+ */
+@State(Scope.Benchmark)
+public class TitleNormalizerBenchmark {
+
+    @Param({"garfieldthemovie", "Garfield: The Movie", "Le Fabuleux Destin d'Amélie Poulain", "千と千尋の神隠し"})
+    private String title;
+
+    @Benchmark
+    public String normalize() {
+        return TitleNormalizer.normalize(title);
+    }
+}
@@ -0,0 +1,544 @@
+package org.example.data;
+
+import org.example.model.CSVRow;
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates synthetic shows, show titles and CSV rows at any scale.
+ * <p>
+ * Unlike {@link MockData}, which provides a fixed handful of hand-written records, the
+ * generator produces as many records as requested. Every record is derived from the seed
+ * and its own position only, so the same settings always produce the same data, records
+ * can be generated in any order or in parallel, and a catalog never has to fit in memory
+ * to be written to a file.
+ * <p>
+ * The CSV rows refer to catalog shows picked with a Zipf-skewed popularity, show 0 being
+ * the most popular one. A share of the rows are near misses: their title carries a typo,
+ * so that they look like a catalog title without containing it.
+ */
+public final class DatasetGenerator {
+    private static final String[] LANGUAGES = {"en", "fr", "es", "de", "it", "pt"};
+    private static final String[] TYPES = {"movie", "series", "documentary"};
+    private static final String[] STUDIO_SUFFIXES = {"Pictures", "Studios", "Productions", "Films", "Entertainment", "Television"};
+    private static final String[] LATIN_SYLLABLES = {
+            "ka", "lo", "mi", "ra", "ten", "vel", "dor", "an", "bel", "cor", "da", "fi", "gal", "har",
+            "is", "jon", "lu", "mar", "nor", "os", "pel", "qui", "ros", "sa", "tor", "ul", "vin", "wes",
+            "xa", "yor", "zen", "bri", "cla", "dre", "fro", "gri", "pla", "sto", "tri", "ven"};
+    private static final String[] CYRILLIC_SYLLABLES = {
+            "ка", "ло", "ми", "ра", "тен", "вел", "дор", "ан", "бел", "кор", "да", "фи", "гал",
+            "хар", "ис", "лу", "мар", "нор", "ос", "пел", "рос", "са", "тор", "ул", "вин", "зен"};
+    private static final String[] KANA_SYLLABLES = {
+            "か", "き", "く", "こ", "さ", "し", "す", "せ", "た", "と", "な", "の",
+            "は", "ひ", "ま", "み", "も", "や", "ゆ", "ら", "り", "る", "わ", "ん"};
+    private static final int MIN_YEAR = 1950;
+    private static final int MAX_YEAR = 2024;
+    private static final int EPISODES_PER_SEASON = 10;
+
+    private static final long SHOW_SALT = 0x5A0E5L;
+    private static final long TITLE_SALT = 0x717L;
+    private static final long ROW_SALT = 0xC5FL;
+    private static final long PRODUCER_SALT = 0x9D0CL;
+    private static final long ID_SALT = 0x1DL;
+
+    private final long seed;
+    private final int showCount;
+    private final int titlesPerShow;
+    private final int rowCount;
+    private final double titleZipfExponent;
+    private final int producerCount;
+    private final int maxProducersPerShow;
+    private final List<String> producerSeparators;
+    private final double yearNullRate;
+    private final double typeNullRate;
+    private final double nonLatinShare;
+    private final double nearMissShare;
+
+    private DatasetGenerator(Builder builder) {
+        this.seed = builder.seed;
+        this.showCount = builder.showCount;
+        this.titlesPerShow = builder.titlesPerShow;
+        this.rowCount = builder.rowCount;
+        this.titleZipfExponent = builder.titleZipfExponent;
+        this.producerCount = builder.producerCount;
+        this.maxProducersPerShow = builder.maxProducersPerShow;
+        this.producerSeparators = List.copyOf(builder.producerSeparators);
+        this.yearNullRate = builder.yearNullRate;
+        this.typeNullRate = builder.typeNullRate;
+        this.nonLatinShare = builder.nonLatinShare;
+        this.nearMissShare = builder.nearMissShare;
+    }
+
+    public int getShowCount() {
+        return showCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Generates the show at the given position.
+     *
+     * @param index the position of the show, between 0 and the show count
+     * @return the show
+     */
+    public Show show(int index) {
+        final SplittableRandom random = random(SHOW_SALT, index);
+        final Script script = script(random);
+        final String originalTitle = title(random, script);
+        final Integer productionYear = random.nextDouble() < yearNullRate ? null : random.nextInt(MIN_YEAR, MAX_YEAR + 1);
+        final String type = random.nextDouble() < typeNullRate ? null : TYPES[random.nextInt(TYPES.length)];
+
+        final int producerListLength = random.nextInt(maxProducersPerShow + 1);
+        final List<String> producers = new ArrayList<>(producerListLength);
+        for (int i = 0; i < producerListLength; i++) {
+            final String producer = producerName(zipfIndex(random, producerCount, titleZipfExponent));
+            if (!producers.contains(producer)) {
+                producers.add(producer);
+            }
+        }
+
+        return Show.builder()
+                .id(showId(index))
+                .originalTitle(originalTitle)
+                .producers(List.copyOf(producers))
+                .productionYear(productionYear)
+                .type(type)
+                .build();
+    }
+
+    /**
+     * Generates the titles of the show at the given position.
+     * <p>
+     * The first title is the original title; the next ones are translations, one per
+     * language. Series then get episode titles, built like the {@link MockData} ones,
+     * until the show has {@code titlesPerShow} titles.
+     *
+     * @param index the position of the show, between 0 and the show count
+     * @return the titles of the show
+     */
+    public List<ShowTitle> showTitles(int index) {
+        final Show show = show(index);
+        final SplittableRandom random = random(TITLE_SALT, index);
+        final Script script = Script.of(show.getOriginalTitle());
+        final int translationCount = "series".equals(show.getType())
+                ? Math.min(titlesPerShow, LANGUAGES.length)
+                : titlesPerShow;
+
+        final List<ShowTitle> titles = new ArrayList<>(titlesPerShow);
+        titles.add(ShowTitle.builder()
+                .showId(show.getId())
+                .language(script.language)
+                .title(show.getOriginalTitle())
+                .build());
+        for (int i = 1; i < translationCount; i++) {
+            titles.add(ShowTitle.builder()
+                    .showId(show.getId())
+                    .language(LANGUAGES[i % LANGUAGES.length])
+                    .title(title(random, Script.LATIN))
+                    .build());
+        }
+        for (int episode = 0; titles.size() < titlesPerShow; episode++) {
+            final int seasonNumber = 1 + episode / EPISODES_PER_SEASON;
+            final int episodeNumber = 1 + episode % EPISODES_PER_SEASON;
+            titles.add(ShowTitle.builder()
+                    .showId(show.getId())
+                    .language(script.language)
+                    .title(show.getOriginalTitle() + String.format(" - S%02dE%02d", seasonNumber, episodeNumber))
+                    .seasonNumber(seasonNumber)
+                    .episodeNumber(episodeNumber)
+                    .episodeName(title(random, script))
+                    .build());
+        }
+        return titles;
+    }
+
+    /**
+     * Generates the CSV row at the given position.
+     *
+     * @param index the position of the row, between 0 and the row count
+     * @return the CSV row
+     */
+    public CSVRow csvRow(int index) {
+        final SplittableRandom random = random(ROW_SALT, index);
+        final int showIndex = zipfIndex(random, showCount, titleZipfExponent);
+        final Show show = show(showIndex);
+        final List<ShowTitle> titles = showTitles(showIndex);
+
+        String originalTitle = show.getOriginalTitle();
+        if (random.nextDouble() < nearMissShare) {
+            originalTitle = typo(random, originalTitle);
+        } else if (random.nextBoolean()) {
+            originalTitle = shorten(originalTitle);
+        }
+        final String translatedTitle = titles.size() > 1
+                ? titles.get(1 + random.nextInt(titles.size() - 1)).getTitle()
+                : null;
+
+        final String separator = producerSeparators.get(random.nextInt(producerSeparators.size()));
+        final String producers = show.getProducers().isEmpty() ? null : String.join(separator, show.getProducers());
+        final Integer productionYear = random.nextDouble() < yearNullRate ? null : show.getProductionYear();
+        String type = random.nextDouble() < typeNullRate ? null : show.getType();
+        if (type != null && random.nextInt(4) == 0) {
+            type = type.toUpperCase();
+        }
+
+        return CSVRow.builder()
+                .originalTitle(originalTitle)
+                .translatedTitle(translatedTitle)
+                .producers(producers)
+                .productionYear(productionYear)
+                .type(type)
+                .build();
+    }
+
+    /**
+     * Streams all the shows, in order.
+     *
+     * @return the shows
+     */
+    public Stream<Show> shows() {
+        return IntStream.range(0, showCount).mapToObj(this::show);
+    }
+
+    /**
+     * Streams all the show titles, grouped by show and in order.
+     *
+     * @return the show titles
+     */
+    public Stream<ShowTitle> showTitles() {
+        return IntStream.range(0, showCount).mapToObj(this::showTitles).flatMap(List::stream);
+    }
+
+    /**
+     * Streams all the CSV rows, in order.
+     *
+     * @return the CSV rows
+     */
+    public Stream<CSVRow> csvRows() {
+        return IntStream.range(0, rowCount).mapToObj(this::csvRow);
+    }
+
+    /**
+     * Writes the shows to a CSV file, one show per line, producers separated by {@code |}.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeShows(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writeLine(writer, "id", "originalTitle", "producers", "productionYear", "type");
+            for (int i = 0; i < showCount; i++) {
+                final Show show = show(i);
+                writeLine(writer, show.getId().toString(), show.getOriginalTitle(),
+                        String.join("|", show.getProducers()), show.getProductionYear(), show.getType());
+            }
+        }
+    }
+
+    /**
+     * Writes the show titles to a CSV file, one title per line.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeShowTitles(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writeLine(writer, "showId", "language", "title", "seasonNumber", "episodeNumber", "episodeName");
+            for (int i = 0; i < showCount; i++) {
+                for (final ShowTitle title : showTitles(i)) {
+                    writeLine(writer, title.getShowId().toString(), title.getLanguage(), title.getTitle(),
+                            title.getSeasonNumber(), title.getEpisodeNumber(), title.getEpisodeName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the CSV rows to a file readable with {@link org.example.io.CsvColumnMapping#defaults()}.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeCSVRows(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writeLine(writer, "originalTitle", "translatedTitle", "producers", "productionYear", "type");
+            for (int i = 0; i < rowCount; i++) {
+                final CSVRow row = csvRow(i);
+                writeLine(writer, row.getOriginalTitle(), row.getTranslatedTitle(), row.getProducers(),
+                        row.getProductionYear(), row.getType());
+            }
+        }
+    }
+
+    /**
+     * Returns the ID of the show at the given position.
+     */
+    private UUID showId(int index) {
+        return new UUID(mix(seed + ID_SALT), index);
+    }
+
+    /**
+     * Returns the name of the producer with the given ID.
+     */
+    private String producerName(int producer) {
+        final SplittableRandom random = random(PRODUCER_SALT, producer);
+        return word(random, Script.LATIN) + " " + STUDIO_SUFFIXES[random.nextInt(STUDIO_SUFFIXES.length)];
+    }
+
+    private Script script(SplittableRandom random) {
+        if (random.nextDouble() >= nonLatinShare) {
+            return Script.LATIN;
+        }
+        return random.nextBoolean() ? Script.CYRILLIC : Script.KANA;
+    }
+
+    /**
+     * Returns a random generator for one record, derived from the seed, the kind
+     * of record and its position only.
+     */
+    private SplittableRandom random(long salt, int index) {
+        return new SplittableRandom(mix(mix(seed + salt) + index));
+    }
+
+    /**
+     * Picks a position between 0 and {@code count}, with a probability decreasing with the
+     * position following a Zipf law of the given exponent; an exponent of 0 picks uniformly.
+     * The law is sampled by inverting the cumulative distribution of its continuous version.
+     */
+    private static int zipfIndex(SplittableRandom random, int count, double exponent) {
+        final double u = random.nextDouble();
+        final double rank;
+        if (exponent == 1.0) {
+            rank = Math.exp(u * Math.log(count + 1.0));
+        } else {
+            final double oneMinusExponent = 1.0 - exponent;
+            rank = Math.pow((Math.pow(count + 1.0, oneMinusExponent) - 1.0) * u + 1.0, 1.0 / oneMinusExponent);
+        }
+        return Math.min(count - 1, Math.max(0, (int) rank - 1));
+    }
+
+    private static String title(SplittableRandom random, Script script) {
+        final int wordCount = 2 + random.nextInt(3);
+        final StringBuilder title = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            if (i > 0 && script != Script.KANA) {
+                title.append(' ');
+            }
+            title.append(word(random, script));
+        }
+        return title.toString();
+    }
+
+    private static String word(SplittableRandom random, Script script) {
+        final int syllableCount = 2 + random.nextInt(2);
+        final StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllableCount; i++) {
+            word.append(script.syllables[random.nextInt(script.syllables.length)]);
+        }
+        if (script != Script.KANA) {
+            word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        }
+        return word.toString();
+    }
+
+    /**
+     * Swaps two different neighbouring letters, so that the title no longer contains the original.
+     */
+    private static String typo(SplittableRandom random, String title) {
+        final char[] chars = title.toCharArray();
+        final int start = random.nextInt(Math.max(1, chars.length - 1));
+        for (int i = 0; i < chars.length - 1; i++) {
+            final int position = (start + i) % (chars.length - 1);
+            if (Character.isLetter(chars[position]) && Character.isLetter(chars[position + 1])
+                    && chars[position] != chars[position + 1]) {
+                final char swapped = chars[position];
+                chars[position] = chars[position + 1];
+                chars[position + 1] = swapped;
+                return new String(chars);
+            }
+        }
+        return title;
+    }
+
+    /**
+     * Drops the last word of a title, which keeps it a substring of the original.
+     */
+    private static String shorten(String title) {
+        final int lastSpace = title.lastIndexOf(' ');
+        return lastSpace > 0 ? title.substring(0, lastSpace) : title;
+    }
+
+    private static void writeLine(Writer writer, Object... values) throws IOException {
+        writer.write(Stream.of(values).map(DatasetGenerator::csvField).collect(Collectors.joining(",")));
+        writer.write('\n');
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        final String field = value.toString();
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Stafford variant 13 of the MurmurHash3 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * The writing systems titles are generated in, with the language of their original titles.
+     */
+    private enum Script {
+        LATIN(LATIN_SYLLABLES, "en"),
+        CYRILLIC(CYRILLIC_SYLLABLES, "ru"),
+        KANA(KANA_SYLLABLES, "ja");
+
+        private final String[] syllables;
+        private final String language;
+
+        Script(String[] syllables, String language) {
+            this.syllables = syllables;
+            this.language = language;
+        }
+
+        private static Script of(String title) {
+            final char first = title.charAt(0);
+            if (Character.UnicodeBlock.of(first) == Character.UnicodeBlock.CYRILLIC) {
+                return CYRILLIC;
+            }
+            return first > 0x7F ? KANA : LATIN;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private long seed = 42;
+        private int showCount = 1_000;
+        private int titlesPerShow = 3;
+        private int rowCount = 1_000;
+        private double titleZipfExponent = 1.0;
+        private int producerCount = 500;
+        private int maxProducersPerShow = 3;
+        private List<String> producerSeparators = List.of(", ", "; ", " | ", " / ");
+        private double yearNullRate = 0.05;
+        private double typeNullRate = 0.05;
+        private double nonLatinShare = 0.1;
+        private double nearMissShare = 0.1;
+
+        private Builder() {
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder showCount(int showCount) {
+            this.showCount = showCount;
+            return this;
+        }
+
+        public Builder titlesPerShow(int titlesPerShow) {
+            this.titlesPerShow = titlesPerShow;
+            return this;
+        }
+
+        public Builder rowCount(int rowCount) {
+            this.rowCount = rowCount;
+            return this;
+        }
+
+        /**
+         * Sets the exponent of the Zipf law skewing the popularity of shows among the CSV
+         * rows, and of producers among the shows.
+         *
+         * @param titleZipfExponent the exponent, 0 for a uniform popularity
+         * @return this builder
+         */
+        public Builder titleZipfExponent(double titleZipfExponent) {
+            this.titleZipfExponent = titleZipfExponent;
+            return this;
+        }
+
+        public Builder producerCount(int producerCount) {
+            this.producerCount = producerCount;
+            return this;
+        }
+
+        public Builder maxProducersPerShow(int maxProducersPerShow) {
+            this.maxProducersPerShow = maxProducersPerShow;
+            return this;
+        }
+
+        public Builder producerSeparators(String... producerSeparators) {
+            this.producerSeparators = List.of(producerSeparators);
+            return this;
+        }
+
+        public Builder yearNullRate(double yearNullRate) {
+            this.yearNullRate = yearNullRate;
+            return this;
+        }
+
+        public Builder typeNullRate(double typeNullRate) {
+            this.typeNullRate = typeNullRate;
+            return this;
+        }
+
+        public Builder nonLatinShare(double nonLatinShare) {
+            this.nonLatinShare = nonLatinShare;
+            return this;
+        }
+
+        public Builder nearMissShare(double nearMissShare) {
+            this.nearMissShare = nearMissShare;
+            return this;
+        }
+
+        public DatasetGenerator build() {
+            if (showCount < 1 || titlesPerShow < 1 || rowCount < 0) {
+                throw new IllegalStateException("Invalid dataset size: " + showCount + " shows, "
+                        + titlesPerShow + " titles per show, " + rowCount + " rows");
+            }
+            if (producerCount < 1 || maxProducersPerShow < 0 || producerSeparators.isEmpty()) {
+                throw new IllegalStateException("Invalid producer settings");
+            }
+            if (titleZipfExponent < 0) {
+                throw new IllegalStateException("Zipf exponent must not be negative: " + titleZipfExponent);
+            }
+            for (final double rate : new double[]{yearNullRate, typeNullRate, nonLatinShare, nearMissShare}) {
+                if (rate < 0 || rate > 1) {
+                    throw new IllegalStateException("Rate must be between 0 and 1: " + rate);
+                }
+            }
+            return new DatasetGenerator(this);
+        }
+    }
+}
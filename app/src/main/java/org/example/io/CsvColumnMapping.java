@@ -0,0 +1,169 @@
+package org.example.io;
+
+import java.util.List;
+
+/**
+ * Describes where the {@link org.example.model.CSVRow} attributes are found in a CSV file.
+ * Columns are referenced either by header name or by zero-based position; an attribute
+ * without a column is read as null.
+ */
+public final class CsvColumnMapping {
+    static final int ORIGINAL_TITLE = 0;
+    static final int TRANSLATED_TITLE = 1;
+    static final int PRODUCERS = 2;
+    static final int PRODUCTION_YEAR = 3;
+    static final int TYPE = 4;
+    static final int ATTRIBUTE_COUNT = 5;
+
+    private static final int UNMAPPED = -1;
+
+    private final String[] columnNames;
+    private final int[] columnIndexes;
+    private final char delimiter;
+    private final boolean header;
+
+    private CsvColumnMapping(String[] columnNames, int[] columnIndexes, char delimiter, boolean header) {
+        this.columnNames = columnNames;
+        this.columnIndexes = columnIndexes;
+        this.delimiter = delimiter;
+        this.header = header;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public boolean hasHeader() {
+        return header;
+    }
+
+    /**
+     * Resolves the column position of every attribute.
+     *
+     * @param headerColumns the header row, or an empty list if the file has no header
+     * @return the column position of each attribute, or -1 for unmapped attributes
+     * @throws IllegalArgumentException if a named column is not in the header
+     */
+    int[] resolve(List<String> headerColumns) {
+        final int[] resolved = new int[ATTRIBUTE_COUNT];
+        for (int attribute = 0; attribute < ATTRIBUTE_COUNT; attribute++) {
+            if (columnNames[attribute] == null) {
+                resolved[attribute] = columnIndexes[attribute];
+                continue;
+            }
+
+            resolved[attribute] = headerColumns.indexOf(columnNames[attribute]);
+            if (resolved[attribute] < 0) {
+                throw new IllegalArgumentException("Column not found in CSV header: " + columnNames[attribute]);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Creates a mapping reading a comma-separated file with a header whose columns
+     * are named after the {@link org.example.model.CSVRow} attributes.
+     *
+     * @return the default mapping
+     */
+    public static CsvColumnMapping defaults() {
+        return builder()
+                .originalTitle("originalTitle")
+                .translatedTitle("translatedTitle")
+                .producers("producers")
+                .productionYear("productionYear")
+                .type("type")
+                .build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final String[] columnNames = new String[ATTRIBUTE_COUNT];
+        private final int[] columnIndexes = {UNMAPPED, UNMAPPED, UNMAPPED, UNMAPPED, UNMAPPED};
+        private char delimiter = ',';
+        private boolean header = true;
+
+        private Builder() {
+        }
+
+        public Builder originalTitle(String column) {
+            return column(ORIGINAL_TITLE, column);
+        }
+
+        public Builder originalTitle(int column) {
+            return column(ORIGINAL_TITLE, column);
+        }
+
+        public Builder translatedTitle(String column) {
+            return column(TRANSLATED_TITLE, column);
+        }
+
+        public Builder translatedTitle(int column) {
+            return column(TRANSLATED_TITLE, column);
+        }
+
+        public Builder producers(String column) {
+            return column(PRODUCERS, column);
+        }
+
+        public Builder producers(int column) {
+            return column(PRODUCERS, column);
+        }
+
+        public Builder productionYear(String column) {
+            return column(PRODUCTION_YEAR, column);
+        }
+
+        public Builder productionYear(int column) {
+            return column(PRODUCTION_YEAR, column);
+        }
+
+        public Builder type(String column) {
+            return column(TYPE, column);
+        }
+
+        public Builder type(int column) {
+            return column(TYPE, column);
+        }
+
+        public Builder delimiter(char delimiter) {
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        public Builder header(boolean header) {
+            this.header = header;
+            return this;
+        }
+
+        public CsvColumnMapping build() {
+            for (int attribute = 0; attribute < ATTRIBUTE_COUNT; attribute++) {
+                if (columnNames[attribute] != null && !header) {
+                    throw new IllegalStateException("Named columns require a header: " + columnNames[attribute]);
+                }
+            }
+            if (delimiter == '"' || delimiter == '\n' || delimiter == '\r' || delimiter > 0x7F) {
+                throw new IllegalStateException("Unsupported CSV delimiter: " + delimiter);
+            }
+            return new CsvColumnMapping(columnNames.clone(), columnIndexes.clone(), delimiter, header);
+        }
+
+        private Builder column(int attribute, String name) {
+            columnNames[attribute] = name;
+            columnIndexes[attribute] = UNMAPPED;
+            return this;
+        }
+
+        private Builder column(int attribute, int index) {
+            if (index < 0) {
+                throw new IllegalArgumentException("Column index must not be negative: " + index);
+            }
+            columnNames[attribute] = null;
+            columnIndexes[attribute] = index;
+            return this;
+        }
+    }
+}
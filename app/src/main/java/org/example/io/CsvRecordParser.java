@@ -0,0 +1,172 @@
+package org.example.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RFC 4180 record parser over a UTF-8 byte buffer.
+ * Handles quoted fields, doubled quotes and line breaks inside quoted fields, and
+ * accepts both LF and CRLF record separators. Blank lines are skipped, but a line holding
+ * only a quoted empty field ({@code ""}) is a record with one empty field.
+ */
+final class CsvRecordParser {
+    private static final byte QUOTE = '"';
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private final ByteBuffer buffer;
+    private final byte delimiter;
+    private final int limit;
+    private int position;
+    private byte[] field = new byte[256];
+    private int fieldLength;
+    private boolean fieldQuoted;
+
+    /**
+     * Creates a parser reading the buffer from its position to its limit.
+     *
+     * @param buffer    the buffer holding whole records
+     * @param delimiter the field delimiter
+     */
+    CsvRecordParser(ByteBuffer buffer, char delimiter) {
+        this.buffer = buffer;
+        this.delimiter = (byte) delimiter;
+        this.position = buffer.position();
+        this.limit = buffer.limit();
+    }
+
+    /**
+     * Returns the position right after the last parsed record.
+     *
+     * @return the position in the buffer
+     */
+    int position() {
+        return position;
+    }
+
+    /**
+     * Parses the next record, keeping every field.
+     *
+     * @return the fields of the record, or null at the end of the buffer
+     */
+    List<String> nextRecord() {
+        final List<String> fields = new ArrayList<>();
+        while (position < limit) {
+            int column = 0;
+            boolean blank = true;
+            fields.clear();
+            while (true) {
+                final boolean last = parseField(true);
+                blank &= fieldLength == 0 && !fieldQuoted && column == 0 && last;
+                fields.add(new String(field, 0, fieldLength, StandardCharsets.UTF_8));
+                column++;
+                if (last) {
+                    break;
+                }
+            }
+            if (!blank) {
+                return fields;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses the next record, decoding only the fields whose column has a slot.
+     *
+     * @param slotOfColumn the slot receiving each column, or -1 for skipped columns
+     * @param slots        the values read, set to null for columns absent from the record
+     * @return true if a record was read, false at the end of the buffer
+     */
+    boolean nextRecord(int[] slotOfColumn, String[] slots) {
+        while (position < limit) {
+            Arrays.fill(slots, null);
+            int column = 0;
+            boolean blank = true;
+            while (true) {
+                final int slot = column < slotOfColumn.length ? slotOfColumn[column] : -1;
+                final boolean last = parseField(slot >= 0);
+                blank &= fieldLength == 0 && !fieldQuoted && column == 0 && last;
+                if (slot >= 0) {
+                    slots[slot] = new String(field, 0, fieldLength, StandardCharsets.UTF_8);
+                }
+                column++;
+                if (last) {
+                    break;
+                }
+            }
+            if (!blank) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses one field and consumes the delimiter or record separator following it.
+     *
+     * @param keep whether the field content is copied into the field buffer
+     * @return true if the field ends the record, false if more fields follow
+     */
+    private boolean parseField(boolean keep) {
+        fieldLength = 0;
+        fieldQuoted = position < limit && buffer.get(position) == QUOTE;
+        if (fieldQuoted) {
+            position++;
+            while (position < limit) {
+                final byte b = buffer.get(position++);
+                if (b == QUOTE) {
+                    if (position < limit && buffer.get(position) == QUOTE) {
+                        position++;
+                    } else {
+                        break;
+                    }
+                }
+                if (keep) {
+                    append(b);
+                }
+            }
+        }
+
+        // Unquoted content, or stray characters after a closing quote
+        final int start = position;
+        while (position < limit) {
+            final byte b = buffer.get(position);
+            if (b == delimiter || b == LF || b == CR) {
+                break;
+            }
+            position++;
+        }
+        if (keep && position > start) {
+            ensureCapacity(fieldLength + position - start);
+            buffer.get(start, field, fieldLength, position - start);
+            fieldLength += position - start;
+        }
+
+        if (position >= limit) {
+            return true;
+        }
+        final byte separator = buffer.get(position++);
+        if (separator == delimiter) {
+            return false;
+        }
+        if (separator == CR && position < limit && buffer.get(position) == LF) {
+            position++;
+        }
+        return true;
+    }
+
+    private void append(byte b) {
+        ensureCapacity(fieldLength + 1);
+        field[fieldLength++] = b;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > field.length) {
+            field = Arrays.copyOf(field, Math.max(capacity, field.length * 2));
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package org.example.io;
+
+import org.example.model.CSVRow;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streaming reader producing {@link CSVRow} instances from a memory-mapped CSV file.
+ * <p>
+ * The file is never loaded as a whole: it is cut into chunks that each end on a record
+ * boundary, every chunk is mapped with {@link FileChannel#map} only while it is parsed,
+ * and rows are produced lazily. Chunk boundaries are found without parsing the file, and
+ * only when the stream reaches them: a chunk starts on a record boundary, so the parity of the
+ * quotes from its start to its target end tells whether the line break found there is inside
+ * a quoted field. The first rows are thus available once the first chunk is cut, whatever the
+ * size of the file. Streams returned by {@link #rows()} can be made parallel, one chunk per
+ * task, while the next chunks are cut. As required by RFC 4180, quotes are expected only
+ * around and inside quoted fields.
+ */
+public final class CsvRowReader implements AutoCloseable {
+    private static final long DEFAULT_CHUNK_SIZE = 32L * 1024 * 1024;
+    private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+    private final CsvColumnMapping mapping;
+    private final int[] slotOfColumn;
+    private final long dataStart;
+    private final long size;
+    private final long chunkSize;
+
+    private CsvRowReader(FileChannel channel, CsvColumnMapping mapping, long chunkSize) throws IOException {
+        this.channel = channel;
+        this.mapping = mapping;
+        this.size = channel.size();
+        this.chunkSize = chunkSize;
+
+        // Read the header, if any, to resolve the mapped columns
+        List<String> header = List.of();
+        long start = byteOrderMarkLength();
+        if (mapping.hasHeader() && size > start) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_CHUNK_SIZE));
+            buffer.position((int) start);
+            final CsvRecordParser parser = new CsvRecordParser(buffer, mapping.getDelimiter());
+            final List<String> fields = parser.nextRecord();
+            if (fields != null) {
+                header = fields;
+                start = parser.position();
+            }
+        }
+        this.dataStart = start;
+
+        final int[] columns = mapping.resolve(header);
+        int columnCount = 0;
+        for (final int column : columns) {
+            columnCount = Math.max(columnCount, column + 1);
+        }
+        this.slotOfColumn = new int[columnCount];
+        Arrays.fill(slotOfColumn, -1);
+        for (int attribute = 0; attribute < columns.length; attribute++) {
+            if (columns[attribute] >= 0) {
+                slotOfColumn[columns[attribute]] = attribute;
+            }
+        }
+    }
+
+    /**
+     * Opens a CSV file for reading.
+     *
+     * @param path    the path of the CSV file
+     * @param mapping the column mapping
+     * @return the reader
+     * @throws IOException if the file cannot be opened or its header cannot be read
+     */
+    public static CsvRowReader open(Path path, CsvColumnMapping mapping) throws IOException {
+        return open(path, mapping, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Opens a CSV file for reading, with a given target chunk size.
+     * Smaller chunks spread parsing over more tasks; chunks are never larger than 2 GB.
+     *
+     * @param path      the path of the CSV file
+     * @param mapping   the column mapping
+     * @param chunkSize the target size of a chunk, in bytes
+     * @return the reader
+     * @throws IOException if the file cannot be opened or its header cannot be read
+     */
+    public static CsvRowReader open(Path path, CsvColumnMapping mapping, long chunkSize) throws IOException {
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be between 1 and " + MAX_CHUNK_SIZE + ": " + chunkSize);
+        }
+
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new CsvRowReader(channel, mapping, chunkSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a lazy stream of the rows of the file, in file order.
+     * The stream is sequential; call {@link Stream#parallel()} to parse chunks on several cores.
+     *
+     * @return the stream of rows
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public Stream<CSVRow> rows() {
+        return StreamSupport.stream(new ChunkSpliterator(), false)
+                .flatMap(this::parseChunk);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Finds the end of the chunk starting at a record boundary, on the first record boundary
+     * at or after the target chunk size.
+     *
+     * @param start the offset of the chunk start
+     * @return the offset of the chunk end, or the file size for the last chunk
+     */
+    private long chunkEnd(long start) {
+        final long targetEnd = start + chunkSize;
+        if (targetEnd >= size) {
+            return size;
+        }
+        return nextRecordStart(targetEnd, (countQuotes(start, targetEnd) & 1) == 1);
+    }
+
+    /**
+     * Counts the quote characters in a range of the file.
+     */
+    private long countQuotes(long from, long to) {
+        final ByteBuffer buffer = map(from, to);
+        long count = 0;
+        for (int i = 0; i < buffer.limit(); i++) {
+            if (buffer.get(i) == '"') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the start of the first record beginning at or after the given offset.
+     *
+     * @param from    the offset to search from
+     * @param inQuote whether the offset is inside a quoted field
+     * @return the offset of the record start, or the file size if there is none
+     */
+    private long nextRecordStart(long from, boolean inQuote) {
+        for (long windowStart = from; windowStart < size; windowStart += chunkSize) {
+            final ByteBuffer buffer = map(windowStart, Math.min(size, windowStart + chunkSize));
+            for (int i = 0; i < buffer.limit(); i++) {
+                final byte b = buffer.get(i);
+                if (b == '"') {
+                    inQuote = !inQuote;
+                } else if (b == '\n' && !inQuote) {
+                    return windowStart + i + 1;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Parses the rows of one chunk lazily.
+     */
+    private Stream<CSVRow> parseChunk(long[] chunk) {
+        final Spliterator<CSVRow> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private CsvRecordParser parser;
+            private final String[] values = new String[CsvColumnMapping.ATTRIBUTE_COUNT];
+
+            @Override
+            public boolean tryAdvance(Consumer<? super CSVRow> action) {
+                if (parser == null) {
+                    parser = new CsvRecordParser(map(chunk[0], chunk[1]), mapping.getDelimiter());
+                }
+                if (!parser.nextRecord(slotOfColumn, values)) {
+                    return false;
+                }
+                action.accept(toRow(values));
+                return true;
+            }
+        };
+        return StreamSupport.stream(rows, false);
+    }
+
+    /**
+     * Chunks of the data section, cut when they are reached. A split hands over the next
+     * chunk, so that a parallel stream parses it while the following chunks are cut.
+     */
+    private final class ChunkSpliterator implements Spliterator<long[]> {
+        private long start = dataStart;
+
+        @Override
+        public boolean tryAdvance(Consumer<? super long[]> action) {
+            if (start >= size) {
+                return false;
+            }
+            final long end = chunkEnd(start);
+            action.accept(new long[]{start, end});
+            start = end;
+            return true;
+        }
+
+        @Override
+        public Spliterator<long[]> trySplit() {
+            if (start >= size) {
+                return null;
+            }
+            final long end = chunkEnd(start);
+            final Spliterator<long[]> chunk = Spliterators.spliterator(new Object[]{new long[]{start, end}},
+                    Spliterator.ORDERED | Spliterator.NONNULL);
+            start = end;
+            return chunk;
+        }
+
+        @Override
+        public long estimateSize() {
+            return (size - start + chunkSize - 1) / chunkSize;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.NONNULL;
+        }
+    }
+
+    private ByteBuffer map(long from, long to) {
+        if (to - from > MAX_CHUNK_SIZE) {
+            throw new UncheckedIOException(new IOException(
+                    "CSV record larger than " + MAX_CHUNK_SIZE + " bytes at offset " + from));
+        }
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the length of the UTF-8 byte order mark starting the file, if any.
+     */
+    private long byteOrderMarkLength() throws IOException {
+        if (size < 3) {
+            return 0;
+        }
+        final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, 3);
+        final boolean bom = buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF;
+        return bom ? 3 : 0;
+    }
+
+    private static CSVRow toRow(String[] values) {
+        return CSVRow.builder()
+                .originalTitle(emptyToNull(values[CsvColumnMapping.ORIGINAL_TITLE]))
+                .translatedTitle(emptyToNull(values[CsvColumnMapping.TRANSLATED_TITLE]))
+                .producers(emptyToNull(values[CsvColumnMapping.PRODUCERS]))
+                .productionYear(parseYear(values[CsvColumnMapping.PRODUCTION_YEAR]))
+                .type(emptyToNull(values[CsvColumnMapping.TYPE]))
+                .build();
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    /**
+     * Parses a production year, reading blank or malformed values as unknown.
+     */
+    private static Integer parseYear(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
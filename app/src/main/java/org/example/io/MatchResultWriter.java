@@ -0,0 +1,467 @@
+package org.example.io;
+
+import org.example.matcher.MatchResult;
+import org.example.matcher.MatchResults;
+import org.example.matcher.MatchSink;
+import org.example.model.CSVRow;
+import org.example.model.ShowTitle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writer encoding match results to a CSV or JSON Lines file.
+ * <p>
+ * Every match becomes one record holding the attributes of the CSV row followed by those of
+ * the matched title. Records are encoded to UTF-8 by hand, straight into a large direct
+ * buffer that is written to a {@link FileChannel} whenever it fills up, so no intermediate
+ * string nor stream is created per record. With gzip enabled, the buffer is compressed by a
+ * {@link Deflater} reading and writing direct buffers as well, at the fastest level so that
+ * compression keeps up with the matcher.
+ * <p>
+ * The writer is a {@link MatchSink}: passed to
+ * {@link org.example.matcher.ShowMatcher#findMatches(java.util.stream.Stream, MatchSink)},
+ * it encodes the matches of each row as soon as they are delivered, and results are never
+ * collected first. It is not thread-safe; matchers call their sink from a single thread.
+ */
+public final class MatchResultWriter implements MatchSink, AutoCloseable {
+    private static final int DEFAULT_BUFFER_SIZE = 4 * 1024 * 1024;
+    // Largest encoding of one char: the six-byte JSON escape of a control character
+    private static final int MAX_CHAR_BYTES = 6;
+    private static final String[] COLUMNS = {
+            "originalTitle", "translatedTitle", "producers", "productionYear", "type",
+            "showId", "language", "title", "seasonNumber", "episodeNumber", "episodeName"
+    };
+    private static final byte[][] JSON_KEYS = jsonKeys();
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Output formats.
+     */
+    public enum Format {
+        /**
+         * RFC 4180 CSV with a header line; null values are written as empty fields.
+         */
+        CSV,
+        /**
+         * One JSON object per line; null values are written as JSON nulls.
+         */
+        JSON_LINES
+    }
+
+    private final FileChannel channel;
+    private final Format format;
+    private final ByteBuffer buffer;
+    private final Deflater deflater;
+    private final CRC32 checksum;
+    private final ByteBuffer compressed;
+    private long matchCount;
+    private boolean closed;
+
+    private MatchResultWriter(FileChannel channel, Format format, boolean gzip, int bufferSize) throws IOException {
+        this.channel = channel;
+        this.format = format;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        if (gzip) {
+            this.deflater = new Deflater(Deflater.BEST_SPEED, true);
+            this.checksum = new CRC32();
+            this.compressed = ByteBuffer.allocateDirect(bufferSize);
+            writeGzipHeader();
+        } else {
+            this.deflater = null;
+            this.checksum = null;
+            this.compressed = null;
+        }
+
+        if (format == Format.CSV) {
+            for (int column = 0; column < COLUMNS.length; column++) {
+                if (column > 0) {
+                    put((byte) ',');
+                }
+                putCsvString(COLUMNS[column]);
+            }
+            putLineEnd();
+        }
+    }
+
+    /**
+     * Creates or truncates a file and prepares it for writing, without compression.
+     *
+     * @param path   the path of the file
+     * @param format the output format
+     * @return the writer
+     * @throws IOException if the file cannot be opened
+     */
+    public static MatchResultWriter open(Path path, Format format) throws IOException {
+        return builder().format(format).open(path);
+    }
+
+    /**
+     * Writes the matches of one CSV row.
+     *
+     * @param csvRow  the CSV row
+     * @param matches the matches of the row
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    @Override
+    public void accept(CSVRow csvRow, List<MatchResult> matches) {
+        try {
+            for (final MatchResult match : matches) {
+                write(csvRow, match.getShowTitle());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a single match.
+     *
+     * @param match the match
+     * @throws IOException if the file cannot be written
+     */
+    public void write(MatchResult match) throws IOException {
+        write(match.getCsvRow(), match.getShowTitle());
+    }
+
+    /**
+     * Writes every match of a batch, without creating {@link MatchResult} objects.
+     *
+     * @param results the matches
+     * @throws IOException if the file cannot be written
+     */
+    public void write(MatchResults results) throws IOException {
+        for (int i = 0; i < results.size(); i++) {
+            write(results.csvRow(i), results.showTitle(i));
+        }
+    }
+
+    /**
+     * Returns the number of matches written so far.
+     *
+     * @return the number of matches
+     */
+    public long getMatchCount() {
+        return matchCount;
+    }
+
+    /**
+     * Writes the buffered records, completes the gzip stream if any, and closes the file.
+     * Closing a writer again has no effect, even if the first close failed.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (channel) {
+            flush();
+            if (deflater != null) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    deflateToChannel();
+                }
+                writeGzipTrailer();
+            }
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    private void write(CSVRow csvRow, ShowTitle showTitle) throws IOException {
+        if (format == Format.JSON_LINES) {
+            put((byte) '{');
+        }
+        putString(0, csvRow.getOriginalTitle());
+        putString(1, csvRow.getTranslatedTitle());
+        putString(2, csvRow.getProducers());
+        putNumber(3, csvRow.getProductionYear());
+        putString(4, csvRow.getType());
+        putString(5, showTitle.getShowId() == null ? null : showTitle.getShowId().toString());
+        putString(6, showTitle.getLanguage());
+        putString(7, showTitle.getTitle());
+        putNumber(8, showTitle.getSeasonNumber());
+        putNumber(9, showTitle.getEpisodeNumber());
+        putString(10, showTitle.getEpisodeName());
+        if (format == Format.JSON_LINES) {
+            put((byte) '}');
+        }
+        putLineEnd();
+        matchCount++;
+    }
+
+    private void putString(int column, String value) throws IOException {
+        putFieldStart(column);
+        if (value == null) {
+            putNull();
+        } else if (format == Format.CSV) {
+            putCsvString(value);
+        } else {
+            putJsonString(value);
+        }
+    }
+
+    private void putNumber(int column, Integer value) throws IOException {
+        putFieldStart(column);
+        if (value == null) {
+            putNull();
+        } else {
+            putAscii(Integer.toString(value));
+        }
+    }
+
+    private void putFieldStart(int column) throws IOException {
+        if (column > 0) {
+            put((byte) ',');
+        }
+        if (format == Format.JSON_LINES) {
+            putBytes(JSON_KEYS[column]);
+        }
+    }
+
+    private void putNull() throws IOException {
+        if (format == Format.JSON_LINES) {
+            putBytes(NULL);
+        }
+    }
+
+    private void putLineEnd() throws IOException {
+        if (format == Format.CSV) {
+            put((byte) '\r');
+        }
+        put((byte) '\n');
+    }
+
+    /**
+     * Writes a CSV field, quoted only if it contains a delimiter, a quote or a line break.
+     */
+    private void putCsvString(String value) throws IOException {
+        boolean quoted = false;
+        for (int i = 0; i < value.length() && !quoted; i++) {
+            final char c = value.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quoted) {
+            putUtf8(value);
+            return;
+        }
+
+        put((byte) '"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"') {
+                put((byte) '"');
+            }
+            i = putUtf8(value, i);
+        }
+        put((byte) '"');
+    }
+
+    private void putJsonString(String value) throws IOException {
+        put((byte) '"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                put((byte) '\\');
+                put((byte) c);
+            } else if (c < 0x20) {
+                ensureRemaining(MAX_CHAR_BYTES);
+                buffer.put((byte) '\\').put((byte) 'u').put((byte) '0').put((byte) '0')
+                        .put(HEX[c >> 4]).put(HEX[c & 0xF]);
+            } else {
+                i = putUtf8(value, i);
+            }
+        }
+        put((byte) '"');
+    }
+
+    private void putUtf8(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            i = putUtf8(value, i);
+        }
+    }
+
+    /**
+     * Encodes the character at the given index, and the next one if they form a surrogate pair.
+     * Unpaired surrogates are written as U+FFFD.
+     *
+     * @return the index of the last character encoded
+     */
+    private int putUtf8(String value, int index) throws IOException {
+        ensureRemaining(MAX_CHAR_BYTES);
+        final char c = value.charAt(index);
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1))) {
+            final int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+            buffer.put((byte) (0xF0 | codePoint >> 18))
+                    .put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                    .put((byte) (0x80 | codePoint >> 6 & 0x3F))
+                    .put((byte) (0x80 | codePoint & 0x3F));
+            return index + 1;
+        } else {
+            final char encoded = Character.isSurrogate(c) ? '\uFFFD' : c;
+            buffer.put((byte) (0xE0 | encoded >> 12))
+                    .put((byte) (0x80 | encoded >> 6 & 0x3F))
+                    .put((byte) (0x80 | encoded & 0x3F));
+        }
+        return index;
+    }
+
+    private void putAscii(String value) throws IOException {
+        ensureRemaining(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            buffer.put((byte) value.charAt(i));
+        }
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+        ensureRemaining(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void put(byte value) throws IOException {
+        ensureRemaining(1);
+        buffer.put(value);
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the encoded records to the file, compressing them first if gzip is enabled.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        if (deflater == null) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } else {
+            checksum.update(buffer.duplicate());
+            // The deflater keeps its input, which must not see the buffer once it is cleared
+            deflater.setInput(buffer.duplicate());
+            while (!deflater.needsInput()) {
+                deflateToChannel();
+            }
+        }
+        buffer.clear();
+    }
+
+    private void deflateToChannel() throws IOException {
+        deflater.deflate(compressed);
+        compressed.flip();
+        while (compressed.hasRemaining()) {
+            channel.write(compressed);
+        }
+        compressed.clear();
+    }
+
+    private void writeGzipHeader() throws IOException {
+        // Magic number, deflate method, no flags, no modification time, no extra flags, unknown OS
+        final ByteBuffer header = ByteBuffer.wrap(new byte[]{
+                (byte) 0x1F, (byte) 0x8B, 8, 0, 0, 0, 0, 0, 0, (byte) 0xFF});
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private void writeGzipTrailer() throws IOException {
+        final ByteBuffer trailer = ByteBuffer.allocate(2 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        trailer.putInt((int) checksum.getValue());
+        trailer.putInt((int) deflater.getBytesRead());
+        trailer.flip();
+        while (trailer.hasRemaining()) {
+            channel.write(trailer);
+        }
+    }
+
+    private static byte[][] jsonKeys() {
+        final byte[][] keys = new byte[COLUMNS.length][];
+        for (int column = 0; column < COLUMNS.length; column++) {
+            keys[column] = ("\"" + COLUMNS[column] + "\":").getBytes(StandardCharsets.US_ASCII);
+        }
+        return keys;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private Format format = Format.CSV;
+        private boolean gzip;
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+        private Builder() {
+        }
+
+        public Builder format(Format format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * Compresses the output with gzip.
+         */
+        public Builder gzip(boolean gzip) {
+            this.gzip = gzip;
+            return this;
+        }
+
+        /**
+         * Sets the size of the direct buffer holding encoded records before they are written.
+         */
+        public Builder bufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Creates or truncates a file and prepares it for writing.
+         *
+         * @param path the path of the file
+         * @return the writer
+         * @throws IOException if the file cannot be opened
+         * @throws IllegalStateException if the format is missing or the buffer is too small
+         */
+        public MatchResultWriter open(Path path) throws IOException {
+            if (format == null) {
+                throw new IllegalStateException("format is required");
+            }
+            if (bufferSize < 1024) {
+                throw new IllegalStateException("bufferSize must be at least 1024 bytes");
+            }
+
+            final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            try {
+                return new MatchResultWriter(channel, format, gzip, bufferSize);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.matcher;
+
+/**
+ * Statistics of the candidate cache of a matcher, as returned by
+ * {@link ShowMatcher#getCandidateCacheStats()}. Counters are cumulative since the cache was
+ * enabled, and lookups of the changed shows of the catalog are not counted.
+ */
+public final class CandidateCacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long admissionRejectionCount;
+    private final long size;
+
+    CandidateCacheStats(long hitCount, long missCount, long evictionCount, long admissionRejectionCount, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.admissionRejectionCount = admissionRejectionCount;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of title lookups answered by the cache.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of title lookups that ran against the indexes.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the share of title lookups answered by the cache.
+     *
+     * @return the hit rate, or 0 if no title was looked up
+     */
+    public double getHitRate() {
+        final long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * Returns the number of entries evicted to keep the cache within its size. Entries
+     * dropped because the catalog changed are not counted.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of misses not cached because their title was not looked up
+     * recently before.
+     *
+     * @return the admission rejection count
+     */
+    public long getAdmissionRejectionCount() {
+        return admissionRejectionCount;
+    }
+
+    /**
+     * Returns the number of titles in the cache.
+     *
+     * @return the approximate number of entries
+     */
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "CandidateCacheStats{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                ", admissionRejectionCount=" + admissionRejectionCount +
+                ", size=" + size +
+                '}';
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.matcher;
+
+/**
+ * Settings of the candidate cache of a matcher, enabled with
+ * {@link ShowMatcher#setCandidateCaching(CandidateCaching)}.
+ * <p>
+ * Partner feeds send the same titles over and over, in many rows and again every day. The
+ * cache keeps the candidate shows found for a normalized title, production year and type,
+ * so that a repeated title skips the substring, fuzzy and similarity lookups. A title is
+ * only cached the second time it is looked up within a while: titles seen once never evict
+ * the frequent ones.
+ */
+public final class CandidateCaching {
+    private static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    private final int maxEntries;
+
+    private CandidateCaching(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the highest number of titles cached.
+     *
+     * @return the number of cache entries
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the highest number of titles cached. Titles that were looked up least
+         * recently are evicted first.
+         */
+        public Builder maxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Builds the settings.
+         *
+         * @return the settings
+         * @throws IllegalStateException if the number of entries is not positive
+         */
+        public CandidateCaching build() {
+            if (maxEntries <= 0) {
+                throw new IllegalStateException("maxEntries must be positive");
+            }
+            return new CandidateCaching(maxEntries);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.matcher;
+
+import jdk.jfr.SettingControl;
+
+import java.util.Set;
+
+/**
+ * Flight Recorder setting holding the number of candidate shows from which a row is
+ * recorded by {@link WideMatchRowEvent}. When several recordings set it, the lowest value
+ * wins, so that every recording gets at least the rows it asked for.
+ */
+final class CandidateThresholdSetting extends SettingControl {
+    private static final long DEFAULT_THRESHOLD = 1_000;
+
+    private volatile long threshold = DEFAULT_THRESHOLD;
+
+    @Override
+    public String combine(Set<String> values) {
+        long lowest = Long.MAX_VALUE;
+        for (final String value : values) {
+            lowest = Math.min(lowest, parse(value));
+        }
+        return Long.toString(values.isEmpty() ? DEFAULT_THRESHOLD : lowest);
+    }
+
+    @Override
+    public void setValue(String value) {
+        threshold = parse(value);
+    }
+
+    @Override
+    public String getValue() {
+        return Long.toString(threshold);
+    }
+
+    long getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Parses a threshold, falling back to the default one when the value is not a number.
+     *
+     * @param value the value of the setting
+     * @return the threshold
+     */
+    private static long parse(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return DEFAULT_THRESHOLD;
+        }
+    }
+}
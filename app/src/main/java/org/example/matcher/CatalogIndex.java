@@ -0,0 +1,261 @@
+package org.example.matcher;
+
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * The catalog records and every index the matcher reads, built together and never modified.
+ * <p>
+ * An index can be written to a snapshot file and opened again by another process. The
+ * snapshot starts with a magic number and a format version, followed by the records, the
+ * key lookups, the producer dictionary and the title partitions. Opening a snapshot maps
+ * the file instead of rebuilding anything: the records, the producer runs and the substring
+ * indexes are read in place, off the heap, and only the hash lookups by key and the producer
+ * names are loaded on the heap. An index can also be copied off the heap without keeping a
+ * file: the snapshot is then written to a temporary file, mapped, and deleted.
+ */
+final class CatalogIndex {
+    private static final long MAGIC = 0x50414E53444F5653L; // "SVODSNAP"
+    private static final int FORMAT_VERSION = 2;
+
+    private final CatalogRecords records;
+    private final CatalogKeys keys;
+    private final ProducerDictionary producerDictionary;
+    private final TitleBlockIndex titleBlockIndex;
+    private final boolean offHeap;
+    private volatile FuzzyTitleIndex fuzzyTitleIndex;
+    private volatile SimilarityTitleIndex similarityTitleIndex;
+
+    private CatalogIndex(CatalogRecords records, CatalogKeys keys, ProducerDictionary producerDictionary,
+            TitleBlockIndex titleBlockIndex, boolean offHeap) {
+        this.records = records;
+        this.keys = keys;
+        this.producerDictionary = producerDictionary;
+        this.titleBlockIndex = titleBlockIndex;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Builds the indexes of a catalog.
+     *
+     * @param shows      the catalog shows
+     * @param showTitles the catalog show titles
+     * @return the index
+     */
+    static CatalogIndex build(List<Show> shows, List<ShowTitle> showTitles) {
+        return build(shows, showTitles, null);
+    }
+
+    /**
+     * Builds the indexes of a catalog whose producer IDs extend those of another index,
+     * see {@link ProducerDictionary}.
+     *
+     * @param shows         the catalog shows
+     * @param showTitles    the catalog show titles
+     * @param baseProducers the dictionary to extend, or null
+     * @return the index
+     */
+    static CatalogIndex build(List<Show> shows, List<ShowTitle> showTitles, ProducerDictionary baseProducers) {
+        final CatalogIndexBuildEvent event = new CatalogIndexBuildEvent();
+        event.begin();
+        final CatalogRecords records = new ColumnarCatalogRecords(shows, showTitles);
+
+        // Normalize every catalog title once; the keys are only needed to build the indexes
+        final String[] titleKeys = CatalogKeys.titleKeys(records);
+        final CatalogKeys keys = new CatalogKeys(CatalogKeys.showKeys(records), titleKeys);
+
+        // Intern producer names
+        final ProducerDictionary producerDictionary = new ProducerDictionary(records, baseProducers);
+
+        // Index show titles for substring lookups in both directions, partitioned by year and type
+        final TitleBlockIndex titleBlockIndex = new TitleBlockIndex(records, titleKeys);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.showCount = shows.size();
+            event.titleCount = showTitles.size();
+            event.delta = baseProducers != null;
+            event.commit();
+        }
+        return new CatalogIndex(records, keys, producerDictionary, titleBlockIndex, false);
+    }
+
+    /**
+     * Opens a snapshot written by {@link #write(Path)}.
+     *
+     * @param path the snapshot file
+     * @return the index, reading the file through memory mappings
+     * @throws IOException if the file cannot be read or is not a snapshot of a supported version
+     */
+    static CatalogIndex read(Path path) throws IOException {
+        try (SnapshotInput in = new SnapshotInput(path)) {
+            return read(in, path.toString());
+        }
+    }
+
+    /**
+     * Writes the index to a snapshot file. The file is written next to its destination
+     * first and then moved in place, so that readers never see a partial snapshot.
+     *
+     * @param path the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    void write(Path path) throws IOException {
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (SnapshotOutput out = new SnapshotOutput(temporary)) {
+                write(out);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Copies the index off the heap, in the layout of a snapshot written to a temporary file.
+     * The copy reads its records and substring indexes in place, like a mapped snapshot.
+     *
+     * @return the copy, or this index if it is already off the heap
+     */
+    CatalogIndex copyOffHeap() {
+        return copyOffHeap(Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Copies the index off the heap through a temporary file of the given directory.
+     * <p>
+     * Each section of the file is mapped on its own, so the copy is neither limited to the
+     * 2 GB of a single buffer nor to {@code -XX:MaxDirectMemorySize}: the mapped pages belong
+     * to the page cache. The file is deleted once mapped; the mappings keep its pages until
+     * the copy is no longer reachable. Where a mapped file cannot be deleted, it is deleted
+     * when the virtual machine exits.
+     *
+     * @param directory the directory of the temporary file
+     * @return the copy, or this index if it is already off the heap
+     */
+    CatalogIndex copyOffHeap(Path directory) {
+        if (offHeap) {
+            return this;
+        }
+        try {
+            final Path file = Files.createTempFile(directory, "catalog", ".snapshot");
+            try {
+                try (SnapshotOutput out = new SnapshotOutput(file)) {
+                    write(out);
+                }
+                try (SnapshotInput in = new SnapshotInput(file)) {
+                    return read(in, file.toString());
+                }
+            } finally {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    file.toFile().deleteOnExit();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Checks if the records and substring indexes are read from outside the heap, either
+     * mapped from a snapshot file or copied by {@link #copyOffHeap()}.
+     *
+     * @return true if the index is off the heap, false if it was built on the heap
+     */
+    boolean isOffHeap() {
+        return offHeap;
+    }
+
+    private static CatalogIndex read(SnapshotInput in, String source) throws IOException {
+        if (in.readLong() != MAGIC) {
+            throw new IOException("Not a catalog snapshot: " + source);
+        }
+        final int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported catalog snapshot version " + version + ": " + source);
+        }
+
+        final CatalogRecords records = MappedCatalogRecords.read(in);
+        final CatalogKeys keys = CatalogKeys.read(in);
+        final ProducerDictionary producerDictionary = ProducerDictionary.read(in);
+        final TitleBlockIndex titleBlockIndex = TitleBlockIndex.read(in, records);
+        return new CatalogIndex(records, keys, producerDictionary, titleBlockIndex, true);
+    }
+
+    private void write(SnapshotOutput out) throws IOException {
+        out.writeLong(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        MappedCatalogRecords.write(records, out);
+        keys.write(out);
+        producerDictionary.write(out);
+        titleBlockIndex.write(out);
+    }
+
+    CatalogRecords records() {
+        return records;
+    }
+
+    CatalogKeys keys() {
+        return keys;
+    }
+
+    ProducerDictionary producerDictionary() {
+        return producerDictionary;
+    }
+
+    TitleBlockIndex titleBlockIndex() {
+        return titleBlockIndex;
+    }
+
+    /**
+     * Returns the fuzzy index of the catalog keys, building it on first use. The index is
+     * not part of snapshots: an index opened from a snapshot builds it the first time too.
+     *
+     * @param fuzzy the fuzzy matching settings
+     * @return the index built for the settings
+     */
+    FuzzyTitleIndex fuzzyTitleIndex(FuzzyMatching fuzzy) {
+        FuzzyTitleIndex index = fuzzyTitleIndex;
+        if (index == null || !index.supports(fuzzy)) {
+            synchronized (this) {
+                index = fuzzyTitleIndex;
+                if (index == null || !index.supports(fuzzy)) {
+                    index = FuzzyTitleIndex.build(CatalogKeys.showKeys(records), CatalogKeys.titleKeys(records), fuzzy);
+                    fuzzyTitleIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the MinHash index of the catalog keys, building it on first use. Like the fuzzy
+     * index, it is not part of snapshots.
+     *
+     * @param similarity the similarity matching settings
+     * @return the index built for the settings
+     */
+    SimilarityTitleIndex similarityTitleIndex(SimilarityMatching similarity) {
+        SimilarityTitleIndex index = similarityTitleIndex;
+        if (index == null || !index.supports(similarity)) {
+            synchronized (this) {
+                index = similarityTitleIndex;
+                if (index == null || !index.supports(similarity)) {
+                    index = SimilarityTitleIndex.build(CatalogKeys.showKeys(records), CatalogKeys.titleKeys(records), similarity);
+                    similarityTitleIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+}
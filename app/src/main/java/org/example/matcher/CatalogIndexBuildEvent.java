@@ -0,0 +1,30 @@
+package org.example.matcher;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning the build of the indexes of a catalog, or of the delta of
+ * changes made to it.
+ */
+@Name("org.example.CatalogIndexBuild")
+@Label("Catalog Index Build")
+@Category({"Show Matcher"})
+@Description("Build of the indexes of a catalog")
+@Enabled(false)
+final class CatalogIndexBuildEvent extends Event {
+
+    @Label("Show Count")
+    int showCount;
+
+    @Label("Title Count")
+    int titleCount;
+
+    @Label("Delta")
+    @Description("Whether the index holds the changes made to a base catalog")
+    boolean delta;
+}
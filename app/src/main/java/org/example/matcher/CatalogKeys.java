@@ -0,0 +1,204 @@
+package org.example.matcher;
+
+import org.example.util.TitleNormalizer;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Normalized comparison keys of the catalog, computed once when the matcher is built.
+ * <p>
+ * The keys of the shows and show titles are computed into arrays aligned with their
+ * positions, from which the matcher builds its indexes. Only the lookups by equality are
+ * kept here: shows by the key of their original title, and titles whose key is too short
+ * for substring matching.
+ * <p>
+ * Empty keys never match anything, and keys shorter than {@link #MIN_SUBSTRING_KEY_LENGTH}
+ * only match by equality: a two-letter key would otherwise be contained in, or contain,
+ * a large share of the catalog.
+ */
+final class CatalogKeys {
+
+    /**
+     * Minimum length of a key taking part in substring matching, on either side.
+     */
+    static final int MIN_SUBSTRING_KEY_LENGTH = 3;
+
+    private final PositionsByKey showsByKey;
+    private final PositionsByKey titlesByShortKey;
+
+    /**
+     * Indexes the shows and the titles with short keys by key.
+     *
+     * @param showKeys  the normalized original title of every show
+     * @param titleKeys the normalized title of every show title
+     */
+    CatalogKeys(String[] showKeys, String[] titleKeys) {
+        final Map<String, IntList> showsByKey = new HashMap<>();
+        for (int i = 0; i < showKeys.length; i++) {
+            if (!showKeys[i].isEmpty()) {
+                showsByKey.computeIfAbsent(showKeys[i], k -> new IntList(1)).add(i);
+            }
+        }
+
+        // Short keys cannot take the substring path, so they are matched through a lookup by key
+        final Map<String, IntList> titlesByShortKey = new HashMap<>();
+        for (int i = 0; i < titleKeys.length; i++) {
+            final String key = titleKeys[i];
+            if (!key.isEmpty() && !isSubstringKey(key)) {
+                titlesByShortKey.computeIfAbsent(key, k -> new IntList(1)).add(i);
+            }
+        }
+
+        this.showsByKey = new PositionsByKey(showsByKey);
+        this.titlesByShortKey = new PositionsByKey(titlesByShortKey);
+    }
+
+    private CatalogKeys(PositionsByKey showsByKey, PositionsByKey titlesByShortKey) {
+        this.showsByKey = showsByKey;
+        this.titlesByShortKey = titlesByShortKey;
+    }
+
+    /**
+     * Normalizes the original title of every show.
+     *
+     * @param records the catalog records
+     * @return the keys, by show position
+     */
+    static String[] showKeys(CatalogRecords records) {
+        final String[] keys = new String[records.showCount()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = TitleNormalizer.normalize(records.originalTitle(i));
+        }
+        return keys;
+    }
+
+    /**
+     * Normalizes the title of every show title.
+     *
+     * @param records the catalog records
+     * @return the keys, by title position
+     */
+    static String[] titleKeys(CatalogRecords records) {
+        final String[] keys = new String[records.titleCount()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = TitleNormalizer.normalize(records.title(i));
+        }
+        return keys;
+    }
+
+    /**
+     * Maps the lookups written by {@link #write(SnapshotOutput)}.
+     * They are probed in place, nothing is decoded to the heap.
+     *
+     * @param in the snapshot input
+     * @return the catalog keys
+     * @throws IOException if the snapshot cannot be read
+     */
+    static CatalogKeys read(SnapshotInput in) throws IOException {
+        return new CatalogKeys(PositionsByKey.read(in), PositionsByKey.read(in));
+    }
+
+    /**
+     * Writes the lookups to a snapshot.
+     *
+     * @param out the snapshot output
+     * @throws IOException if the snapshot cannot be written
+     */
+    void write(SnapshotOutput out) throws IOException {
+        showsByKey.write(out);
+        titlesByShortKey.write(out);
+    }
+
+    /**
+     * Checks if a key is long enough to take part in substring matching.
+     *
+     * @param key the normalized key
+     * @return true if the key can be matched by containment, false if only by equality
+     */
+    static boolean isSubstringKey(String key) {
+        return key.length() >= MIN_SUBSTRING_KEY_LENGTH;
+    }
+
+    /**
+     * Adds the shows whose original title has the given key.
+     *
+     * @param key   the normalized key
+     * @param shows the candidates receiving the positions of the shows, in catalog order
+     */
+    void collectShowsWithKey(String key, ShowCandidates shows) {
+        final int index = showsByKey.keys.find(key);
+        if (index < 0) {
+            return;
+        }
+        for (int i = showsByKey.offsets.get(index); i < showsByKey.offsets.get(index + 1); i++) {
+            shows.add(showsByKey.positions.get(i));
+        }
+    }
+
+    /**
+     * Marks every title whose key equals the given short key.
+     *
+     * @param key    the normalized key, shorter than {@link #MIN_SUBSTRING_KEY_LENGTH}
+     * @param titles the list receiving the indexes of the matching titles
+     */
+    void collectTitlesWithShortKey(String key, IntList titles) {
+        final int index = titlesByShortKey.keys.find(key);
+        if (index < 0) {
+            return;
+        }
+        for (int i = titlesByShortKey.offsets.get(index); i < titlesByShortKey.offsets.get(index + 1); i++) {
+            titles.add(titlesByShortKey.positions.get(i));
+        }
+    }
+
+    /**
+     * Positions by key: a {@link KeyIndex} of the keys, and the positions of all keys in
+     * one int array indexed by offsets, in the order of the keys.
+     */
+    private static final class PositionsByKey {
+        private final KeyIndex keys;
+        private final IntBuffer offsets;
+        private final IntBuffer positions;
+
+        /**
+         * Freezes the positions collected by key. Lists grow by doubling, so that keys
+         * shared by many positions are not copied once per position.
+         */
+        private PositionsByKey(Map<String, IntList> positionsByKey) {
+            final List<String> keyList = new ArrayList<>(positionsByKey.size());
+            final int[] keyOffsets = new int[positionsByKey.size() + 1];
+            final IntList allPositions = new IntList();
+            for (final Map.Entry<String, IntList> entry : positionsByKey.entrySet()) {
+                keyList.add(entry.getKey());
+                for (int i = 0; i < entry.getValue().size(); i++) {
+                    allPositions.add(entry.getValue().get(i));
+                }
+                keyOffsets[keyList.size()] = allPositions.size();
+            }
+            this.keys = new KeyIndex(keyList);
+            this.offsets = IntBuffer.wrap(keyOffsets);
+            this.positions = IntBuffer.wrap(allPositions.toArray());
+        }
+
+        private PositionsByKey(KeyIndex keys, IntBuffer offsets, IntBuffer positions) {
+            this.keys = keys;
+            this.offsets = offsets;
+            this.positions = positions;
+        }
+
+        private static PositionsByKey read(SnapshotInput in) throws IOException {
+            return new PositionsByKey(KeyIndex.read(in), in.readInts(), in.readInts());
+        }
+
+        private void write(SnapshotOutput out) throws IOException {
+            keys.write(out);
+            out.writeInts(offsets);
+            out.writeInts(positions);
+        }
+    }
+}
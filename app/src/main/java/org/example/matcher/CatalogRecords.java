@@ -0,0 +1,98 @@
+package org.example.matcher;
+
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read access to the shows and show titles of a catalog, by position.
+ * <p>
+ * Positions are dense: shows are numbered from 0 to {@link #showCount()} and titles from
+ * 0 to {@link #titleCount()}, in catalog order. Every index of the matcher refers to
+ * shows and titles by position, so the records themselves can be stored on the heap or
+ * in a memory-mapped snapshot.
+ */
+interface CatalogRecords {
+
+    int showCount();
+
+    int titleCount();
+
+    /**
+     * Returns the show at the given position.
+     *
+     * @param show the position of the show
+     * @return the show
+     */
+    Show show(int show);
+
+    /**
+     * Returns the show title at the given position.
+     *
+     * @param title the position of the title
+     * @return the show title
+     */
+    ShowTitle showTitle(int title);
+
+    /**
+     * Returns the ID of the show at the given position, without decoding the whole show.
+     *
+     * @param show the position of the show
+     * @return the show ID
+     */
+    UUID showId(int show);
+
+    /**
+     * Finds a show by ID.
+     *
+     * @param showId the show ID
+     * @return the position of the show, or -1 if the catalog has no show with this ID
+     */
+    int showPosition(UUID showId);
+
+    String originalTitle(int show);
+
+    List<String> producers(int show);
+
+    Integer productionYear(int show);
+
+    String type(int show);
+
+    String title(int title);
+
+    /**
+     * Returns the show ID of a title, which names a show missing from the catalog when
+     * {@link #showOfTitle(int)} is -1.
+     *
+     * @param title the position of the title
+     * @return the show ID
+     */
+    UUID titleShowId(int title);
+
+    /**
+     * Returns the position of the show owning a title.
+     *
+     * @param title the position of the title
+     * @return the position of the show, or -1 if the catalog has no show with the title show ID
+     */
+    int showOfTitle(int title);
+
+    /**
+     * Returns the number of titles of a show.
+     *
+     * @param show the position of the show
+     * @return the number of titles
+     */
+    int titleCountOfShow(int show);
+
+    /**
+     * Returns a title of a show. Titles of a show keep their catalog order.
+     *
+     * @param show the position of the show
+     * @param rank the rank of the title among the show titles
+     * @return the position of the title
+     */
+    int titleOfShow(int show, int rank);
+}
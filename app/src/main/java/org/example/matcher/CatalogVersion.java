@@ -0,0 +1,427 @@
+package org.example.matcher;
+
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One published state of a catalog that changes after the matcher is built.
+ * <p>
+ * The substring indexes cannot be modified in place, and rebuilding them for the whole
+ * catalog on every change would be far too slow. A version therefore has two layers: a base
+ * index, built for the whole catalog at some point, and a small delta index built from the
+ * shows changed since then. A changed show is moved to the delta with all its titles and
+ * hidden in the base, so every show lives in exactly one layer. A change only rebuilds the
+ * delta; once the delta holds more records than the square root of the base size, both
+ * layers are merged into a new base. This keeps the delta rebuilt by each change small while
+ * merging the whole catalog rarely enough for its cost to spread over many changes.
+ * <p>
+ * Versions are immutable: a change returns a new version and leaves this one untouched, so
+ * a lookup holding a version sees the catalog exactly as it was when it started. Changed
+ * shows come after the base shows in catalog order.
+ */
+final class CatalogVersion {
+    private static final int MIN_COMPACTION_SIZE = 1024;
+
+    private final CatalogIndex base;
+    private final BaseLookup baseLookup;
+    private final BitSet hiddenBaseShows;
+    private final BitSet removedBaseTitles;
+    private final List<Show> deltaShows;
+    private final List<ShowTitle> deltaTitles;
+    private final Map<UUID, Integer> deltaShowPositions;
+    private final CatalogIndex delta;
+    private final List<Layer> layers;
+
+    /**
+     * Creates a version made of a single index.
+     *
+     * @param base the index of the whole catalog
+     */
+    CatalogVersion(CatalogIndex base) {
+        this(base, new BaseLookup(base.records()), new BitSet(), new BitSet(), List.of(), List.of());
+    }
+
+    private CatalogVersion(CatalogIndex base, BaseLookup baseLookup, BitSet hiddenBaseShows,
+            BitSet removedBaseTitles, List<Show> deltaShows, List<ShowTitle> deltaTitles) {
+        this.base = base;
+        this.baseLookup = baseLookup;
+        this.hiddenBaseShows = hiddenBaseShows;
+        this.removedBaseTitles = removedBaseTitles;
+        this.deltaShows = deltaShows;
+        this.deltaTitles = deltaTitles;
+
+        this.deltaShowPositions = new HashMap<>();
+        for (int i = 0; i < deltaShows.size(); i++) {
+            deltaShowPositions.put(deltaShows.get(i).getId(), i);
+        }
+        this.delta = CatalogIndex.build(deltaShows, deltaTitles, base.producerDictionary());
+
+        final int baseTitleCount = base.records().titleCount();
+        this.layers = deltaShows.isEmpty()
+                ? List.of(new Layer(base, hiddenBaseShows, 0))
+                : List.of(new Layer(base, hiddenBaseShows, 0), new Layer(delta, new BitSet(), baseTitleCount));
+    }
+
+    /**
+     * Returns the index of the base layer.
+     *
+     * @return the base index
+     */
+    CatalogIndex base() {
+        return base;
+    }
+
+    /**
+     * Returns the layers to search, in catalog order.
+     *
+     * @return the layers
+     */
+    List<Layer> layers() {
+        return layers;
+    }
+
+    /**
+     * Returns a title from its reference, see {@link Layer#titleRef(int)}.
+     *
+     * @param titleRef the title reference
+     * @return the show title
+     */
+    ShowTitle showTitle(int titleRef) {
+        final int baseTitleCount = base.records().titleCount();
+        return titleRef < baseTitleCount
+                ? base.records().showTitle(titleRef)
+                : delta.records().showTitle(titleRef - baseTitleCount);
+    }
+
+    /**
+     * Returns the dictionary resolving row producers to IDs valid in every layer.
+     *
+     * @return the producer dictionary
+     */
+    ProducerDictionary producerDictionary() {
+        return delta.producerDictionary();
+    }
+
+    /**
+     * Checks if the version is made of its base index only.
+     *
+     * @return true if no change was made since the base was built, false otherwise
+     */
+    boolean isCompact() {
+        return deltaShows.isEmpty() && deltaTitles.isEmpty() && hiddenBaseShows.isEmpty()
+                && removedBaseTitles.isEmpty();
+    }
+
+    /**
+     * Merges both layers into a new base index.
+     *
+     * @return the compacted version, or this version if it is already compact
+     */
+    CatalogVersion compact() {
+        if (isCompact()) {
+            return this;
+        }
+        return new CatalogVersion(merge(base, hiddenBaseShows, removedBaseTitles, deltaShows, deltaTitles));
+    }
+
+    /**
+     * Adds a show. Titles already in the catalog with the show ID become titles of the show.
+     *
+     * @param show the show to add
+     * @return the new version
+     * @throws IllegalArgumentException if the catalog already has a show with the same ID
+     */
+    CatalogVersion withShow(Show show) {
+        if (contains(show.getId())) {
+            throw new IllegalArgumentException("Duplicate key " + show.getId());
+        }
+
+        final Changes changes = new Changes();
+        changes.shows.add(show);
+        // Titles added while the show was not in the catalog now belong to it: those of the
+        // delta are attached when it is rebuilt, those of the base are moved to the delta
+        final IntList orphanTitles = baseLookup.orphanTitles(show.getId());
+        for (int i = 0; i < orphanTitles.size(); i++) {
+            final int title = orphanTitles.get(i);
+            if (!removedBaseTitles.get(title)) {
+                changes.titles.add(base.records().showTitle(title));
+                changes.removedBaseTitles().set(title);
+            }
+        }
+        return changes.apply();
+    }
+
+    /**
+     * Replaces a show with another one that has the same ID. The titles of the show are kept.
+     *
+     * @param show the new show
+     * @return the new version
+     * @throws IllegalArgumentException if the catalog has no show with the same ID
+     */
+    CatalogVersion withUpdatedShow(Show show) {
+        final Changes changes = new Changes();
+        final Integer deltaShow = deltaShowPositions.get(show.getId());
+        if (deltaShow != null) {
+            changes.shows.set(deltaShow, show);
+        } else {
+            final int baseShow = visibleBaseShow(show.getId());
+            if (baseShow < 0) {
+                throw new IllegalArgumentException("Unknown show " + show.getId());
+            }
+            changes.moveToDelta(baseShow, show);
+        }
+        return changes.apply();
+    }
+
+    /**
+     * Removes a show and its titles.
+     *
+     * @param showId the ID of the show to remove
+     * @return the new version, or this version if the catalog has no show with the given ID
+     */
+    CatalogVersion withoutShow(UUID showId) {
+        final Changes changes = new Changes();
+        final Integer deltaShow = deltaShowPositions.get(showId);
+        if (deltaShow != null) {
+            changes.shows.remove((int) deltaShow);
+            changes.titles.removeIf(title -> showId.equals(title.getShowId()));
+        } else {
+            final int baseShow = visibleBaseShow(showId);
+            if (baseShow < 0) {
+                return this;
+            }
+            changes.hiddenBaseShows().set(baseShow);
+        }
+        return changes.apply();
+    }
+
+    /**
+     * Adds a title. A title whose show is not in the catalog is kept, and never matched,
+     * until the show is added.
+     *
+     * @param showTitle the title to add
+     * @return the new version
+     */
+    CatalogVersion withTitle(ShowTitle showTitle) {
+        final Changes changes = new Changes();
+        final int baseShow = visibleBaseShow(showTitle.getShowId());
+        if (baseShow >= 0) {
+            changes.moveToDelta(baseShow, base.records().show(baseShow));
+        }
+        changes.titles.add(showTitle);
+        return changes.apply();
+    }
+
+    /**
+     * Removes every title equal to the given one.
+     *
+     * @param showTitle the title to remove
+     * @return the new version, or this version if the catalog has no such title
+     */
+    CatalogVersion withoutTitle(ShowTitle showTitle) {
+        final CatalogRecords records = base.records();
+        final Changes changes = new Changes();
+        final int baseShow = visibleBaseShow(showTitle.getShowId());
+        if (baseShow >= 0) {
+            if (!hasTitle(baseShow, showTitle)) {
+                return this;
+            }
+            changes.moveToDelta(baseShow, records.show(baseShow));
+            changes.titles.removeIf(showTitle::equals);
+            return changes.apply();
+        }
+
+        boolean removed = changes.titles.removeIf(showTitle::equals);
+        final IntList orphanTitles = baseLookup.orphanTitles(showTitle.getShowId());
+        for (int i = 0; i < orphanTitles.size(); i++) {
+            final int title = orphanTitles.get(i);
+            if (!removedBaseTitles.get(title) && records.showTitle(title).equals(showTitle)) {
+                changes.removedBaseTitles().set(title);
+                removed = true;
+            }
+        }
+        return removed ? changes.apply() : this;
+    }
+
+    private boolean contains(UUID showId) {
+        return deltaShowPositions.containsKey(showId) || visibleBaseShow(showId) >= 0;
+    }
+
+    /**
+     * Finds a show of the base that has not been changed or removed since.
+     *
+     * @param showId the show ID
+     * @return the position of the show in the base, or -1 if there is none
+     */
+    private int visibleBaseShow(UUID showId) {
+        final int show = baseLookup.showPosition(showId);
+        return show >= 0 && !hiddenBaseShows.get(show) ? show : -1;
+    }
+
+    private boolean hasTitle(int baseShow, ShowTitle showTitle) {
+        final CatalogRecords records = base.records();
+        for (int rank = 0; rank < records.titleCountOfShow(baseShow); rank++) {
+            if (records.showTitle(records.titleOfShow(baseShow, rank)).equals(showTitle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds the index of the whole catalog described by a base and its changes.
+     * Shows and titles of the base come first, in their order, followed by those of the delta.
+     */
+    private static CatalogIndex merge(CatalogIndex base, BitSet hiddenBaseShows, BitSet removedBaseTitles,
+            List<Show> deltaShows, List<ShowTitle> deltaTitles) {
+        final CatalogRecords records = base.records();
+        final List<Show> shows = new ArrayList<>(records.showCount() + deltaShows.size());
+        for (int show = 0; show < records.showCount(); show++) {
+            if (!hiddenBaseShows.get(show)) {
+                shows.add(records.show(show));
+            }
+        }
+        shows.addAll(deltaShows);
+
+        // Titles of a hidden show were moved to the delta or removed with it
+        final List<ShowTitle> showTitles = new ArrayList<>(records.titleCount() + deltaTitles.size());
+        for (int title = 0; title < records.titleCount(); title++) {
+            final int show = records.showOfTitle(title);
+            if (show < 0 ? !removedBaseTitles.get(title) : !hiddenBaseShows.get(show)) {
+                showTitles.add(records.showTitle(title));
+            }
+        }
+        showTitles.addAll(deltaTitles);
+
+        // A base kept off the heap stays there once merged
+        final CatalogIndex merged = CatalogIndex.build(shows, showTitles);
+        return base.isOffHeap() ? merged.copyOffHeap() : merged;
+    }
+
+    /**
+     * One index of a version, with the shows that must be skipped when it is searched.
+     *
+     * @param index       the index
+     * @param hiddenShows the positions of the shows changed or removed since the index was built
+     * @param titleOffset the reference of the first title of the layer
+     */
+    record Layer(CatalogIndex index, BitSet hiddenShows, int titleOffset) {
+
+        boolean isHidden(int show) {
+            return hiddenShows.get(show);
+        }
+
+        /**
+         * Returns the reference of a title of the layer, unique across the layers of a version.
+         *
+         * @param title the position of the title in the layer
+         * @return the title reference
+         */
+        int titleRef(int title) {
+            return titleOffset + title;
+        }
+    }
+
+    /**
+     * Copy of the state of a version, changed before a new version is built from it.
+     * The bit sets of the base are only copied when they are changed.
+     */
+    private final class Changes {
+        private final List<Show> shows = new ArrayList<>(deltaShows);
+        private final List<ShowTitle> titles = new ArrayList<>(deltaTitles);
+        private BitSet hiddenBaseShows;
+        private BitSet removedBaseTitles;
+
+        private BitSet hiddenBaseShows() {
+            if (hiddenBaseShows == null) {
+                hiddenBaseShows = (BitSet) CatalogVersion.this.hiddenBaseShows.clone();
+            }
+            return hiddenBaseShows;
+        }
+
+        private BitSet removedBaseTitles() {
+            if (removedBaseTitles == null) {
+                removedBaseTitles = (BitSet) CatalogVersion.this.removedBaseTitles.clone();
+            }
+            return removedBaseTitles;
+        }
+
+        /**
+         * Moves a show of the base and its titles to the delta.
+         *
+         * @param baseShow the position of the show in the base
+         * @param show     the show to put in the delta
+         */
+        private void moveToDelta(int baseShow, Show show) {
+            final CatalogRecords records = base.records();
+            shows.add(show);
+            for (int rank = 0; rank < records.titleCountOfShow(baseShow); rank++) {
+                titles.add(records.showTitle(records.titleOfShow(baseShow, rank)));
+            }
+            hiddenBaseShows().set(baseShow);
+        }
+
+        /**
+         * Builds the changed version, merging the layers if the delta has grown too large.
+         */
+        private CatalogVersion apply() {
+            final BitSet hidden = hiddenBaseShows == null ? CatalogVersion.this.hiddenBaseShows : hiddenBaseShows;
+            final BitSet removed = removedBaseTitles == null ? CatalogVersion.this.removedBaseTitles : removedBaseTitles;
+            final CatalogRecords records = base.records();
+            final int threshold = Math.max(MIN_COMPACTION_SIZE,
+                    (int) Math.sqrt((double) records.showCount() + records.titleCount()));
+            if (shows.size() + titles.size() > threshold) {
+                return new CatalogVersion(merge(base, hidden, removed, shows, titles));
+            }
+            return new CatalogVersion(base, baseLookup, hidden, removed, List.copyOf(shows), List.copyOf(titles));
+        }
+    }
+
+    /**
+     * Lookups of orphan titles by show ID into a base index, built the first time a change
+     * needs them and shared by every version of the same base.
+     */
+    private static final class BaseLookup {
+        private static final IntList NO_TITLES = new IntList();
+
+        private final CatalogRecords records;
+        private Map<UUID, IntList> orphanTitles;
+
+        private BaseLookup(CatalogRecords records) {
+            this.records = records;
+        }
+
+        /**
+         * Finds a show by ID.
+         *
+         * @return the position of the show, or -1 if the base has no such show
+         */
+        private int showPosition(UUID showId) {
+            return records.showPosition(showId);
+        }
+
+        /**
+         * Finds the titles with the given show ID whose show is not in the base.
+         *
+         * @return the positions of the titles
+         */
+        private synchronized IntList orphanTitles(UUID showId) {
+            if (orphanTitles == null) {
+                orphanTitles = new HashMap<>();
+                for (int title = 0; title < records.titleCount(); title++) {
+                    if (records.showOfTitle(title) < 0) {
+                        orphanTitles.computeIfAbsent(records.titleShowId(title), k -> new IntList()).add(title);
+                    }
+                }
+            }
+            return orphanTitles.getOrDefault(showId, NO_TITLES);
+        }
+    }
+}
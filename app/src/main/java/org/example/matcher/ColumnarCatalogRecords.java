@@ -0,0 +1,340 @@
+package org.example.matcher;
+
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/**
+ * Catalog records kept on the heap in columns rather than as {@link Show} and {@link ShowTitle}
+ * objects.
+ * <p>
+ * Every attribute is an array indexed by position: show IDs as pairs of {@code long}s, years
+ * and episode numbers as {@code int}s with a null sentinel, types, languages and producers as
+ * codes into dictionaries of their distinct values, and titles as UTF-8 strings in a shared
+ * byte arena. A title refers to its show by position; the ID of its show is only stored for
+ * the few titles whose show is missing. A catalog thus costs a handful of arrays instead of
+ * several objects per record, and the indexes built over it read primitive columns. Objects
+ * are only created when they are asked for, typically when a match is reported.
+ */
+final class ColumnarCatalogRecords implements CatalogRecords {
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final int NULL_REF = -1;
+
+    private final int showCount;
+    private final long[] showIds;
+    private final UuidIndex showIndex;
+    private final int[] showYears;
+    private final CodeColumn showTypes;
+    private final int[] showTitleRefs;
+    private final int[] producerOffsets;
+    private final CodeColumn producers;
+    private final BitSet nullProducers;
+    private final int titleCount;
+    private final int[] showByTitle;
+    private final int[] orphanTitles;
+    private final long[] orphanShowIds;
+    private final CodeColumn languages;
+    private final int[] titleRefs;
+    private final int[] seasonNumbers;
+    private final int[] episodeNumbers;
+    private final int[] episodeNameRefs;
+    private final int[] titleOffsets;
+    private final int[] titlesByShow;
+    private final byte[] strings;
+
+    /**
+     * Stores the shows and titles in columns, resolves the show owning each title and groups
+     * the titles by show.
+     *
+     * @param shows      the catalog shows
+     * @param showTitles the catalog show titles
+     * @throws IllegalStateException if two shows have the same ID
+     */
+    ColumnarCatalogRecords(List<Show> shows, List<ShowTitle> showTitles) {
+        final StringArena arena = new StringArena();
+        this.showCount = shows.size();
+        this.showIds = new long[showCount * 2];
+        this.showYears = new int[showCount];
+        this.showTitleRefs = new int[showCount];
+        this.producerOffsets = new int[showCount + 1];
+        this.nullProducers = new BitSet();
+        final List<String> producerNames = new ArrayList<>();
+        for (int i = 0; i < showCount; i++) {
+            final Show show = shows.get(i);
+            showIds[2 * i] = show.getId().getMostSignificantBits();
+            showIds[2 * i + 1] = show.getId().getLeastSignificantBits();
+            showYears[i] = show.getProductionYear() == null ? NULL_INT : show.getProductionYear();
+            showTitleRefs[i] = arena.add(show.getOriginalTitle());
+            if (show.getProducers() == null) {
+                nullProducers.set(i);
+            } else {
+                producerNames.addAll(show.getProducers());
+            }
+            producerOffsets[i + 1] = producerNames.size();
+        }
+        this.showIndex = new UuidIndex(LongBuffer.wrap(showIds));
+        this.showTypes = new CodeColumn(showCount, show -> shows.get(show).getType());
+        this.producers = new CodeColumn(producerNames.size(), producerNames::get);
+
+        this.titleCount = showTitles.size();
+        this.showByTitle = new int[titleCount];
+        this.titleRefs = new int[titleCount];
+        this.episodeNameRefs = new int[titleCount];
+        final int[] seasons = new int[titleCount];
+        final int[] episodes = new int[titleCount];
+        boolean numbered = false;
+        final IntList orphans = new IntList();
+        this.titleOffsets = new int[showCount + 1];
+        for (int i = 0; i < titleCount; i++) {
+            final ShowTitle title = showTitles.get(i);
+            final int show = showIndex.find(title.getShowId());
+            showByTitle[i] = show;
+            if (show >= 0) {
+                titleOffsets[show + 1]++;
+            } else {
+                orphans.add(i);
+            }
+            titleRefs[i] = arena.add(title.getTitle());
+            episodeNameRefs[i] = arena.add(title.getEpisodeName());
+            seasons[i] = title.getSeasonNumber() == null ? NULL_INT : title.getSeasonNumber();
+            episodes[i] = title.getEpisodeNumber() == null ? NULL_INT : title.getEpisodeNumber();
+            numbered |= title.getSeasonNumber() != null || title.getEpisodeNumber() != null;
+        }
+        // Most catalogs have no episode titles, so the number columns are only kept when used
+        this.seasonNumbers = numbered ? seasons : null;
+        this.episodeNumbers = numbered ? episodes : null;
+        this.languages = new CodeColumn(titleCount, title -> showTitles.get(title).getLanguage());
+        this.strings = arena.toByteArray();
+
+        this.orphanTitles = orphans.toArray();
+        this.orphanShowIds = new long[orphanTitles.length * 2];
+        for (int i = 0; i < orphanTitles.length; i++) {
+            final UUID showId = showTitles.get(orphanTitles[i]).getShowId();
+            orphanShowIds[2 * i] = showId.getMostSignificantBits();
+            orphanShowIds[2 * i + 1] = showId.getLeastSignificantBits();
+        }
+
+        for (int i = 0; i < showCount; i++) {
+            titleOffsets[i + 1] += titleOffsets[i];
+        }
+        this.titlesByShow = new int[titleOffsets[showCount]];
+        final int[] next = titleOffsets.clone();
+        for (int i = 0; i < titleCount; i++) {
+            if (showByTitle[i] >= 0) {
+                titlesByShow[next[showByTitle[i]]++] = i;
+            }
+        }
+    }
+
+    @Override
+    public int showCount() {
+        return showCount;
+    }
+
+    @Override
+    public int titleCount() {
+        return titleCount;
+    }
+
+    @Override
+    public Show show(int show) {
+        return Show.builder()
+                .id(showId(show))
+                .originalTitle(originalTitle(show))
+                .producers(producers(show))
+                .productionYear(productionYear(show))
+                .type(type(show))
+                .build();
+    }
+
+    @Override
+    public ShowTitle showTitle(int title) {
+        return ShowTitle.builder()
+                .showId(titleShowId(title))
+                .language(languages.get(title))
+                .title(title(title))
+                .seasonNumber(seasonNumbers == null ? null : integer(seasonNumbers[title]))
+                .episodeNumber(episodeNumbers == null ? null : integer(episodeNumbers[title]))
+                .episodeName(string(episodeNameRefs[title]))
+                .build();
+    }
+
+    @Override
+    public UUID showId(int show) {
+        return new UUID(showIds[2 * show], showIds[2 * show + 1]);
+    }
+
+    @Override
+    public int showPosition(UUID showId) {
+        return showIndex.find(showId);
+    }
+
+    @Override
+    public String originalTitle(int show) {
+        return string(showTitleRefs[show]);
+    }
+
+    @Override
+    public List<String> producers(int show) {
+        if (nullProducers.get(show)) {
+            return null;
+        }
+        final String[] names = new String[producerOffsets[show + 1] - producerOffsets[show]];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = producers.get(producerOffsets[show] + i);
+        }
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    @Override
+    public Integer productionYear(int show) {
+        return integer(showYears[show]);
+    }
+
+    @Override
+    public String type(int show) {
+        return showTypes.get(show);
+    }
+
+    @Override
+    public String title(int title) {
+        return string(titleRefs[title]);
+    }
+
+    @Override
+    public UUID titleShowId(int title) {
+        final int show = showByTitle[title];
+        if (show >= 0) {
+            return showId(show);
+        }
+        final int orphan = Arrays.binarySearch(orphanTitles, title);
+        return new UUID(orphanShowIds[2 * orphan], orphanShowIds[2 * orphan + 1]);
+    }
+
+    @Override
+    public int showOfTitle(int title) {
+        return showByTitle[title];
+    }
+
+    @Override
+    public int titleCountOfShow(int show) {
+        return titleOffsets[show + 1] - titleOffsets[show];
+    }
+
+    @Override
+    public int titleOfShow(int show, int rank) {
+        return titlesByShow[titleOffsets[show] + rank];
+    }
+
+    private String string(int ref) {
+        if (ref == NULL_REF) {
+            return null;
+        }
+        // Strings are prefixed by their length, on 7 bits per byte
+        int length = 0;
+        int shift = 0;
+        int offset = ref;
+        byte b;
+        do {
+            b = strings[offset++];
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return new String(strings, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static Integer integer(int value) {
+        return value == NULL_INT ? null : value;
+    }
+
+    /**
+     * Arena of length-prefixed UTF-8 strings, referenced by byte offset.
+     */
+    private static final class StringArena {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        /**
+         * Appends a string to the arena.
+         *
+         * @return the reference of the string, or -1 for null
+         */
+        int add(String value) {
+            if (value == null) {
+                return NULL_REF;
+            }
+            final int ref = bytes.size();
+            final byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            int length = encoded.length;
+            while (length >= 0x80) {
+                bytes.write(length & 0x7F | 0x80);
+                length >>>= 7;
+            }
+            bytes.write(length);
+            bytes.writeBytes(encoded);
+            return ref;
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * Column of strings repeated across records, stored as codes into the array of their
+     * distinct values. Codes fit in a byte while there are fewer than 256 distinct values,
+     * which is the case of types and languages.
+     */
+    private static final class CodeColumn {
+        private final String[] values;
+        private final byte[] byteCodes;
+        private final int[] intCodes;
+
+        /**
+         * Encodes the values of a column.
+         *
+         * @param size  the number of values
+         * @param value the value at a position, possibly null
+         */
+        CodeColumn(int size, IntFunction<String> value) {
+            // Code 0 stands for null
+            final List<String> distinct = new ArrayList<>();
+            distinct.add(null);
+            final Map<String, Integer> codes = new HashMap<>();
+            final int[] column = new int[size];
+            for (int i = 0; i < size; i++) {
+                final String v = value.apply(i);
+                column[i] = v == null ? 0 : codes.computeIfAbsent(v, k -> {
+                    distinct.add(k);
+                    return distinct.size() - 1;
+                });
+            }
+            this.values = distinct.toArray(new String[0]);
+            if (values.length <= 256) {
+                this.byteCodes = new byte[size];
+                for (int i = 0; i < size; i++) {
+                    byteCodes[i] = (byte) column[i];
+                }
+                this.intCodes = null;
+            } else {
+                this.byteCodes = null;
+                this.intCodes = column;
+            }
+        }
+
+        String get(int position) {
+            return values[byteCodes != null ? Byte.toUnsignedInt(byteCodes[position]) : intCodes[position]];
+        }
+    }
+}
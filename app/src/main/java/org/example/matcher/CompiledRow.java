@@ -0,0 +1,103 @@
+package org.example.matcher;
+
+import org.example.model.CSVRow;
+import org.example.util.ProducerParser;
+import org.example.util.TitleNormalizer;
+
+import java.util.List;
+
+/**
+ * A CSV row prepared for matching.
+ * Titles are normalized and producers are parsed and resolved to dictionary IDs once,
+ * when the row is compiled, and every step of the matching pipeline reads them from here.
+ */
+final class CompiledRow {
+    private final CSVRow csvRow;
+    private final String originalKey;
+    private final String translatedKey;
+    private final boolean hasProducers;
+    private final int[] producerIds;
+
+    private CompiledRow(CSVRow csvRow, String originalKey, String translatedKey, boolean hasProducers, int[] producerIds) {
+        this.csvRow = csvRow;
+        this.originalKey = originalKey;
+        this.translatedKey = translatedKey;
+        this.hasProducers = hasProducers;
+        this.producerIds = producerIds;
+    }
+
+    /**
+     * Compiles a CSV row.
+     *
+     * @param csvRow             the CSV row
+     * @param producerDictionary the dictionary resolving producer names
+     * @return the compiled row
+     */
+    static CompiledRow compile(CSVRow csvRow, ProducerDictionary producerDictionary) {
+        final String originalKey = titleKey(csvRow.getOriginalTitle());
+        String translatedKey = titleKey(csvRow.getTranslatedTitle());
+        if (translatedKey != null && translatedKey.equals(originalKey)) {
+            translatedKey = null;
+        }
+
+        final List<String> producers = ProducerParser.parse(csvRow.getProducers());
+        return new CompiledRow(csvRow, originalKey, translatedKey, !producers.isEmpty(),
+                producerDictionary.resolve(producers));
+    }
+
+    CSVRow getCsvRow() {
+        return csvRow;
+    }
+
+    /**
+     * Returns the normalized original title.
+     *
+     * @return the normalized key, or null if the row has no original title
+     */
+    String getOriginalKey() {
+        return originalKey;
+    }
+
+    /**
+     * Returns the normalized translated title.
+     *
+     * @return the normalized key, or null if the row has no translated title
+     *         or if it normalizes to the original title
+     */
+    String getTranslatedKey() {
+        return translatedKey;
+    }
+
+    /**
+     * Checks if the row lists any producer, known to the catalog or not.
+     *
+     * @return true if the row has producers, false otherwise
+     */
+    boolean hasProducers() {
+        return hasProducers;
+    }
+
+    /**
+     * Returns the sorted IDs of the row producers known to the catalog.
+     *
+     * @return the producer IDs
+     */
+    int[] getProducerIds() {
+        return producerIds;
+    }
+
+    Integer getProductionYear() {
+        return csvRow.getProductionYear();
+    }
+
+    String getType() {
+        return csvRow.getType();
+    }
+
+    private static String titleKey(String title) {
+        if (title == null || title.isBlank()) {
+            return null;
+        }
+        return TitleNormalizer.normalize(title);
+    }
+}
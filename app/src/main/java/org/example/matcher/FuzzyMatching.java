@@ -0,0 +1,124 @@
+package org.example.matcher;
+
+import org.example.util.EditDistance;
+
+/**
+ * Settings of the fuzzy title matching of a matcher, enabled with
+ * {@link ShowMatcher#setFuzzyMatching(FuzzyMatching)}.
+ * <p>
+ * With fuzzy matching, a title of a CSV row also matches the catalog titles and original
+ * titles whose normalized key is within an edit distance of its own, such as "Braking Bad"
+ * and "Breaking Bad". Only keys of at least {@link #getMinKeyLength()} characters are
+ * matched this way, on both sides: one edit on a short key matches too many unrelated titles.
+ */
+public final class FuzzyMatching {
+    private static final int MAX_DISTANCE = 3;
+    private static final int DEFAULT_MIN_KEY_LENGTH = 5;
+
+    private final int maxDistance;
+    private final boolean transpositions;
+    private final int minKeyLength;
+
+    private FuzzyMatching(int maxDistance, boolean transpositions, int minKeyLength) {
+        this.maxDistance = maxDistance;
+        this.transpositions = transpositions;
+        this.minKeyLength = minKeyLength;
+    }
+
+    /**
+     * Returns the highest edit distance between two keys that still match.
+     *
+     * @return the distance, from 1 to 3
+     */
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Checks if swapping two adjacent characters counts as one edit (Damerau-Levenshtein
+     * distance) rather than two (Levenshtein distance).
+     *
+     * @return true for the Damerau-Levenshtein distance, false for the Levenshtein distance
+     */
+    public boolean isTranspositions() {
+        return transpositions;
+    }
+
+    /**
+     * Returns the length from which keys are matched fuzzily.
+     *
+     * @return the minimum key length
+     */
+    public int getMinKeyLength() {
+        return minKeyLength;
+    }
+
+    /**
+     * Checks if two keys are within the edit distance.
+     *
+     * @param left  the first key
+     * @param right the second key
+     * @return true if the keys match, false otherwise
+     */
+    boolean isWithinDistance(String left, String right) {
+        final int distance = transpositions
+                ? EditDistance.damerauLevenshtein(left, right, maxDistance)
+                : EditDistance.levenshtein(left, right, maxDistance);
+        return distance >= 0;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int maxDistance = 1;
+        private boolean transpositions = true;
+        private int minKeyLength = DEFAULT_MIN_KEY_LENGTH;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the highest edit distance between two keys that still match. Higher distances
+         * split keys in more, shorter segments of the index, so lookups check more candidates.
+         */
+        public Builder maxDistance(int maxDistance) {
+            this.maxDistance = maxDistance;
+            return this;
+        }
+
+        /**
+         * Sets whether swapping two adjacent characters counts as one edit.
+         */
+        public Builder transpositions(boolean transpositions) {
+            this.transpositions = transpositions;
+            return this;
+        }
+
+        /**
+         * Sets the length from which keys are matched fuzzily.
+         */
+        public Builder minKeyLength(int minKeyLength) {
+            this.minKeyLength = minKeyLength;
+            return this;
+        }
+
+        /**
+         * Builds the settings.
+         *
+         * @return the settings
+         * @throws IllegalStateException if the distance is not between 1 and 3, or if the
+         *                               minimum key length is not above the distance
+         */
+        public FuzzyMatching build() {
+            if (maxDistance < 1 || maxDistance > MAX_DISTANCE) {
+                throw new IllegalStateException("maxDistance must be between 1 and " + MAX_DISTANCE);
+            }
+            if (minKeyLength <= maxDistance) {
+                throw new IllegalStateException("minKeyLength must be greater than maxDistance");
+            }
+            return new FuzzyMatching(maxDistance, transpositions, minKeyLength);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.matcher;
+
+/**
+ * Partition index finding the catalog keys within an edit distance of a key, in the manner
+ * of Pass-Join.
+ * <p>
+ * Every distinct key of the catalog is split in {@code d + 1} segments of near-equal length.
+ * An edit changes at most one segment, so a key within {@code d} edits of an indexed key
+ * still contains one of its segments unchanged, moved by at most {@code d} positions. The
+ * index maps every segment, with its rank and the length of its key, to the keys it was
+ * taken from. A lookup probes the substrings of the looked up key that could be one of
+ * these segments, for every compatible key length, and only checks the actual distance of
+ * the few keys found this way.
+ * <p>
+ * When swapping two adjacent characters counts as one edit, a swap across the boundary of
+ * two segments changes both. Each of them is then still found in the looked up key with one
+ * foreign character inserted after its first character or before its last one, and at
+ * least one segment has no other change, so lookups also probe the substrings with such a
+ * gap.
+ * <p>
+ * The index holds one entry per segment in a {@link KeyHashTable}. A hash collision only
+ * adds a candidate, which the distance check then rejects.
+ */
+final class FuzzyTitleIndex {
+    private static final int NO_GAP = -1;
+
+    private final int maxDistance;
+    private final int minKeyLength;
+    private final int segmentCount;
+    private final IndexedKeys keys;
+    private final KeyHashTable segments;
+
+    private FuzzyTitleIndex(FuzzyMatching fuzzy, IndexedKeys keys, KeyHashTable segments) {
+        this.maxDistance = fuzzy.getMaxDistance();
+        this.minKeyLength = fuzzy.getMinKeyLength();
+        this.segmentCount = fuzzy.getMaxDistance() + 1;
+        this.keys = keys;
+        this.segments = segments;
+    }
+
+    /**
+     * Builds the index of the keys of a catalog.
+     *
+     * @param showKeys  the normalized original title of every show
+     * @param titleKeys the normalized title of every show title
+     * @param fuzzy     the fuzzy matching settings
+     * @return the index
+     */
+    static FuzzyTitleIndex build(String[] showKeys, String[] titleKeys, FuzzyMatching fuzzy) {
+        final IndexedKeys keys = IndexedKeys.of(showKeys, titleKeys, fuzzy.getMinKeyLength());
+        final int segmentCount = fuzzy.getMaxDistance() + 1;
+        if (keys.size() >= KeyHashTable.MAX_KEYS || (long) keys.size() * segmentCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many distinct title keys for the fuzzy index: " + keys.size());
+        }
+
+        // Pack every segment of every key with the key ID
+        final long[] entries = new long[keys.size() * segmentCount];
+        int entry = 0;
+        for (int id = 0; id < keys.size(); id++) {
+            final String key = keys.key(id);
+            for (int segment = 0; segment < segmentCount; segment++) {
+                final int start = segmentStart(key.length(), segmentCount, segment);
+                final int end = segmentStart(key.length(), segmentCount, segment + 1);
+                entries[entry++] = KeyHashTable.entry(segmentHash(key, start, end, NO_GAP, key.length(), segment), id);
+            }
+        }
+
+        return new FuzzyTitleIndex(fuzzy, keys, KeyHashTable.of(entries));
+    }
+
+    /**
+     * Checks if this index can serve lookups with the given settings.
+     *
+     * @param fuzzy the fuzzy matching settings
+     * @return true if the index was built for the same distance and minimum key length
+     */
+    boolean supports(FuzzyMatching fuzzy) {
+        return maxDistance == fuzzy.getMaxDistance() && minKeyLength == fuzzy.getMinKeyLength();
+    }
+
+    /**
+     * Finds the shows and titles whose key is within the edit distance of a key.
+     *
+     * @param key          the normalized key, of at least the minimum key length
+     * @param fuzzy        the fuzzy matching settings the index was built for
+     * @param showResults  the candidates receiving the shows whose original title matches
+     * @param titleResults the list receiving the titles that match
+     */
+    void collect(String key, FuzzyMatching fuzzy, ShowCandidates showResults, IntList titleResults) {
+        final IntList candidates = new IntList();
+
+        // Keys within the distance are at most that many characters longer or shorter
+        for (int length = Math.max(minKeyLength, key.length() - maxDistance);
+                length <= key.length() + maxDistance; length++) {
+            for (int segment = 0; segment < segmentCount; segment++) {
+                final int start = segmentStart(length, segmentCount, segment);
+                final int segmentLength = segmentStart(length, segmentCount, segment + 1) - start;
+
+                // The segment moved by at most one position per insertion or deletion
+                final int from = Math.max(0, start - maxDistance);
+                final int to = Math.min(key.length() - segmentLength, start + maxDistance);
+                for (int position = from; position <= to; position++) {
+                    segments.probe(segmentHash(key, position, position + segmentLength, NO_GAP, length, segment), candidates);
+                }
+
+                // A swap across a boundary moves the first or last character of the segment by one
+                if (fuzzy.isTranspositions() && segmentLength > 1) {
+                    final int gappedFrom = Math.max(0, start - maxDistance - 1);
+                    final int gappedTo = Math.min(key.length() - segmentLength - 1, start + maxDistance);
+                    for (int position = gappedFrom; position <= gappedTo; position++) {
+                        final int end = position + segmentLength + 1;
+                        segments.probe(segmentHash(key, position, end, position + 1, length, segment), candidates);
+                        segments.probe(segmentHash(key, position, end, end - 2, length, segment), candidates);
+                    }
+                }
+            }
+        }
+
+        candidates.sortDistinct();
+        for (int i = 0; i < candidates.size(); i++) {
+            final int id = candidates.get(i);
+            if (fuzzy.isWithinDistance(key, keys.key(id))) {
+                keys.addPositions(id, showResults, titleResults);
+            }
+        }
+    }
+
+    /**
+     * Returns the start of a segment of a key, the last segments being one character longer
+     * when the length is not a multiple of the segment count.
+     *
+     * @param keyLength    the length of the key
+     * @param segmentCount the number of segments
+     * @param segment      the rank of the segment, or the segment count for the end of the key
+     * @return the position of the first character of the segment
+     */
+    private static int segmentStart(int keyLength, int segmentCount, int segment) {
+        final int shortLength = keyLength / segmentCount;
+        final int shortSegments = segmentCount - keyLength % segmentCount;
+        return segment <= shortSegments
+                ? segment * shortLength
+                : shortSegments * shortLength + (segment - shortSegments) * (shortLength + 1);
+    }
+
+    /**
+     * Hashes a segment with its rank and the length of its key, for the table of segments.
+     *
+     * @param key       the key holding the segment
+     * @param start     the position of the first character of the segment
+     * @param end       the position after the last character of the segment
+     * @param gap       the position of a character to skip, or {@link #NO_GAP}
+     * @param keyLength the length of the indexed key
+     * @param segment   the rank of the segment
+     * @return the hash
+     */
+    private static long segmentHash(String key, int start, int end, int gap, int keyLength, int segment) {
+        long hash = 0xCBF29CE484222325L ^ ((long) keyLength << 8 | segment);
+        for (int i = start; i < end; i++) {
+            if (i != gap) {
+                hash = (hash ^ key.charAt(i)) * 0x100000001B3L;
+            }
+        }
+        return KeyHashTable.reduce(hash);
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.matcher;
+
+import java.io.IOException;
+import java.nio.LongBuffer;
+
+/**
+ * Bit sets of the character n-grams of the titles of a {@link TitleBlockIndex} partition,
+ * telling cheaply that no title of a partition contains a key.
+ * <p>
+ * A title containing a key contains every n-gram of the key, so a partition is skipped when
+ * an n-gram of the key is missing from its titles. Titles are made of a small vocabulary, so
+ * most trigrams are found in every partition; n-grams of {@link #LONG_GRAM} characters span
+ * word pairs and tell partitions apart much better, while trigrams still serve keys shorter
+ * than that. N-grams are hashed into the bit sets, so a filter can only answer "maybe": the
+ * partition indexes still decide. Rows without a year walk the partitions of every year, and
+ * most of them are skipped this way.
+ */
+final class GramFilter {
+    private static final int SHORT_GRAM = CatalogKeys.MIN_SUBSTRING_KEY_LENGTH;
+    private static final int LONG_GRAM = 6;
+    private static final int MIN_BITS = 1 << 10;
+    private static final int MAX_BITS = 1 << 24;
+
+    private final LongBuffer shortGrams;
+    private final LongBuffer longGrams;
+
+    /**
+     * Records the n-grams of a subset of the normalized catalog titles.
+     *
+     * @param titleKeys the normalized key of every catalog title
+     * @param titles    the positions of the titles, whose keys are long enough for substring matching
+     */
+    GramFilter(String[] titleKeys, int[] titles) {
+        long gramCount = 0;
+        for (final int title : titles) {
+            gramCount += titleKeys[title].length();
+        }
+        // About eight bits per n-gram, so that few n-grams share a bit
+        final long[] shortGrams = new long[bitsFor(gramCount) >>> 6];
+        final long[] longGrams = new long[bitsFor(gramCount) >>> 6];
+        for (final int title : titles) {
+            final String key = titleKeys[title];
+            for (int i = 0; i + SHORT_GRAM <= key.length(); i++) {
+                set(shortGrams, hash(key, i, SHORT_GRAM));
+            }
+            for (int i = 0; i + LONG_GRAM <= key.length(); i++) {
+                set(longGrams, hash(key, i, LONG_GRAM));
+            }
+        }
+        this.shortGrams = LongBuffer.wrap(shortGrams);
+        this.longGrams = LongBuffer.wrap(longGrams);
+    }
+
+    private GramFilter(LongBuffer shortGrams, LongBuffer longGrams) {
+        this.shortGrams = shortGrams;
+        this.longGrams = longGrams;
+    }
+
+    /**
+     * Maps a filter written by {@link #write(SnapshotOutput)}.
+     *
+     * @param in the snapshot input
+     * @return the filter
+     * @throws IOException if the snapshot cannot be read
+     */
+    static GramFilter read(SnapshotInput in) throws IOException {
+        return new GramFilter(in.readLongs(), in.readLongs());
+    }
+
+    /**
+     * Writes the filter to a snapshot.
+     *
+     * @param out the snapshot output
+     * @throws IOException if the snapshot cannot be written
+     */
+    void write(SnapshotOutput out) throws IOException {
+        out.writeLongs(shortGrams);
+        out.writeLongs(longGrams);
+    }
+
+    /**
+     * Hashes the n-grams of a key once, before the filters of the partitions are checked.
+     *
+     * @param key the normalized key, long enough for substring matching
+     * @return the n-grams of the key
+     */
+    static Grams grams(String key) {
+        final int[] shortGrams = new int[key.length() - SHORT_GRAM + 1];
+        for (int i = 0; i < shortGrams.length; i++) {
+            shortGrams[i] = hash(key, i, SHORT_GRAM);
+        }
+        final int[] longGrams = new int[Math.max(0, key.length() - LONG_GRAM + 1)];
+        for (int i = 0; i < longGrams.length; i++) {
+            longGrams[i] = hash(key, i, LONG_GRAM);
+        }
+        return new Grams(shortGrams, longGrams);
+    }
+
+    /**
+     * Checks if some title may contain a key.
+     *
+     * @param grams the n-grams of the key
+     * @return false if no title contains the key, true if one may
+     */
+    boolean mayContain(Grams grams) {
+        // Long n-grams are more selective, and every key long enough has some
+        final boolean useLong = grams.longGrams.length > 0;
+        final int[] hashes = useLong ? grams.longGrams : grams.shortGrams;
+        final LongBuffer bits = useLong ? longGrams : shortGrams;
+        for (final int hash : hashes) {
+            if (!isSet(bits, hash)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int bitsFor(long count) {
+        return (int) Math.min(MAX_BITS, Math.max(MIN_BITS, Long.highestOneBit(Math.max(1, count) * 8) << 1));
+    }
+
+    private static int hash(String key, int from, int length) {
+        int hash = length;
+        for (int i = from; i < from + length; i++) {
+            hash = hash * 31 + key.charAt(i);
+        }
+        return hash * 0x9E3779B9;
+    }
+
+    private static void set(long[] bits, int hash) {
+        final int bit = hash >>> (Integer.SIZE - Integer.numberOfTrailingZeros(bits.length << 6));
+        bits[bit >>> 6] |= 1L << bit;
+    }
+
+    private static boolean isSet(LongBuffer bits, int hash) {
+        final int bit = hash >>> (Integer.SIZE - Integer.numberOfTrailingZeros(bits.limit() << 6));
+        return (bits.get(bit >>> 6) & 1L << bit) != 0;
+    }
+
+    /**
+     * Hashed n-grams of a key, see {@link #grams(String)}.
+     */
+    record Grams(int[] shortGrams, int[] longGrams) {
+    }
+}
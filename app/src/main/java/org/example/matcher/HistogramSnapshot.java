@@ -0,0 +1,80 @@
+package org.example.matcher;
+
+/**
+ * Copy of the values recorded by a histogram of {@link MatchMetrics}.
+ * <p>
+ * Values are kept in buckets of logarithmic width, so percentiles are the highest value of
+ * the bucket they fall in, and overestimate the exact value by at most 12.5%.
+ */
+public final class HistogramSnapshot {
+    private final long[] buckets;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(long[] buckets, long count, long sum, long max) {
+        this.buckets = buckets;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean of the values recorded.
+     *
+     * @return the exact mean, or 0 if no value was recorded
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the highest value recorded.
+     *
+     * @return the exact maximum, or 0 if no value was recorded
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the value below which a percentage of the values fall.
+     *
+     * @param percentile the percentage, between 0 and 100
+     * @return the value at the percentile, or 0 if no value was recorded
+     * @throws IllegalArgumentException if the percentile is not between 0 and 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+        }
+        // Buckets are read one by one while values are merged, so their total may not be the count
+        final long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= target) {
+                return Math.min(LogHistogram.highestValueOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count
+                + ", mean=" + Math.round(getMean())
+                + ", p50=" + getValueAtPercentile(50)
+                + ", p99=" + getValueAtPercentile(99)
+                + ", max=" + max;
+    }
+}
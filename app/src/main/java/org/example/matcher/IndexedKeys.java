@@ -0,0 +1,112 @@
+package org.example.matcher;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Distinct catalog keys of an approximate title index, each with the shows whose original
+ * title and the titles that normalize to it.
+ * <p>
+ * Every distinct key long enough is given a dense ID, and the positions of every key are
+ * stored in compressed sparse rows, indexed by key ID, so that an index only stores IDs.
+ */
+final class IndexedKeys {
+    private final String[] keys;
+    private final Postings shows;
+    private final Postings titles;
+
+    private IndexedKeys(String[] keys, Postings shows, Postings titles) {
+        this.keys = keys;
+        this.shows = shows;
+        this.titles = titles;
+    }
+
+    /**
+     * Collects the distinct keys of a catalog.
+     *
+     * @param showKeys     the normalized original title of every show
+     * @param titleKeys    the normalized title of every show title
+     * @param minKeyLength the length below which keys are left out
+     * @return the keys
+     */
+    static IndexedKeys of(String[] showKeys, String[] titleKeys, int minKeyLength) {
+        final Map<String, Integer> keyIds = new HashMap<>();
+        for (final String[] positionKeys : new String[][] {showKeys, titleKeys}) {
+            for (final String key : positionKeys) {
+                if (key.length() >= minKeyLength) {
+                    keyIds.putIfAbsent(key, keyIds.size());
+                }
+            }
+        }
+        final String[] keys = new String[keyIds.size()];
+        keyIds.forEach((key, id) -> keys[id] = key);
+        return new IndexedKeys(keys, Postings.of(showKeys, keyIds), Postings.of(titleKeys, keyIds));
+    }
+
+    /**
+     * Returns the number of distinct keys.
+     *
+     * @return the key count
+     */
+    int size() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the key with the given ID.
+     *
+     * @param id the key ID
+     * @return the key
+     */
+    String key(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Adds the shows and titles of a key to the results, in catalog order.
+     *
+     * @param id           the key ID
+     * @param showResults  the candidates receiving the shows whose original title is the key
+     * @param titleResults the list receiving the titles that normalize to the key
+     */
+    void addPositions(int id, ShowCandidates showResults, IntList titleResults) {
+        for (int j = shows.offsets[id]; j < shows.offsets[id + 1]; j++) {
+            showResults.add(shows.positions[j]);
+        }
+        for (int j = titles.offsets[id]; j < titles.offsets[id + 1]; j++) {
+            titleResults.add(titles.positions[j]);
+        }
+    }
+
+    /**
+     * Positions of the shows or titles of every key, indexed by key ID.
+     */
+    private record Postings(int[] offsets, int[] positions) {
+
+        static Postings of(String[] positionKeys, Map<String, Integer> keyIds) {
+            final int[] offsets = new int[keyIds.size() + 1];
+            final int[] ids = new int[positionKeys.length];
+            for (int i = 0; i < positionKeys.length; i++) {
+                final Integer id = keyIds.get(positionKeys[i]);
+                ids[i] = id == null ? -1 : id;
+                if (id != null) {
+                    offsets[id + 1]++;
+                }
+            }
+            for (int i = 0; i < keyIds.size(); i++) {
+                offsets[i + 1] += offsets[i];
+            }
+
+            // Positions are added in increasing order, so every key keeps catalog order
+            final int[] next = Arrays.copyOf(offsets, keyIds.size());
+            final int[] positions = new int[offsets[keyIds.size()]];
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] >= 0) {
+                    positions[next[ids[i]]++] = i;
+                }
+            }
+            return new Postings(offsets, positions);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.matcher;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, used to collect catalog positions without boxing.
+ * Unlike a {@link java.util.BitSet}, its size follows the number of values added rather
+ * than the largest value, which matters when a few hits sit at the end of a large catalog.
+ */
+final class IntList {
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(16);
+    }
+
+    IntList(int capacity) {
+        this.values = new int[Math.max(1, capacity)];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    void set(int index, int value) {
+        values[index] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Keeps the values before an index and drops the others.
+     *
+     * @param size the number of values to keep
+     */
+    void truncate(int size) {
+        this.size = Math.min(this.size, size);
+    }
+
+    /**
+     * Sorts the values in increasing order and removes duplicates.
+     */
+    void sortDistinct() {
+        Arrays.sort(values, 0, size);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (count == 0 || values[i] != values[count - 1]) {
+                values[count++] = values[i];
+            }
+        }
+        size = count;
+    }
+
+    /**
+     * Copies the values to an array.
+     *
+     * @param target the array receiving the values
+     * @param offset the index in the array of the first value
+     */
+    void copyTo(int[] target, int offset) {
+        System.arraycopy(values, 0, target, offset, size);
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
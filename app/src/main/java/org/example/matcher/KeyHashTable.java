@@ -0,0 +1,91 @@
+package org.example.matcher;
+
+import java.util.Arrays;
+
+/**
+ * Multimap from hashes to key IDs, stored as a single sorted {@code long} array.
+ * <p>
+ * Every entry packs a {@link #HASH_BITS}-bit hash with a key ID of {@link #KEY_BITS} bits,
+ * and a directory of the array by the high bits of the hash leads to the entries of a hash,
+ * so a probe reads one or two cache lines whatever the size of the catalog. Hashes collide,
+ * so the keys found by a probe are candidates that the caller still has to check.
+ */
+final class KeyHashTable {
+    static final int KEY_BITS = 28;
+    static final int HASH_BITS = Long.SIZE - 1 - KEY_BITS;
+    static final int MAX_KEYS = 1 << KEY_BITS;
+    private static final long KEY_MASK = (1L << KEY_BITS) - 1;
+
+    private final long[] entries;
+    private final int directoryBits;
+    private final int[] directory;
+
+    private KeyHashTable(long[] entries) {
+        this.entries = entries;
+
+        // Direct the high bits of every hash to the first entry with these bits, about one entry per slot
+        this.directoryBits = Math.min(HASH_BITS, Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(entries.length)));
+        this.directory = new int[(1 << directoryBits) + 1];
+        for (final long entry : entries) {
+            directory[slotOf(entry >>> KEY_BITS) + 1]++;
+        }
+        for (int slot = 0; slot < 1 << directoryBits; slot++) {
+            directory[slot + 1] += directory[slot];
+        }
+    }
+
+    /**
+     * Builds the table from its entries, sorting them in place.
+     *
+     * @param entries the entries, created by {@link #entry(long, int)}
+     * @return the table
+     */
+    static KeyHashTable of(long[] entries) {
+        Arrays.parallelSort(entries);
+        return new KeyHashTable(entries);
+    }
+
+    /**
+     * Packs a hash with a key ID. Entries stay positive, so they sort by hash.
+     *
+     * @param hash the hash, on {@link #HASH_BITS} bits
+     * @param id   the key ID, below {@link #MAX_KEYS}
+     * @return the entry
+     */
+    static long entry(long hash, int id) {
+        return hash << KEY_BITS | id;
+    }
+
+    /**
+     * Reduces a 64-bit hash to the bits kept by the table, after mixing them so that the
+     * kept bits depend on every input bit.
+     *
+     * @param hash the 64-bit hash
+     * @return the hash on {@link #HASH_BITS} bits
+     */
+    static long reduce(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash >>> (Long.SIZE - HASH_BITS);
+    }
+
+    /**
+     * Adds the IDs of the keys stored with the given hash to the candidates.
+     *
+     * @param hash       the hash, on {@link #HASH_BITS} bits
+     * @param candidates the list receiving the key IDs
+     */
+    void probe(long hash, IntList candidates) {
+        final int slot = slotOf(hash);
+        for (int i = directory[slot]; i < directory[slot + 1]; i++) {
+            if (entries[i] >>> KEY_BITS == hash) {
+                candidates.add((int) (entries[i] & KEY_MASK));
+            }
+        }
+    }
+
+    private int slotOf(long hash) {
+        return (int) (hash >>> (HASH_BITS - directoryBits));
+    }
+}
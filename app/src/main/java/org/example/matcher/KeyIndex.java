@@ -0,0 +1,130 @@
+package org.example.matcher;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.List;
+
+/**
+ * Lookup of key positions by key, over the keys concatenated in a single char array.
+ * <p>
+ * The table is open-addressed and only holds positions, like {@link UuidIndex}, but it is
+ * written to snapshots with the keys: a mapped snapshot probes its table in place, so
+ * opening it neither decodes the keys nor rebuilds the table.
+ */
+final class KeyIndex {
+    private final CharBuffer keys;
+    private final IntBuffer keyOffsets;
+    private final IntBuffer slots;
+    private final int mask;
+
+    /**
+     * Indexes distinct keys.
+     *
+     * @param keys the keys; the position of a key is its index in the list
+     * @throws IllegalStateException if a key is listed twice
+     */
+    KeyIndex(List<String> keys) {
+        final int[] offsets = new int[keys.size() + 1];
+        final StringBuilder chars = new StringBuilder();
+        for (int position = 0; position < keys.size(); position++) {
+            chars.append(keys.get(position));
+            offsets[position + 1] = chars.length();
+        }
+        this.keys = CharBuffer.wrap(chars.toString().toCharArray());
+        this.keyOffsets = IntBuffer.wrap(offsets);
+
+        // Keep the table at most half full, so that probes stay short
+        final int capacity = Integer.highestOneBit(Math.max(2, keys.size()) * 2 - 1) << 1;
+        final int[] table = new int[capacity];
+        this.slots = IntBuffer.wrap(table);
+        this.mask = capacity - 1;
+        for (int position = 0; position < keys.size(); position++) {
+            final String key = keys.get(position);
+            int slot = slotOf(key);
+            while (table[slot] != 0) {
+                if (matches(table[slot] - 1, key)) {
+                    throw new IllegalStateException("Duplicate key " + key);
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = position + 1;
+        }
+    }
+
+    private KeyIndex(CharBuffer keys, IntBuffer keyOffsets, IntBuffer slots) {
+        this.keys = keys;
+        this.keyOffsets = keyOffsets;
+        this.slots = slots;
+        this.mask = slots.limit() - 1;
+    }
+
+    /**
+     * Maps an index written by {@link #write(SnapshotOutput)}.
+     *
+     * @param in the snapshot input
+     * @return the index
+     * @throws IOException if the snapshot cannot be read
+     */
+    static KeyIndex read(SnapshotInput in) throws IOException {
+        return new KeyIndex(in.readChars(), in.readInts(), in.readInts());
+    }
+
+    /**
+     * Writes the keys and the table to a snapshot.
+     *
+     * @param out the snapshot output
+     * @throws IOException if the snapshot cannot be written
+     */
+    void write(SnapshotOutput out) throws IOException {
+        out.writeChars(keys);
+        out.writeInts(keyOffsets);
+        out.writeInts(slots);
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return the number of keys
+     */
+    int size() {
+        return keyOffsets.limit() - 1;
+    }
+
+    /**
+     * Finds the position of a key.
+     *
+     * @param key the key
+     * @return the position, or -1 if the index does not hold the key
+     */
+    int find(String key) {
+        for (int slot = slotOf(key); slots.get(slot) != 0; slot = (slot + 1) & mask) {
+            if (matches(slots.get(slot) - 1, key)) {
+                return slots.get(slot) - 1;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(int position, String key) {
+        final int start = keyOffsets.get(position);
+        if (keyOffsets.get(position + 1) - start != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (keys.get(start + i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes a key from {@link String#hashCode}, which is specified, so that a table
+     * written by one JVM is probed the same way by another.
+     */
+    private int slotOf(String key) {
+        final int hash = key.hashCode() * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & mask;
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.matcher;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values, with buckets of logarithmic width.
+ * <p>
+ * Like an HDR histogram, values below 8 have a bucket each, and every power of two above is
+ * split in 8 buckets of equal width, so a value is known within 12.5% whatever its
+ * magnitude, with 488 buckets covering every {@code long}. Workers record values in a
+ * {@link Recorder} of their own, without any synchronization, and merge it into the shared
+ * histogram from time to time.
+ */
+final class LogHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int BUCKET_COUNT = (Long.SIZE - 1 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Returns the bucket of a value.
+     *
+     * @param value the value, negative values being recorded as 0
+     * @return the index of the bucket
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) Math.max(value, 0);
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Returns the highest value of a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the highest value recorded in the bucket
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        final int shift = bucket / SUB_BUCKET_COUNT - 1;
+        final long lowest = (long) (SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Adds the values of a recorder to this histogram, and resets the recorder.
+     *
+     * @param recorder the recorder to merge
+     */
+    void merge(Recorder recorder) {
+        if (recorder.count == 0) {
+            return;
+        }
+        // Only the buckets between the lowest and highest values recorded can be set
+        for (int i = recorder.lowestBucket; i <= recorder.highestBucket; i++) {
+            if (recorder.buckets[i] != 0) {
+                buckets.addAndGet(i, recorder.buckets[i]);
+                recorder.buckets[i] = 0;
+            }
+        }
+        count.addAndGet(recorder.count);
+        sum.addAndGet(recorder.sum);
+        max.accumulateAndGet(recorder.max, Math::max);
+        recorder.count = 0;
+        recorder.sum = 0;
+        recorder.max = 0;
+        recorder.lowestBucket = BUCKET_COUNT;
+        recorder.highestBucket = -1;
+    }
+
+    /**
+     * Copies the values recorded so far. Values merged while the copy is made may be
+     * partly included.
+     *
+     * @return the snapshot
+     */
+    HistogramSnapshot snapshot() {
+        final long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = buckets.get(i);
+        }
+        return new HistogramSnapshot(copy, count.get(), sum.get(), max.get());
+    }
+
+    /**
+     * Values recorded by a single thread, waiting to be merged.
+     */
+    static final class Recorder {
+        private final long[] buckets = new long[BUCKET_COUNT];
+        private long count;
+        private long sum;
+        private long max;
+        private int lowestBucket = BUCKET_COUNT;
+        private int highestBucket = -1;
+
+        void record(long value) {
+            final int bucket = bucketOf(value);
+            buckets[bucket]++;
+            lowestBucket = Math.min(lowestBucket, bucket);
+            highestBucket = Math.max(highestBucket, bucket);
+            count++;
+            sum += value;
+            max = Math.max(max, value);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package org.example.matcher;
+
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Catalog records read from a memory-mapped snapshot.
+ * <p>
+ * Records are stored column by column: one array per attribute, indexed by position,
+ * with strings kept as references into a shared UTF-8 heap. Nothing is decoded when the
+ * snapshot is opened; {@link Show} and {@link ShowTitle} objects are only created when
+ * they are asked for, typically when a match is reported.
+ */
+final class MappedCatalogRecords implements CatalogRecords {
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final int NULL_REF = -1;
+
+    private final String[] types;
+    private final int showCount;
+    private final LongBuffer showIds;
+    private final IntBuffer showYears;
+    private final IntBuffer showTypes;
+    private final IntBuffer showTitleRefs;
+    private final IntBuffer producerOffsets;
+    private final IntBuffer producerRefs;
+    private final int titleCount;
+    private final LongBuffer titleShowIds;
+    private final IntBuffer showByTitle;
+    private final IntBuffer languageRefs;
+    private final IntBuffer titleRefs;
+    private final IntBuffer seasonNumbers;
+    private final IntBuffer episodeNumbers;
+    private final IntBuffer episodeNameRefs;
+    private final IntBuffer titleOffsets;
+    private final IntBuffer titlesByShow;
+    private final ByteBuffer strings;
+    private volatile UuidIndex showIndex;
+
+    private MappedCatalogRecords(SnapshotInput in) throws IOException {
+        this.types = new String[in.readInt()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = in.readString();
+        }
+
+        this.showCount = in.readInt();
+        this.showIds = in.readLongs();
+        this.showYears = in.readInts();
+        this.showTypes = in.readInts();
+        this.showTitleRefs = in.readInts();
+        this.producerOffsets = in.readInts();
+        this.producerRefs = in.readInts();
+
+        this.titleCount = in.readInt();
+        this.titleShowIds = in.readLongs();
+        this.showByTitle = in.readInts();
+        this.languageRefs = in.readInts();
+        this.titleRefs = in.readInts();
+        this.seasonNumbers = in.readInts();
+        this.episodeNumbers = in.readInts();
+        this.episodeNameRefs = in.readInts();
+        this.titleOffsets = in.readInts();
+        this.titlesByShow = in.readInts();
+
+        this.strings = in.readByteArray();
+    }
+
+    /**
+     * Maps the records written by {@link #write(CatalogRecords, SnapshotOutput)}.
+     *
+     * @param in the snapshot input
+     * @return the mapped records
+     * @throws IOException if the snapshot cannot be read
+     */
+    static MappedCatalogRecords read(SnapshotInput in) throws IOException {
+        return new MappedCatalogRecords(in);
+    }
+
+    /**
+     * Writes the records of a catalog in the column layout read by this class.
+     *
+     * @param records the records to write
+     * @param out     the snapshot output
+     * @throws IOException if the snapshot cannot be written
+     */
+    static void write(CatalogRecords records, SnapshotOutput out) throws IOException {
+        final StringHeap heap = new StringHeap();
+        final int showCount = records.showCount();
+        final int titleCount = records.titleCount();
+
+        final List<String> typeNames = new ArrayList<>();
+        final Map<String, Integer> typeCodes = new HashMap<>();
+        final long[] showIds = new long[showCount * 2];
+        final int[] showYears = new int[showCount];
+        final int[] showTypes = new int[showCount];
+        final int[] showTitleRefs = new int[showCount];
+        final int[] producerOffsets = new int[showCount + 1];
+        final IntList producerRefs = new IntList();
+        for (int i = 0; i < showCount; i++) {
+            final Show show = records.show(i);
+            showIds[2 * i] = show.getId().getMostSignificantBits();
+            showIds[2 * i + 1] = show.getId().getLeastSignificantBits();
+            showYears[i] = show.getProductionYear() == null ? NULL_INT : show.getProductionYear();
+            showTypes[i] = show.getType() == null ? NULL_REF : typeCodes.computeIfAbsent(show.getType(), type -> {
+                typeNames.add(type);
+                return typeNames.size() - 1;
+            });
+            showTitleRefs[i] = heap.add(show.getOriginalTitle());
+            if (show.getProducers() != null) {
+                for (final String producer : show.getProducers()) {
+                    producerRefs.add(heap.addShared(producer));
+                }
+            }
+            producerOffsets[i + 1] = producerRefs.size();
+        }
+
+        final long[] titleShowIds = new long[titleCount * 2];
+        final int[] showByTitle = new int[titleCount];
+        final int[] languageRefs = new int[titleCount];
+        final int[] titleRefs = new int[titleCount];
+        final int[] seasonNumbers = new int[titleCount];
+        final int[] episodeNumbers = new int[titleCount];
+        final int[] episodeNameRefs = new int[titleCount];
+        for (int i = 0; i < titleCount; i++) {
+            final ShowTitle title = records.showTitle(i);
+            titleShowIds[2 * i] = title.getShowId().getMostSignificantBits();
+            titleShowIds[2 * i + 1] = title.getShowId().getLeastSignificantBits();
+            showByTitle[i] = records.showOfTitle(i);
+            languageRefs[i] = heap.addShared(title.getLanguage());
+            titleRefs[i] = heap.add(title.getTitle());
+            seasonNumbers[i] = title.getSeasonNumber() == null ? NULL_INT : title.getSeasonNumber();
+            episodeNumbers[i] = title.getEpisodeNumber() == null ? NULL_INT : title.getEpisodeNumber();
+            episodeNameRefs[i] = heap.add(title.getEpisodeName());
+        }
+
+        final int[] titleOffsets = new int[showCount + 1];
+        final IntList titlesByShow = new IntList();
+        for (int i = 0; i < showCount; i++) {
+            for (int rank = 0; rank < records.titleCountOfShow(i); rank++) {
+                titlesByShow.add(records.titleOfShow(i, rank));
+            }
+            titleOffsets[i + 1] = titlesByShow.size();
+        }
+
+        out.writeInt(typeNames.size());
+        for (final String type : typeNames) {
+            out.writeString(type);
+        }
+
+        out.writeInt(showCount);
+        out.writeLongs(LongBuffer.wrap(showIds));
+        out.writeInts(showYears);
+        out.writeInts(showTypes);
+        out.writeInts(showTitleRefs);
+        out.writeInts(producerOffsets);
+        out.writeInts(producerRefs.toArray());
+
+        out.writeInt(titleCount);
+        out.writeLongs(LongBuffer.wrap(titleShowIds));
+        out.writeInts(showByTitle);
+        out.writeInts(languageRefs);
+        out.writeInts(titleRefs);
+        out.writeInts(seasonNumbers);
+        out.writeInts(episodeNumbers);
+        out.writeInts(episodeNameRefs);
+        out.writeInts(titleOffsets);
+        out.writeInts(titlesByShow.toArray());
+
+        out.writeByteArray(heap.toByteBuffer());
+    }
+
+    @Override
+    public int showCount() {
+        return showCount;
+    }
+
+    @Override
+    public int titleCount() {
+        return titleCount;
+    }
+
+    @Override
+    public Show show(int show) {
+        return Show.builder()
+                .id(showId(show))
+                .originalTitle(originalTitle(show))
+                .producers(producers(show))
+                .productionYear(productionYear(show))
+                .type(type(show))
+                .build();
+    }
+
+    @Override
+    public ShowTitle showTitle(int title) {
+        return ShowTitle.builder()
+                .showId(titleShowId(title))
+                .language(string(languageRefs.get(title)))
+                .title(title(title))
+                .seasonNumber(integer(seasonNumbers.get(title)))
+                .episodeNumber(integer(episodeNumbers.get(title)))
+                .episodeName(string(episodeNameRefs.get(title)))
+                .build();
+    }
+
+    @Override
+    public UUID showId(int show) {
+        return new UUID(showIds.get(2 * show), showIds.get(2 * show + 1));
+    }
+
+    /**
+     * Finds a show by ID. The IDs are indexed the first time a show is looked up.
+     */
+    @Override
+    public int showPosition(UUID showId) {
+        UuidIndex index = showIndex;
+        if (index == null) {
+            index = new UuidIndex(showIds);
+            showIndex = index;
+        }
+        return index.find(showId);
+    }
+
+    @Override
+    public String originalTitle(int show) {
+        return string(showTitleRefs.get(show));
+    }
+
+    @Override
+    public List<String> producers(int show) {
+        final int from = producerOffsets.get(show);
+        final int to = producerOffsets.get(show + 1);
+        final List<String> producers = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            producers.add(string(producerRefs.get(i)));
+        }
+        return List.copyOf(producers);
+    }
+
+    @Override
+    public Integer productionYear(int show) {
+        return integer(showYears.get(show));
+    }
+
+    @Override
+    public String type(int show) {
+        final int code = showTypes.get(show);
+        return code == NULL_REF ? null : types[code];
+    }
+
+    @Override
+    public String title(int title) {
+        return string(titleRefs.get(title));
+    }
+
+    @Override
+    public UUID titleShowId(int title) {
+        return new UUID(titleShowIds.get(2 * title), titleShowIds.get(2 * title + 1));
+    }
+
+    @Override
+    public int showOfTitle(int title) {
+        return showByTitle.get(title);
+    }
+
+    @Override
+    public int titleCountOfShow(int show) {
+        return titleOffsets.get(show + 1) - titleOffsets.get(show);
+    }
+
+    @Override
+    public int titleOfShow(int show, int rank) {
+        return titlesByShow.get(titleOffsets.get(show) + rank);
+    }
+
+    private String string(int ref) {
+        if (ref == NULL_REF) {
+            return null;
+        }
+        final int length = strings.getInt(ref);
+        final byte[] bytes = new byte[length];
+        strings.get(ref + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Integer integer(int value) {
+        return value == NULL_INT ? null : value;
+    }
+
+    /**
+     * Heap of length-prefixed UTF-8 strings, referenced by byte offset.
+     */
+    private static final class StringHeap {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, Integer> shared = new HashMap<>();
+
+        /**
+         * Appends a string to the heap.
+         *
+         * @return the reference of the string, or -1 for null
+         */
+        int add(String value) {
+            if (value == null) {
+                return NULL_REF;
+            }
+            final int ref = bytes.size();
+            final byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            final byte[] length = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(encoded.length).array();
+            bytes.writeBytes(length);
+            bytes.writeBytes(encoded);
+            return ref;
+        }
+
+        /**
+         * Appends a string to the heap, unless an equal string was already added by this method.
+         * Meant for values repeated across records, such as languages and producer names.
+         */
+        int addShared(String value) {
+            if (value == null) {
+                return NULL_REF;
+            }
+            return shared.computeIfAbsent(value, this::add);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(bytes.toByteArray());
+        }
+    }
+}
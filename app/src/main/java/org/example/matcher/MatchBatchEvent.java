@@ -0,0 +1,42 @@
+package org.example.matcher;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning one call matching a batch of CSV rows, from the moment
+ * the call starts to the moment its results are complete.
+ */
+@Name("org.example.MatchBatch")
+@Label("Match Batch")
+@Category({"Show Matcher"})
+@Description("Matching of a batch of CSV rows")
+@Enabled(false)
+@StackTrace(false)
+final class MatchBatchEvent extends Event {
+
+    @Label("Row Count")
+    @Description("Number of rows in the batch, or -1 for a stream of rows")
+    long rowCount;
+
+    @Label("Rows Matched")
+    @Description("Number of rows matched before the call completed")
+    long rowsMatched;
+
+    @Label("Match Count")
+    @Description("Number of titles matched by the rows")
+    long matchCount;
+
+    @Label("Streaming")
+    @Description("Whether the rows were read from a stream and delivered to a sink")
+    boolean streaming;
+
+    @Label("Failed")
+    @Description("Whether the call was cancelled, passed its deadline or failed")
+    boolean failed;
+}
@@ -0,0 +1,80 @@
+package org.example.matcher;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one matching call shared by its worker threads: whether the call must stop,
+ * its deadline, and the number of rows matched so far.
+ */
+final class MatchControl {
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final long deadlineNanos;
+    private final MatchProgressListener progressListener;
+    private final long totalRows;
+    private final AtomicLong completedRows = new AtomicLong();
+    private volatile boolean stopped;
+
+    /**
+     * Starts the control of a call.
+     *
+     * @param options   the options of the call
+     * @param totalRows the number of rows to match, or -1 if it is not known
+     */
+    MatchControl(MatchOptions options, long totalRows) {
+        this.deadlineNanos = options.deadlineNanos();
+        this.progressListener = options.getProgressListener();
+        this.totalRows = totalRows;
+    }
+
+    /**
+     * Asks the workers to stop, after the row they are matching.
+     */
+    void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Checks if the workers must stop, because the call was stopped or passed its deadline.
+     *
+     * @return true if no more rows must be matched, false otherwise
+     */
+    boolean shouldStop() {
+        return stopped || isDeadlinePassed();
+    }
+
+    boolean isDeadlinePassed() {
+        return deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * Records matched rows and reports the progress to the listener, if any.
+     *
+     * @param rowCount the number of rows just matched
+     */
+    void rowsCompleted(int rowCount) {
+        final long completed = completedRows.addAndGet(rowCount);
+        if (progressListener != null) {
+            progressListener.onProgress(completed, totalRows);
+        }
+    }
+
+    /**
+     * Returns the number of rows matched so far.
+     *
+     * @return the number of rows
+     */
+    long getCompletedRows() {
+        return completedRows.get();
+    }
+
+    /**
+     * Creates the exception failing a call that passed its deadline.
+     *
+     * @return the exception
+     */
+    CancellationException deadlineExceeded() {
+        return new CancellationException("Deadline exceeded after matching " + completedRows.get() + " rows");
+    }
+}
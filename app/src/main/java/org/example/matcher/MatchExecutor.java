@@ -0,0 +1,232 @@
+package org.example.matcher;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the matching of CSV rows on worker threads.
+ * <p>
+ * Rows are matched in chunks of consecutive rows. On a fork/join pool, the range of rows
+ * is split in halves until it fits in a chunk, and idle workers steal the halves left by
+ * busy ones, which keeps every worker busy even when some rows are much slower to match
+ * than others. With virtual threads, every chunk runs on its own virtual thread.
+ * <p>
+ * By default, work runs on the JVM common pool, shared with every other parallel task of
+ * the process. A dedicated pool isolates matching from the rest of the process, and gives
+ * each matching service its own parallelism. An executor that creates its pool or its
+ * threads shuts them down when it is closed.
+ */
+public final class MatchExecutor implements AutoCloseable {
+    private static final int DEFAULT_CHUNK_SIZE = 256;
+    private static final MatchExecutor COMMON_POOL = builder().build();
+
+    private final ForkJoinPool pool;
+    private final ExecutorService virtualThreads;
+    private final boolean ownsThreads;
+    private final int chunkSize;
+
+    private MatchExecutor(ForkJoinPool pool, ExecutorService virtualThreads, boolean ownsThreads, int chunkSize) {
+        this.pool = pool;
+        this.virtualThreads = virtualThreads;
+        this.ownsThreads = ownsThreads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns the executor running on the JVM common pool, used when no executor is given.
+     *
+     * @return the common pool executor
+     */
+    public static MatchExecutor commonPool() {
+        return COMMON_POOL;
+    }
+
+    /**
+     * Returns the number of rows matched by a single task.
+     *
+     * @return the chunk size
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Returns the number of rows that can be matched at the same time.
+     *
+     * @return the parallelism of the pool, or the number of processors for virtual threads
+     */
+    public int getParallelism() {
+        return pool != null ? pool.getParallelism() : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Returns the executor running single tasks, such as the batches of a stream.
+     *
+     * @return the pool or the virtual thread executor
+     */
+    Executor executor() {
+        return pool != null ? pool : virtualThreads;
+    }
+
+    /**
+     * Runs a task over every chunk of a range of rows.
+     *
+     * @param rowCount the number of rows
+     * @param task     the task matching a chunk of rows
+     * @return a future completed once every chunk has run, or with the first failure
+     */
+    CompletableFuture<Void> forEachChunk(int rowCount, ChunkTask task) {
+        if (rowCount == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (pool != null) {
+            return CompletableFuture.runAsync(() -> new RangeAction(0, rowCount, task).invoke(), pool);
+        }
+
+        final CompletableFuture<?>[] chunks = new CompletableFuture<?>[(rowCount + chunkSize - 1) / chunkSize];
+        for (int i = 0; i < chunks.length; i++) {
+            final int from = i * chunkSize;
+            final int to = Math.min(rowCount, from + chunkSize);
+            chunks[i] = CompletableFuture.runAsync(() -> task.run(from, to), virtualThreads);
+        }
+        return CompletableFuture.allOf(chunks);
+    }
+
+    /**
+     * Shuts down the pool or the threads created by this executor, after the running tasks
+     * complete. A pool given to the builder, and the common pool, are left running.
+     */
+    @Override
+    public void close() {
+        if (!ownsThreads) {
+            return;
+        }
+        if (pool != null) {
+            pool.close();
+        } else {
+            virtualThreads.close();
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Matching task for a chunk of rows.
+     */
+    @FunctionalInterface
+    interface ChunkTask {
+
+        /**
+         * Matches a chunk of rows.
+         *
+         * @param from the index of the first row, inclusive
+         * @param to   the index of the last row, exclusive
+         */
+        void run(int from, int to);
+    }
+
+    /**
+     * Splits a range of rows in halves until it fits in a chunk.
+     * Fork/join tasks are serializable, but this one only lives within a call and is never serialized.
+     */
+    @SuppressWarnings("serial")
+    private final class RangeAction extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final ChunkTask task;
+
+        private RangeAction(int from, int to, ChunkTask task) {
+            this.from = from;
+            this.to = to;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                task.run(from, to);
+                return;
+            }
+            // Split on a chunk boundary, so that chunks stay aligned whatever the splits
+            final int chunkCount = (to - from + chunkSize - 1) / chunkSize;
+            final int middle = from + (chunkCount / 2) * chunkSize;
+            invokeAll(new RangeAction(from, middle, task), new RangeAction(middle, to, task));
+        }
+    }
+
+    public static final class Builder {
+        private ForkJoinPool pool;
+        private int parallelism;
+        private boolean virtualThreads;
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+        private Builder() {
+        }
+
+        /**
+         * Runs the work on an existing pool, which is not shut down by {@link #close()}.
+         */
+        public Builder forkJoinPool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Runs the work on a dedicated fork/join pool with the given number of workers.
+         */
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Runs every chunk of rows on its own virtual thread.
+         */
+        public Builder virtualThreads() {
+            this.virtualThreads = true;
+            return this;
+        }
+
+        /**
+         * Sets the number of rows matched by a single task.
+         */
+        public Builder chunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Builds the executor.
+         *
+         * @return the executor
+         * @throws IllegalStateException if more than one kind of threads is chosen,
+         *                               or if the parallelism or the chunk size is not positive
+         */
+        public MatchExecutor build() {
+            final int choices = (pool != null ? 1 : 0) + (parallelism != 0 ? 1 : 0) + (virtualThreads ? 1 : 0);
+            if (choices > 1) {
+                throw new IllegalStateException("Only one of forkJoinPool, parallelism and virtualThreads can be set");
+            }
+            if (parallelism < 0) {
+                throw new IllegalStateException("parallelism must be positive");
+            }
+            if (chunkSize <= 0) {
+                throw new IllegalStateException("chunkSize must be positive");
+            }
+
+            if (parallelism > 0) {
+                return new MatchExecutor(new ForkJoinPool(parallelism), null, true, chunkSize);
+            }
+            if (virtualThreads) {
+                return new MatchExecutor(null, Executors.newVirtualThreadPerTaskExecutor(), true, chunkSize);
+            }
+            return new MatchExecutor(pool != null ? pool : ForkJoinPool.commonPool(), null, false, chunkSize);
+        }
+    }
+}
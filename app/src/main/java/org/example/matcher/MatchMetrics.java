@@ -0,0 +1,282 @@
+package org.example.matcher;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters and latency histograms of the matching pipeline, collected by a matcher once
+ * given to {@link ShowMatcher#setMetrics(MatchMetrics)}.
+ * <p>
+ * For every row, the time spent in each {@link Stage} is recorded in nanoseconds, along with
+ * the number of candidate shows found by title and the reason each rejected candidate was
+ * rejected. Workers record into counters of their own and merge them into these shared,
+ * lock-free counters once per chunk of rows, so collecting metrics does not make the
+ * workers contend. Rows matched one at a time record into a recorder kept by their thread,
+ * merged after each row. A matcher without metrics does not read the clock at all.
+ * <p>
+ * Only the filtering matches are measured: {@link ShowMatcher#findTopMatchesForRow} skips
+ * lookups and scores shows instead of emitting titles, so its stages and counts are not
+ * comparable and it records nothing.
+ * <p>
+ * Metrics are cumulative. {@link #snapshot()} reads them at any time, and
+ * {@link MatchMetricsReporter} logs them periodically.
+ */
+public final class MatchMetrics {
+    private static final int DEFAULT_MANY_CANDIDATES_THRESHOLD = 100;
+
+    /**
+     * Stages of the matching of a row.
+     */
+    public enum Stage {
+        /** Normalizing the titles of the row, and parsing and resolving its producers. */
+        ROW_COMPILATION,
+        /** Looking up the shows whose titles match the titles of the row. */
+        CANDIDATES,
+        /** Filtering the candidate shows by year, type and producers. */
+        FILTERING,
+        /** Adding the titles of the accepted shows to the matches. */
+        EMISSION
+    }
+
+    /**
+     * Reasons a candidate show is rejected, in the order they are checked.
+     */
+    public enum Rejection {
+        /** The show and the row have different production years. */
+        YEAR,
+        /** The show and the row have different types. */
+        TYPE,
+        /** The show and the row have no producer in common. */
+        PRODUCER
+    }
+
+    private final int manyCandidatesThreshold;
+    private final LogHistogram[] stageLatencies = new LogHistogram[Stage.values().length];
+    private final LogHistogram candidateFanOut = new LogHistogram();
+    private final AtomicLong rowCount = new AtomicLong();
+    private final AtomicLong matchCount = new AtomicLong();
+    private final AtomicLong rowsWithoutCandidates = new AtomicLong();
+    private final AtomicLong rowsWithManyCandidates = new AtomicLong();
+    private final AtomicLong rowsDeduplicated = new AtomicLong();
+    private final AtomicLongArray rejections = new AtomicLongArray(Rejection.values().length);
+    private final ThreadLocal<MetricsRecorder> rowRecorders = ThreadLocal.withInitial(this::recorder);
+
+    private MatchMetrics(int manyCandidatesThreshold) {
+        this.manyCandidatesThreshold = manyCandidatesThreshold;
+        for (int i = 0; i < stageLatencies.length; i++) {
+            stageLatencies[i] = new LogHistogram();
+        }
+    }
+
+    /**
+     * Returns the number of candidate shows above which a row counts as having too many.
+     *
+     * @return the threshold
+     */
+    public int getManyCandidatesThreshold() {
+        return manyCandidatesThreshold;
+    }
+
+    /**
+     * Creates a recorder for a worker. The recorder must be flushed for its metrics to be
+     * part of the snapshots.
+     *
+     * @return the recorder
+     */
+    MetricsRecorder recorder() {
+        return new MetricsRecorder(this, manyCandidatesThreshold);
+    }
+
+    /**
+     * Returns the recorder of the calling thread, for the rows matched one at a time. It is
+     * kept from one row to the next, and must be flushed before the row returns.
+     *
+     * @return the recorder of the thread
+     */
+    MetricsRecorder rowRecorder() {
+        return rowRecorders.get();
+    }
+
+    /**
+     * Adds the metrics of a recorder to these metrics, and resets the recorder.
+     *
+     * @param recorder the recorder to merge
+     */
+    void merge(MetricsRecorder recorder) {
+        for (final Stage stage : Stage.values()) {
+            stageLatencies[stage.ordinal()].merge(recorder.stageLatency(stage));
+        }
+        candidateFanOut.merge(recorder.candidateFanOut());
+        rowCount.addAndGet(recorder.rowCount);
+        matchCount.addAndGet(recorder.matchCount);
+        rowsWithoutCandidates.addAndGet(recorder.rowsWithoutCandidates);
+        rowsWithManyCandidates.addAndGet(recorder.rowsWithManyCandidates);
+        rowsDeduplicated.addAndGet(recorder.rowsDeduplicated);
+        for (final Rejection rejection : Rejection.values()) {
+            rejections.addAndGet(rejection.ordinal(), recorder.rejections[rejection.ordinal()]);
+        }
+        recorder.reset();
+    }
+
+    /**
+     * Reads the metrics collected so far. Counters are read one by one while workers merge
+     * theirs, so they may disagree slightly with one another.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        final Map<Stage, HistogramSnapshot> latencies = new EnumMap<>(Stage.class);
+        for (final Stage stage : Stage.values()) {
+            latencies.put(stage, stageLatencies[stage.ordinal()].snapshot());
+        }
+        final Map<Rejection, Long> rejectionCounts = new EnumMap<>(Rejection.class);
+        for (final Rejection rejection : Rejection.values()) {
+            rejectionCounts.put(rejection, rejections.get(rejection.ordinal()));
+        }
+        return new Snapshot(rowCount.get(), matchCount.get(), rowsWithoutCandidates.get(),
+                rowsWithManyCandidates.get(), rowsDeduplicated.get(), latencies, candidateFanOut.snapshot(), rejectionCounts);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Metrics read at one point in time.
+     */
+    public static final class Snapshot {
+        private final long rowCount;
+        private final long matchCount;
+        private final long rowsWithoutCandidates;
+        private final long rowsWithManyCandidates;
+        private final long rowsDeduplicated;
+        private final Map<Stage, HistogramSnapshot> stageLatencies;
+        private final HistogramSnapshot candidateFanOut;
+        private final Map<Rejection, Long> rejections;
+
+        private Snapshot(long rowCount, long matchCount, long rowsWithoutCandidates, long rowsWithManyCandidates,
+                long rowsDeduplicated, Map<Stage, HistogramSnapshot> stageLatencies, HistogramSnapshot candidateFanOut,
+                Map<Rejection, Long> rejections) {
+            this.rowCount = rowCount;
+            this.matchCount = matchCount;
+            this.rowsWithoutCandidates = rowsWithoutCandidates;
+            this.rowsWithManyCandidates = rowsWithManyCandidates;
+            this.rowsDeduplicated = rowsDeduplicated;
+            this.stageLatencies = stageLatencies;
+            this.candidateFanOut = candidateFanOut;
+            this.rejections = rejections;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public long getMatchCount() {
+            return matchCount;
+        }
+
+        /**
+         * Returns the number of rows for which no show was found by title.
+         *
+         * @return the number of rows
+         */
+        public long getRowsWithoutCandidates() {
+            return rowsWithoutCandidates;
+        }
+
+        /**
+         * Returns the number of rows for which more shows than the threshold were found by title.
+         *
+         * @return the number of rows
+         */
+        public long getRowsWithManyCandidates() {
+            return rowsWithManyCandidates;
+        }
+
+        /**
+         * Returns the number of rows that repeated a row of the same batch and copied its
+         * matches. They count as rows, but their candidates were neither looked up nor
+         * filtered again.
+         *
+         * @return the number of rows
+         */
+        public long getRowsDeduplicated() {
+            return rowsDeduplicated;
+        }
+
+        /**
+         * Returns the time spent in a stage per row.
+         *
+         * @param stage the stage
+         * @return the histogram of the durations, in nanoseconds
+         */
+        public HistogramSnapshot getStageLatency(Stage stage) {
+            return stageLatencies.get(stage);
+        }
+
+        /**
+         * Returns the number of shows found by title per row, before filtering.
+         *
+         * @return the histogram of the candidate counts
+         */
+        public HistogramSnapshot getCandidateFanOut() {
+            return candidateFanOut;
+        }
+
+        /**
+         * Returns the number of candidate shows rejected for a reason.
+         *
+         * @param rejection the reason
+         * @return the number of rejected candidates
+         */
+        public long getRejectionCount(Rejection rejection) {
+            return rejections.get(rejection);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder()
+                    .append("rows=").append(rowCount)
+                    .append(", matches=").append(matchCount)
+                    .append(", rowsWithoutCandidates=").append(rowsWithoutCandidates)
+                    .append(", rowsWithManyCandidates=").append(rowsWithManyCandidates)
+                    .append(", rowsDeduplicated=").append(rowsDeduplicated)
+                    .append(", rejections=").append(rejections)
+                    .append("\n  candidates: ").append(candidateFanOut);
+            for (final Stage stage : Stage.values()) {
+                builder.append("\n  ").append(stage).append(" (ns): ").append(stageLatencies.get(stage));
+            }
+            return builder.toString();
+        }
+    }
+
+    public static final class Builder {
+        private int manyCandidatesThreshold = DEFAULT_MANY_CANDIDATES_THRESHOLD;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the number of candidate shows above which a row counts as having too many.
+         */
+        public Builder manyCandidatesThreshold(int manyCandidatesThreshold) {
+            this.manyCandidatesThreshold = manyCandidatesThreshold;
+            return this;
+        }
+
+        /**
+         * Builds the metrics.
+         *
+         * @return the metrics
+         * @throws IllegalStateException if the threshold is negative
+         */
+        public MatchMetrics build() {
+            if (manyCandidatesThreshold < 0) {
+                throw new IllegalStateException("manyCandidatesThreshold must not be negative");
+            }
+            return new MatchMetrics(manyCandidatesThreshold);
+        }
+    }
+}
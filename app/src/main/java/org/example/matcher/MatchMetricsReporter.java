@@ -0,0 +1,74 @@
+package org.example.matcher;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Logs a snapshot of {@link MatchMetrics} at a fixed period, from a daemon thread of its own.
+ * Closing the reporter stops it, after logging the metrics one last time.
+ */
+public final class MatchMetricsReporter implements AutoCloseable {
+    private final MatchMetrics metrics;
+    private final Logger logger;
+    private final ScheduledExecutorService scheduler;
+
+    private MatchMetricsReporter(MatchMetrics metrics, Logger logger) {
+        this.metrics = metrics;
+        this.logger = logger;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            final Thread thread = new Thread(task, "match-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts logging metrics to the logger of this class.
+     *
+     * @param metrics the metrics to log
+     * @param period  the time between two reports
+     * @return the running reporter
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    public static MatchMetricsReporter start(MatchMetrics metrics, Duration period) {
+        return start(metrics, period, Logger.getLogger(MatchMetricsReporter.class.getName()));
+    }
+
+    /**
+     * Starts logging metrics, at level {@link Level#INFO}.
+     *
+     * @param metrics the metrics to log
+     * @param period  the time between two reports
+     * @param logger  the logger receiving the reports
+     * @return the running reporter
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    public static MatchMetricsReporter start(MatchMetrics metrics, Duration period, Logger logger) {
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("period must be positive: " + period);
+        }
+        final MatchMetricsReporter reporter = new MatchMetricsReporter(metrics, logger);
+        final long periodNanos = period.toNanos();
+        reporter.scheduler.scheduleAtFixedRate(reporter::report, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+        return reporter;
+    }
+
+    /**
+     * Logs the current metrics.
+     */
+    public void report() {
+        if (logger.isLoggable(Level.INFO)) {
+            logger.info("Matching metrics: " + metrics.snapshot());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        report();
+    }
+}
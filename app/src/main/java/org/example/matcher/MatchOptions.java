@@ -0,0 +1,138 @@
+package org.example.matcher;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Options of a matching call: where the work runs, when it must give up, and who is told
+ * about its progress.
+ * <p>
+ * A call that passes its deadline stops matching and fails with a
+ * {@link java.util.concurrent.CancellationException}. The deadline is checked before every
+ * row, so a call stops within the time needed to match one row once its tasks are running.
+ */
+public final class MatchOptions {
+    private static final MatchOptions DEFAULTS = builder().build();
+
+    private final MatchExecutor executor;
+    private final Duration timeout;
+    private final Instant deadline;
+    private final MatchProgressListener progressListener;
+
+    private MatchOptions(MatchExecutor executor, Duration timeout, Instant deadline,
+            MatchProgressListener progressListener) {
+        this.executor = executor;
+        this.timeout = timeout;
+        this.deadline = deadline;
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Returns the options used when none are given: the common pool, no deadline and no listener.
+     *
+     * @return the default options
+     */
+    public static MatchOptions defaults() {
+        return DEFAULTS;
+    }
+
+    public MatchExecutor getExecutor() {
+        return executor;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public Instant getDeadline() {
+        return deadline;
+    }
+
+    public MatchProgressListener getProgressListener() {
+        return progressListener;
+    }
+
+    /**
+     * Computes the deadline of a call starting now, from the timeout and the deadline.
+     *
+     * @return the deadline in {@link System#nanoTime()} units, or {@link Long#MAX_VALUE} for none
+     */
+    long deadlineNanos() {
+        final long now = System.nanoTime();
+        long remaining = Long.MAX_VALUE;
+        if (timeout != null) {
+            remaining = Math.min(remaining, saturatedNanos(timeout));
+        }
+        if (deadline != null) {
+            remaining = Math.min(remaining, saturatedNanos(Duration.between(Instant.now(), deadline)));
+        }
+        if (remaining == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return remaining > Long.MAX_VALUE - now ? Long.MAX_VALUE - 1 : now + remaining;
+    }
+
+    private static long saturatedNanos(Duration duration) {
+        if (duration.isNegative()) {
+            return 0;
+        }
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE - 1;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private MatchExecutor executor = MatchExecutor.commonPool();
+        private Duration timeout;
+        private Instant deadline;
+        private MatchProgressListener progressListener;
+
+        private Builder() {
+        }
+
+        public Builder executor(MatchExecutor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Gives up matching once the given time has elapsed since the start of the call.
+         */
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Gives up matching at the given instant.
+         */
+        public Builder deadline(Instant deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
+        public Builder progressListener(MatchProgressListener progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Builds the options.
+         *
+         * @return the options
+         * @throws IllegalStateException if the executor is missing
+         */
+        public MatchOptions build() {
+            if (executor == null) {
+                throw new IllegalStateException("executor is required");
+            }
+            return new MatchOptions(executor, timeout, deadline, progressListener);
+        }
+    }
+}
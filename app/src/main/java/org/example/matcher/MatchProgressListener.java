@@ -0,0 +1,19 @@
+package org.example.matcher;
+
+/**
+ * Receives the progress of a matching call, see {@link MatchOptions}.
+ * <p>
+ * The listener is called once per completed chunk or batch of rows, possibly from several
+ * worker threads at the same time, so it must be thread-safe and return quickly.
+ */
+@FunctionalInterface
+public interface MatchProgressListener {
+
+    /**
+     * Receives the number of rows matched so far.
+     *
+     * @param completedRows the number of rows matched so far
+     * @param totalRows     the number of rows to match, or -1 if it is not known, as for a stream
+     */
+    void onProgress(long completedRows, long totalRows);
+}
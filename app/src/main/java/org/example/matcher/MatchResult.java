@@ -50,7 +50,11 @@ public final class MatchResult {
 
     @Override
     public int hashCode() {
-        return Objects.hash(csvRow, showTitle, isMatch, reason);
+        int result = Objects.hashCode(csvRow);
+        result = 31 * result + Objects.hashCode(showTitle);
+        result = 31 * result + Boolean.hashCode(isMatch);
+        result = 31 * result + Objects.hashCode(reason);
+        return result;
     }
 
     @Override
@@ -0,0 +1,113 @@
+package org.example.matcher;
+
+import org.example.model.CSVRow;
+import org.example.model.ShowTitle;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Compact list of the matches found for a batch of CSV rows.
+ * <p>
+ * A match is stored as two ints: the index of the row in the batch and a reference to the
+ * matched title in the catalog version the batch was matched against. No object is created
+ * per match until one is asked for: {@link #get(int)} creates a {@link MatchResult} on every
+ * call, and titles read from a snapshot are decoded on every call as well. Callers that only
+ * need the row indexes or a few of the titles can therefore go through millions of matches
+ * without allocating.
+ * <p>
+ * Matches are ordered by row, in input order, and then in the order of
+ * {@link ShowMatcher#findMatchesForRow(CSVRow)}.
+ */
+public final class MatchResults {
+    private final List<CSVRow> csvRows;
+    private final CatalogVersion catalog;
+    private final int[] rowIndexes;
+    private final int[] titleRefs;
+
+    MatchResults(List<CSVRow> csvRows, CatalogVersion catalog, int[] rowIndexes, int[] titleRefs) {
+        this.csvRows = csvRows;
+        this.catalog = catalog;
+        this.rowIndexes = rowIndexes;
+        this.titleRefs = titleRefs;
+    }
+
+    /**
+     * Returns the number of matches.
+     *
+     * @return the number of matches
+     */
+    public int size() {
+        return rowIndexes.length;
+    }
+
+    public boolean isEmpty() {
+        return rowIndexes.length == 0;
+    }
+
+    /**
+     * Returns the index of the matched row in the batch.
+     *
+     * @param match the index of the match
+     * @return the index of the row
+     */
+    public int rowIndex(int match) {
+        return rowIndexes[match];
+    }
+
+    /**
+     * Returns the matched row.
+     *
+     * @param match the index of the match
+     * @return the CSV row
+     */
+    public CSVRow csvRow(int match) {
+        return csvRows.get(rowIndexes[match]);
+    }
+
+    /**
+     * Returns the matched title.
+     *
+     * @param match the index of the match
+     * @return the show title
+     */
+    public ShowTitle showTitle(int match) {
+        return catalog.showTitle(titleRefs[match]);
+    }
+
+    /**
+     * Creates the result of a match.
+     *
+     * @param match the index of the match
+     * @return a new match result
+     */
+    public MatchResult get(int match) {
+        return MatchResult.match(csvRow(match), showTitle(match));
+    }
+
+    /**
+     * Returns a list view of the matches, creating a result every time an element is read.
+     *
+     * @return the unmodifiable list view
+     */
+    public List<MatchResult> asList() {
+        return new ResultList();
+    }
+
+    /**
+     * Read-only list view of the matches.
+     */
+    private final class ResultList extends AbstractList<MatchResult> implements RandomAccess {
+
+        @Override
+        public MatchResult get(int index) {
+            return MatchResults.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return MatchResults.this.size();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.matcher;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning the matching of a single CSV row, recorded only for rows
+ * that are much more expensive than the others: see {@link SlowMatchRowEvent} and
+ * {@link WideMatchRowEvent}.
+ */
+@Category({"Show Matcher"})
+@StackTrace(false)
+abstract class MatchRowEvent extends Event {
+    private static final EventType SLOW_ROW = EventType.getEventType(SlowMatchRowEvent.class);
+    private static final EventType WIDE_ROW = EventType.getEventType(WideMatchRowEvent.class);
+
+    @Label("Original Key")
+    @Description("Normalized original title of the row")
+    String originalKey;
+
+    @Label("Translated Key")
+    @Description("Normalized translated title of the row, if it differs from the original one")
+    String translatedKey;
+
+    @Label("Candidate Count")
+    @Description("Number of shows found by title, before filtering by year, type and producers")
+    int candidateCount;
+
+    @Label("Match Count")
+    @Description("Number of titles matched by the row")
+    int matchCount;
+
+    /**
+     * Checks if a running recording enables one of the row events. Rows are matched far more
+     * often than recordings run, so the events are only allocated once this returns true.
+     *
+     * @return true if row events may be committed, false otherwise
+     */
+    static boolean isRecorded() {
+        return SLOW_ROW.isEnabled() || WIDE_ROW.isEnabled();
+    }
+
+    /**
+     * Ends the event and commits it if it passes the thresholds of the recordings.
+     *
+     * @param row            the compiled row
+     * @param candidateCount the number of candidate shows
+     * @param matchCount     the number of matched titles
+     */
+    final void complete(CompiledRow row, int candidateCount, int matchCount) {
+        this.candidateCount = candidateCount;
+        end();
+        if (shouldCommit()) {
+            this.originalKey = row.getOriginalKey();
+            this.translatedKey = row.getTranslatedKey();
+            this.matchCount = matchCount;
+            commit();
+        }
+    }
+}
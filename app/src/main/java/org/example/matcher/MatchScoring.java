@@ -0,0 +1,162 @@
+package org.example.matcher;
+
+/**
+ * Settings of the scored matching of {@link ShowMatcher#findTopMatchesForRow}.
+ * <p>
+ * Shows that pass the year, type and producer filters are scored as the sum of:
+ * <ul>
+ *     <li>a title score, depending on how the title of the row matched: its key equals the
+ *     key of a title of the show, is contained in one or contains one, or is only close
+ *     to one through fuzzy or similarity matching;</li>
+ *     <li>the producer weight times the share of the row producers that the show has;</li>
+ *     <li>the year weight, if both the row and the show have a production year;</li>
+ *     <li>the type weight, if both the row and the show have a type.</li>
+ * </ul>
+ * Only the shows with the highest scores are kept. Title scores must not increase from
+ * exact to approximate matches: candidates are looked up in that order, and the lookups
+ * whose best possible score cannot beat the shows already kept are skipped.
+ */
+public final class MatchScoring {
+    private final int maxShows;
+    private final double exactTitleScore;
+    private final double containedTitleScore;
+    private final double approximateTitleScore;
+    private final double producerWeight;
+    private final double yearWeight;
+    private final double typeWeight;
+
+    private MatchScoring(Builder builder) {
+        this.maxShows = builder.maxShows;
+        this.exactTitleScore = builder.exactTitleScore;
+        this.containedTitleScore = builder.containedTitleScore;
+        this.approximateTitleScore = builder.approximateTitleScore;
+        this.producerWeight = builder.producerWeight;
+        this.yearWeight = builder.yearWeight;
+        this.typeWeight = builder.typeWeight;
+    }
+
+    /**
+     * Returns the highest number of shows kept per row.
+     *
+     * @return the number of shows
+     */
+    public int getMaxShows() {
+        return maxShows;
+    }
+
+    /**
+     * Returns the score of a title match of the given kind.
+     *
+     * @param titleMatch the kind of title match
+     * @return the title score
+     */
+    public double getTitleScore(ScoredMatch.TitleMatch titleMatch) {
+        return switch (titleMatch) {
+            case EXACT -> exactTitleScore;
+            case CONTAINED -> containedTitleScore;
+            case APPROXIMATE -> approximateTitleScore;
+        };
+    }
+
+    public double getProducerWeight() {
+        return producerWeight;
+    }
+
+    public double getYearWeight() {
+        return yearWeight;
+    }
+
+    public double getTypeWeight() {
+        return typeWeight;
+    }
+
+    /**
+     * Returns the highest score a show can get with a title match of the given kind.
+     *
+     * @param titleMatch the kind of title match
+     * @return the title score plus every weight
+     */
+    double maxScore(ScoredMatch.TitleMatch titleMatch) {
+        return getTitleScore(titleMatch) + producerWeight + yearWeight + typeWeight;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int maxShows = 10;
+        private double exactTitleScore = 1.0;
+        private double containedTitleScore = 0.6;
+        private double approximateTitleScore = 0.3;
+        private double producerWeight = 0.5;
+        private double yearWeight = 0.25;
+        private double typeWeight = 0.25;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the highest number of shows kept per row.
+         */
+        public Builder maxShows(int maxShows) {
+            this.maxShows = maxShows;
+            return this;
+        }
+
+        /**
+         * Sets the scores of exact, contained and approximate title matches.
+         */
+        public Builder titleScores(double exact, double contained, double approximate) {
+            this.exactTitleScore = exact;
+            this.containedTitleScore = contained;
+            this.approximateTitleScore = approximate;
+            return this;
+        }
+
+        /**
+         * Sets the score of a show having every producer of the row.
+         */
+        public Builder producerWeight(double producerWeight) {
+            this.producerWeight = producerWeight;
+            return this;
+        }
+
+        /**
+         * Sets the score of a show whose production year is known to agree with the row.
+         */
+        public Builder yearWeight(double yearWeight) {
+            this.yearWeight = yearWeight;
+            return this;
+        }
+
+        /**
+         * Sets the score of a show whose type is known to agree with the row.
+         */
+        public Builder typeWeight(double typeWeight) {
+            this.typeWeight = typeWeight;
+            return this;
+        }
+
+        /**
+         * Builds the settings.
+         *
+         * @return the settings
+         * @throws IllegalStateException if the number of shows is not positive, if a score or
+         *                               weight is negative, or if the title scores increase
+         *                               from exact to approximate matches
+         */
+        public MatchScoring build() {
+            if (maxShows <= 0) {
+                throw new IllegalStateException("maxShows must be positive");
+            }
+            if (!(approximateTitleScore >= 0 && producerWeight >= 0 && yearWeight >= 0 && typeWeight >= 0)) {
+                throw new IllegalStateException("Scores and weights must not be negative");
+            }
+            if (exactTitleScore < containedTitleScore || containedTitleScore < approximateTitleScore) {
+                throw new IllegalStateException("Title scores must not increase from exact to approximate matches");
+            }
+            return new MatchScoring(this);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.matcher;
+
+import org.example.model.CSVRow;
+
+import java.util.List;
+
+/**
+ * Receives match results as they are produced by {@link ShowMatcher#findMatches(java.util.stream.Stream, MatchSink)}.
+ * <p>
+ * The sink is called from a single thread, once per matched CSV row and in input order,
+ * with all the matches of that row. A sink that takes time to consume its input slows
+ * down the reading of new rows instead of letting results pile up in memory.
+ */
+@FunctionalInterface
+public interface MatchSink {
+
+    /**
+     * Receives the matches of one CSV row.
+     *
+     * @param csvRow  the CSV row
+     * @param matches the matches of the row, never empty
+     */
+    void accept(CSVRow csvRow, List<MatchResult> matches);
+}
@@ -0,0 +1,118 @@
+package org.example.matcher;
+
+import java.util.Arrays;
+
+/**
+ * Metrics recorded by a single worker, merged into the shared {@link MatchMetrics} by
+ * {@link #flush()}. Nothing here is synchronized: a recorder is used by one thread at a time.
+ * <p>
+ * The durations and candidates of a row are summed over the layers of the catalog, and
+ * recorded once the row is completed.
+ */
+final class MetricsRecorder {
+    private final MatchMetrics metrics;
+    private final int manyCandidatesThreshold;
+    private final LogHistogram.Recorder[] stageLatencies = new LogHistogram.Recorder[MatchMetrics.Stage.values().length];
+    private final LogHistogram.Recorder candidateFanOut = new LogHistogram.Recorder();
+    private final long[] rowStageNanos = new long[MatchMetrics.Stage.values().length];
+    private int rowCandidates;
+
+    long rowCount;
+    long matchCount;
+    long rowsWithoutCandidates;
+    long rowsWithManyCandidates;
+    long rowsDeduplicated;
+    final long[] rejections = new long[MatchMetrics.Rejection.values().length];
+
+    MetricsRecorder(MatchMetrics metrics, int manyCandidatesThreshold) {
+        this.metrics = metrics;
+        this.manyCandidatesThreshold = manyCandidatesThreshold;
+        for (int i = 0; i < stageLatencies.length; i++) {
+            stageLatencies[i] = new LogHistogram.Recorder();
+        }
+    }
+
+    /**
+     * Adds time spent in a stage for the current row.
+     *
+     * @param stage the stage
+     * @param nanos the duration in nanoseconds
+     */
+    void addStageTime(MatchMetrics.Stage stage, long nanos) {
+        rowStageNanos[stage.ordinal()] += nanos;
+    }
+
+    /**
+     * Adds candidate shows found for the current row.
+     *
+     * @param candidateCount the number of candidates
+     */
+    void addCandidates(int candidateCount) {
+        rowCandidates += candidateCount;
+    }
+
+    /**
+     * Counts a rejected candidate.
+     *
+     * @param rejection the reason of the rejection
+     */
+    void reject(MatchMetrics.Rejection rejection) {
+        rejections[rejection.ordinal()]++;
+    }
+
+    /**
+     * Records the metrics of the current row, and starts the next one.
+     *
+     * @param rowMatchCount the number of titles matched by the row
+     */
+    void rowCompleted(int rowMatchCount) {
+        for (int i = 0; i < rowStageNanos.length; i++) {
+            stageLatencies[i].record(rowStageNanos[i]);
+            rowStageNanos[i] = 0;
+        }
+        candidateFanOut.record(rowCandidates);
+        if (rowCandidates == 0) {
+            rowsWithoutCandidates++;
+        } else if (rowCandidates > manyCandidatesThreshold) {
+            rowsWithManyCandidates++;
+        }
+        rowCandidates = 0;
+        rowCount++;
+        matchCount += rowMatchCount;
+    }
+
+    /**
+     * Counts the current row as a repeat of a row already matched, whose matches it copied.
+     * The row must still be completed.
+     */
+    void rowDeduplicated() {
+        rowsDeduplicated++;
+    }
+
+    /**
+     * Merges the completed rows into the shared metrics.
+     */
+    void flush() {
+        metrics.merge(this);
+    }
+
+    LogHistogram.Recorder stageLatency(MatchMetrics.Stage stage) {
+        return stageLatencies[stage.ordinal()];
+    }
+
+    LogHistogram.Recorder candidateFanOut() {
+        return candidateFanOut;
+    }
+
+    /**
+     * Resets the counters once merged. Histogram recorders are reset by their own merge.
+     */
+    void reset() {
+        rowCount = 0;
+        matchCount = 0;
+        rowsWithoutCandidates = 0;
+        rowsWithManyCandidates = 0;
+        rowsDeduplicated = 0;
+        Arrays.fill(rejections, 0);
+    }
+}
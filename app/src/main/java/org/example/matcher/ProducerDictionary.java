@@ -0,0 +1,240 @@
+package org.example.matcher;
+
+import org.example.util.ProducerParser;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding of the catalog producers.
+ * Every normalized producer name is interned to an integer ID when the matcher is built,
+ * and each show keeps its producers as a sorted run of IDs, so checking for a common
+ * producer is a merge of two small sorted arrays instead of string comparisons.
+ * The runs of all shows are stored back to back in a single array, indexed by offsets.
+ * <p>
+ * A dictionary can extend another one: it then reuses the IDs of the names the other
+ * dictionary knows and numbers new names after them, so that IDs resolved by the extension
+ * are valid for the shows of both dictionaries.
+ */
+final class ProducerDictionary {
+    private static final int[] NO_PRODUCERS = new int[0];
+
+    private final ProducerDictionary base;
+    private final int firstId;
+    private final KeyIndex names;
+    private final IntBuffer producerOffsets;
+    private final IntBuffer producerIds;
+
+    /**
+     * Interns the producers of every show.
+     *
+     * @param records the catalog records; the position of a show is its index in the dictionary
+     */
+    ProducerDictionary(CatalogRecords records) {
+        this(records, null);
+    }
+
+    /**
+     * Interns the producers of every show, on top of another dictionary.
+     *
+     * @param records the catalog records; the position of a show is its index in the dictionary
+     * @param base    the dictionary whose IDs are reused, or null
+     */
+    ProducerDictionary(CatalogRecords records, ProducerDictionary base) {
+        this.base = base;
+        this.firstId = base == null ? 0 : base.size();
+
+        final List<String> names = new ArrayList<>();
+        final Map<String, Integer> idsByName = new HashMap<>();
+        final int[] offsets = new int[records.showCount() + 1];
+        final IntList ids = new IntList();
+        for (int i = 0; i < records.showCount(); i++) {
+            final List<String> producers = records.producers(i);
+            if (producers != null && !producers.isEmpty()) {
+                final int[] showIds = new int[producers.size()];
+                for (int j = 0; j < showIds.length; j++) {
+                    showIds[j] = intern(ProducerParser.normalizeProducerName(producers.get(j)), names, idsByName);
+                }
+                for (final int id : sortedDistinct(showIds)) {
+                    ids.add(id);
+                }
+            }
+            offsets[i + 1] = ids.size();
+        }
+        this.names = new KeyIndex(names);
+        this.producerOffsets = IntBuffer.wrap(offsets);
+        this.producerIds = IntBuffer.wrap(ids.toArray());
+    }
+
+    private ProducerDictionary(KeyIndex names, IntBuffer producerOffsets, IntBuffer producerIds) {
+        this.base = null;
+        this.firstId = 0;
+        this.names = names;
+        this.producerOffsets = producerOffsets;
+        this.producerIds = producerIds;
+    }
+
+    /**
+     * Maps a dictionary written by {@link #write(SnapshotOutput)}.
+     * The producer names are looked up in place, like the producers of the shows.
+     *
+     * @param in the snapshot input
+     * @return the dictionary
+     * @throws IOException if the snapshot cannot be read
+     */
+    static ProducerDictionary read(SnapshotInput in) throws IOException {
+        return new ProducerDictionary(KeyIndex.read(in), in.readInts(), in.readInts());
+    }
+
+    /**
+     * Writes the dictionary to a snapshot.
+     *
+     * @param out the snapshot output
+     * @throws IOException if the snapshot cannot be written
+     * @throws IllegalStateException if the dictionary extends another one
+     */
+    void write(SnapshotOutput out) throws IOException {
+        if (base != null) {
+            throw new IllegalStateException("Cannot write a dictionary extending another one");
+        }
+        names.write(out);
+        out.writeInts(producerOffsets);
+        out.writeInts(producerIds);
+    }
+
+    /**
+     * Resolves producer names to their IDs. Names unknown to the catalog are left out,
+     * since they cannot be shared with any show.
+     *
+     * @param producers the producer names
+     * @return the sorted, distinct IDs of the known producers
+     */
+    int[] resolve(List<String> producers) {
+        if (producers.isEmpty()) {
+            return NO_PRODUCERS;
+        }
+
+        final int[] ids = new int[producers.size()];
+        int count = 0;
+        for (final String producer : producers) {
+            final int id = id(ProducerParser.normalizeProducerName(producer));
+            if (id >= 0) {
+                ids[count++] = id;
+            }
+        }
+        return sortedDistinct(Arrays.copyOf(ids, count));
+    }
+
+    /**
+     * Checks if a show has any producer.
+     *
+     * @param show the position of the show
+     * @return true if the show has at least one producer, false otherwise
+     */
+    boolean hasProducers(int show) {
+        return producerOffsets.get(show + 1) > producerOffsets.get(show);
+    }
+
+    /**
+     * Checks if a show has at least one of the given producers.
+     *
+     * @param show        the position of the show
+     * @param producerIds the sorted producer IDs to look for
+     * @return true if there is at least one producer in common, false otherwise
+     */
+    boolean hasCommonProducer(int show, int[] producerIds) {
+        int i = producerOffsets.get(show);
+        final int end = producerOffsets.get(show + 1);
+        int j = 0;
+        while (i < end && j < producerIds.length) {
+            final int showProducerId = this.producerIds.get(i);
+            if (showProducerId == producerIds[j]) {
+                return true;
+            }
+            if (showProducerId < producerIds[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the given producers that a show has.
+     *
+     * @param show        the position of the show
+     * @param producerIds the sorted producer IDs to look for
+     * @return the number of producers in common
+     */
+    int commonProducerCount(int show, int[] producerIds) {
+        int i = producerOffsets.get(show);
+        final int end = producerOffsets.get(show + 1);
+        int j = 0;
+        int count = 0;
+        while (i < end && j < producerIds.length) {
+            final int showProducerId = this.producerIds.get(i);
+            if (showProducerId == producerIds[j]) {
+                count++;
+                i++;
+                j++;
+            } else if (showProducerId < producerIds[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private int size() {
+        return firstId + names.size();
+    }
+
+    /**
+     * Finds the ID of a name in this dictionary or the one it extends, or -1 if the name is unknown.
+     */
+    private int id(String name) {
+        if (base != null) {
+            final int id = base.id(name);
+            if (id >= 0) {
+                return id;
+            }
+        }
+        final int position = names.find(name);
+        return position < 0 ? -1 : firstId + position;
+    }
+
+    /**
+     * Interns a name while the dictionary is built, numbering new names after the names
+     * of the dictionary it extends.
+     */
+    private int intern(String name, List<String> names, Map<String, Integer> idsByName) {
+        if (base != null) {
+            final int id = base.id(name);
+            if (id >= 0) {
+                return id;
+            }
+        }
+        return idsByName.computeIfAbsent(name, k -> {
+            names.add(k);
+            return firstId + names.size() - 1;
+        });
+    }
+
+    private static int[] sortedDistinct(int[] ids) {
+        Arrays.sort(ids);
+        int count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[count++] = ids[i];
+            }
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+}
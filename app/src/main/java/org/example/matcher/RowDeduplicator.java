@@ -0,0 +1,145 @@
+package org.example.matcher;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Title references matched by the repeated rows of a call or batch, shared with the rows that repeat them.
+ * <p>
+ * Partner feeds send the same show in many rows of a batch. Matching only depends on the
+ * compiled form of a row: its normalized titles, resolved producers, production year and type.
+ * Rows with the same compiled form therefore match the same titles. A row records its title
+ * references under that query key, and the rows repeating it copy them instead of looking up
+ * and filtering candidates again. The workers of a call share its deduplicator, so repeats are
+ * found across chunks, while each batch of a stream has its own. Two workers that match equal
+ * rows at the same moment may both search, with the same result.
+ * <p>
+ * Most rows of a call never repeat, and keeping their keys and matches would hold a copy of
+ * every distinct row until the call returns. So, like the admission of the candidate cache,
+ * matches are only recorded for a key already in the doorkeeper, a bit set of the keys matched
+ * so far: a row is searched twice before its repeats are copied, and rows seen once only cost
+ * a bit. The bit set has about eight bits per row of the call.
+ */
+final class RowDeduplicator {
+    private final ConcurrentHashMap<QueryKey, SharedMatches> matches = new ConcurrentHashMap<>();
+    private final AtomicLongArray doorkeeper;
+    private final int doorkeeperShift;
+
+    /**
+     * Creates an empty deduplicator.
+     *
+     * @param rowCount the number of rows of the call or batch, which sizes the doorkeeper
+     */
+    RowDeduplicator(int rowCount) {
+        final long bits = Long.highestOneBit(Math.max(64L, rowCount * 8L));
+        this.doorkeeper = new AtomicLongArray((int) (bits >>> 6));
+        this.doorkeeperShift = 64 - Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Returns the matches recorded for a query.
+     *
+     * @param key the query key of a row, see {@link QueryKey#of(CompiledRow)}
+     * @return the matches, or null if no row with this key was matched yet
+     */
+    SharedMatches get(QueryKey key) {
+        return matches.get(key);
+    }
+
+    /**
+     * Records the matches of a row, if a row with the same key was matched before.
+     *
+     * @param key            the query key of the row
+     * @param titleRefs      the list holding the title references of the row
+     * @param from           the index in the list of the first title reference of the row
+     * @param candidateCount the number of candidate shows found by title for the row
+     */
+    void put(QueryKey key, IntList titleRefs, int from, int candidateCount) {
+        if (!admit(key)) {
+            return;
+        }
+        final int[] refs = new int[titleRefs.size() - from];
+        for (int i = 0; i < refs.length; i++) {
+            refs[i] = titleRefs.get(from + i);
+        }
+        matches.putIfAbsent(key, new SharedMatches(refs, candidateCount));
+    }
+
+    /**
+     * Returns the number of query keys whose matches are recorded.
+     *
+     * @return the number of recorded keys
+     */
+    int size() {
+        return matches.size();
+    }
+
+    /**
+     * Records a matched key in the doorkeeper.
+     *
+     * @return true if the key was already in it, false otherwise
+     */
+    private boolean admit(QueryKey key) {
+        final int bit = (int) ((key.hashCode() * 0x9E3779B97F4A7C15L) >>> doorkeeperShift);
+        final long mask = 1L << bit;
+        return (doorkeeper.getAndAccumulate(bit >>> 6, mask, (word, set) -> word | set) & mask) != 0;
+    }
+
+    /**
+     * Matches of a row, copied by the rows with the same query key.
+     *
+     * @param titleRefs      the matched title references, in match order
+     * @param candidateCount the number of candidate shows found by title
+     */
+    record SharedMatches(int[] titleRefs, int candidateCount) {
+    }
+
+    /**
+     * Everything of a compiled row that its matches depend on.
+     */
+    static final class QueryKey {
+        private final String originalKey;
+        private final String translatedKey;
+        private final boolean hasProducers;
+        private final int[] producerIds;
+        private final Integer productionYear;
+        private final String type;
+        private final int hash;
+
+        private QueryKey(CompiledRow row) {
+            this.originalKey = row.getOriginalKey();
+            this.translatedKey = row.getTranslatedKey();
+            this.hasProducers = row.hasProducers();
+            this.producerIds = row.getProducerIds();
+            this.productionYear = row.getProductionYear();
+            this.type = row.getType();
+            this.hash = 31 * Objects.hash(originalKey, translatedKey, hasProducers, productionYear, type)
+                    + Arrays.hashCode(producerIds);
+        }
+
+        static QueryKey of(CompiledRow row) {
+            return new QueryKey(row);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final QueryKey key = (QueryKey) o;
+            return hash == key.hash &&
+                    hasProducers == key.hasProducers &&
+                    Objects.equals(originalKey, key.originalKey) &&
+                    Objects.equals(translatedKey, key.translatedKey) &&
+                    Arrays.equals(producerIds, key.producerIds) &&
+                    Objects.equals(productionYear, key.productionYear) &&
+                    Objects.equals(type, key.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
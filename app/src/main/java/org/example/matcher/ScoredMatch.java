@@ -0,0 +1,89 @@
+package org.example.matcher;
+
+import org.example.model.CSVRow;
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A show matching a CSV row, with its score, as returned by
+ * {@link ShowMatcher#findTopMatchesForRow(CSVRow, MatchScoring)}.
+ */
+public final class ScoredMatch {
+
+    /**
+     * How the title of the row matched the titles of the show, from the strongest to the
+     * weakest match.
+     */
+    public enum TitleMatch {
+        /** A title of the row has the same key as a title of the show. */
+        EXACT,
+        /** A title of the row contains, or is contained in, a title of the show. */
+        CONTAINED,
+        /** A title of the row is close to a title of the show through fuzzy or similarity matching. */
+        APPROXIMATE
+    }
+
+    private final CSVRow csvRow;
+    private final Show show;
+    private final List<ShowTitle> showTitles;
+    private final TitleMatch titleMatch;
+    private final double score;
+
+    ScoredMatch(CSVRow csvRow, Show show, List<ShowTitle> showTitles, TitleMatch titleMatch, double score) {
+        this.csvRow = csvRow;
+        this.show = show;
+        this.showTitles = showTitles;
+        this.titleMatch = titleMatch;
+        this.score = score;
+    }
+
+    public CSVRow getCsvRow() {
+        return csvRow;
+    }
+
+    public Show getShow() {
+        return show;
+    }
+
+    /**
+     * Returns the titles of the show, which the unscored matching would all return.
+     *
+     * @return the unmodifiable list of titles
+     */
+    public List<ShowTitle> getShowTitles() {
+        return showTitles;
+    }
+
+    public TitleMatch getTitleMatch() {
+        return titleMatch;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Creates a match result for every title of the show.
+     *
+     * @return the match results
+     */
+    public List<MatchResult> toMatchResults() {
+        final List<MatchResult> results = new ArrayList<>(showTitles.size());
+        for (final ShowTitle showTitle : showTitles) {
+            results.add(MatchResult.match(csvRow, showTitle));
+        }
+        return results;
+    }
+
+    @Override
+    public String toString() {
+        return "ScoredMatch{" +
+                "show=" + show.getId() +
+                ", titleMatch=" + titleMatch +
+                ", score=" + score +
+                '}';
+    }
+}
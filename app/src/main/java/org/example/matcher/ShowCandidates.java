@@ -0,0 +1,83 @@
+package org.example.matcher;
+
+import java.util.Arrays;
+
+/**
+ * Ordered, distinct set of candidate show positions collected for one CSV row.
+ * Shows keep the order in which they were first added.
+ */
+final class ShowCandidates {
+    private static final int FREE = -1;
+
+    private final IntList shows = new IntList();
+    private int[] seen = newTable(16);
+
+    /**
+     * Adds a show, unless it is already a candidate.
+     *
+     * @param show the position of the show
+     */
+    void add(int show) {
+        if (!markSeen(show)) {
+            return;
+        }
+        shows.add(show);
+        if (shows.size() * 2 > seen.length) {
+            rehash();
+        }
+    }
+
+    int size() {
+        return shows.size();
+    }
+
+    /**
+     * Returns the candidate at the given rank.
+     *
+     * @param index the rank of the candidate, in insertion order
+     * @return the position of the show
+     */
+    int get(int index) {
+        return shows.get(index);
+    }
+
+    /**
+     * Returns the candidates in insertion order.
+     *
+     * @return a new array of show positions
+     */
+    int[] toArray() {
+        return shows.toArray();
+    }
+
+    /**
+     * Records a show in the open-addressing table of seen shows.
+     *
+     * @return true if the show was not seen before, false otherwise
+     */
+    private boolean markSeen(int show) {
+        final int mask = seen.length - 1;
+        for (int slot = (show * 0x9E3779B9) >>> 16 & mask; ; slot = (slot + 1) & mask) {
+            if (seen[slot] == show) {
+                return false;
+            }
+            if (seen[slot] == FREE) {
+                seen[slot] = show;
+                return true;
+            }
+        }
+    }
+
+    private void rehash() {
+        seen = newTable(seen.length * 2);
+        for (int i = 0; i < shows.size(); i++) {
+            markSeen(shows.get(i));
+        }
+    }
+
+    private static int[] newTable(int capacity) {
+        final int[] table = new int[capacity];
+        Arrays.fill(table, FREE);
+        return table;
+    }
+}
@@ -3,26 +3,35 @@ package org.example.matcher;
 import org.example.model.CSVRow;
 import org.example.model.Show;
 import org.example.model.ShowTitle;
-import org.example.util.ProducerParser;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Stream;
 
 /**
  * Core class for matching shows from CSV rows against a database of shows and their titles.
+ * <p>
+ * The catalog can be changed while the matcher is in use. Every change publishes a new
+ * immutable version of the catalog, and each call to a {@code findMatches} method works on
+ * the version current when the call started: it never blocks on a change and never sees
+ * one half-applied. Changes are applied one at a time.
  */
 public final class ShowMatcher {
-    private final List<Show> shows;
-    private final List<ShowTitle> showTitles;
-    private final Map<UUID, Show> showsById;
-    private final Map<UUID, List<ShowTitle>> titlesByShowId;
-    private final Map<String, List<Show>> showsByNormalizedTitle;
+    private final Object updateLock = new Object();
+    private volatile CatalogVersion catalog;
+    private volatile MatchMetrics metrics;
+    private volatile TitleLookup titleLookup = TitleLookup.EXACT;
     
     /**
      * Creates a new ShowMatcher with the given shows and show titles.
@@ -31,36 +40,579 @@ public final class ShowMatcher {
      * @param showTitles the list of show titles
      */
     public ShowMatcher(List<Show> shows, List<ShowTitle> showTitles) {
-        this.shows = new ArrayList<>(shows);
-        this.showTitles = new ArrayList<>(showTitles);
-        
-        // Index shows by ID for quick lookup
-        this.showsById = shows.stream()
-                .collect(Collectors.toMap(Show::getId, Function.identity()));
-        
-        // Group titles by show ID
-        this.titlesByShowId = showTitles.stream()
-                .collect(Collectors.groupingBy(ShowTitle::getShowId));
-        
-        // Index shows by normalized title for quick lookup
-        this.showsByNormalizedTitle = new ConcurrentHashMap<>();
-        for (final Show show : shows) {
-            final String normalizedTitle = normalizeTitle(show.getOriginalTitle());
-            showsByNormalizedTitle.computeIfAbsent(normalizedTitle, k -> new ArrayList<>()).add(show);
+        this(CatalogIndex.build(shows, showTitles));
+    }
+    
+    /**
+     * Creates a matcher whose catalog is kept off the heap.
+     * <p>
+     * The catalog is built on the heap, then written to a temporary snapshot file and read from
+     * there like a snapshot opened with {@link #openSnapshot(Path)}; the file is deleted once
+     * mapped. The records and the substring indexes no longer count towards the heap, nor the
+     * work of the garbage collector; only the hash lookups by key and the producer names stay
+     * on it. Catalog changes are kept on the heap until they are merged, and merged catalogs
+     * are copied off the heap again. The mapped pages are not bounded by
+     * {@code -XX:MaxDirectMemorySize}, and the catalog may exceed 2 GB.
+     *
+     * @param shows      the list of shows
+     * @param showTitles the list of show titles
+     * @return the matcher
+     * @throws java.io.UncheckedIOException if the temporary snapshot cannot be written
+     */
+    public static ShowMatcher buildOffHeap(List<Show> shows, List<ShowTitle> showTitles) {
+        return new ShowMatcher(CatalogIndex.build(shows, showTitles).copyOffHeap());
+    }
+    
+    private ShowMatcher(CatalogIndex index) {
+        this.catalog = new CatalogVersion(index);
+    }
+    
+    /**
+     * Opens a matcher from a snapshot written by {@link #writeSnapshot(Path)}.
+     * <p>
+     * Nothing is rebuilt: the snapshot is memory-mapped and lookups read the indexes in place,
+     * so the matcher is ready as soon as the file is opened, and most of the catalog stays off
+     * the heap. Shows and titles are only decoded when they are part of a match. Like the
+     * catalog of {@link #buildOffHeap(List, List)}, it stays off the heap when changes are merged.
+     *
+     * @param path the snapshot file
+     * @return the matcher
+     * @throws IOException if the file cannot be read or is not a snapshot of a supported version
+     */
+    public static ShowMatcher openSnapshot(Path path) throws IOException {
+        return new ShowMatcher(CatalogIndex.read(path));
+    }
+    
+    /**
+     * Writes the catalog and the indexes of this matcher to a snapshot file.
+     * The file is replaced atomically, so processes opening it never see a partial snapshot.
+     * Changes made since the matcher was built are merged into its indexes first.
+     *
+     * @param path the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public void writeSnapshot(Path path) throws IOException {
+        final CatalogVersion compacted;
+        synchronized (updateLock) {
+            compacted = catalog.compact();
+            publish(compacted);
         }
+        compacted.base().write(path);
     }
     
     /**
-     * Finds all show titles that match the given CSV rows.
+     * Adds a show to the catalog. Titles already added for the show ID become its titles.
+     *
+     * @param show the show to add
+     * @throws IllegalArgumentException if the catalog already has a show with the same ID
+     */
+    public void addShow(Show show) {
+        synchronized (updateLock) {
+            publish(catalog.withShow(show));
+        }
+    }
+    
+    /**
+     * Replaces a show of the catalog with another one that has the same ID, such as a
+     * show with corrected producers. The titles of the show are kept.
+     *
+     * @param show the new show
+     * @throws IllegalArgumentException if the catalog has no show with the same ID
+     */
+    public void updateShow(Show show) {
+        synchronized (updateLock) {
+            publish(catalog.withUpdatedShow(show));
+        }
+    }
+    
+    /**
+     * Removes a show and its titles from the catalog.
+     *
+     * @param showId the ID of the show to remove
+     * @return true if the show was removed, false if the catalog has no such show
+     */
+    public boolean removeShow(UUID showId) {
+        synchronized (updateLock) {
+            final CatalogVersion current = catalog;
+            publish(current.withoutShow(showId));
+            return catalog != current;
+        }
+    }
+    
+    /**
+     * Adds a title to the catalog. A title whose show is not in the catalog is never
+     * matched, until the show is added.
+     *
+     * @param showTitle the title to add
+     */
+    public void addTitle(ShowTitle showTitle) {
+        synchronized (updateLock) {
+            publish(catalog.withTitle(showTitle));
+        }
+    }
+    
+    /**
+     * Removes every title of the catalog equal to the given one.
+     *
+     * @param showTitle the title to remove
+     * @return true if a title was removed, false if the catalog has no such title
+     */
+    public boolean removeTitle(ShowTitle showTitle) {
+        synchronized (updateLock) {
+            final CatalogVersion current = catalog;
+            publish(current.withoutTitle(showTitle));
+            return catalog != current;
+        }
+    }
+    
+    /**
+     * Publishes a new catalog version, dropping the cached candidates if its base index changed.
+     * Must be called while holding the update lock.
+     *
+     * @param next the new version
+     */
+    private void publish(CatalogVersion next) {
+        final TitleCandidateCache cache = titleLookup.cache();
+        if (cache != null && next.base() != catalog.base()) {
+            cache.rebase(next.base());
+        }
+        catalog = next;
+    }
+    
+    /**
+     * Starts collecting metrics about the matching pipeline in the given metrics, or stops
+     * collecting them. Calls running when the metrics are changed keep the previous ones.
+     *
+     * @param metrics the metrics receiving the counters and latencies, or null to collect none
+     */
+    public void setMetrics(MatchMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Returns the metrics collected by this matcher.
+     *
+     * @return the metrics, or null if none are collected
+     */
+    public MatchMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Enables fuzzy title matching with the given settings, or disables it.
+     * <p>
+     * The fuzzy index of the current catalog is built before this method returns, so that
+     * matching does not wait for it. Indexes of later catalog versions are built on their
+     * first fuzzy lookup. Calls running when the settings are changed keep the previous ones.
+     *
+     * @param fuzzyMatching the settings, or null to match titles exactly and by containment only
+     */
+    public void setFuzzyMatching(FuzzyMatching fuzzyMatching) {
+        if (fuzzyMatching != null) {
+            for (final CatalogVersion.Layer layer : catalog.layers()) {
+                layer.index().fuzzyTitleIndex(fuzzyMatching);
+            }
+        }
+        synchronized (updateLock) {
+            titleLookup = titleLookup.withFuzzy(fuzzyMatching);
+        }
+    }
+    
+    /**
+     * Returns the fuzzy title matching settings of this matcher.
+     *
+     * @return the settings, or null if fuzzy matching is disabled
+     */
+    public FuzzyMatching getFuzzyMatching() {
+        return titleLookup.fuzzy();
+    }
+    
+    /**
+     * Enables similarity title matching with the given settings, or disables it.
+     * <p>
+     * As with fuzzy matching, the index of the current catalog is built before this method
+     * returns, and calls running when the settings are changed keep the previous ones.
+     *
+     * @param similarityMatching the settings, or null to disable similarity matching
+     */
+    public void setSimilarityMatching(SimilarityMatching similarityMatching) {
+        if (similarityMatching != null) {
+            for (final CatalogVersion.Layer layer : catalog.layers()) {
+                layer.index().similarityTitleIndex(similarityMatching);
+            }
+        }
+        synchronized (updateLock) {
+            titleLookup = titleLookup.withSimilarity(similarityMatching);
+        }
+    }
+    
+    /**
+     * Returns the similarity title matching settings of this matcher.
+     *
+     * @return the settings, or null if similarity matching is disabled
+     */
+    public SimilarityMatching getSimilarityMatching() {
+        return titleLookup.similarity();
+    }
+    
+    /**
+     * Enables the cache of candidate shows found by title with the given settings, or disables it.
+     * Enabling it again starts from an empty cache, and calls running when the settings are
+     * changed keep the previous cache.
+     *
+     * @param candidateCaching the settings, or null to look up every title in the indexes
+     */
+    public void setCandidateCaching(CandidateCaching candidateCaching) {
+        synchronized (updateLock) {
+            titleLookup = titleLookup.withCache(candidateCaching != null
+                    ? new TitleCandidateCache(candidateCaching, catalog.base())
+                    : null);
+        }
+    }
+    
+    /**
+     * Returns the candidate cache settings of this matcher.
+     *
+     * @return the settings, or null if the cache is disabled
+     */
+    public CandidateCaching getCandidateCaching() {
+        final TitleCandidateCache cache = titleLookup.cache();
+        return cache != null ? cache.settings() : null;
+    }
+    
+    /**
+     * Returns the statistics of the candidate cache of this matcher.
+     *
+     * @return the statistics, or null if the cache is disabled
+     */
+    public CandidateCacheStats getCandidateCacheStats() {
+        final TitleCandidateCache cache = titleLookup.cache();
+        return cache != null ? cache.stats() : null;
+    }
+    
+    /**
+     * Finds all show titles that match the given CSV rows, on the JVM common pool.
      *
      * @param csvRows the list of CSV rows to match
      * @return a list of match results
      */
     public List<MatchResult> findMatches(List<CSVRow> csvRows) {
-        return csvRows.parallelStream()
-                .flatMap(csvRow -> findMatchesForRow(csvRow).stream())
-                .filter(MatchResult::isMatch)
-                .collect(Collectors.toList());
+        return findMatches(csvRows, MatchOptions.defaults());
+    }
+    
+    /**
+     * Finds all show titles that match the given CSV rows, with the given options.
+     * <p>
+     * Interrupting the calling thread stops the matching.
+     *
+     * @param csvRows the list of CSV rows to match
+     * @param options the executor, deadline and progress listener of the call
+     * @return a list of match results, in input order
+     * @throws CancellationException if the deadline passed or the calling thread was interrupted
+     */
+    public List<MatchResult> findMatches(List<CSVRow> csvRows, MatchOptions options) {
+        return new ArrayList<>(findMatchResults(csvRows, options).asList());
+    }
+    
+    /**
+     * Starts finding all show titles that match the given CSV rows, with the given options.
+     * Cancelling the returned future stops the matching.
+     *
+     * @param csvRows the list of CSV rows to match
+     * @param options the executor, deadline and progress listener of the call
+     * @return a future completed with the match results, in input order, or with a
+     *         {@link CancellationException} if the deadline passed
+     * @see #findMatchResultsAsync(List, MatchOptions)
+     */
+    public CompletableFuture<List<MatchResult>> findMatchesAsync(List<CSVRow> csvRows, MatchOptions options) {
+        final CompletableFuture<MatchResults> results = findMatchResultsAsync(csvRows, options);
+        final CompletableFuture<List<MatchResult>> matches = results.thenApply(found -> new ArrayList<>(found.asList()));
+        matches.whenComplete((found, failure) -> {
+            if (matches.isCancelled()) {
+                results.cancel(false);
+            }
+        });
+        return matches;
+    }
+    
+    /**
+     * Finds all show titles that match the given CSV rows, on the JVM common pool,
+     * keeping the matches in compact form.
+     *
+     * @param csvRows the list of CSV rows to match
+     * @return the matches
+     */
+    public MatchResults findMatchResults(List<CSVRow> csvRows) {
+        return findMatchResults(csvRows, MatchOptions.defaults());
+    }
+    
+    /**
+     * Finds all show titles that match the given CSV rows, with the given options,
+     * keeping the matches in compact form.
+     * <p>
+     * Interrupting the calling thread stops the matching.
+     *
+     * @param csvRows the list of CSV rows to match
+     * @param options the executor, deadline and progress listener of the call
+     * @return the matches
+     * @throws CancellationException if the deadline passed or the calling thread was interrupted
+     */
+    public MatchResults findMatchResults(List<CSVRow> csvRows, MatchOptions options) {
+        final CompletableFuture<MatchResults> results = findMatchResultsAsync(csvRows, options);
+        try {
+            return results.get();
+        } catch (InterruptedException e) {
+            results.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while matching");
+        } catch (ExecutionException e) {
+            throw unchecked(e.getCause());
+        }
+    }
+    
+    /**
+     * Starts finding all show titles that match the given CSV rows, with the given options,
+     * keeping the matches in compact form.
+     * <p>
+     * Rows are matched in chunks on the executor of the options. Cancelling the returned future
+     * stops the matching: the workers give up after the row they are matching.
+     *
+     * @param csvRows the list of CSV rows to match
+     * @param options the executor, deadline and progress listener of the call
+     * @return a future completed with the matches, or with a {@link CancellationException}
+     *         if the deadline passed
+     */
+    public CompletableFuture<MatchResults> findMatchResultsAsync(List<CSVRow> csvRows, MatchOptions options) {
+        final CatalogVersion catalog = this.catalog;
+        final MatchMetrics metrics = this.metrics;
+        final TitleLookup lookup = this.titleLookup;
+        final MatchExecutor executor = options.getExecutor();
+        final MatchControl control = new MatchControl(options, csvRows.size());
+        final int chunkSize = executor.getChunkSize();
+        final AtomicReferenceArray<ChunkMatches> chunkMatches =
+                new AtomicReferenceArray<>((csvRows.size() + chunkSize - 1) / chunkSize);
+        final RowDeduplicator deduplicator = new RowDeduplicator(csvRows.size());
+        final CompletableFuture<MatchResults> result = new CompletableFuture<>();
+        final MatchBatchEvent event = new MatchBatchEvent();
+        event.begin();
+        
+        // Completing the result in any way, including cancelling it, stops the workers
+        result.whenComplete((matches, failure) -> {
+            control.stop();
+            if (event.shouldCommit()) {
+                event.rowCount = csvRows.size();
+                event.rowsMatched = control.getCompletedRows();
+                event.matchCount = matches != null ? matches.size() : 0;
+                event.failed = failure != null;
+                event.commit();
+            }
+        });
+        
+        executor.forEachChunk(csvRows.size(), (from, to) -> {
+            final ChunkMatches matches = new ChunkMatches(new IntList(), new IntList());
+            final MetricsRecorder recorder = metrics != null ? metrics.recorder() : null;
+            for (int i = from; i < to; i++) {
+                if (control.shouldStop()) {
+                    if (control.isDeadlinePassed()) {
+                        result.completeExceptionally(control.deadlineExceeded());
+                    }
+                    return;
+                }
+                final int matchCount = matches.titleRefs.size();
+                findMatchingTitles(csvRows.get(i), catalog, lookup, deduplicator, matches.titleRefs, recorder);
+                for (int j = matchCount; j < matches.titleRefs.size(); j++) {
+                    matches.rowIndexes.add(i);
+                }
+            }
+            if (recorder != null) {
+                recorder.flush();
+            }
+            chunkMatches.set(from / chunkSize, matches);
+            control.rowsCompleted(to - from);
+        }).whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure instanceof CompletionException ? failure.getCause() : failure);
+                return;
+            }
+            if (result.isDone()) {
+                return;
+            }
+            
+            int matchCount = 0;
+            for (int i = 0; i < chunkMatches.length(); i++) {
+                matchCount += chunkMatches.get(i).titleRefs.size();
+            }
+            final int[] rowIndexes = new int[matchCount];
+            final int[] titleRefs = new int[matchCount];
+            int offset = 0;
+            for (int i = 0; i < chunkMatches.length(); i++) {
+                final ChunkMatches matches = chunkMatches.get(i);
+                matches.rowIndexes.copyTo(rowIndexes, offset);
+                matches.titleRefs.copyTo(titleRefs, offset);
+                offset += matches.titleRefs.size();
+            }
+            result.complete(new MatchResults(csvRows, catalog, rowIndexes, titleRefs));
+        });
+        
+        return result;
+    }
+    
+    /**
+     * Finds all show titles that match the given CSV rows, delivering them to a sink as they are produced.
+     * Batches are matched on the JVM common pool.
+     *
+     * @param csvRows the stream of CSV rows to match
+     * @param sink    the sink receiving the matches of each matched row
+     * @return the number of rows processed
+     * @see #findMatches(Stream, MatchSink, MatchOptions)
+     */
+    public long findMatches(Stream<CSVRow> csvRows, MatchSink sink) {
+        return findMatches(csvRows, sink, MatchOptions.defaults());
+    }
+    
+    /**
+     * Finds all show titles that match the given CSV rows, delivering them to a sink as they are produced.
+     * <p>
+     * Rows are pulled from the stream in batches, of the chunk size of the executor, that are
+     * matched in parallel. Only a bounded number of batches is in flight at any time, and their
+     * results are handed to the sink from the calling thread, in input order, one call per
+     * matched row. A slow sink therefore holds back the reading of new rows, and memory use
+     * does not grow with the input size. The progress listener is told about every batch
+     * matched, and interrupting the calling thread stops the matching.
+     *
+     * @param csvRows the stream of CSV rows to match
+     * @param sink    the sink receiving the matches of each matched row
+     * @param options the executor, deadline and progress listener of the call
+     * @return the number of rows processed
+     * @throws CancellationException if the deadline passed or the calling thread was interrupted
+     */
+    public long findMatches(Stream<CSVRow> csvRows, MatchSink sink, MatchOptions options) {
+        final CatalogVersion catalog = this.catalog;
+        final MatchMetrics metrics = this.metrics;
+        final TitleLookup lookup = this.titleLookup;
+        final MatchExecutor executor = options.getExecutor();
+        final MatchControl control = new MatchControl(options, -1);
+        final int batchSize = executor.getChunkSize();
+        final int batchesInFlight = 2 * executor.getParallelism() + 2;
+        final Iterator<CSVRow> iterator = csvRows.iterator();
+        final Deque<CompletableFuture<List<RowMatches>>> inFlight = new ArrayDeque<>();
+        final MatchBatchEvent event = new MatchBatchEvent();
+        event.begin();
+        long rowCount = 0;
+        long matchCount = 0;
+        boolean completed = false;
+        
+        try {
+            while (iterator.hasNext()) {
+                if (control.isDeadlinePassed()) {
+                    throw control.deadlineExceeded();
+                }
+                
+                final List<CSVRow> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && iterator.hasNext()) {
+                    batch.add(iterator.next());
+                }
+                rowCount += batch.size();
+                
+                if (inFlight.size() >= batchesInFlight) {
+                    matchCount += deliver(inFlight.removeFirst(), sink);
+                }
+                inFlight.addLast(CompletableFuture.supplyAsync(() -> findMatchesForBatch(batch, catalog, lookup, metrics, control),
+                        executor.executor()));
+            }
+            
+            while (!inFlight.isEmpty()) {
+                matchCount += deliver(inFlight.removeFirst(), sink);
+            }
+            completed = true;
+        } finally {
+            control.stop();
+            inFlight.forEach(future -> future.cancel(false));
+            if (event.shouldCommit()) {
+                event.rowCount = -1;
+                event.rowsMatched = control.getCompletedRows();
+                event.matchCount = matchCount;
+                event.streaming = true;
+                event.failed = !completed;
+                event.commit();
+            }
+        }
+        
+        return rowCount;
+    }
+    
+    /**
+     * Matches a batch of rows, keeping the matched rows with their results.
+     *
+     * @param batch   the CSV rows to match
+     * @param catalog the catalog version to match against
+     * @param lookup  the approximate title lookups of the call
+     * @param metrics the metrics of the matcher, or null if none are collected
+     * @param control the control of the call, checked before every row and told about the progress
+     * @return the matches of each matched row, in input order
+     * @throws CancellationException if the call was stopped or passed its deadline
+     */
+    private List<RowMatches> findMatchesForBatch(List<CSVRow> batch, CatalogVersion catalog, TitleLookup lookup,
+            MatchMetrics metrics, MatchControl control) {
+        final List<RowMatches> batchMatches = new ArrayList<>();
+        final MetricsRecorder recorder = metrics != null ? metrics.recorder() : null;
+        final RowDeduplicator deduplicator = new RowDeduplicator(batch.size());
+        for (final CSVRow csvRow : batch) {
+            if (control.shouldStop()) {
+                throw control.isDeadlinePassed() ? control.deadlineExceeded() : new CancellationException("Matching stopped");
+            }
+            final List<MatchResult> matches = findMatchesForRow(csvRow, catalog, lookup, deduplicator, recorder);
+            if (!matches.isEmpty()) {
+                batchMatches.add(new RowMatches(csvRow, matches));
+            }
+        }
+        if (recorder != null) {
+            recorder.flush();
+        }
+        control.rowsCompleted(batch.size());
+        return batchMatches;
+    }
+    
+    /**
+     * Waits for a batch to complete and hands its results to the sink.
+     *
+     * @param batch the pending batch results
+     * @param sink  the sink receiving the matches
+     * @return the number of matches delivered
+     */
+    private static int deliver(CompletableFuture<List<RowMatches>> batch, MatchSink sink) {
+        final List<RowMatches> batchMatches;
+        try {
+            batchMatches = batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while matching");
+        } catch (ExecutionException e) {
+            throw unchecked(e.getCause());
+        }
+        
+        int matchCount = 0;
+        for (final RowMatches rowMatches : batchMatches) {
+            sink.accept(rowMatches.csvRow, rowMatches.matches);
+            matchCount += rowMatches.matches.size();
+        }
+        return matchCount;
+    }
+    
+    /**
+     * Rethrows the cause of a failed task as an unchecked exception.
+     *
+     * @param cause the failure of the task
+     * @return the exception to throw, if the cause is not an error
+     */
+    private static RuntimeException unchecked(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new CompletionException(cause);
     }
     
     /**
@@ -70,111 +622,294 @@ public final class ShowMatcher {
      * @return a list of match results
      */
     public List<MatchResult> findMatchesForRow(CSVRow csvRow) {
-        final List<MatchResult> results = new ArrayList<>();
+        final MatchMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return findMatchesForRow(csvRow, catalog, titleLookup, null, null);
+        }
+        final MetricsRecorder recorder = metrics.rowRecorder();
+        final List<MatchResult> results = findMatchesForRow(csvRow, catalog, titleLookup, null, recorder);
+        recorder.flush();
+        return results;
+    }
+    
+    /**
+     * Finds the shows that best match the given CSV row, ranked by score.
+     * <p>
+     * Shows go through the same filters as with {@link #findMatchesForRow(CSVRow)}, and are
+     * then scored by how their title matched and by how much their producers, year and type
+     * agree with the row. Only the best {@link MatchScoring#getMaxShows()} shows are kept,
+     * and the lookups that cannot find a better show than those are skipped.
+     * <p>
+     * No {@link MatchMetrics} are recorded for these searches, see {@link MatchMetrics}.
+     *
+     * @param csvRow  the CSV row to match
+     * @param scoring the scoring settings
+     * @return the best matches, by decreasing score, then in the order they were found
+     */
+    public List<ScoredMatch> findTopMatchesForRow(CSVRow csvRow, MatchScoring scoring) {
+        final CatalogVersion catalog = this.catalog;
+        final CompiledRow row = CompiledRow.compile(csvRow, catalog.producerDictionary());
+        return TopMatchSearch.find(row, catalog, titleLookup, scoring);
+    }
+    
+    /**
+     * Finds all show titles that match the given CSV row in a version of the catalog.
+     *
+     * @param csvRow       the CSV row to match
+     * @param catalog      the catalog version to match against
+     * @param lookup       the approximate title lookups of the call
+     * @param deduplicator the matches of the rows of the batch, or null to match the row on its own
+     * @param recorder     the recorder of the metrics, or null if none are collected
+     * @return a list of match results
+     */
+    private List<MatchResult> findMatchesForRow(CSVRow csvRow, CatalogVersion catalog, TitleLookup lookup,
+            RowDeduplicator deduplicator, MetricsRecorder recorder) {
+        final IntList titleRefs = new IntList();
+        findMatchingTitles(csvRow, catalog, lookup, deduplicator, titleRefs, recorder);
+        final List<MatchResult> results = new ArrayList<>(titleRefs.size());
+        for (int i = 0; i < titleRefs.size(); i++) {
+            results.add(MatchResult.match(csvRow, catalog.showTitle(titleRefs.get(i))));
+        }
+        return results;
+    }
+    
+    /**
+     * Finds the references of all show titles that match the given CSV row in a version of the catalog.
+     *
+     * @param csvRow       the CSV row to match
+     * @param catalog      the catalog version to match against
+     * @param lookup       the approximate title lookups of the call
+     * @param deduplicator the matches of the rows of the batch, or null to match the row on its own
+     * @param titleRefs    the list receiving the title references, see {@link CatalogVersion#showTitle(int)}
+     * @param recorder     the recorder of the metrics, or null if none are collected
+     */
+    private void findMatchingTitles(CSVRow csvRow, CatalogVersion catalog, TitleLookup lookup,
+            RowDeduplicator deduplicator, IntList titleRefs, MetricsRecorder recorder) {
+        // Events are only allocated and timed while a recording enables them
+        final boolean rowEvents = MatchRowEvent.isRecorded();
+        final SlowMatchRowEvent slowRowEvent = rowEvents ? new SlowMatchRowEvent() : null;
+        final WideMatchRowEvent wideRowEvent = rowEvents ? new WideMatchRowEvent() : null;
+        if (rowEvents) {
+            slowRowEvent.begin();
+            wideRowEvent.begin();
+        }
+        
+        final int matchCount = titleRefs.size();
+        final long start = recorder != null ? System.nanoTime() : 0;
+        final CompiledRow row = CompiledRow.compile(csvRow, catalog.producerDictionary());
+        if (recorder != null) {
+            recorder.addStageTime(MatchMetrics.Stage.ROW_COMPILATION, System.nanoTime() - start);
+        }
+        
+        // A row repeating one already matched in the batch copies its matches
+        final RowDeduplicator.QueryKey key = deduplicator != null ? RowDeduplicator.QueryKey.of(row) : null;
+        final RowDeduplicator.SharedMatches shared = key != null ? deduplicator.get(key) : null;
+        int candidateCount = 0;
+        if (shared != null) {
+            for (final int titleRef : shared.titleRefs()) {
+                titleRefs.add(titleRef);
+            }
+            candidateCount = shared.candidateCount();
+            if (recorder != null) {
+                recorder.rowDeduplicated();
+            }
+        } else {
+            for (final CatalogVersion.Layer layer : catalog.layers()) {
+                candidateCount += findMatchingTitlesInLayer(row, layer, lookup, titleRefs, recorder);
+            }
+            if (key != null) {
+                deduplicator.put(key, titleRefs, matchCount, candidateCount);
+            }
+        }
+        
+        if (recorder != null) {
+            recorder.addCandidates(candidateCount);
+            recorder.rowCompleted(titleRefs.size() - matchCount);
+        }
+        if (rowEvents) {
+            slowRowEvent.complete(row, candidateCount, titleRefs.size() - matchCount);
+            wideRowEvent.complete(row, candidateCount, titleRefs.size() - matchCount);
+        }
+    }
+    
+    /**
+     * Finds the references of all show titles that match the given compiled CSV row in one layer of the catalog.
+     *
+     * @param row       the compiled CSV row to match
+     * @param layer     the catalog layer to search
+     * @param lookup    the approximate title lookups of the call
+     * @param titleRefs the list receiving the title references
+     * @param recorder  the recorder of the metrics, or null if none are collected
+     * @return the number of candidate shows found by title
+     */
+    private int findMatchingTitlesInLayer(CompiledRow row, CatalogVersion.Layer layer, TitleLookup lookup,
+            IntList titleRefs, MetricsRecorder recorder) {
+        final CatalogRecords records = layer.index().records();
+        final ProducerDictionary producerDictionary = layer.index().producerDictionary();
         
         // Get potential show matches based on title
-        final List<Show> potentialShows = findPotentialShowsByTitle(csvRow);
+        final long candidatesStart = recorder != null ? System.nanoTime() : 0;
+        final ShowCandidates potentialShows = findPotentialShowsByTitle(row, layer.index(), lookup);
+        final long filteringStart = recorder != null ? System.nanoTime() : 0;
+        long emissionNanos = 0;
         
-        for (final Show show : potentialShows) {
+        for (int i = 0; i < potentialShows.size(); i++) {
+            final int showIndex = potentialShows.get(i);
+            
+            // Skip shows changed or removed since the layer was built
+            if (layer.isHidden(showIndex)) {
+                continue;
+            }
+            
             // Check year match if both are non-null
-            if (!isYearMatch(csvRow.getProductionYear(), show.getProductionYear())) {
+            if (!isYearMatch(row.getProductionYear(), records.productionYear(showIndex))) {
+                if (recorder != null) {
+                    recorder.reject(MatchMetrics.Rejection.YEAR);
+                }
                 continue;
             }
             
             // Check type match if both are non-null
-            if (!isTypeMatch(csvRow.getType(), show.getType())) {
+            if (!isTypeMatch(row.getType(), records.type(showIndex))) {
+                if (recorder != null) {
+                    recorder.reject(MatchMetrics.Rejection.TYPE);
+                }
                 continue;
             }
             
             // Check producer match
-            final List<String> csvProducers = ProducerParser.parse(csvRow.getProducers());
-            if (!csvProducers.isEmpty() && !show.getProducers().isEmpty() && 
-                    !ProducerParser.hasCommonProducer(csvProducers, show.getProducers())) {
+            if (row.hasProducers() && producerDictionary.hasProducers(showIndex) && 
+                    !producerDictionary.hasCommonProducer(showIndex, row.getProducerIds())) {
+                if (recorder != null) {
+                    recorder.reject(MatchMetrics.Rejection.PRODUCER);
+                }
                 continue;
             }
             
             // If we get here, we have a match
             // Find all titles for this show
-            final List<ShowTitle> matchingTitles = titlesByShowId.getOrDefault(show.getId(), List.of());
-            
-            for (final ShowTitle title : matchingTitles) {
-                results.add(MatchResult.match(csvRow, title));
+            final long emissionStart = recorder != null ? System.nanoTime() : 0;
+            for (int rank = 0; rank < records.titleCountOfShow(showIndex); rank++) {
+                titleRefs.add(layer.titleRef(records.titleOfShow(showIndex, rank)));
+            }
+            if (recorder != null) {
+                emissionNanos += System.nanoTime() - emissionStart;
             }
         }
         
-        return results;
+        if (recorder != null) {
+            // Emission is interleaved with filtering, and timed apart from it
+            recorder.addStageTime(MatchMetrics.Stage.CANDIDATES, filteringStart - candidatesStart);
+            recorder.addStageTime(MatchMetrics.Stage.FILTERING, System.nanoTime() - filteringStart - emissionNanos);
+            recorder.addStageTime(MatchMetrics.Stage.EMISSION, emissionNanos);
+        }
+        return potentialShows.size();
     }
     
     /**
      * Finds potential shows that match the given CSV row based on title.
      *
-     * @param csvRow the CSV row to match
-     * @return a list of potential show matches
+     * @param row    the compiled CSV row to match
+     * @param index  the catalog index to search
+     * @param lookup the approximate title lookups and candidate cache of the call
+     * @return the potential show matches
      */
-    private List<Show> findPotentialShowsByTitle(CSVRow csvRow) {
-        final List<Show> potentialShows = new ArrayList<>();
+    private ShowCandidates findPotentialShowsByTitle(CompiledRow row, CatalogIndex index, TitleLookup lookup) {
+        final ShowCandidates potentialShows = new ShowCandidates();
+        final TitleCandidateCache cache = lookup.cache() != null && lookup.cache().covers(index) ? lookup.cache() : null;
         
         // Check original title
-        if (csvRow.getOriginalTitle() != null && !csvRow.getOriginalTitle().isBlank()) {
-            potentialShows.addAll(findShowsByTitle(csvRow.getOriginalTitle()));
+        if (row.getOriginalKey() != null) {
+            findShowsByTitle(row.getOriginalKey(), row, index, lookup, cache, potentialShows);
         }
         
-        // Check translated title
-        if (csvRow.getTranslatedTitle() != null && !csvRow.getTranslatedTitle().isBlank()) {
-            potentialShows.addAll(findShowsByTitle(csvRow.getTranslatedTitle()));
+        // Check translated title, unless it normalizes to the original one
+        if (row.getTranslatedKey() != null) {
+            findShowsByTitle(row.getTranslatedKey(), row, index, lookup, cache, potentialShows);
         }
         
-        return potentialShows.stream()
-                .distinct()
-                .collect(Collectors.toList());
+        return potentialShows;
     }
     
     /**
-     * Finds shows that match the given title.
+     * Finds shows that match the given normalized title, through the candidate cache if the index is cached.
      *
-     * @param title the title to match
-     * @return a list of show matches
+     * @param normalizedTitle the normalized title to match
+     * @param row             the compiled CSV row
+     * @param index           the catalog index to search
+     * @param lookup          the approximate title lookups of the call
+     * @param cache           the candidate cache of the index, or null if the index is not cached
+     * @param result          the candidates receiving the show matches
      */
-    private List<Show> findShowsByTitle(String title) {
-        final List<Show> result = new ArrayList<>();
-        final String normalizedTitle = normalizeTitle(title);
-        
-        // Direct lookup by normalized title
-        final List<Show> directMatches = showsByNormalizedTitle.getOrDefault(normalizedTitle, List.of());
-        result.addAll(directMatches);
-        
-        // Check if any show title contains this title
-        for (final ShowTitle showTitle : showTitles) {
-            final String normalizedShowTitle = normalizeTitle(showTitle.getTitle());
-            
-            // Check if either title contains the other
-            if (normalizedShowTitle.contains(normalizedTitle) || normalizedTitle.contains(normalizedShowTitle)) {
-                final Show show = showsById.get(showTitle.getShowId());
-                if (show != null) {
-                    result.add(show);
-                }
-            }
+    private void findShowsByTitle(String normalizedTitle, CompiledRow row, CatalogIndex index, TitleLookup lookup,
+            TitleCandidateCache cache, ShowCandidates result) {
+        if (cache == null || normalizedTitle.isEmpty()) {
+            findShowsByTitle(normalizedTitle, row, index, lookup, result);
+            return;
         }
         
-        return result.stream()
-                .distinct()
-                .collect(Collectors.toList());
+        final TitleCandidateCache.Key key = TitleCandidateCache.key(normalizedTitle, row, lookup);
+        int[] shows = cache.get(index, key);
+        if (shows == null) {
+            // Collect apart from the other title of the row, whose candidates are not part of the entry
+            final ShowCandidates found = new ShowCandidates();
+            findShowsByTitle(normalizedTitle, row, index, lookup, found);
+            shows = found.toArray();
+            cache.offer(index, key, shows);
+        }
+        for (final int show : shows) {
+            result.add(show);
+        }
     }
     
     /**
-     * Normalizes a title for comparison.
+     * Finds shows that match the given normalized title.
      *
-     * @param title the title to normalize
-     * @return the normalized title
+     * @param normalizedTitle the normalized title to match
+     * @param row             the compiled CSV row, whose year and type restrict the substring lookups
+     * @param index           the catalog index to search
+     * @param lookup          the approximate title lookups of the call
+     * @param result          the candidates receiving the show matches
      */
-    private String normalizeTitle(String title) {
-        if (title == null) {
-            return "";
+    private void findShowsByTitle(String normalizedTitle, CompiledRow row, CatalogIndex index, TitleLookup lookup,
+            ShowCandidates result) {
+        // An empty key, such as a title made only of punctuation, matches nothing
+        if (normalizedTitle.isEmpty()) {
+            return;
+        }
+        
+        // Direct lookup by normalized title
+        index.keys().collectShowsWithKey(normalizedTitle, result);
+        
+        // Find show titles that contain this title or are contained in it, among the
+        // partitions compatible with the row year and type; short titles must be equal instead
+        final IntList matchingTitles = new IntList();
+        if (CatalogKeys.isSubstringKey(normalizedTitle)) {
+            index.titleBlockIndex().collectTitles(normalizedTitle, row.getProductionYear(), row.getType(), matchingTitles);
+        } else {
+            index.keys().collectTitlesWithShortKey(normalizedTitle, matchingTitles);
+        }
+        
+        // Find shows and titles whose key is a few edits away from this title
+        final FuzzyMatching fuzzy = lookup.fuzzy();
+        if (fuzzy != null && normalizedTitle.length() >= fuzzy.getMinKeyLength()) {
+            index.fuzzyTitleIndex(fuzzy).collect(normalizedTitle, fuzzy, result, matchingTitles);
         }
         
-        return title.trim()
-                .toLowerCase()
-                .replaceAll("[^a-z0-9]", ""); // Remove all non-alphanumeric characters
+        // Find shows and titles whose key shares most of its trigrams with this title
+        final SimilarityMatching similarity = lookup.similarity();
+        if (similarity != null && normalizedTitle.length() >= similarity.getMinKeyLength()) {
+            index.similarityTitleIndex(similarity).collect(normalizedTitle, similarity, result, matchingTitles);
+        }
+        
+        // Keep catalog order, whatever the partitions the titles came from
+        matchingTitles.sortDistinct();
+        for (int i = 0; i < matchingTitles.size(); i++) {
+            final int show = index.records().showOfTitle(matchingTitles.get(i));
+            if (show >= 0) {
+                result.add(show);
+            }
+        }
     }
     
     /**
@@ -184,7 +919,7 @@ public final class ShowMatcher {
      * @param showYear the year from the show
      * @return true if the years match, false otherwise
      */
-    private boolean isYearMatch(Integer csvYear, Integer showYear) {
+    static boolean isYearMatch(Integer csvYear, Integer showYear) {
         // If either year is null, consider it a match
         if (csvYear == null || showYear == null) {
             return true;
@@ -201,7 +936,7 @@ public final class ShowMatcher {
      * @param showType the type from the show
      * @return true if the types match, false otherwise
      */
-    private boolean isTypeMatch(String csvType, String showType) {
+    static boolean isTypeMatch(String csvType, String showType) {
         // If either type is null, consider it a match
         if (csvType == null || showType == null) {
             return true;
@@ -210,4 +945,16 @@ public final class ShowMatcher {
         // Otherwise, types must be equal (case-insensitive)
         return csvType.equalsIgnoreCase(showType);
     }
+    
+    /**
+     * Matches of a chunk of rows, as row indexes and title references.
+     */
+    private record ChunkMatches(IntList rowIndexes, IntList titleRefs) {
+    }
+    
+    /**
+     * Matches of one CSV row, waiting to be delivered to a sink.
+     */
+    private record RowMatches(CSVRow csvRow, List<MatchResult> matches) {
+    }
 }
@@ -0,0 +1,168 @@
+package org.example.matcher;
+
+/**
+ * Settings of the similarity title matching of a matcher, enabled with
+ * {@link ShowMatcher#setSimilarityMatching(SimilarityMatching)}.
+ * <p>
+ * With similarity matching, a long title of a CSV row also matches the catalog titles and
+ * original titles whose normalized key shares most of its character trigrams with its own,
+ * measured by their Jaccard similarity. Unlike an edit distance, this similarity stays high
+ * when words are reordered, or when a subtitle or an article is added or dropped, such as
+ * "Great British Bake Off, The" and "The Great British Bake Off". Only the best candidates
+ * above the threshold are kept, and they go through the same year, type and producer
+ * filters as any other candidate.
+ * <p>
+ * Candidates are found through locality-sensitive hashing: the MinHash signature of every
+ * key is cut in bands, and keys sharing a band are candidates. The probability that a key
+ * of similarity {@code s} shares a band is {@code 1 - (1 - s^r)^b} for {@code b} bands of
+ * {@code r} rows, so more bands find more of the similar keys, and more rows per band find
+ * fewer unrelated ones.
+ */
+public final class SimilarityMatching {
+    private static final int MIN_KEY_LENGTH = 3;
+    private static final int MAX_SIGNATURE_LENGTH = 128;
+
+    private final double threshold;
+    private final int maxCandidates;
+    private final int minKeyLength;
+    private final int bands;
+    private final int rowsPerBand;
+
+    private SimilarityMatching(double threshold, int maxCandidates, int minKeyLength, int bands, int rowsPerBand) {
+        this.threshold = threshold;
+        this.maxCandidates = maxCandidates;
+        this.minKeyLength = minKeyLength;
+        this.bands = bands;
+        this.rowsPerBand = rowsPerBand;
+    }
+
+    /**
+     * Returns the lowest trigram similarity of two keys that still match.
+     *
+     * @return the Jaccard similarity, above 0 and at most 1
+     */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Returns the highest number of similar keys kept for a title, the most similar first.
+     *
+     * @return the number of keys
+     */
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    /**
+     * Returns the length from which keys are matched by similarity.
+     *
+     * @return the minimum key length
+     */
+    public int getMinKeyLength() {
+        return minKeyLength;
+    }
+
+    /**
+     * Returns the number of bands of the MinHash signatures.
+     *
+     * @return the band count
+     */
+    public int getBands() {
+        return bands;
+    }
+
+    /**
+     * Returns the number of MinHash values in every band.
+     *
+     * @return the rows per band
+     */
+    public int getRowsPerBand() {
+        return rowsPerBand;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private double threshold = 0.5;
+        private int maxCandidates = 10;
+        private int minKeyLength = 8;
+        private int bands = 16;
+        private int rowsPerBand = 4;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the lowest trigram similarity of two keys that still match.
+         */
+        public Builder threshold(double threshold) {
+            this.threshold = threshold;
+            return this;
+        }
+
+        /**
+         * Sets the highest number of similar keys kept for a title.
+         */
+        public Builder maxCandidates(int maxCandidates) {
+            this.maxCandidates = maxCandidates;
+            return this;
+        }
+
+        /**
+         * Sets the length from which keys are matched by similarity. Short keys have few
+         * trigrams, and share most of them with too many unrelated titles.
+         */
+        public Builder minKeyLength(int minKeyLength) {
+            this.minKeyLength = minKeyLength;
+            return this;
+        }
+
+        /**
+         * Sets the number of bands of the MinHash signatures. Each band adds an 8-byte entry
+         * per key to the index.
+         */
+        public Builder bands(int bands) {
+            this.bands = bands;
+            return this;
+        }
+
+        /**
+         * Sets the number of MinHash values in every band.
+         */
+        public Builder rowsPerBand(int rowsPerBand) {
+            this.rowsPerBand = rowsPerBand;
+            return this;
+        }
+
+        /**
+         * Builds the settings.
+         *
+         * @return the settings
+         * @throws IllegalStateException if the threshold is not above 0 and at most 1, if the
+         *                               candidate count, band count or rows per band is not
+         *                               positive, if the signature is longer than 128 values,
+         *                               or if the minimum key length is below 3
+         */
+        public SimilarityMatching build() {
+            if (!(threshold > 0 && threshold <= 1)) {
+                throw new IllegalStateException("threshold must be above 0 and at most 1");
+            }
+            if (maxCandidates <= 0) {
+                throw new IllegalStateException("maxCandidates must be positive");
+            }
+            if (bands <= 0 || rowsPerBand <= 0) {
+                throw new IllegalStateException("bands and rowsPerBand must be positive");
+            }
+            if ((long) bands * rowsPerBand > MAX_SIGNATURE_LENGTH) {
+                throw new IllegalStateException("bands times rowsPerBand must be at most " + MAX_SIGNATURE_LENGTH);
+            }
+            if (minKeyLength < MIN_KEY_LENGTH) {
+                throw new IllegalStateException("minKeyLength must be at least " + MIN_KEY_LENGTH);
+            }
+            return new SimilarityMatching(threshold, maxCandidates, minKeyLength, bands, rowsPerBand);
+        }
+    }
+}
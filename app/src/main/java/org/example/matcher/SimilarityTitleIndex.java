@@ -0,0 +1,272 @@
+package org.example.matcher;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash index finding the catalog keys whose character trigrams are similar to those of
+ * a key.
+ * <p>
+ * Every distinct key of the catalog gets a MinHash signature: for each of {@code b * r}
+ * hash functions, the smallest hash of its trigrams. Two keys get the same value for one
+ * function with a probability equal to the Jaccard similarity of their trigram sets. The
+ * signature is cut in {@code b} bands of {@code r} values, and the index maps the hash of
+ * every band, with its rank, to the keys it was taken from. A lookup probes the bands of the
+ * looked up key, computes the exact similarity of the keys found this way, and keeps the
+ * best ones above the threshold.
+ * <p>
+ * The index holds one entry per band in a {@link KeyHashTable}, so its size grows with the
+ * number of bands, not with the length of the keys.
+ */
+final class SimilarityTitleIndex {
+    private static final long SEED = 0x5DEECE66DL;
+
+    private final int minKeyLength;
+    private final int bands;
+    private final int rowsPerBand;
+    private final HashFunctions hashFunctions;
+    private final IndexedKeys keys;
+    private final KeyHashTable buckets;
+
+    private SimilarityTitleIndex(SimilarityMatching similarity, HashFunctions hashFunctions, IndexedKeys keys,
+            KeyHashTable buckets) {
+        this.minKeyLength = similarity.getMinKeyLength();
+        this.bands = similarity.getBands();
+        this.rowsPerBand = similarity.getRowsPerBand();
+        this.hashFunctions = hashFunctions;
+        this.keys = keys;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Builds the index of the keys of a catalog.
+     *
+     * @param showKeys   the normalized original title of every show
+     * @param titleKeys  the normalized title of every show title
+     * @param similarity the similarity matching settings
+     * @return the index
+     */
+    static SimilarityTitleIndex build(String[] showKeys, String[] titleKeys, SimilarityMatching similarity) {
+        final IndexedKeys keys = IndexedKeys.of(showKeys, titleKeys, similarity.getMinKeyLength());
+        final int bands = similarity.getBands();
+        if (keys.size() >= KeyHashTable.MAX_KEYS || (long) keys.size() * bands > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many distinct title keys for the similarity index: " + keys.size());
+        }
+
+        // Pack every band of every key with the key ID
+        final HashFunctions hashFunctions = HashFunctions.of(bands * similarity.getRowsPerBand());
+        final long[] entries = new long[keys.size() * bands];
+        final long[] signature = new long[hashFunctions.size()];
+        for (int id = 0; id < keys.size(); id++) {
+            hashFunctions.signature(trigrams(keys.key(id)), signature);
+            for (int band = 0; band < bands; band++) {
+                entries[id * bands + band] = KeyHashTable.entry(bandHash(signature, band, similarity.getRowsPerBand()), id);
+            }
+        }
+
+        return new SimilarityTitleIndex(similarity, hashFunctions, keys, KeyHashTable.of(entries));
+    }
+
+    /**
+     * Checks if this index can serve lookups with the given settings.
+     *
+     * @param similarity the similarity matching settings
+     * @return true if the index was built for the same minimum key length and signatures
+     */
+    boolean supports(SimilarityMatching similarity) {
+        return minKeyLength == similarity.getMinKeyLength() && bands == similarity.getBands()
+                && rowsPerBand == similarity.getRowsPerBand();
+    }
+
+    /**
+     * Finds the shows and titles whose key is the most similar to a key, above the threshold.
+     *
+     * @param key          the normalized key, of at least the minimum key length
+     * @param similarity   the similarity matching settings the index was built for
+     * @param showResults  the candidates receiving the shows whose original title matches
+     * @param titleResults the list receiving the titles that match
+     */
+    void collect(String key, SimilarityMatching similarity, ShowCandidates showResults, IntList titleResults) {
+        final long[] grams = trigrams(key);
+        final long[] signature = new long[hashFunctions.size()];
+        hashFunctions.signature(grams, signature);
+
+        final IntList candidates = new IntList();
+        for (int band = 0; band < bands; band++) {
+            buckets.probe(bandHash(signature, band, rowsPerBand), candidates);
+        }
+        candidates.sortDistinct();
+
+        // Keep the most similar keys, in decreasing similarity and then in key ID order
+        final int[] bestIds = new int[similarity.getMaxCandidates()];
+        final double[] bestScores = new double[similarity.getMaxCandidates()];
+        int bestCount = 0;
+        long[] candidateGrams = new long[key.length()];
+        for (int i = 0; i < candidates.size(); i++) {
+            final String candidate = keys.key(candidates.get(i));
+
+            // A key with too few trigrams cannot share enough of them
+            if (candidate.length() - 2 < similarity.getThreshold() * grams.length) {
+                continue;
+            }
+            if (candidateGrams.length < candidate.length()) {
+                candidateGrams = new long[candidate.length()];
+            }
+            final int candidateGramCount = trigrams(candidate, candidateGrams);
+            final double score = jaccard(grams, grams.length, candidateGrams, candidateGramCount);
+            final int id = candidates.get(i);
+            if (score < similarity.getThreshold()
+                    || (bestCount == bestIds.length && score <= bestScores[bestCount - 1])) {
+                continue;
+            }
+            int rank = Math.min(bestCount, bestIds.length - 1);
+            while (rank > 0 && bestScores[rank - 1] < score) {
+                bestIds[rank] = bestIds[rank - 1];
+                bestScores[rank] = bestScores[rank - 1];
+                rank--;
+            }
+            bestIds[rank] = id;
+            bestScores[rank] = score;
+            bestCount = Math.min(bestCount + 1, bestIds.length);
+        }
+
+        for (int i = 0; i < bestCount; i++) {
+            keys.addPositions(bestIds[i], showResults, titleResults);
+        }
+    }
+
+    /**
+     * Returns the distinct character trigrams of a key, each packed in a {@code long}, in
+     * increasing order.
+     *
+     * @param key the key
+     * @return the trigrams, empty for keys shorter than three characters
+     */
+    static long[] trigrams(String key) {
+        final long[] grams = new long[key.length()];
+        return Arrays.copyOf(grams, trigrams(key, grams));
+    }
+
+    /**
+     * Writes the distinct character trigrams of a key, each packed in a {@code long}, in
+     * increasing order. Keys have a few dozen trigrams at most, so an insertion sort in place
+     * is the fastest.
+     *
+     * @param key   the key
+     * @param grams the array receiving the trigrams, at least as long as the key
+     * @return the number of distinct trigrams
+     */
+    static int trigrams(String key, long[] grams) {
+        int count = 0;
+        for (int i = 0; i + 2 < key.length(); i++) {
+            final long gram = (long) key.charAt(i) << 32 | (long) key.charAt(i + 1) << 16 | key.charAt(i + 2);
+            int position = count;
+            while (position > 0 && grams[position - 1] > gram) {
+                position--;
+            }
+            if (position > 0 && grams[position - 1] == gram) {
+                continue;
+            }
+            System.arraycopy(grams, position, grams, position + 1, count - position);
+            grams[position] = gram;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Computes the Jaccard similarity of two sets of trigrams.
+     *
+     * @param left  the first trigrams, in increasing order
+     * @param right the second trigrams, in increasing order
+     * @return the size of the intersection divided by the size of the union
+     */
+    static double jaccard(long[] left, long[] right) {
+        return jaccard(left, left.length, right, right.length);
+    }
+
+    private static double jaccard(long[] left, int leftCount, long[] right, int rightCount) {
+        int common = 0;
+        for (int i = 0, j = 0; i < leftCount && j < rightCount; ) {
+            if (left[i] == right[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (left[i] < right[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        final int union = leftCount + rightCount - common;
+        return union == 0 ? 0 : (double) common / union;
+    }
+
+    /**
+     * Hashes a band of a signature with its rank, for the table of bands.
+     *
+     * @param signature   the signature
+     * @param band        the rank of the band
+     * @param rowsPerBand the number of values in every band
+     * @return the hash
+     */
+    private static long bandHash(long[] signature, int band, int rowsPerBand) {
+        long hash = 0xCBF29CE484222325L ^ band;
+        for (int row = band * rowsPerBand; row < (band + 1) * rowsPerBand; row++) {
+            hash = (hash ^ signature[row]) * 0x100000001B3L;
+        }
+        return KeyHashTable.reduce(hash);
+    }
+
+    /**
+     * Hash functions of the MinHash signatures: every function multiplies a scrambled trigram
+     * by its own odd number and adds its own seed, so that the trigram is scrambled once for
+     * all the functions. The functions are the same for every index, so that indexes and
+     * lookups agree on them.
+     */
+    private record HashFunctions(long[] multipliers, long[] seeds) {
+
+        static HashFunctions of(int count) {
+            final SplittableRandom random = new SplittableRandom(SEED);
+            final long[] multipliers = new long[count];
+            final long[] seeds = new long[count];
+            for (int i = 0; i < count; i++) {
+                multipliers[i] = random.nextLong() | 1;
+                seeds[i] = random.nextLong();
+            }
+            return new HashFunctions(multipliers, seeds);
+        }
+
+        int size() {
+            return seeds.length;
+        }
+
+        /**
+         * Computes the MinHash signature of a set of trigrams.
+         *
+         * @param grams     the trigrams
+         * @param signature the array receiving the smallest hash of every function
+         */
+        void signature(long[] grams, long[] signature) {
+            Arrays.fill(signature, Long.MAX_VALUE);
+            for (final long gram : grams) {
+                final long scrambled = mix(gram);
+                for (int h = 0; h < signature.length; h++) {
+                    signature[h] = Math.min(signature[h], scrambled * multipliers[h] + seeds[h]);
+                }
+            }
+        }
+
+        /**
+         * Scrambles the bits of a value (the finalizer of MurmurHash3).
+         */
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xFF51AFD7ED558CCDL;
+            value ^= value >>> 33;
+            value *= 0xC4CEB9FE1A85EC53L;
+            value ^= value >>> 33;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.matcher;
+
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for a row that took longer to match than the {@code threshold}
+ * setting of the event.
+ */
+@Name("org.example.SlowMatchRow")
+@Label("Slow Match Row")
+@Description("CSV row that took longer to match than the threshold")
+@Enabled(false)
+@Threshold("10 ms")
+final class SlowMatchRowEvent extends MatchRowEvent {
+}
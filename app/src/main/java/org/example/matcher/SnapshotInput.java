@@ -0,0 +1,119 @@
+package org.example.matcher;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential reader of the binary snapshot format written by {@link SnapshotOutput}.
+ * <p>
+ * Scalars and strings are read from the file, while arrays are memory-mapped and returned
+ * as read-only typed views: their content is never copied to the heap. Mappings stay valid
+ * after the reader is closed.
+ */
+final class SnapshotInput implements Closeable {
+    private final FileChannel channel;
+    private final long size;
+    private final ByteBuffer scratch = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private long position;
+
+    /**
+     * Opens the given file for reading.
+     *
+     * @param path the file to read
+     * @throws IOException if the file cannot be opened
+     */
+    SnapshotInput(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    int readInt() throws IOException {
+        return read(Integer.BYTES).getInt();
+    }
+
+    long readLong() throws IOException {
+        return read(Long.BYTES).getLong();
+    }
+
+    String readString() throws IOException {
+        final int length = readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        readFully(ByteBuffer.wrap(bytes));
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    ByteBuffer readByteArray() throws IOException {
+        return map(readArrayHeader());
+    }
+
+    IntBuffer readInts() throws IOException {
+        return map((long) readArrayHeader() * Integer.BYTES).asIntBuffer();
+    }
+
+    LongBuffer readLongs() throws IOException {
+        return map((long) readArrayHeader() * Long.BYTES).asLongBuffer();
+    }
+
+    CharBuffer readChars() throws IOException {
+        return map((long) readArrayHeader() * Character.BYTES).asCharBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int readArrayHeader() throws IOException {
+        final int length = readInt();
+        if (length < 0) {
+            throw new IOException("Corrupted snapshot: negative array length at " + position);
+        }
+        position = (position + Long.BYTES - 1) & -Long.BYTES;
+        return length;
+    }
+
+    private ByteBuffer read(int length) throws IOException {
+        scratch.clear().limit(length);
+        readFully(scratch);
+        return scratch.flip();
+    }
+
+    private void readFully(ByteBuffer target) throws IOException {
+        final int length = target.remaining();
+        if (position + length > size) {
+            throw new EOFException("Truncated snapshot at " + position);
+        }
+        while (target.hasRemaining()) {
+            if (channel.read(target, position + length - target.remaining()) < 0) {
+                throw new EOFException("Truncated snapshot at " + position);
+            }
+        }
+        position += length;
+    }
+
+    private ByteBuffer map(long length) throws IOException {
+        if (position + length > size) {
+            throw new EOFException("Truncated snapshot at " + position);
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot section too large to map: " + length + " bytes");
+        }
+        final ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        position += length;
+        return mapped;
+    }
+}
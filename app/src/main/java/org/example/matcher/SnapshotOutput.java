@@ -0,0 +1,184 @@
+package org.example.matcher;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential writer of the binary snapshot format, see {@link CatalogIndex}.
+ * <p>
+ * Values are little-endian. Arrays are written as their length followed by their
+ * elements, aligned on 8 bytes so that {@link SnapshotInput} can map them as typed views.
+ * Strings are written as their UTF-8 length, or -1 for null, followed by their bytes.
+ */
+final class SnapshotOutput implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long position;
+
+    /**
+     * Creates or truncates the given file.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be opened
+     */
+    SnapshotOutput(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    void writeInt(int value) throws IOException {
+        ensureRemaining(Integer.BYTES);
+        buffer.putInt(value);
+        position += Integer.BYTES;
+    }
+
+    void writeLong(long value) throws IOException {
+        ensureRemaining(Long.BYTES);
+        buffer.putLong(value);
+        position += Long.BYTES;
+    }
+
+    void writeString(String value) throws IOException {
+        if (value == null) {
+            writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        writeBytes(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer, without length nor alignment.
+     * The position of the buffer is left unchanged.
+     */
+    void writeBytes(ByteBuffer bytes) throws IOException {
+        final ByteBuffer source = bytes.duplicate();
+        while (source.hasRemaining()) {
+            ensureRemaining(1);
+            final int count = Math.min(source.remaining(), buffer.remaining());
+            buffer.put(source.slice(source.position(), count));
+            source.position(source.position() + count);
+            position += count;
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer as an array.
+     * The position of the buffer is left unchanged.
+     */
+    void writeByteArray(ByteBuffer bytes) throws IOException {
+        writeArrayHeader(bytes.remaining());
+        writeBytes(bytes);
+    }
+
+    /**
+     * Writes the remaining ints of a buffer as an array.
+     * The position of the buffer is left unchanged.
+     */
+    void writeInts(IntBuffer values) throws IOException {
+        final IntBuffer source = values.duplicate();
+        writeArrayHeader(source.remaining());
+        while (source.hasRemaining()) {
+            ensureRemaining(Integer.BYTES);
+            final int count = Math.min(source.remaining(), buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().put(source.slice(source.position(), count));
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            source.position(source.position() + count);
+            position += (long) count * Integer.BYTES;
+        }
+    }
+
+    void writeInts(int[] values) throws IOException {
+        writeInts(IntBuffer.wrap(values));
+    }
+
+    /**
+     * Writes the remaining longs of a buffer as an array.
+     * The position of the buffer is left unchanged.
+     */
+    void writeLongs(LongBuffer values) throws IOException {
+        final LongBuffer source = values.duplicate();
+        writeArrayHeader(source.remaining());
+        while (source.hasRemaining()) {
+            ensureRemaining(Long.BYTES);
+            final int count = Math.min(source.remaining(), buffer.remaining() / Long.BYTES);
+            buffer.asLongBuffer().put(source.slice(source.position(), count));
+            buffer.position(buffer.position() + count * Long.BYTES);
+            source.position(source.position() + count);
+            position += (long) count * Long.BYTES;
+        }
+    }
+
+    /**
+     * Writes the remaining chars of a buffer as an array.
+     * The position of the buffer is left unchanged.
+     */
+    void writeChars(CharBuffer values) throws IOException {
+        final CharBuffer source = values.duplicate();
+        writeArrayHeader(source.remaining());
+        while (source.hasRemaining()) {
+            ensureRemaining(Character.BYTES);
+            final int count = Math.min(source.remaining(), buffer.remaining() / Character.BYTES);
+            buffer.asCharBuffer().put(source.slice(source.position(), count));
+            buffer.position(buffer.position() + count * Character.BYTES);
+            source.position(source.position() + count);
+            position += (long) count * Character.BYTES;
+        }
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     *
+     * @return the position in the file
+     */
+    long position() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            flush();
+            channel.force(false);
+        }
+    }
+
+    private void writeArrayHeader(int length) throws IOException {
+        writeInt(length);
+        align();
+    }
+
+    private void align() throws IOException {
+        while (position % Long.BYTES != 0) {
+            ensureRemaining(1);
+            buffer.put((byte) 0);
+            position++;
+        }
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,285 @@
+package org.example.matcher;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Aho-Corasick automaton compiled over the normalized catalog titles.
+ * A single left-to-right pass over a normalized key reports every catalog title
+ * occurring inside it, whatever the size of the catalog.
+ * Titles whose keys are too short for substring matching are left out, see {@link CatalogKeys}.
+ * <p>
+ * The automaton tables are NIO buffers: they wrap heap arrays when the automaton is
+ * compiled, and are mapped from the file when it is read from a {@link CatalogIndex} snapshot.
+ */
+final class TitleAutomaton {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+    private static final long EMPTY_KEY = -1L;
+
+    private final IntBuffer titles;
+
+    // Trie nodes
+    private final IntBuffer failure;
+    private final IntBuffer outputLink;
+    private final IntBuffer firstTitle;
+    private final IntBuffer nextTitle;
+
+    // Transitions keyed by (node, character), used while scanning
+    private final LongBuffer edgeKeys;
+    private final IntBuffer edgeTargets;
+    private final int edgeMask;
+
+    /**
+     * Compiles the automaton over a subset of the normalized catalog titles.
+     * The position of a title in the catalog is the index reported by scans.
+     *
+     * @param titleKeys the normalized key of every catalog title
+     * @param titles    the positions of the titles to compile
+     */
+    TitleAutomaton(String[] titleKeys, int[] titles) {
+        final int titleCount = titles.length;
+
+        int maxNodes = 1;
+        for (int i = 0; i < titleCount; i++) {
+            final String title = titleKeys[titles[i]];
+            if (CatalogKeys.isSubstringKey(title)) {
+                maxNodes += title.length();
+            }
+        }
+
+        final int[] failureLinks = new int[maxNodes];
+        final int[] outputLinks = new int[maxNodes];
+        final int[] firstTitles = new int[maxNodes];
+        final int[] nextTitles = new int[titleCount];
+        Arrays.fill(firstTitles, NONE);
+
+        // Children as sibling lists, used while building
+        final int[] firstChild = new int[maxNodes];
+        final int[] nextSibling = new int[maxNodes];
+        final char[] label = new char[maxNodes];
+        Arrays.fill(firstChild, NONE);
+        Arrays.fill(nextSibling, NONE);
+
+        // Transitions of the trie being built, at most one per node
+        final int buildCapacity = capacityFor(maxNodes);
+        final long[] buildKeys = new long[buildCapacity];
+        final int[] buildTargets = new int[buildCapacity];
+        Arrays.fill(buildKeys, EMPTY_KEY);
+
+        this.titles = IntBuffer.wrap(titles);
+        this.failure = IntBuffer.wrap(failureLinks);
+        this.outputLink = IntBuffer.wrap(outputLinks);
+        this.firstTitle = IntBuffer.wrap(firstTitles);
+        this.nextTitle = IntBuffer.wrap(nextTitles);
+
+        int nodeCount = 1;
+
+        // Insert every title into the trie; titles sharing a key are chained on the same node
+        for (int i = titleCount - 1; i >= 0; i--) {
+            final String title = titleKeys[titles[i]];
+            if (!CatalogKeys.isSubstringKey(title)) {
+                continue;
+            }
+
+            int node = ROOT;
+            for (int j = 0; j < title.length(); j++) {
+                final char c = title.charAt(j);
+                int child = transition(buildKeys, buildTargets, node, c);
+                if (child == NONE) {
+                    child = nodeCount++;
+                    putTransition(buildKeys, buildTargets, node, c, child);
+                    label[child] = c;
+                    nextSibling[child] = firstChild[node];
+                    firstChild[node] = child;
+                }
+                node = child;
+            }
+            nextTitles[i] = firstTitles[node];
+            firstTitles[node] = i;
+        }
+
+        // Titles share their prefixes, so the trie has far fewer nodes than the titles have
+        // characters: the transitions are moved to a table sized for the nodes in use
+        final int capacity = capacityFor(nodeCount);
+        final long[] keys = new long[capacity];
+        final int[] targets = new int[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        for (int slot = 0; slot < buildCapacity; slot++) {
+            if (buildKeys[slot] != EMPTY_KEY) {
+                putTransition(keys, targets, buildKeys[slot], buildTargets[slot]);
+            }
+        }
+        this.edgeKeys = LongBuffer.wrap(keys);
+        this.edgeTargets = IntBuffer.wrap(targets);
+        this.edgeMask = capacity - 1;
+
+        buildFailureLinks(nodeCount, firstChild, nextSibling, label);
+
+        // Only the nodes in use are written to snapshots
+        failure.limit(nodeCount);
+        outputLink.limit(nodeCount);
+        firstTitle.limit(nodeCount);
+    }
+
+    private TitleAutomaton(IntBuffer titles, IntBuffer failure, IntBuffer outputLink, IntBuffer firstTitle,
+            IntBuffer nextTitle, LongBuffer edgeKeys, IntBuffer edgeTargets) {
+        this.titles = titles;
+        this.failure = failure;
+        this.outputLink = outputLink;
+        this.firstTitle = firstTitle;
+        this.nextTitle = nextTitle;
+        this.edgeKeys = edgeKeys;
+        this.edgeTargets = edgeTargets;
+        this.edgeMask = edgeKeys.limit() - 1;
+    }
+
+    /**
+     * Maps an automaton written by {@link #write(SnapshotOutput)}.
+     *
+     * @param in the snapshot input
+     * @return the automaton
+     * @throws IOException if the snapshot cannot be read
+     */
+    static TitleAutomaton read(SnapshotInput in) throws IOException {
+        return new TitleAutomaton(in.readInts(), in.readInts(), in.readInts(), in.readInts(), in.readInts(),
+                in.readLongs(), in.readInts());
+    }
+
+    /**
+     * Writes the automaton to a snapshot. The sibling lists only used while building are left out.
+     *
+     * @param out the snapshot output
+     * @throws IOException if the snapshot cannot be written
+     */
+    void write(SnapshotOutput out) throws IOException {
+        out.writeInts(titles);
+        out.writeInts(failure);
+        out.writeInts(outputLink);
+        out.writeInts(firstTitle);
+        out.writeInts(nextTitle);
+        out.writeLongs(edgeKeys);
+        out.writeInts(edgeTargets);
+    }
+
+    /**
+     * Marks every title whose normalized key occurs inside the given normalized key.
+     *
+     * @param key     the normalized key to scan
+     * @param matches the list receiving the catalog positions of the matching titles
+     */
+    void collectTitlesContainedIn(String key, IntList matches) {
+        int state = ROOT;
+        for (int i = 0; i < key.length(); i++) {
+            final char c = key.charAt(i);
+            int next = transition(state, c);
+            while (next == NONE && state != ROOT) {
+                state = failure.get(state);
+                next = transition(state, c);
+            }
+            state = next == NONE ? ROOT : next;
+
+            for (int node = firstTitle.get(state) != NONE ? state : outputLink.get(state);
+                    node != NONE; node = outputLink.get(node)) {
+                for (int title = firstTitle.get(node); title != NONE; title = nextTitle.get(title)) {
+                    matches.add(titles.get(title));
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes failure and output links breadth-first from the root.
+     */
+    private void buildFailureLinks(int nodeCount, int[] firstChild, int[] nextSibling, char[] label) {
+        final int[] queue = new int[nodeCount];
+        int head = 0;
+        int tail = 0;
+
+        failure.put(ROOT, ROOT);
+        outputLink.put(ROOT, NONE);
+        for (int child = firstChild[ROOT]; child != NONE; child = nextSibling[child]) {
+            failure.put(child, ROOT);
+            outputLink.put(child, NONE);
+            queue[tail++] = child;
+        }
+
+        while (head < tail) {
+            final int node = queue[head++];
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                final char c = label[child];
+
+                int fallback = failure.get(node);
+                int target = transition(fallback, c);
+                while (target == NONE && fallback != ROOT) {
+                    fallback = failure.get(fallback);
+                    target = transition(fallback, c);
+                }
+                failure.put(child, target == NONE ? ROOT : target);
+
+                final int suffix = failure.get(child);
+                outputLink.put(child, firstTitle.get(suffix) != NONE ? suffix : outputLink.get(suffix));
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    private int transition(int node, char c) {
+        final long key = edgeKey(node, c);
+        for (int slot = slot(key, edgeMask); ; slot = (slot + 1) & edgeMask) {
+            final long current = edgeKeys.get(slot);
+            if (current == key) {
+                return edgeTargets.get(slot);
+            }
+            if (current == EMPTY_KEY) {
+                return NONE;
+            }
+        }
+    }
+
+    private static int transition(long[] keys, int[] targets, int node, char c) {
+        final long key = edgeKey(node, c);
+        final int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return targets[slot];
+            }
+            if (keys[slot] == EMPTY_KEY) {
+                return NONE;
+            }
+        }
+    }
+
+    private static void putTransition(long[] keys, int[] targets, int node, char c, int target) {
+        putTransition(keys, targets, edgeKey(node, c), target);
+    }
+
+    private static void putTransition(long[] keys, int[] targets, long key, int target) {
+        final int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != EMPTY_KEY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        targets[slot] = target;
+    }
+
+    /**
+     * Sizes a transition table for a number of nodes, every node but the root having one
+     * incoming transition, so that at most half of the slots are used.
+     */
+    private static int capacityFor(int nodeCount) {
+        return Integer.highestOneBit(Math.max(1, (nodeCount - 1) * 2 - 1)) << 1;
+    }
+
+    private static long edgeKey(int node, char c) {
+        return ((long) node << 16) | c;
+    }
+
+    private static int slot(long key, int mask) {
+        return Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+    }
+}
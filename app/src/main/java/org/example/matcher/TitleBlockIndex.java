@@ -0,0 +1,306 @@
+package org.example.matcher;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Title substring indexes partitioned by production year and type of the owning show.
+ * <p>
+ * A row only has to search the partitions its year and type can match. Shows without a
+ * year or a type are kept in wildcard partitions searched by every row, and a row without
+ * a year or a type searches the partitions of every year or type, which follows the rule
+ * that a null year or type matches anything.
+ * <p>
+ * The suffix arrays, which find the titles containing a key, are partitioned by year and
+ * type: a common key is contained in many titles, most of them of other years. The automata,
+ * which find the titles contained in a key, are only partitioned by type. Their lookups cost
+ * a scan of the key whatever the size of the partition, and few titles are contained in a
+ * key, so splitting them by year would only multiply the scans; their hits are filtered by
+ * year instead. A row without a year walks the suffix arrays of every year, listed by type
+ * when the index is built, and a {@link GramFilter} per partition skips most of them. The
+ * year and type filters still run on the candidates afterwards, so partitioning never
+ * changes the matches, only the search space.
+ */
+final class TitleBlockIndex {
+    private final CatalogRecords records;
+    private final Map<Integer, Map<String, Block>> blocksByYear;
+    private final Map<String, TitleAutomaton> automataByType;
+    private final Map<String, List<Block>> blocksOfEveryYear;
+    private final List<Block> allBlocks;
+
+    /**
+     * Partitions the catalog titles and builds the indexes of every partition.
+     *
+     * @param records   the catalog records
+     * @param titleKeys the normalized key of every catalog title
+     */
+    TitleBlockIndex(CatalogRecords records, String[] titleKeys) {
+        final Map<Integer, Map<String, IntList>> titlesByYear = new HashMap<>();
+        final Map<String, IntList> titlesByType = new HashMap<>();
+        for (int title = 0; title < titleKeys.length; title++) {
+            final int show = records.showOfTitle(title);
+            if (show < 0 || !CatalogKeys.isSubstringKey(titleKeys[title])) {
+                continue;
+            }
+
+            final String type = typeKey(records.type(show));
+            titlesByYear.computeIfAbsent(records.productionYear(show), k -> new HashMap<>())
+                    .computeIfAbsent(type, k -> new IntList())
+                    .add(title);
+            titlesByType.computeIfAbsent(type, k -> new IntList()).add(title);
+        }
+
+        this.records = records;
+        this.blocksByYear = new HashMap<>();
+        titlesByYear.forEach((year, titles) -> blocksByYear.put(year, buildBlocks(titleKeys, titles)));
+        this.automataByType = new HashMap<>();
+        titlesByType.forEach((type, titles) -> automataByType.put(type, new TitleAutomaton(titleKeys, titles.toArray())));
+        this.blocksOfEveryYear = new HashMap<>();
+        this.allBlocks = new ArrayList<>();
+        listBlocks();
+    }
+
+    private TitleBlockIndex(CatalogRecords records, Map<Integer, Map<String, Block>> blocksByYear,
+            Map<String, TitleAutomaton> automataByType) {
+        this.records = records;
+        this.blocksByYear = blocksByYear;
+        this.automataByType = automataByType;
+        this.blocksOfEveryYear = new HashMap<>();
+        this.allBlocks = new ArrayList<>();
+        listBlocks();
+    }
+
+    /**
+     * Maps the partitions written by {@link #write(SnapshotOutput)}.
+     *
+     * @param in      the snapshot input
+     * @param records the catalog records the partitions were built from
+     * @return the index
+     * @throws IOException if the snapshot cannot be read
+     */
+    static TitleBlockIndex read(SnapshotInput in, CatalogRecords records) throws IOException {
+        final Map<Integer, Map<String, Block>> blocksByYear = new HashMap<>();
+        final int yearCount = in.readInt();
+        for (int i = 0; i < yearCount; i++) {
+            final Integer year = in.readInt() == 0 ? null : in.readInt();
+            final Map<String, Block> blocks = new HashMap<>();
+            final int blockCount = in.readInt();
+            for (int j = 0; j < blockCount; j++) {
+                final String type = in.readString();
+                blocks.put(type, new Block(TitleSubstringIndex.read(in), GramFilter.read(in)));
+            }
+            blocksByYear.put(year, blocks);
+        }
+
+        final Map<String, TitleAutomaton> automataByType = new HashMap<>();
+        final int typeCount = in.readInt();
+        for (int i = 0; i < typeCount; i++) {
+            final String type = in.readString();
+            automataByType.put(type, TitleAutomaton.read(in));
+        }
+        return new TitleBlockIndex(records, blocksByYear, automataByType);
+    }
+
+    /**
+     * Writes every partition to a snapshot.
+     *
+     * @param out the snapshot output
+     * @throws IOException if the snapshot cannot be written
+     */
+    void write(SnapshotOutput out) throws IOException {
+        out.writeInt(blocksByYear.size());
+        for (final Map.Entry<Integer, Map<String, Block>> entry : blocksByYear.entrySet()) {
+            if (entry.getKey() == null) {
+                out.writeInt(0);
+            } else {
+                out.writeInt(1);
+                out.writeInt(entry.getKey());
+            }
+            out.writeInt(entry.getValue().size());
+            for (final Map.Entry<String, Block> block : entry.getValue().entrySet()) {
+                out.writeString(block.getKey());
+                block.getValue().substringIndex.write(out);
+                block.getValue().filter.write(out);
+            }
+        }
+
+        out.writeInt(automataByType.size());
+        for (final Map.Entry<String, TitleAutomaton> entry : automataByType.entrySet()) {
+            out.writeString(entry.getKey());
+            entry.getValue().write(out);
+        }
+    }
+
+    /**
+     * Marks every title, among the partitions compatible with the given year and type,
+     * that contains the key or is contained in it.
+     *
+     * @param key     the normalized key, long enough for substring matching
+     * @param year    the production year of the row, or null
+     * @param type    the type of the row, or null
+     * @param matches the list receiving the catalog positions of the matching titles
+     */
+    void collectTitles(String key, Integer year, String type, IntList matches) {
+        collectTitles(key, false, year, type, matches);
+        collectTitlesContainedIn(key, year, type, matches);
+    }
+
+    /**
+     * Marks every title, among the partitions compatible with the given year and type,
+     * whose key equals the key.
+     *
+     * @param key     the normalized key, long enough for substring matching
+     * @param year    the production year of the row, or null
+     * @param type    the type of the row, or null
+     * @param matches the list receiving the catalog positions of the equal titles
+     */
+    void collectTitlesEqualTo(String key, Integer year, String type, IntList matches) {
+        collectTitles(key, true, year, type, matches);
+    }
+
+    private void collectTitles(String key, boolean equal, Integer year, String type, IntList matches) {
+        if (year == null) {
+            final GramFilter.Grams grams = GramFilter.grams(key);
+            if (type == null) {
+                collectTitles(key, grams, equal, allBlocks, matches);
+                return;
+            }
+            collectTitles(key, grams, equal, blocksOfEveryYear.get(typeKey(type)), matches);
+            collectTitles(key, grams, equal, blocksOfEveryYear.get(null), matches);
+            return;
+        }
+
+        collectTitles(key, equal, blocksByYear.get(year), type, matches);
+        collectTitles(key, equal, blocksByYear.get(null), type, matches);
+    }
+
+    private static void collectTitles(String key, boolean equal, Map<String, Block> blocksByType, String type,
+            IntList matches) {
+        if (blocksByType == null) {
+            return;
+        }
+        if (type == null) {
+            for (final Block block : blocksByType.values()) {
+                block.collectTitles(key, equal, matches);
+            }
+            return;
+        }
+
+        final Block typeBlock = blocksByType.get(typeKey(type));
+        if (typeBlock != null) {
+            typeBlock.collectTitles(key, equal, matches);
+        }
+        final Block wildcardBlock = blocksByType.get(null);
+        if (wildcardBlock != null) {
+            wildcardBlock.collectTitles(key, equal, matches);
+        }
+    }
+
+    private static void collectTitles(String key, GramFilter.Grams grams, boolean equal, List<Block> blocks,
+            IntList matches) {
+        if (blocks == null) {
+            return;
+        }
+        for (final Block block : blocks) {
+            if (block.filter.mayContain(grams)) {
+                block.collectTitles(key, equal, matches);
+            }
+        }
+    }
+
+    private void collectTitlesContainedIn(String key, Integer year, String type, IntList matches) {
+        final int from = matches.size();
+        if (type == null) {
+            for (final TitleAutomaton automaton : automataByType.values()) {
+                automaton.collectTitlesContainedIn(key, matches);
+            }
+        } else {
+            final TitleAutomaton typeAutomaton = automataByType.get(typeKey(type));
+            if (typeAutomaton != null) {
+                typeAutomaton.collectTitlesContainedIn(key, matches);
+            }
+            final TitleAutomaton wildcardAutomaton = automataByType.get(null);
+            if (wildcardAutomaton != null) {
+                wildcardAutomaton.collectTitlesContainedIn(key, matches);
+            }
+        }
+        if (year == null) {
+            return;
+        }
+
+        // Keep the titles of the year and of no year, like the suffix arrays
+        int kept = from;
+        for (int i = from; i < matches.size(); i++) {
+            final Integer titleYear = records.productionYear(records.showOfTitle(matches.get(i)));
+            if (titleYear == null || titleYear.equals(year)) {
+                matches.set(kept++, matches.get(i));
+            }
+        }
+        matches.truncate(kept);
+    }
+
+    /**
+     * Lists the partitions of every year by type, for the rows without a year.
+     * The lists refer to the same partitions, so nothing is indexed twice.
+     */
+    private void listBlocks() {
+        for (final Map<String, Block> blocksByType : blocksByYear.values()) {
+            blocksByType.forEach((type, block) -> {
+                blocksOfEveryYear.computeIfAbsent(type, k -> new ArrayList<>()).add(block);
+                allBlocks.add(block);
+            });
+        }
+    }
+
+    private static Map<String, Block> buildBlocks(String[] titleKeys, Map<String, IntList> titlesByType) {
+        final Map<String, Block> blocks = new HashMap<>();
+        titlesByType.forEach((type, titles) -> {
+            final int[] positions = titles.toArray();
+            blocks.put(type, new Block(new TitleSubstringIndex(titleKeys, positions),
+                    new GramFilter(titleKeys, positions)));
+        });
+        return blocks;
+    }
+
+    /**
+     * Folds a type the way {@link String#equalsIgnoreCase} compares characters,
+     * so that types equal ignoring case share a partition.
+     *
+     * @param type the type, or null
+     * @return the folded type, or null
+     */
+    private static String typeKey(String type) {
+        if (type == null) {
+            return null;
+        }
+        final StringBuilder key = new StringBuilder(type.length());
+        for (int i = 0; i < type.length(); i++) {
+            key.append(Character.toLowerCase(Character.toUpperCase(type.charAt(i))));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Suffix array of the titles of one (year, type) partition.
+     */
+    private static final class Block {
+        private final TitleSubstringIndex substringIndex;
+        private final GramFilter filter;
+
+        private Block(TitleSubstringIndex substringIndex, GramFilter filter) {
+            this.substringIndex = substringIndex;
+            this.filter = filter;
+        }
+
+        private void collectTitles(String key, boolean equal, IntList matches) {
+            if (equal) {
+                substringIndex.collectTitlesEqualTo(key, matches);
+            } else {
+                substringIndex.collectTitlesContaining(key, matches);
+            }
+        }
+    }
+}
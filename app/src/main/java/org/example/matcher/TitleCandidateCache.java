@@ -0,0 +1,180 @@
+package org.example.matcher;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, concurrent cache of the candidate shows found by title in the base index of the
+ * catalog, see {@link CandidateCaching}.
+ * <p>
+ * Only the base index is cached. Catalog changes leave it untouched: changed and removed
+ * shows are hidden when the candidates are filtered, after the lookup, and new ones live in
+ * the delta index, which is small and rebuilt by every change. Cached candidates therefore
+ * stay valid until the base is replaced by a compaction, which drops them all. Lookups of
+ * calls still running on the previous base bypass the cache. A lookup may also start on the
+ * previous base just before a compaction and offer its candidates after the cache was
+ * cleared, so every entry keeps the index it was found in, and is only returned to lookups
+ * in that index.
+ * <p>
+ * Entries are evicted least recently used first. To keep titles seen only once from evicting
+ * the frequent ones, a miss is only cached if its title is already in the doorkeeper, a bit
+ * set of the titles recently missed that is cleared after as many misses as the cache has
+ * entries. A title must thus miss twice within that window to be cached.
+ */
+final class TitleCandidateCache {
+    private static final int MAX_DOORKEEPER_ENTRIES = 1 << 24;
+
+    private final CandidateCaching settings;
+    private final Cache<Key, Entry> cache;
+    private final AtomicLongArray doorkeeper;
+    private final int doorkeeperShift;
+    private final int doorkeeperWindow;
+    private final AtomicInteger doorkeeperMisses = new AtomicInteger();
+    private final LongAdder admissionRejections = new LongAdder();
+    private volatile CatalogIndex base;
+
+    /**
+     * Creates an empty cache for the given base index.
+     *
+     * @param settings the cache settings
+     * @param base     the base index of the current catalog version
+     */
+    TitleCandidateCache(CandidateCaching settings, CatalogIndex base) {
+        this.settings = settings;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(settings.getMaxEntries())
+                .recordStats()
+                .build();
+        this.doorkeeperWindow = Math.min(settings.getMaxEntries(), MAX_DOORKEEPER_ENTRIES);
+        // At least four bits per title of the window, so that few titles share a bit
+        final long bits = Long.highestOneBit(Math.max(64L, doorkeeperWindow * 8L));
+        this.doorkeeper = new AtomicLongArray((int) (bits >>> 6));
+        this.doorkeeperShift = 64 - Long.numberOfTrailingZeros(bits);
+        this.base = base;
+    }
+
+    CandidateCaching settings() {
+        return settings;
+    }
+
+    /**
+     * Checks if the candidates found in an index can be cached.
+     *
+     * @param index the index searched
+     * @return true if the index is the current base index, false otherwise
+     */
+    boolean covers(CatalogIndex index) {
+        return index == base;
+    }
+
+    /**
+     * Returns the cached candidates of a title, if they were found in the given index.
+     *
+     * @param index the index searched, whose positions the candidates must refer to
+     * @param key   the title key, see {@link #key(String, CompiledRow, TitleLookup)}
+     * @return the positions of the candidate shows in the index, or null if not cached
+     */
+    int[] get(CatalogIndex index, Key key) {
+        final Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.base != index) {
+            // Offered by a lookup that started on a previous base, after the compaction cleared the cache
+            if (entry.base != base) {
+                cache.asMap().remove(key, entry);
+            }
+            return null;
+        }
+        return entry.shows;
+    }
+
+    /**
+     * Caches the candidates of a title, if it missed recently before.
+     *
+     * @param index the index the candidates were found in
+     * @param key   the title key
+     * @param shows the positions of the candidate shows
+     */
+    void offer(CatalogIndex index, Key key, int[] shows) {
+        if (!admit(key)) {
+            admissionRejections.increment();
+            return;
+        }
+        // Entries keep the index they were found in: a compaction published since the lookup
+        // started may have cleared the cache before this entry was added
+        final Entry entry = new Entry(index, shows);
+        cache.put(key, entry);
+        if (index != base) {
+            cache.asMap().remove(key, entry);
+        }
+    }
+
+    /**
+     * Drops every entry, once a compaction replaced the base index.
+     *
+     * @param base the new base index
+     */
+    void rebase(CatalogIndex base) {
+        this.base = base;
+        cache.invalidateAll();
+    }
+
+    CandidateCacheStats stats() {
+        final CacheStats stats = cache.stats();
+        return new CandidateCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                admissionRejections.sum(), cache.size());
+    }
+
+    /**
+     * Returns the cache key of a title looked up for a row. The year and type of the row only
+     * restrict the substring lookups, so they are left out for shorter titles.
+     *
+     * @param title  the normalized title
+     * @param row    the compiled CSV row
+     * @param lookup the approximate title lookups of the call
+     * @return the key
+     */
+    static Key key(String title, CompiledRow row, TitleLookup lookup) {
+        return CatalogKeys.isSubstringKey(title)
+                ? new Key(title, row.getProductionYear(), row.getType(), lookup.fuzzy(), lookup.similarity())
+                : new Key(title, null, null, lookup.fuzzy(), lookup.similarity());
+    }
+
+    /**
+     * Records a missed title in the doorkeeper.
+     *
+     * @return true if the title was already in it, false otherwise
+     */
+    private boolean admit(Key key) {
+        final int bit = (int) ((key.hashCode() * 0x9E3779B97F4A7C15L) >>> doorkeeperShift);
+        final long mask = 1L << bit;
+        if ((doorkeeper.getAndAccumulate(bit >>> 6, mask, (word, set) -> word | set) & mask) != 0) {
+            return true;
+        }
+        if (doorkeeperMisses.incrementAndGet() % doorkeeperWindow == 0) {
+            for (int i = 0; i < doorkeeper.length(); i++) {
+                doorkeeper.set(i, 0);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Candidates of a title, with the base index their positions refer to.
+     */
+    private record Entry(CatalogIndex base, int[] shows) {
+    }
+
+    /**
+     * Title looked up, with the parts of the row and the settings its candidates depend on.
+     */
+    record Key(String title, Integer productionYear, String type, FuzzyMatching fuzzy,
+            SimilarityMatching similarity) {
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.matcher;
+
+/**
+ * Approximate title lookups and candidate cache enabled on a matcher, captured once per call
+ * so that every row of the call uses the same settings.
+ *
+ * @param fuzzy      the fuzzy matching settings, or null if disabled
+ * @param similarity the similarity matching settings, or null if disabled
+ * @param cache      the cache of candidates found by title, or null if disabled
+ */
+record TitleLookup(FuzzyMatching fuzzy, SimilarityMatching similarity, TitleCandidateCache cache) {
+
+    /**
+     * Lookups matching titles exactly and by containment only, without cache.
+     */
+    static final TitleLookup EXACT = new TitleLookup(null, null, null);
+
+    TitleLookup withFuzzy(FuzzyMatching fuzzy) {
+        return new TitleLookup(fuzzy, similarity, cache);
+    }
+
+    TitleLookup withSimilarity(SimilarityMatching similarity) {
+        return new TitleLookup(fuzzy, similarity, cache);
+    }
+
+    TitleLookup withCache(TitleCandidateCache cache) {
+        return new TitleLookup(fuzzy, similarity, cache);
+    }
+}
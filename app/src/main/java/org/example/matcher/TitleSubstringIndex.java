@@ -0,0 +1,302 @@
+package org.example.matcher;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Suffix array over the normalized catalog titles.
+ * Answers "which catalog titles contain this key" with two binary searches over the
+ * suffix array, so the cost grows with the key length and the number of hits rather
+ * than with the size of the catalog.
+ * <p>
+ * Like the {@link TitleAutomaton} tables, the text and the arrays are NIO buffers, either
+ * wrapping heap arrays or mapped from a {@link CatalogIndex} snapshot.
+ */
+final class TitleSubstringIndex {
+
+    /**
+     * Separator placed between titles in the concatenated text.
+     * Normalized keys never contain control characters, so no match can span two titles.
+     */
+    private static final char SEPARATOR = '\u0000';
+
+    private final IntBuffer titles;
+    private final CharBuffer text;
+    private final IntBuffer suffixArray;
+    private final IntBuffer titleStarts;
+
+    /**
+     * Builds the index over a subset of the normalized catalog titles.
+     * The position of a title in the catalog is the index reported by lookups.
+     *
+     * @param titleKeys the normalized key of every catalog title
+     * @param titles    the positions of the titles to index
+     */
+    TitleSubstringIndex(String[] titleKeys, int[] titles) {
+        final int[] starts = new int[titles.length];
+
+        int length = 0;
+        for (final int title : titles) {
+            length += titleKeys[title].length() + 1;
+        }
+
+        final char[] chars = new char[length];
+        int offset = 0;
+        for (int i = 0; i < titles.length; i++) {
+            final String title = titleKeys[titles[i]];
+            starts[i] = offset;
+            title.getChars(0, title.length(), chars, offset);
+            offset += title.length();
+            chars[offset++] = SEPARATOR;
+        }
+
+        this.titles = IntBuffer.wrap(titles);
+        this.text = CharBuffer.wrap(chars);
+        this.suffixArray = IntBuffer.wrap(buildSuffixArray(chars));
+        this.titleStarts = IntBuffer.wrap(starts);
+    }
+
+    private TitleSubstringIndex(IntBuffer titles, CharBuffer text, IntBuffer suffixArray, IntBuffer titleStarts) {
+        this.titles = titles;
+        this.text = text;
+        this.suffixArray = suffixArray;
+        this.titleStarts = titleStarts;
+    }
+
+    /**
+     * Maps an index written by {@link #write(SnapshotOutput)}.
+     *
+     * @param in the snapshot input
+     * @return the index
+     * @throws IOException if the snapshot cannot be read
+     */
+    static TitleSubstringIndex read(SnapshotInput in) throws IOException {
+        return new TitleSubstringIndex(in.readInts(), in.readChars(), in.readInts(), in.readInts());
+    }
+
+    /**
+     * Writes the index to a snapshot.
+     *
+     * @param out the snapshot output
+     * @throws IOException if the snapshot cannot be written
+     */
+    void write(SnapshotOutput out) throws IOException {
+        out.writeInts(titles);
+        out.writeChars(text);
+        out.writeInts(suffixArray);
+        out.writeInts(titleStarts);
+    }
+
+    /**
+     * Marks every title that contains the given normalized key.
+     * Keys too short for substring matching are ignored, see {@link CatalogKeys}.
+     *
+     * @param key     the normalized key to search for
+     * @param matches the list receiving the catalog positions of the matching titles
+     */
+    void collectTitlesContaining(String key, IntList matches) {
+        if (!CatalogKeys.isSubstringKey(key)) {
+            return;
+        }
+
+        final int from = lowerBound(key);
+        final int to = upperBound(key, from);
+        for (int i = from; i < to; i++) {
+            matches.add(titles.get(titleAt(suffixArray.get(i))));
+        }
+    }
+
+    /**
+     * Marks every indexed title whose key equals the given key.
+     * <p>
+     * The separator never occurs in a key, so these titles are the suffixes starting with the
+     * key followed by the separator that also start a title.
+     *
+     * @param key     the normalized key to search for
+     * @param matches the list receiving the catalog positions of the equal titles
+     */
+    void collectTitlesEqualTo(String key, IntList matches) {
+        final String terminatedKey = key + SEPARATOR;
+        final int from = lowerBound(terminatedKey);
+        final int to = upperBound(terminatedKey, from);
+        for (int i = from; i < to; i++) {
+            final int position = suffixArray.get(i);
+            final int title = titleAt(position);
+            if (titleStarts.get(title) == position) {
+                matches.add(titles.get(title));
+            }
+        }
+    }
+
+    /**
+     * Finds the title owning the given position of the concatenated text.
+     *
+     * @param position the position in the text
+     * @return the index of the title within this index
+     */
+    private int titleAt(int position) {
+        int low = 0;
+        int high = titles.limit() - 1;
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+            if (titleStarts.get(mid) <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first suffix that is not smaller than the key.
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = suffixArray.limit();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (compare(suffixArray.get(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first suffix, at or after {@code from}, that does not start with the key.
+     */
+    private int upperBound(String key, int from) {
+        int low = from;
+        int high = suffixArray.limit();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (compare(suffixArray.get(mid), key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares the suffix starting at the given position, truncated to the key length, with the key.
+     *
+     * @return a negative value, zero or a positive value if the truncated suffix is smaller than,
+     *         equal to or greater than the key
+     */
+    private int compare(int position, String key) {
+        final int length = key.length();
+        for (int i = 0; i < length; i++) {
+            if (position + i >= text.limit()) {
+                return -1;
+            }
+            final char c = text.get(position + i);
+            final char k = key.charAt(i);
+            if (c != k) {
+                return c < k ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Builds the suffix array of the given text by prefix doubling with radix sorting,
+     * in O(n log n) time.
+     *
+     * @param text the text to index
+     * @return the start positions of the suffixes in lexicographic order
+     */
+    private static int[] buildSuffixArray(char[] text) {
+        final int n = text.length;
+        final int[] suffixes = new int[n];
+        if (n == 0) {
+            return suffixes;
+        }
+
+        int[] rank = new int[n];
+        int[] nextRank = new int[n];
+        final int[] bySecondKey = new int[n];
+        final int[] counts = new int[Math.max(Character.MAX_VALUE + 1, n)];
+
+        // Initial ordering and ranks by first character
+        for (final char c : text) {
+            counts[c]++;
+        }
+        int classes = 0;
+        int offset = 0;
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            final int count = counts[c];
+            if (count > 0) {
+                counts[c] = offset;
+                offset += count;
+                classes++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            suffixes[counts[text[i]]++] = i;
+        }
+        rank[suffixes[0]] = 0;
+        for (int i = 1; i < n; i++) {
+            rank[suffixes[i]] = rank[suffixes[i - 1]] + (text[suffixes[i]] != text[suffixes[i - 1]] ? 1 : 0);
+        }
+        if (classes == n) {
+            return suffixes;
+        }
+
+        for (int k = 1; ; k <<= 1) {
+            // Order by second key: suffixes without a second half come first
+            int p = 0;
+            for (int i = Math.max(0, n - k); i < n; i++) {
+                bySecondKey[p++] = i;
+            }
+            for (int i = 0; i < n; i++) {
+                if (suffixes[i] >= k) {
+                    bySecondKey[p++] = suffixes[i] - k;
+                }
+            }
+
+            // Stable counting sort by first key
+            Arrays.fill(counts, 0, classes, 0);
+            for (int i = 0; i < n; i++) {
+                counts[rank[i]]++;
+            }
+            for (int c = 1; c < classes; c++) {
+                counts[c] += counts[c - 1];
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                suffixes[--counts[rank[bySecondKey[i]]]] = bySecondKey[i];
+            }
+
+            // Recompute equivalence classes
+            nextRank[suffixes[0]] = 0;
+            classes = 1;
+            for (int i = 1; i < n; i++) {
+                final int current = suffixes[i];
+                final int previous = suffixes[i - 1];
+                if (rank[current] != rank[previous]
+                        || secondRank(rank, current, k) != secondRank(rank, previous, k)) {
+                    classes++;
+                }
+                nextRank[current] = classes - 1;
+            }
+
+            final int[] swap = rank;
+            rank = nextRank;
+            nextRank = swap;
+
+            if (classes == n) {
+                return suffixes;
+            }
+        }
+    }
+
+    private static int secondRank(int[] rank, int position, int k) {
+        return position + k < rank.length ? rank[position + k] : -1;
+    }
+}
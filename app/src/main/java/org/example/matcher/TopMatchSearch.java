@@ -0,0 +1,201 @@
+package org.example.matcher;
+
+import org.example.model.ShowTitle;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Search of the best scored shows matching one compiled CSV row.
+ * <p>
+ * Candidates are looked up one kind of title match at a time, from exact to approximate,
+ * in every layer of the catalog, and each one is filtered and scored as it is found. The
+ * best shows so far are kept in a priority queue bounded to the number of shows asked for,
+ * whose head is the show to evict next. Before looking up a weaker kind of match, the best
+ * score it can give is compared with the head of the full queue: when it cannot beat it,
+ * that lookup and every weaker one are skipped. A generic title with hundreds of shows
+ * containing it thus never runs the substring lookup once enough exact matches are kept.
+ * <p>
+ * Shows with equal scores keep the order they were found in, which is the order of the
+ * kinds of matches, then of the layers, then of the lookups.
+ */
+final class TopMatchSearch {
+    private static final Comparator<Candidate> EVICTION_ORDER =
+            Comparator.comparingDouble(Candidate::score).thenComparing(Comparator.comparingLong(Candidate::order).reversed());
+
+    private final CompiledRow row;
+    private final CatalogVersion catalog;
+    private final TitleLookup lookup;
+    private final MatchScoring scoring;
+    private final PriorityQueue<Candidate> best;
+    private long nextOrder;
+
+    private TopMatchSearch(CompiledRow row, CatalogVersion catalog, TitleLookup lookup, MatchScoring scoring) {
+        this.row = row;
+        this.catalog = catalog;
+        this.lookup = lookup;
+        this.scoring = scoring;
+        this.best = new PriorityQueue<>(EVICTION_ORDER);
+    }
+
+    /**
+     * Finds the best scored shows matching a row.
+     *
+     * @param row     the compiled CSV row to match
+     * @param catalog the catalog version to match against
+     * @param lookup  the approximate title lookups of the call
+     * @param scoring the scoring settings
+     * @return the matches, by decreasing score
+     */
+    static List<ScoredMatch> find(CompiledRow row, CatalogVersion catalog, TitleLookup lookup, MatchScoring scoring) {
+        return new TopMatchSearch(row, catalog, lookup, scoring).run();
+    }
+
+    private List<ScoredMatch> run() {
+        final List<CatalogVersion.Layer> layers = catalog.layers();
+        final ShowCandidates[] candidates = new ShowCandidates[layers.size()];
+        for (final ScoredMatch.TitleMatch titleMatch : ScoredMatch.TitleMatch.values()) {
+            // No show found by this lookup, or by the weaker ones, can beat the shows kept
+            if (best.size() == scoring.getMaxShows() && scoring.maxScore(titleMatch) <= best.peek().score()) {
+                break;
+            }
+
+            for (int i = 0; i < layers.size(); i++) {
+                if (candidates[i] == null) {
+                    candidates[i] = new ShowCandidates();
+                }
+
+                // Shows already found by a stronger match are not added again
+                final ShowCandidates layerCandidates = candidates[i];
+                final int from = layerCandidates.size();
+                collect(titleMatch, layers.get(i).index(), layerCandidates);
+                for (int j = from; j < layerCandidates.size(); j++) {
+                    evaluate(titleMatch, i, layers.get(i), layerCandidates.get(j));
+                }
+            }
+        }
+
+        final List<Candidate> ranked = new ArrayList<>(best);
+        ranked.sort(EVICTION_ORDER.reversed());
+        final List<ScoredMatch> matches = new ArrayList<>(ranked.size());
+        for (final Candidate candidate : ranked) {
+            matches.add(toMatch(candidate, layers.get(candidate.layer())));
+        }
+        return matches;
+    }
+
+    /**
+     * Collects the shows matching a title of the row with the given kind of match.
+     */
+    private void collect(ScoredMatch.TitleMatch titleMatch, CatalogIndex index, ShowCandidates shows) {
+        if (row.getOriginalKey() != null) {
+            collect(titleMatch, row.getOriginalKey(), index, shows);
+        }
+        if (row.getTranslatedKey() != null) {
+            collect(titleMatch, row.getTranslatedKey(), index, shows);
+        }
+    }
+
+    private void collect(ScoredMatch.TitleMatch titleMatch, String key, CatalogIndex index, ShowCandidates shows) {
+        if (key.isEmpty()) {
+            return;
+        }
+
+        final IntList titles = new IntList();
+        switch (titleMatch) {
+            case EXACT -> {
+                index.keys().collectShowsWithKey(key, shows);
+                if (CatalogKeys.isSubstringKey(key)) {
+                    index.titleBlockIndex().collectTitlesEqualTo(key, row.getProductionYear(), row.getType(), titles);
+                } else {
+                    index.keys().collectTitlesWithShortKey(key, titles);
+                }
+            }
+            case CONTAINED -> {
+                if (CatalogKeys.isSubstringKey(key)) {
+                    index.titleBlockIndex().collectTitles(key, row.getProductionYear(), row.getType(), titles);
+                }
+            }
+            case APPROXIMATE -> {
+                final FuzzyMatching fuzzy = lookup.fuzzy();
+                if (fuzzy != null && key.length() >= fuzzy.getMinKeyLength()) {
+                    index.fuzzyTitleIndex(fuzzy).collect(key, fuzzy, shows, titles);
+                }
+                final SimilarityMatching similarity = lookup.similarity();
+                if (similarity != null && key.length() >= similarity.getMinKeyLength()) {
+                    index.similarityTitleIndex(similarity).collect(key, similarity, shows, titles);
+                }
+            }
+        }
+
+        titles.sortDistinct();
+        for (int i = 0; i < titles.size(); i++) {
+            final int show = index.records().showOfTitle(titles.get(i));
+            if (show >= 0) {
+                shows.add(show);
+            }
+        }
+    }
+
+    /**
+     * Filters a candidate show like the unscored matching does, scores it and offers it
+     * to the queue of the best shows.
+     */
+    private void evaluate(ScoredMatch.TitleMatch titleMatch, int layerIndex, CatalogVersion.Layer layer, int show) {
+        final long order = nextOrder++;
+        if (layer.isHidden(show)) {
+            return;
+        }
+
+        final CatalogRecords records = layer.index().records();
+        final ProducerDictionary producerDictionary = layer.index().producerDictionary();
+        final Integer showYear = records.productionYear(show);
+        final String showType = records.type(show);
+        if (!ShowMatcher.isYearMatch(row.getProductionYear(), showYear)
+                || !ShowMatcher.isTypeMatch(row.getType(), showType)) {
+            return;
+        }
+
+        double score = scoring.getTitleScore(titleMatch);
+        if (row.hasProducers() && producerDictionary.hasProducers(show)) {
+            final int commonProducers = producerDictionary.commonProducerCount(show, row.getProducerIds());
+            if (commonProducers == 0) {
+                return;
+            }
+            score += scoring.getProducerWeight() * commonProducers / row.getProducerIds().length;
+        }
+        if (row.getProductionYear() != null && showYear != null) {
+            score += scoring.getYearWeight();
+        }
+        if (row.getType() != null && showType != null) {
+            score += scoring.getTypeWeight();
+        }
+
+        final Candidate candidate = new Candidate(layerIndex, show, titleMatch, score, order);
+        if (best.size() < scoring.getMaxShows()) {
+            best.add(candidate);
+        } else if (EVICTION_ORDER.compare(candidate, best.peek()) > 0) {
+            best.poll();
+            best.add(candidate);
+        }
+    }
+
+    private ScoredMatch toMatch(Candidate candidate, CatalogVersion.Layer layer) {
+        final CatalogRecords records = layer.index().records();
+        final int show = candidate.show();
+        final List<ShowTitle> showTitles = new ArrayList<>(records.titleCountOfShow(show));
+        for (int rank = 0; rank < records.titleCountOfShow(show); rank++) {
+            showTitles.add(catalog.showTitle(layer.titleRef(records.titleOfShow(show, rank))));
+        }
+        return new ScoredMatch(row.getCsvRow(), records.show(show), List.copyOf(showTitles),
+                candidate.titleMatch(), candidate.score());
+    }
+
+    /**
+     * A scored show, with the rank at which it was found to break ties.
+     */
+    private record Candidate(int layer, int show, ScoredMatch.TitleMatch titleMatch, double score, long order) {
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.matcher;
+
+import java.nio.LongBuffer;
+import java.util.UUID;
+
+/**
+ * Lookup of show positions by ID, over a column of IDs stored as pairs of {@code long}s.
+ * <p>
+ * The table is open-addressed and only holds positions, so it costs an {@code int} per slot
+ * on top of the ID column it reads, instead of a boxed entry, key and value per show.
+ */
+final class UuidIndex {
+    private final LongBuffer ids;
+    private final int[] slots;
+    private final int mask;
+
+    /**
+     * Indexes a column of IDs.
+     *
+     * @param ids the most and least significant bits of every ID, in position order
+     * @throws IllegalStateException if two positions have the same ID
+     */
+    UuidIndex(LongBuffer ids) {
+        this.ids = ids;
+        final int count = ids.limit() / 2;
+        // Keep the table at most half full, so that probes stay short
+        final int capacity = Integer.highestOneBit(Math.max(2, count) * 2 - 1) << 1;
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        for (int position = 0; position < count; position++) {
+            final long msb = ids.get(2 * position);
+            final long lsb = ids.get(2 * position + 1);
+            int slot = slotOf(msb, lsb);
+            while (slots[slot] != 0) {
+                if (matches(slots[slot] - 1, msb, lsb)) {
+                    throw new IllegalStateException("Duplicate key " + new UUID(msb, lsb));
+                }
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = position + 1;
+        }
+    }
+
+    /**
+     * Finds the position of an ID.
+     *
+     * @param id the ID
+     * @return the position, or -1 if the column does not hold the ID
+     */
+    int find(UUID id) {
+        final long msb = id.getMostSignificantBits();
+        final long lsb = id.getLeastSignificantBits();
+        for (int slot = slotOf(msb, lsb); slots[slot] != 0; slot = (slot + 1) & mask) {
+            if (matches(slots[slot] - 1, msb, lsb)) {
+                return slots[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(int position, long msb, long lsb) {
+        return ids.get(2 * position) == msb && ids.get(2 * position + 1) == lsb;
+    }
+
+    private int slotOf(long msb, long lsb) {
+        long hash = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.matcher;
+
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
+
+/**
+ * Flight Recorder event for a row with at least as many candidate shows as the
+ * {@code candidateThreshold} setting of the event.
+ */
+@Name("org.example.WideMatchRow")
+@Label("Wide Match Row")
+@Description("CSV row with more candidate shows than the threshold")
+@Enabled(false)
+final class WideMatchRowEvent extends MatchRowEvent {
+
+    @SettingDefinition
+    @Name("candidateThreshold")
+    @Label("Candidate Threshold")
+    @Description("Number of candidate shows from which a row is recorded")
+    protected boolean candidateThreshold(CandidateThresholdSetting setting) {
+        return candidateCount >= setting.getThreshold();
+    }
+}
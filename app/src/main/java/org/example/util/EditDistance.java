@@ -0,0 +1,112 @@
+package org.example.util;
+
+import org.apache.commons.text.similarity.LevenshteinDistance;
+
+import java.util.Arrays;
+
+/**
+ * Utility class computing bounded edit distances between comparison keys.
+ * Both distances only fill the band of the distance matrix within the threshold of its
+ * diagonal, and give up as soon as a row of the band exceeds the threshold, so checking a
+ * candidate costs time proportional to the key length times the threshold.
+ */
+public final class EditDistance {
+
+    private static final int MAX_CACHED_THRESHOLD = 8;
+    private static final LevenshteinDistance[] LEVENSHTEIN = new LevenshteinDistance[MAX_CACHED_THRESHOLD + 1];
+
+    static {
+        for (int threshold = 0; threshold <= MAX_CACHED_THRESHOLD; threshold++) {
+            LEVENSHTEIN[threshold] = new LevenshteinDistance(threshold);
+        }
+    }
+
+    private EditDistance() {
+        // Utility class, no instances
+    }
+
+    /**
+     * Computes the Levenshtein distance between two keys: the number of insertions,
+     * deletions and substitutions turning one into the other.
+     *
+     * @param left      the first key
+     * @param right     the second key
+     * @param threshold the highest distance of interest, not negative
+     * @return the distance, or -1 if it is above the threshold
+     */
+    public static int levenshtein(CharSequence left, CharSequence right, int threshold) {
+        final LevenshteinDistance distance = threshold <= MAX_CACHED_THRESHOLD
+                ? LEVENSHTEIN[threshold]
+                : new LevenshteinDistance(threshold);
+        return distance.apply(left, right);
+    }
+
+    /**
+     * Computes the Damerau-Levenshtein distance between two keys, in its optimal string
+     * alignment form: the Levenshtein distance, where swapping two adjacent characters also
+     * counts as a single edit, and no substring is edited twice.
+     *
+     * @param left      the first key
+     * @param right     the second key
+     * @param threshold the highest distance of interest, not negative
+     * @return the distance, or -1 if it is above the threshold
+     */
+    public static int damerauLevenshtein(CharSequence left, CharSequence right, int threshold) {
+        final int leftLength = left.length();
+        final int rightLength = right.length();
+        if (Math.abs(leftLength - rightLength) > threshold) {
+            return -1;
+        }
+
+        // No distance exceeds the longer key, and capping the threshold keeps threshold + 1 from overflowing
+        final int limit = Math.min(threshold, Math.max(leftLength, rightLength));
+        final int tooFar = limit + 1;
+
+        // Three rows of the distance matrix: two rows back for transpositions, the previous one and the current one.
+        // Only the band of cells at most limit away from the diagonal can be within the threshold; the cells
+        // bordering the band hold tooFar, and every distance above the limit is kept at tooFar
+        int[] beforePrevious = new int[rightLength + 1];
+        int[] previous = new int[rightLength + 1];
+        int[] current = new int[rightLength + 1];
+        for (int j = 0; j <= rightLength; j++) {
+            previous[j] = Math.min(j, tooFar);
+        }
+        Arrays.fill(beforePrevious, tooFar);
+        int previousMinimum = 0;
+
+        for (int i = 1; i <= leftLength; i++) {
+            final int from = Math.max(1, i - limit);
+            final int to = Math.min(rightLength, i + limit);
+            current[from - 1] = from == 1 ? Math.min(i, tooFar) : tooFar;
+            if (to < rightLength) {
+                current[to + 1] = tooFar;
+            }
+
+            int rowMinimum = current[from - 1];
+            final char leftChar = left.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                final char rightChar = right.charAt(j - 1);
+                final int cost = leftChar == rightChar ? 0 : 1;
+                int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && leftChar == right.charAt(j - 2) && left.charAt(i - 2) == rightChar) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = Math.min(distance, tooFar);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            // Later rows are at least the minimum of this row, or of the previous one plus a transposition
+            if (rowMinimum > limit && previousMinimum >= limit) {
+                return -1;
+            }
+            previousMinimum = rowMinimum;
+
+            final int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+
+        final int distance = previous[rightLength];
+        return distance <= limit ? distance : -1;
+    }
+}
@@ -1,6 +1,6 @@
 package org.example.util;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -11,7 +11,8 @@ import java.util.stream.Collectors;
  */
 public final class ProducerParser {
     
-    private static final List<String> COMMON_SEPARATORS = List.of(",", ";", "|", "/");
+    private static final char[] COMMON_SEPARATORS = {',', ';', '|', '/'};
+    private static final char NO_SEPARATOR = '\0';
     private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
     
     private ProducerParser() {
@@ -21,6 +22,7 @@ public final class ProducerParser {
     /**
      * Parses a producer string into a list of producer names.
      * Attempts to detect the separator used in the string.
+     * A string without any common separator is a single producer name.
      * 
      * @param producerString the producer string to parse
      * @return a list of producer names, or an empty list if the input is null or empty
@@ -30,30 +32,48 @@ public final class ProducerParser {
             return Collections.emptyList();
         }
         
-        final String separator = detectSeparator(producerString);
-        return Arrays.stream(producerString.split(Pattern.quote(separator)))
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .collect(Collectors.toList());
+        final char separator = detectSeparator(producerString);
+        final List<String> producers = new ArrayList<>();
+        final int length = producerString.length();
+        int start = 0;
+        while (start <= length) {
+            int end = separator == NO_SEPARATOR ? -1 : producerString.indexOf(separator, start);
+            if (end < 0) {
+                end = length;
+            }
+            
+            // Trim the name in place, as String.trim would, before taking the substring
+            int from = start;
+            int to = end;
+            while (from < to && producerString.charAt(from) <= ' ') {
+                from++;
+            }
+            while (to > from && producerString.charAt(to - 1) <= ' ') {
+                to--;
+            }
+            if (from < to) {
+                producers.add(producerString.substring(from, to));
+            }
+            start = end + 1;
+        }
+        return producers;
     }
     
     /**
      * Detects the separator used in a producer string.
-     * Checks for common separators like comma, semicolon, pipe, and slash.
-     * Falls back to whitespace if no common separator is found.
+     * Checks for common separators like comma, semicolon, pipe, and slash, in that order.
      * 
      * @param producerString the producer string to analyze
-     * @return the detected separator
+     * @return the detected separator, or {@link #NO_SEPARATOR} if no common separator is found
      */
-    private static String detectSeparator(String producerString) {
-        for (final String separator : COMMON_SEPARATORS) {
-            if (producerString.contains(separator)) {
+    private static char detectSeparator(String producerString) {
+        for (final char separator : COMMON_SEPARATORS) {
+            if (producerString.indexOf(separator) >= 0) {
                 return separator;
             }
         }
         
-        // Fall back to whitespace if no common separator is found
-        return "\\s+";
+        return NO_SEPARATOR;
     }
     
     /**
@@ -0,0 +1,130 @@
+package org.example.util;
+
+import java.text.Normalizer;
+
+/**
+ * Utility class for normalizing titles into comparison keys.
+ * Keys keep the letters and digits of every script, lowercased and with accents folded,
+ * so that titles such as "Amélie" and "Amelie" share a key and non-Latin titles do not
+ * collapse to an empty key.
+ */
+public final class TitleNormalizer {
+
+    private static final char DROPPED = '\0';
+    private static final char[] ASCII_KEY_CHARS = new char[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            ASCII_KEY_CHARS[c] = c;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            ASCII_KEY_CHARS[c] = c;
+            ASCII_KEY_CHARS[Character.toUpperCase(c)] = c;
+        }
+    }
+
+    private TitleNormalizer() {
+        // Utility class, no instances
+    }
+
+    /**
+     * Normalizes a title into a comparison key.
+     * The title is decomposed (NFKD), stripped of accents, recomposed, and every character
+     * that is not a letter, a digit or a script-inherent mark is removed; the rest is lowercased.
+     * ASCII titles take a table-driven fast path, and the input itself is returned when it is
+     * already normalized.
+     *
+     * @param title the title to normalize
+     * @return the normalized title, or an empty string if the input is null
+     */
+    public static String normalize(String title) {
+        if (title == null) {
+            return "";
+        }
+
+        final int length = title.length();
+        int i = 0;
+        while (i < length && isKeyChar(title.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return title;
+        }
+
+        final char[] key = new char[length];
+        title.getChars(0, i, key, 0);
+        int keyLength = i;
+        for (; i < length; i++) {
+            final char c = title.charAt(i);
+            if (c >= ASCII_KEY_CHARS.length) {
+                return normalizeUnicode(title);
+            }
+            if (ASCII_KEY_CHARS[c] != DROPPED) {
+                key[keyLength++] = ASCII_KEY_CHARS[c];
+            }
+        }
+        return new String(key, 0, keyLength);
+    }
+
+    /**
+     * Normalizes a title containing non-ASCII characters.
+     *
+     * @param title the title to normalize
+     * @return the normalized title
+     */
+    private static String normalizeUnicode(String title) {
+        // Decompose, and drop the accents split off from their base characters
+        final String decomposed = Normalizer.normalize(title, Normalizer.Form.NFKD);
+        final StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); ) {
+            final int codePoint = decomposed.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (!isDiacritic(codePoint)) {
+                folded.appendCodePoint(codePoint);
+            }
+        }
+
+        // Recompose the remaining marks, such as Japanese voicing marks, with their base characters
+        final String composed = Normalizer.normalize(folded, Normalizer.Form.NFC);
+        final StringBuilder key = new StringBuilder(composed.length());
+        for (int i = 0; i < composed.length(); ) {
+            final int codePoint = composed.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint) || isMark(codePoint)) {
+                key.appendCodePoint(Character.toLowerCase(codePoint));
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isKeyChar(char c) {
+        return c < ASCII_KEY_CHARS.length && ASCII_KEY_CHARS[c] == c && c != DROPPED;
+    }
+
+    /**
+     * Checks if a code point is an accent from one of the combining diacritical marks blocks.
+     *
+     * @param codePoint the code point to check
+     * @return true if the code point is a combining diacritic, false otherwise
+     */
+    private static boolean isDiacritic(int codePoint) {
+        final Character.UnicodeBlock block = Character.UnicodeBlock.of(codePoint);
+        return block == Character.UnicodeBlock.COMBINING_DIACRITICAL_MARKS
+                || block == Character.UnicodeBlock.COMBINING_DIACRITICAL_MARKS_EXTENDED
+                || block == Character.UnicodeBlock.COMBINING_DIACRITICAL_MARKS_SUPPLEMENT
+                || block == Character.UnicodeBlock.COMBINING_MARKS_FOR_SYMBOLS
+                || block == Character.UnicodeBlock.COMBINING_HALF_MARKS;
+    }
+
+    /**
+     * Checks if a code point is a combining mark that is part of its script's spelling,
+     * such as Devanagari vowel signs.
+     *
+     * @param codePoint the code point to check
+     * @return true if the code point is a combining mark, false otherwise
+     */
+    private static boolean isMark(int codePoint) {
+        final int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+}
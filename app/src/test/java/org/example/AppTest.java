@@ -7,12 +7,15 @@ import org.example.model.CSVRow;
 import org.example.model.Show;
 import org.example.model.ShowTitle;
 import org.example.util.ProducerParser;
+import org.example.util.TitleNormalizer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -212,6 +215,197 @@ class AppTest {
         }
     }
     
+    @Test
+    void testTitleIndexMatchesContainsSemantics() {
+        // Build rows from fragments of every catalog title, plus titles embedding them
+        final List<CSVRow> fragmentRows = new ArrayList<>();
+        for (final ShowTitle showTitle : showTitles) {
+            final String title = showTitle.getTitle();
+            fragmentRows.add(CSVRow.builder().originalTitle(title.substring(0, title.length() / 2)).build());
+            fragmentRows.add(CSVRow.builder().originalTitle(title.substring(title.length() / 3)).build());
+            fragmentRows.add(CSVRow.builder().originalTitle("Best of " + title + " Collection").build());
+        }
+        
+        for (final CSVRow row : fragmentRows) {
+            final Set<UUID> expected = new HashSet<>();
+            final String normalizedRowTitle = TitleNormalizer.normalize(row.getOriginalTitle());
+            for (final ShowTitle showTitle : showTitles) {
+                if (titlesMatch(normalizedRowTitle, TitleNormalizer.normalize(showTitle.getTitle()))) {
+                    expected.add(showTitle.getShowId());
+                }
+            }
+            for (final Show show : shows) {
+                if (!normalizedRowTitle.isEmpty() && TitleNormalizer.normalize(show.getOriginalTitle()).equals(normalizedRowTitle)) {
+                    expected.add(show.getId());
+                }
+            }
+            
+            final Set<UUID> actual = matcher.findMatchesForRow(row).stream()
+                    .map(match -> match.getShowTitle().getShowId())
+                    .collect(Collectors.toSet());
+            assertEquals(expected, actual, "Indexed lookup should match a full scan for " + row.getOriginalTitle());
+        }
+    }
+    
+    @Test
+    void testTitleNormalizer() {
+        // ASCII titles keep the former [a-z0-9] keys
+        for (final String title : List.of("", "   ", "abc123", "The Matrix", "Star Wars: Episode IV - A New Hope", "tab\tand\u0000null")) {
+            assertEquals(title.trim().toLowerCase().replaceAll("[^a-z0-9]", ""), TitleNormalizer.normalize(title),
+                    "Should normalize like the former regex for " + title);
+        }
+        
+        // Accents are folded and letters from every script are kept
+        assertEquals("amelie", TitleNormalizer.normalize("Amélie"));
+        assertEquals("istanbul", TitleNormalizer.normalize("İstanbul"));
+        assertEquals("kelvin", TitleNormalizer.normalize("\u212Aelvin"));
+        assertEquals("film", TitleNormalizer.normalize("\uFB01lm"));
+        assertEquals("千と千尋の神隠し", TitleNormalizer.normalize("千と千尋の神隠し"));
+        assertEquals("がんばれ", TitleNormalizer.normalize("がんばれ!"));
+        assertEquals("брат2", TitleNormalizer.normalize("Брат 2"));
+        assertEquals("기생충", TitleNormalizer.normalize("기생충"));
+        assertEquals("", TitleNormalizer.normalize("!!! ..."), "Should drop punctuation");
+        assertEquals("", TitleNormalizer.normalize(null), "Should return an empty key for null");
+    }
+    
+    @Test
+    void testEmptyAndShortKeysDoNotFanOut() {
+        final Show leviathan = Show.builder()
+                .id(UUID.randomUUID())
+                .originalTitle("Левиафан")
+                .producers(List.of("Non-Stop Production"))
+                .build();
+        final Show up = Show.builder()
+                .id(UUID.randomUUID())
+                .originalTitle("Up")
+                .producers(List.of("Pixar"))
+                .build();
+        final List<Show> catalog = new ArrayList<>(shows);
+        catalog.add(leviathan);
+        catalog.add(up);
+        final List<ShowTitle> catalogTitles = new ArrayList<>(showTitles);
+        catalogTitles.add(ShowTitle.builder().showId(leviathan.getId()).language("ru").title("Левиафан").build());
+        catalogTitles.add(ShowTitle.builder().showId(up.getId()).language("en").title("Up").build());
+        catalogTitles.add(ShowTitle.builder().showId(up.getId()).language("fr").title("Là-haut").build());
+        final ShowMatcher unicodeMatcher = new ShowMatcher(catalog, catalogTitles);
+        
+        // A non-Latin title only matches its own show
+        final Set<UUID> leviathanMatches = unicodeMatcher.findMatchesForRow(CSVRow.builder().originalTitle("ЛЕВИАФАН").build())
+                .stream()
+                .map(match -> match.getShowTitle().getShowId())
+                .collect(Collectors.toSet());
+        assertEquals(Set.of(leviathan.getId()), leviathanMatches, "Non-Latin title should match only its show");
+        
+        // A title without letters or digits matches nothing
+        assertTrue(unicodeMatcher.findMatchesForRow(CSVRow.builder().originalTitle("???").build()).isEmpty(),
+                "Empty key should not match the whole catalog");
+        
+        // A short title only matches by equality
+        final Set<UUID> upMatches = unicodeMatcher.findMatchesForRow(CSVRow.builder().originalTitle("UP!").build())
+                .stream()
+                .map(match -> match.getShowTitle().getShowId())
+                .collect(Collectors.toSet());
+        assertEquals(Set.of(up.getId()), upMatches, "Short key should only match equal titles");
+    }
+    
+    @Test
+    void testYearAndTypePartitionsKeepWildcards() {
+        final Show dated = Show.builder()
+                .id(UUID.randomUUID())
+                .originalTitle("Partition Dated")
+                .productionYear(2001)
+                .type("Movie")
+                .build();
+        final Show undated = Show.builder()
+                .id(UUID.randomUUID())
+                .originalTitle("Partition Undated")
+                .build();
+        final List<Show> catalog = List.of(dated, undated);
+        final List<ShowTitle> catalogTitles = List.of(
+                ShowTitle.builder().showId(dated.getId()).language("en").title("Partition Dated").build(),
+                ShowTitle.builder().showId(undated.getId()).language("en").title("Partition Undated").build());
+        final ShowMatcher partitionedMatcher = new ShowMatcher(catalog, catalogTitles);
+        
+        // A row with the same year and a type differing by case finds both shows
+        assertEquals(Set.of(dated.getId(), undated.getId()),
+                matchedShowIds(partitionedMatcher, CSVRow.builder().originalTitle("Partition").productionYear(2001).type("MOVIE").build()),
+                "Shows without year or type should match any row");
+        
+        // A row without year or type searches every partition
+        assertEquals(Set.of(dated.getId(), undated.getId()),
+                matchedShowIds(partitionedMatcher, CSVRow.builder().originalTitle("Partition").build()),
+                "Rows without year or type should match any show");
+        
+        // A row from another year only finds the undated show
+        assertEquals(Set.of(undated.getId()),
+                matchedShowIds(partitionedMatcher, CSVRow.builder().originalTitle("Partition").productionYear(1999).build()),
+                "Shows from another year should not match");
+    }
+    
+    private static Set<UUID> matchedShowIds(ShowMatcher showMatcher, CSVRow csvRow) {
+        return showMatcher.findMatchesForRow(csvRow).stream()
+                .map(match -> match.getShowTitle().getShowId())
+                .collect(Collectors.toSet());
+    }
+    
+    private static boolean titlesMatch(String key1, String key2) {
+        if (key1.isEmpty() || key2.isEmpty()) {
+            return false;
+        }
+        return key1.equals(key2)
+                || (key1.length() >= 3 && key2.contains(key1))
+                || (key2.length() >= 3 && key1.contains(key2));
+    }
+    
+    @Test
+    void testStreamingMatchesPreserveRowGrouping() {
+        // Enough rows to keep several batches in flight
+        final List<CSVRow> manyRows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            manyRows.addAll(csvRows);
+        }
+        
+        final List<CSVRow> deliveredRows = new ArrayList<>();
+        final List<MatchResult> deliveredMatches = new ArrayList<>();
+        final Thread caller = Thread.currentThread();
+        final long rowCount = matcher.findMatches(manyRows.stream(), (csvRow, matches) -> {
+            assertSame(caller, Thread.currentThread(), "Sink should be called from the calling thread");
+            assertFalse(matches.isEmpty(), "Sink should only receive matched rows");
+            assertTrue(matches.stream().allMatch(match -> match.getCsvRow() == csvRow), "Matches should belong to their row");
+            deliveredRows.add(csvRow);
+            deliveredMatches.addAll(matches);
+        });
+        
+        assertEquals(manyRows.size(), rowCount, "Should process every row");
+        
+        // Rows are delivered in input order, with the same matches as the batch API
+        final List<CSVRow> expectedRows = manyRows.stream()
+                .filter(csvRow -> !matcher.findMatchesForRow(csvRow).isEmpty())
+                .collect(Collectors.toList());
+        assertEquals(expectedRows.size(), deliveredRows.size(), "Should deliver every matched row once");
+        for (int i = 0; i < expectedRows.size(); i++) {
+            assertSame(expectedRows.get(i), deliveredRows.get(i), "Rows should be delivered in input order");
+        }
+        assertEquals(matcher.findMatches(manyRows), deliveredMatches, "Should deliver the same matches");
+    }
+    
+    @Test
+    void testProducerMatchIgnoresCaseAndSpacing() {
+        final CSVRow sameProducers = CSVRow.builder()
+                .originalTitle("Inception")
+                .producers("unknown studio |  LEGENDARY   pictures ")
+                .productionYear(2010)
+                .build();
+        assertFalse(matcher.findMatchesForRow(sameProducers).isEmpty(), "Should match on a normalized common producer");
+        
+        final CSVRow unknownProducers = CSVRow.builder()
+                .originalTitle("Inception")
+                .producers("Unknown Studio, Another Studio")
+                .productionYear(2010)
+                .build();
+        assertTrue(matcher.findMatchesForRow(unknownProducers).isEmpty(), "Should not match without a common producer");
+    }
+    
     @Test
     void testProducerParser() {
         // Test comma separator
@@ -230,6 +424,14 @@ class AppTest {
         final List<String> mixedSeparators = ProducerParser.parse("Producer1, Producer2; Producer3 | Producer4");
         assertTrue(mixedSeparators.size() >= 2, "Should parse at least 2 producers with mixed separators");
         
+        // Test a single producer without separator
+        assertEquals(List.of("Warner Bros. Pictures"), ProducerParser.parse("  Warner Bros. Pictures "),
+                "Should keep a name without separator as a single producer");
+        
+        // Test empty names between separators
+        assertEquals(List.of("Producer1", "Producer2"), ProducerParser.parse(", Producer1,, Producer2 ,"),
+                "Should drop empty names");
+        
         // Test empty string
         final List<String> empty = ProducerParser.parse("");
         assertTrue(empty.isEmpty(), "Should return empty list for empty string");
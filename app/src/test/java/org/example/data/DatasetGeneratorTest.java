@@ -0,0 +1,92 @@
+package org.example.data;
+
+import org.example.io.CsvColumnMapping;
+import org.example.io.CsvRowReader;
+import org.example.matcher.ShowMatcher;
+import org.example.model.CSVRow;
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the synthetic dataset generator.
+ */
+class DatasetGeneratorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSameSeedGeneratesSameData() {
+        final DatasetGenerator generator = DatasetGenerator.builder().seed(7).showCount(200).rowCount(100).build();
+        final DatasetGenerator sameSeed = DatasetGenerator.builder().seed(7).showCount(200).rowCount(100).build();
+        final DatasetGenerator otherSeed = DatasetGenerator.builder().seed(8).showCount(200).rowCount(100).build();
+
+        assertEquals(generator.shows().toList(), sameSeed.shows().toList(), "Shows should only depend on the seed");
+        assertEquals(generator.showTitles().toList(), sameSeed.showTitles().toList(), "Titles should only depend on the seed");
+        assertEquals(generator.csvRows().toList(), sameSeed.csvRows().toList(), "Rows should only depend on the seed");
+        assertNotEquals(generator.csvRows().toList(), otherSeed.csvRows().toList(), "Another seed should give other rows");
+        assertEquals(generator.csvRows().toList(), generator.csvRows().parallel().toList(),
+                "Rows should not depend on the generation order");
+    }
+
+    @Test
+    void testGeneratesRequestedSizes() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(300)
+                .titlesPerShow(12)
+                .rowCount(500)
+                .nonLatinShare(0.5)
+                .build();
+
+        final List<Show> shows = generator.shows().toList();
+        final List<ShowTitle> showTitles = generator.showTitles().toList();
+        assertEquals(300, shows.size());
+        assertEquals(300 * 12, showTitles.size());
+        assertEquals(500, generator.csvRows().count());
+
+        final Set<UUID> ids = shows.stream().map(Show::getId).collect(Collectors.toSet());
+        assertEquals(shows.size(), ids.size(), "Show IDs should be unique");
+        assertTrue(showTitles.stream().allMatch(title -> ids.contains(title.getShowId())), "Titles should refer to shows");
+        assertTrue(showTitles.stream().anyMatch(title -> title.getEpisodeNumber() != null), "Series should have episodes");
+        assertTrue(shows.stream().anyMatch(show -> show.getOriginalTitle().chars().anyMatch(c -> c > 0x7F)),
+                "Some titles should be non-Latin");
+    }
+
+    @Test
+    void testRowsMatchTheCatalogExceptNearMisses() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(500)
+                .rowCount(200)
+                .nearMissShare(0)
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+
+        final long matchedRows = generator.csvRows()
+                .filter(row -> !matcher.findMatchesForRow(row).isEmpty())
+                .count();
+        assertEquals(200, matchedRows, "Rows without typos should match their show");
+    }
+
+    @Test
+    void testWrittenRowsCanBeRead() throws IOException {
+        final DatasetGenerator generator = DatasetGenerator.builder().showCount(100).rowCount(300).build();
+        final Path file = directory.resolve("rows.csv");
+        generator.writeCSVRows(file);
+
+        try (CsvRowReader reader = CsvRowReader.open(file, CsvColumnMapping.defaults())) {
+            final List<CSVRow> rows = reader.rows().collect(Collectors.toList());
+            assertEquals(generator.csvRows().toList(), rows, "Rows should survive a round trip through a file");
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.io;
+
+import org.example.model.CSVRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CSV reader.
+ */
+class CsvRowReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReadsMappedColumns() throws IOException {
+        final Path file = write("feed.csv",
+                "id;title;localized;studios;year;kind\n" +
+                "1;Garfield: The Movie;Garfield, le film;20th Century Fox, Davis Entertainment;2004;movie\n" +
+                "2;Friends;;;;\n");
+        final CsvColumnMapping mapping = CsvColumnMapping.builder()
+                .originalTitle("title")
+                .translatedTitle("localized")
+                .producers("studios")
+                .productionYear("year")
+                .type("kind")
+                .delimiter(';')
+                .build();
+
+        try (CsvRowReader reader = CsvRowReader.open(file, mapping)) {
+            final List<CSVRow> rows = reader.rows().collect(Collectors.toList());
+
+            assertEquals(2, rows.size(), "Should read every record after the header");
+            assertEquals(CSVRow.builder()
+                    .originalTitle("Garfield: The Movie")
+                    .translatedTitle("Garfield, le film")
+                    .producers("20th Century Fox, Davis Entertainment")
+                    .productionYear(2004)
+                    .type("movie")
+                    .build(), rows.get(0));
+            assertEquals(CSVRow.builder().originalTitle("Friends").build(), rows.get(1),
+                    "Empty fields should be read as null");
+        }
+    }
+
+    @Test
+    void testHandlesQuotedFields() throws IOException {
+        final Path file = write("quoted.csv",
+                "\uFEFForiginalTitle,translatedTitle,producers,productionYear,type\r\n" +
+                "\"The Matrix\",\"Matrix, \"\"the\"\" film\",\"Warner Bros.\r\nVillage Roadshow\",1999,movie\r\n" +
+                "\r\n" +
+                "Inception,,,unknown,movie\r\n");
+
+        try (CsvRowReader reader = CsvRowReader.open(file, CsvColumnMapping.defaults())) {
+            final List<CSVRow> rows = reader.rows().collect(Collectors.toList());
+
+            assertEquals(2, rows.size(), "Should skip blank lines and keep multiline fields");
+            assertEquals("Matrix, \"the\" film", rows.get(0).getTranslatedTitle(), "Should unescape doubled quotes");
+            assertEquals("Warner Bros.\r\nVillage Roadshow", rows.get(0).getProducers(), "Should keep line breaks in quotes");
+            assertEquals(1999, rows.get(0).getProductionYear());
+            assertNull(rows.get(1).getProductionYear(), "Should read a malformed year as null");
+        }
+    }
+
+    @Test
+    void testParallelChunksMatchSequentialRead() throws IOException {
+        final StringBuilder csv = new StringBuilder("originalTitle,translatedTitle,producers,productionYear,type\n");
+        for (int i = 0; i < 2000; i++) {
+            csv.append('"').append("Show ").append(i).append("\nPart ").append(i % 7).append("\",")
+                    .append("Série ").append(i).append(',')
+                    .append("\"Studio ").append(i % 13).append(", \"\"North\"\"\",")
+                    .append(1950 + i % 70).append(',')
+                    .append(i % 2 == 0 ? "movie" : "series").append('\n');
+        }
+        final Path file = write("large.csv", csv.toString());
+
+        final List<CSVRow> expected;
+        try (CsvRowReader reader = CsvRowReader.open(file, CsvColumnMapping.defaults())) {
+            expected = reader.rows().collect(Collectors.toList());
+        }
+        assertEquals("Show 1999\nPart 4", expected.get(1999).getOriginalTitle());
+        assertEquals("Studio 10, \"North\"", expected.get(1999).getProducers());
+
+        // Tiny chunks force boundaries to fall inside quoted, multiline fields
+        try (CsvRowReader reader = CsvRowReader.open(file, CsvColumnMapping.defaults(), 97)) {
+            assertEquals(expected, reader.rows().collect(Collectors.toList()),
+                    "Chunked sequential read should produce the same rows");
+            final List<CSVRow> actual = reader.rows().parallel().collect(Collectors.toList());
+            assertEquals(2000, actual.size(), "Should read every record");
+            assertEquals(expected, actual, "Chunked parallel read should produce the same rows in order");
+        }
+    }
+
+    @Test
+    void testKeepsRecordsOfAQuotedEmptyField() throws IOException {
+        final Path file = write("empty.csv",
+                "originalTitle,translatedTitle,producers,productionYear,type\n" +
+                "Garfield,,,,\n" +
+                "\"\"\n" +
+                "\n" +
+                "Friends,,,,\n");
+
+        try (CsvRowReader reader = CsvRowReader.open(file, CsvColumnMapping.defaults())) {
+            final List<CSVRow> rows = reader.rows().collect(Collectors.toList());
+
+            assertEquals(3, rows.size(), "A quoted empty field should be a record, unlike a blank line");
+            assertEquals(CSVRow.builder().build(), rows.get(1), "Its fields should be read as null");
+            assertEquals("Friends", rows.get(2).getOriginalTitle());
+        }
+    }
+
+    @Test
+    void testRejectsUnknownColumn() throws IOException {
+        final Path file = write("unknown.csv", "title\nGarfield\n");
+        assertThrows(IllegalArgumentException.class, () -> CsvRowReader.open(file, CsvColumnMapping.defaults()));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.io;
+
+import org.example.data.DatasetGenerator;
+import org.example.matcher.MatchResult;
+import org.example.matcher.ShowMatcher;
+import org.example.model.CSVRow;
+import org.example.model.ShowTitle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the match result writer.
+ */
+class MatchResultWriterTest {
+    private static final UUID SHOW_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWritesCsvReadableByTheReader() throws IOException {
+        final CSVRow row = CSVRow.builder()
+                .originalTitle("Matrix, \"the\" film")
+                .translatedTitle("Матрица 🎬")
+                .producers("Warner Bros.\nVillage Roadshow")
+                .productionYear(1999)
+                .build();
+        final Path file = directory.resolve("matches.csv");
+        try (MatchResultWriter writer = MatchResultWriter.builder().bufferSize(1024).open(file)) {
+            for (int i = 0; i < 100; i++) {
+                writer.write(MatchResult.match(row, title("The Matrix " + i)));
+            }
+            assertEquals(100, writer.getMatchCount(), "Every match should be counted");
+        }
+
+        try (CsvRowReader reader = CsvRowReader.open(file, CsvColumnMapping.defaults())) {
+            final List<CSVRow> rows = reader.rows().collect(Collectors.toList());
+            assertEquals(100, rows.size(), "Every match should be a record");
+            assertEquals(row, rows.get(99), "Quoted and non-ASCII fields should round trip");
+        }
+    }
+
+    @Test
+    void testWritesGzippedJsonLines() throws IOException {
+        final CSVRow row = CSVRow.builder().originalTitle("Tab\there \\ \"quoted\"").type("movie").build();
+        final Path file = directory.resolve("matches.jsonl.gz");
+        try (MatchResultWriter writer = MatchResultWriter.builder()
+                .format(MatchResultWriter.Format.JSON_LINES)
+                .gzip(true)
+                .open(file)) {
+            writer.write(MatchResult.match(row, title("Tab")));
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            assertEquals("{\"originalTitle\":\"Tab\\u0009here \\\\ \\\"quoted\\\"\",\"translatedTitle\":null,"
+                            + "\"producers\":null,\"productionYear\":null,\"type\":\"movie\","
+                            + "\"showId\":\"" + SHOW_ID + "\",\"language\":\"en\",\"title\":\"Tab\","
+                            + "\"seasonNumber\":1,\"episodeNumber\":null,\"episodeName\":null}",
+                    reader.readLine());
+            assertNull(reader.readLine(), "Each match should be one line");
+        }
+    }
+
+    @Test
+    void testWritesMatchesAsTheyAreProduced() throws IOException {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(500)
+                .rowCount(2_000)
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        final List<CSVRow> rows = generator.csvRows().toList();
+        final Path streamed = directory.resolve("streamed.jsonl");
+        final Path batched = directory.resolve("batched.jsonl");
+
+        try (MatchResultWriter writer = MatchResultWriter.open(streamed, MatchResultWriter.Format.JSON_LINES)) {
+            matcher.findMatches(rows.stream(), writer);
+            assertEquals(matcher.findMatches(rows).size(), writer.getMatchCount(), "Every match should be written");
+        }
+        try (MatchResultWriter writer = MatchResultWriter.open(batched, MatchResultWriter.Format.JSON_LINES)) {
+            writer.write(matcher.findMatchResults(rows));
+        }
+        assertEquals(Files.readAllLines(batched), Files.readAllLines(streamed),
+                "Streamed and compact results should be written alike");
+    }
+
+    @Test
+    void testClosingTwiceHasNoEffect() throws IOException {
+        final CSVRow row = CSVRow.builder().originalTitle("Dune").build();
+        final Path file = directory.resolve("matches.csv.gz");
+        final MatchResultWriter writer = MatchResultWriter.builder().gzip(true).open(file);
+        writer.write(MatchResult.match(row, title("Dune")));
+        writer.close();
+        final byte[] written = Files.readAllBytes(file);
+        assertDoesNotThrow(writer::close, "A second close should do nothing");
+        assertArrayEquals(written, Files.readAllBytes(file), "A second close should not write again");
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            assertEquals(2, reader.lines().count(), "The header and the match should be written once");
+        }
+    }
+
+    private static ShowTitle title(String title) {
+        return ShowTitle.builder().showId(SHOW_ID).language("en").title(title).seasonNumber(1).build();
+    }
+}
@@ -0,0 +1,215 @@
+package org.example.matcher;
+
+import org.example.data.DatasetGenerator;
+import org.example.model.CSVRow;
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the candidate cache.
+ */
+class CandidateCachingTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRepeatedTitlesHitTheCache() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(2_000)
+                .rowCount(500)
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        final List<CSVRow> rows = generator.csvRows().toList();
+        final List<MatchResult> expected = matcher.findMatches(rows);
+        assertNull(matcher.getCandidateCacheStats(), "Cache should be disabled by default");
+
+        matcher.setCandidateCaching(CandidateCaching.builder().build());
+        assertEquals(expected, matcher.findMatches(rows), "Titles seen once should not change the matches");
+        final CandidateCacheStats first = matcher.getCandidateCacheStats();
+        assertTrue(first.getAdmissionRejectionCount() > 0, "Titles seen once should not be cached");
+        assertTrue(first.getSize() < first.getMissCount(), "Titles seen once should not be cached");
+
+        assertEquals(expected, matcher.findMatches(rows), "Cached titles should not change the matches");
+        final CandidateCacheStats second = matcher.getCandidateCacheStats();
+        assertTrue(second.getSize() > 0, "Titles seen twice should be cached");
+
+        assertEquals(expected, matcher.findMatches(rows), "Cache hits should not change the matches");
+        final CandidateCacheStats third = matcher.getCandidateCacheStats();
+        assertEquals(second.getMissCount(), third.getMissCount(), "Every title should hit once cached");
+        assertTrue(third.getHitCount() > second.getHitCount(), "Hits should be counted");
+        assertEquals(0, third.getEvictionCount(), "The cache should hold every title");
+    }
+
+    @Test
+    void testCatalogChangesInvalidateCachedCandidates() throws IOException {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(1_000)
+                .rowCount(300)
+                .build();
+        final List<Show> shows = new ArrayList<>(generator.shows().toList());
+        final List<ShowTitle> showTitles = new ArrayList<>(generator.showTitles().toList());
+        final ShowMatcher matcher = new ShowMatcher(shows, showTitles);
+        matcher.setCandidateCaching(CandidateCaching.builder().build());
+        final List<CSVRow> rows = new ArrayList<>(generator.csvRows().toList());
+        rows.add(CSVRow.builder().originalTitle("Cached Title").build());
+        matcher.findMatches(rows);
+        matcher.findMatches(rows);
+        assertTrue(matcher.getCandidateCacheStats().getSize() > 0, "Titles should be cached");
+
+        // Change shows found by the cached rows: updated years, removed shows, added titles
+        for (int i = 0; i < 30; i++) {
+            final Show show = generator.show(i * 9);
+            switch (i % 3) {
+                case 0 -> {
+                    final Show updated = Show.builder()
+                            .id(show.getId())
+                            .originalTitle(show.getOriginalTitle())
+                            .producers(show.getProducers())
+                            .productionYear(show.getProductionYear() == null ? 1990 : show.getProductionYear() + 1)
+                            .type(show.getType())
+                            .build();
+                    matcher.updateShow(updated);
+                    shows.set(shows.indexOf(show), updated);
+                }
+                case 1 -> {
+                    assertTrue(matcher.removeShow(show.getId()), "Show should be removed");
+                    shows.remove(show);
+                    showTitles.removeIf(title -> title.getShowId().equals(show.getId()));
+                }
+                default -> {
+                    final ShowTitle title = ShowTitle.builder()
+                            .showId(show.getId())
+                            .language("en")
+                            .title("Cached Title " + i)
+                            .build();
+                    matcher.addTitle(title);
+                    showTitles.add(title);
+                }
+            }
+        }
+
+        // Changed shows move to the end of the catalog order, so compare the matches regardless of order
+        final Map<MatchResult, Long> expected = counts(new ShowMatcher(shows, showTitles).findMatches(rows));
+        assertEquals(expected, counts(matcher.findMatches(rows)), "Changes should match like a rebuilt catalog");
+
+        matcher.writeSnapshot(directory.resolve("cached.snapshot"));
+        assertEquals(0, matcher.getCandidateCacheStats().getSize(), "Merging the changes should empty the cache");
+        assertEquals(expected, counts(matcher.findMatches(rows)), "Merged changes should match like a rebuilt catalog");
+        assertEquals(expected, counts(matcher.findMatches(rows)), "Cache hits should see the merged changes");
+    }
+
+    @Test
+    void testCandidatesOfAPreviousBaseAreNotReturned() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(200)
+                .build();
+        final CatalogIndex previous = CatalogIndex.build(generator.shows().toList(), generator.showTitles().toList());
+        final CatalogIndex current = CatalogIndex.build(generator.shows().toList(), generator.showTitles().toList());
+        final TitleCandidateCache cache = new TitleCandidateCache(CandidateCaching.builder().build(), previous);
+        final TitleCandidateCache.Key key = new TitleCandidateCache.Key("dune", null, null, null, null);
+
+        // A lookup passes the check on the previous base, then a compaction rebases the cache
+        assertTrue(cache.covers(previous));
+        cache.rebase(current);
+        cache.offer(previous, key, new int[] {199});
+        cache.offer(previous, key, new int[] {199});
+        assertNull(cache.get(current, key), "Candidates of the previous base should not be returned");
+
+        cache.offer(current, key, new int[] {7});
+        assertArrayEquals(new int[] {7}, cache.get(current, key), "Candidates of the current base should be cached");
+        assertNull(cache.get(previous, key), "Candidates should only be returned for their own index");
+    }
+
+    @Test
+    void testConcurrentCompactionsKeepMatchesCorrect() throws Exception {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(1_000)
+                .rowCount(200)
+                .build();
+        final List<Show> shows = new ArrayList<>(generator.shows().toList());
+        final List<ShowTitle> showTitles = new ArrayList<>(generator.showTitles().toList());
+        final ShowMatcher matcher = new ShowMatcher(shows, showTitles);
+        matcher.setCandidateCaching(CandidateCaching.builder().build());
+        final List<CSVRow> rows = generator.csvRows().toList();
+
+        final AtomicBoolean done = new AtomicBoolean();
+        final ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        final List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            readers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    while (!done.get()) {
+                        matcher.findMatches(rows);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+
+        // Every removal is merged right away, so each one publishes a new base with fewer shows
+        for (int i = 0; i < 20; i++) {
+            final Show show = shows.remove(i * 37 % shows.size());
+            showTitles.removeIf(title -> title.getShowId().equals(show.getId()));
+            assertTrue(matcher.removeShow(show.getId()));
+            matcher.writeSnapshot(directory.resolve("compacted.snapshot"));
+        }
+        done.set(true);
+        for (final Thread reader : readers) {
+            reader.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Lookups should survive compactions: " + failures);
+        final Map<MatchResult, Long> expected = counts(new ShowMatcher(shows, showTitles).findMatches(rows));
+        assertEquals(expected, counts(matcher.findMatches(rows)), "No candidate of a previous base should stay cached");
+        assertEquals(expected, counts(matcher.findMatches(rows)), "Cache hits should match like a rebuilt catalog");
+    }
+
+    @Test
+    void testEvictsBeyondMaxEntries() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(500)
+                .rowCount(200)
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        matcher.setCandidateCaching(CandidateCaching.builder().maxEntries(10).build());
+        final List<CSVRow> rows = generator.csvRows().toList();
+        for (final CSVRow row : rows) {
+            matcher.findMatchesForRow(row);
+            matcher.findMatchesForRow(row);
+        }
+
+        final CandidateCacheStats stats = matcher.getCandidateCacheStats();
+        assertTrue(stats.getSize() <= 10, "The cache should stay within its size");
+        assertTrue(stats.getEvictionCount() > 0, "Entries beyond the size should be evicted");
+        assertEquals(10, matcher.getCandidateCaching().getMaxEntries());
+
+        matcher.setCandidateCaching(null);
+        assertNull(matcher.getCandidateCacheStats(), "Cache should be disabled");
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalStateException.class, () -> CandidateCaching.builder().maxEntries(0).build(),
+                "Cache size must be positive");
+    }
+
+    private static Map<MatchResult, Long> counts(List<MatchResult> matches) {
+        return matches.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.matcher;
+
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the columnar catalog records.
+ */
+class ColumnarCatalogRecordsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordsReadBackAsStored() throws IOException {
+        final List<Show> shows = new ArrayList<>();
+        final List<ShowTitle> titles = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            // More distinct types than fit in a byte, and titles longer than a one-byte length
+            final Show show = Show.builder()
+                    .id(UUID.randomUUID())
+                    .originalTitle(i % 7 == 0 ? null : "Émission " + "ü".repeat(i) + i)
+                    .producers(i % 5 == 0 ? null : List.of("Studio " + i % 3, "Netflix"))
+                    .productionYear(i % 4 == 0 ? null : 1950 + i)
+                    .type(i % 3 == 0 ? null : "type " + i)
+                    .build();
+            shows.add(show);
+            titles.add(ShowTitle.builder()
+                    .showId(i % 11 == 0 ? UUID.randomUUID() : show.getId())
+                    .language(i % 2 == 0 ? "fr" : null)
+                    .title("Titre " + i)
+                    .seasonNumber(i % 6 == 0 ? i : null)
+                    .episodeNumber(i % 6 == 0 ? i + 1 : null)
+                    .episodeName(i % 6 == 0 ? "Épisode " + i : null)
+                    .build());
+        }
+
+        final CatalogRecords records = new ColumnarCatalogRecords(shows, titles);
+        assertRecords(shows, titles, records);
+
+        final Path snapshot = directory.resolve("columns.snapshot");
+        CatalogIndex.build(shows, titles).write(snapshot);
+        assertRecords(shows, titles, CatalogIndex.read(snapshot).records());
+    }
+
+    @Test
+    void testEpisodeNumbersAreKeptWhenUsed() {
+        final Show show = Show.builder().id(UUID.randomUUID()).originalTitle("Lost").build();
+        final ShowTitle title = ShowTitle.builder().showId(show.getId()).title("Lost").build();
+        final ShowTitle episode = ShowTitle.builder().showId(show.getId()).title("Pilot").seasonNumber(1).build();
+
+        final CatalogRecords plain = new ColumnarCatalogRecords(List.of(show), List.of(title));
+        assertNull(plain.showTitle(0).getSeasonNumber());
+        final CatalogRecords numbered = new ColumnarCatalogRecords(List.of(show), List.of(title, episode));
+        assertNull(numbered.showTitle(0).getSeasonNumber());
+        assertEquals(1, numbered.showTitle(1).getSeasonNumber());
+        assertNull(numbered.showTitle(1).getEpisodeNumber());
+        assertEquals(List.of(0, 1), List.of(numbered.titleOfShow(0, 0), numbered.titleOfShow(0, 1)));
+    }
+
+    @Test
+    void testRejectsDuplicateShowIds() {
+        final Show show = Show.builder().id(UUID.randomUUID()).originalTitle("Lost").build();
+        final IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new ColumnarCatalogRecords(List.of(show, show), List.of()));
+        assertEquals("Duplicate key " + show.getId(), e.getMessage());
+    }
+
+    private static void assertRecords(List<Show> shows, List<ShowTitle> titles, CatalogRecords records) {
+        assertEquals(shows.size(), records.showCount());
+        assertEquals(titles.size(), records.titleCount());
+        for (int i = 0; i < shows.size(); i++) {
+            final Show show = shows.get(i);
+            final Show stored = records.show(i);
+            assertEquals(show.getId(), stored.getId());
+            assertEquals(show.getOriginalTitle(), stored.getOriginalTitle());
+            assertEquals(show.getProductionYear(), stored.getProductionYear());
+            assertEquals(show.getType(), stored.getType());
+            if (show.getProducers() != null) {
+                assertEquals(show.getProducers(), stored.getProducers());
+            }
+            assertEquals(i, records.showPosition(show.getId()), "Shows should be found by ID");
+        }
+        assertEquals(-1, records.showPosition(UUID.randomUUID()), "Unknown IDs should not be found");
+
+        for (int i = 0; i < titles.size(); i++) {
+            final ShowTitle title = titles.get(i);
+            final ShowTitle stored = records.showTitle(i);
+            assertEquals(title, stored);
+            assertEquals(title.getEpisodeName(), stored.getEpisodeName());
+            assertEquals(title.getShowId(), records.titleShowId(i), "Orphan titles should keep their show ID");
+            final int show = records.showOfTitle(i);
+            assertEquals(i % 11 == 0 ? -1 : i, show);
+            if (show >= 0) {
+                assertEquals(1, records.titleCountOfShow(show));
+                assertEquals(i, records.titleOfShow(show, 0));
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.example.matcher;
+
+import org.example.data.DatasetGenerator;
+import org.example.model.CSVRow;
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+import org.example.util.EditDistance;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for fuzzy title matching.
+ */
+class FuzzyMatchingTest {
+
+    @Test
+    void testTyposMatchWithinTheDistance() {
+        final Show show = Show.builder()
+                .id(UUID.randomUUID())
+                .originalTitle("Breaking Bad")
+                .productionYear(2008)
+                .type("series")
+                .build();
+        final ShowTitle title = ShowTitle.builder()
+                .showId(show.getId())
+                .language("en")
+                .title("Breaking Bad")
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(List.of(show), List.of(title));
+        final CSVRow typo = CSVRow.builder().originalTitle("Braking Bad").build();
+        final CSVRow transposed = CSVRow.builder().originalTitle("Brekaing Bad").build();
+        assertTrue(matcher.findMatchesForRow(typo).isEmpty(), "Typo should not match exactly");
+
+        matcher.setFuzzyMatching(FuzzyMatching.builder().build());
+        assertEquals(1, matcher.findMatchesForRow(typo).size(), "Typo should match fuzzily");
+        assertEquals(1, matcher.findMatchesForRow(transposed).size(), "Swapped letters should be one edit");
+        assertTrue(matcher.findMatchesForRow(CSVRow.builder().originalTitle("Broken Bat").build()).isEmpty(),
+                "Titles too far apart should not match");
+
+        matcher.setFuzzyMatching(FuzzyMatching.builder().transpositions(false).build());
+        assertTrue(matcher.findMatchesForRow(transposed).isEmpty(), "Swapped letters should be two Levenshtein edits");
+
+        // Titles added later are found through the fuzzy index of the delta
+        final ShowTitle added = ShowTitle.builder()
+                .showId(show.getId())
+                .language("fr")
+                .title("Le Chimiste")
+                .build();
+        matcher.addTitle(added);
+        assertEquals(2, matcher.findMatchesForRow(CSVRow.builder().originalTitle("Le Chimisde").build()).size(),
+                "Added title should match fuzzily");
+
+        matcher.setFuzzyMatching(null);
+        assertTrue(matcher.findMatchesForRow(typo).isEmpty(), "Disabled fuzzy matching should match exactly");
+    }
+
+    @Test
+    void testIndexFindsTheSameKeysAsAFullScan() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(2_000)
+                .build();
+        final CatalogRecords records = new ColumnarCatalogRecords(generator.shows().toList(), generator.showTitles().toList());
+        final String[] showKeys = CatalogKeys.showKeys(records);
+        final String[] titleKeys = CatalogKeys.titleKeys(records);
+        final Random random = new Random(42);
+
+        for (final FuzzyMatching fuzzy : List.of(
+                FuzzyMatching.builder().build(),
+                FuzzyMatching.builder().transpositions(false).build(),
+                FuzzyMatching.builder().maxDistance(2).build(),
+                FuzzyMatching.builder().maxDistance(3).build())) {
+            final int maxDistance = fuzzy.getMaxDistance();
+            final FuzzyTitleIndex index = FuzzyTitleIndex.build(showKeys, titleKeys, fuzzy);
+            for (int i = 0; i < 500; i++) {
+                final String key = mutate(titleKeys[random.nextInt(titleKeys.length)], maxDistance, random);
+                if (key.length() < fuzzy.getMinKeyLength()) {
+                    continue;
+                }
+
+                final ShowCandidates shows = new ShowCandidates();
+                final IntList titles = new IntList();
+                index.collect(key, fuzzy, shows, titles);
+                titles.sortDistinct();
+
+                assertEquals(scan(showKeys, key, fuzzy), toSet(shows.size(), shows::get),
+                        "Shows within distance " + maxDistance + " of " + key);
+                assertEquals(scan(titleKeys, key, fuzzy), toSet(titles.size(), titles::get),
+                        "Titles within distance " + maxDistance + " of " + key);
+            }
+        }
+    }
+
+    @Test
+    void testEditDistancesAgreeWithFullComputation() {
+        final Random random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+            final String left = randomKey(random);
+            final String right = random.nextBoolean() ? mutate(left, 3, random) : randomKey(random);
+            final int threshold = random.nextInt(4);
+
+            final int levenshtein = fullDistance(left, right, false);
+            final int damerau = fullDistance(left, right, true);
+            assertEquals(levenshtein <= threshold ? levenshtein : -1, EditDistance.levenshtein(left, right, threshold),
+                    "Levenshtein distance of " + left + " and " + right);
+            assertEquals(damerau <= threshold ? damerau : -1, EditDistance.damerauLevenshtein(left, right, threshold),
+                    "Damerau-Levenshtein distance of " + left + " and " + right);
+        }
+    }
+
+    @Test
+    void testLongKeysOnlyComputeTheBand() {
+        // A full matrix of these keys would have billions of cells
+        final String left = "a".repeat(100_000);
+        final String right = "b".repeat(100_000);
+        assertEquals(-1, EditDistance.damerauLevenshtein(left, right, 3), "Keys differing everywhere should give up");
+        assertEquals(-1, EditDistance.levenshtein(left, right, 3), "Keys differing everywhere should give up");
+
+        final String far = left.substring(0, 50_000) + "bb" + left.substring(50_000, 99_998) + "ab";
+        assertEquals(-1, EditDistance.damerauLevenshtein(left, far, 2), "Keys differing past the threshold should give up");
+        final String near = left.substring(0, 50_000) + "b" + left.substring(50_001, 99_998) + "ba";
+        assertEquals(2, EditDistance.damerauLevenshtein(left, near, 3), "Two substitutions far apart are two edits");
+        assertEquals(10, EditDistance.damerauLevenshtein("a".repeat(10), "b".repeat(10), Integer.MAX_VALUE),
+                "An unbounded threshold should give the full distance");
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalStateException.class, () -> FuzzyMatching.builder().maxDistance(0).build(),
+                "Distance must be positive");
+        assertThrows(IllegalStateException.class, () -> FuzzyMatching.builder().maxDistance(4).build(),
+                "Distance must be at most 3");
+        assertThrows(IllegalStateException.class, () -> FuzzyMatching.builder().maxDistance(2).minKeyLength(2).build(),
+                "Keys must be longer than the distance");
+    }
+
+    private static TreeSet<Integer> scan(String[] keys, String key, FuzzyMatching fuzzy) {
+        final TreeSet<Integer> positions = new TreeSet<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].length() >= fuzzy.getMinKeyLength() && fuzzy.isWithinDistance(key, keys[i])) {
+                positions.add(i);
+            }
+        }
+        return positions;
+    }
+
+    private static TreeSet<Integer> toSet(int size, IntUnaryOperator values) {
+        final TreeSet<Integer> set = new TreeSet<>();
+        for (int i = 0; i < size; i++) {
+            set.add(values.applyAsInt(i));
+        }
+        return set;
+    }
+
+    private static String randomKey(Random random) {
+        final StringBuilder key = new StringBuilder();
+        final int length = 1 + random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            key.append((char) ('a' + random.nextInt(4)));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Applies up to the given number of random insertions, deletions, substitutions and swaps.
+     */
+    private static String mutate(String key, int edits, Random random) {
+        final StringBuilder mutated = new StringBuilder(key);
+        for (int i = random.nextInt(edits + 1); i > 0 && !mutated.isEmpty(); i--) {
+            final int position = random.nextInt(mutated.length());
+            final char letter = (char) ('a' + random.nextInt(26));
+            switch (random.nextInt(4)) {
+                case 0 -> mutated.insert(position, letter);
+                case 1 -> mutated.deleteCharAt(position);
+                case 2 -> mutated.setCharAt(position, letter);
+                default -> {
+                    if (position + 1 < mutated.length()) {
+                        final char swapped = mutated.charAt(position);
+                        mutated.setCharAt(position, mutated.charAt(position + 1));
+                        mutated.setCharAt(position + 1, swapped);
+                    }
+                }
+            }
+        }
+        return mutated.toString();
+    }
+
+    private static int fullDistance(String left, String right, boolean transpositions) {
+        final int[][] distances = new int[left.length() + 1][right.length() + 1];
+        for (int i = 0; i <= left.length(); i++) {
+            for (int j = 0; j <= right.length(); j++) {
+                if (i == 0 || j == 0) {
+                    distances[i][j] = i + j;
+                    continue;
+                }
+                final int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                distances[i][j] = Math.min(Math.min(distances[i - 1][j] + 1, distances[i][j - 1] + 1),
+                        distances[i - 1][j - 1] + cost);
+                if (transpositions && i > 1 && j > 1 && left.charAt(i - 1) == right.charAt(j - 2)
+                        && left.charAt(i - 2) == right.charAt(j - 1)) {
+                    distances[i][j] = Math.min(distances[i][j], distances[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return distances[left.length()][right.length()];
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.matcher;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the lookup of keys by key.
+ */
+class KeyIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testFindsEveryKey() {
+        final List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            keys.add("key " + i);
+        }
+        keys.add("");
+        final KeyIndex index = new KeyIndex(keys);
+
+        assertEquals(keys.size(), index.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, index.find(keys.get(i)), "Every key should be found at its position");
+        }
+        assertEquals(-1, index.find("key 5000"), "A missing key should not be found");
+        assertEquals(-1, index.find("key"), "A prefix of a key should not be found");
+    }
+
+    @Test
+    void testKeysWithTheSameHashAreToldApart() {
+        // "Aa" and "BB" have the same String hash code
+        final KeyIndex index = new KeyIndex(List.of("Aa", "BB", "AaAa", "BBBB"));
+        assertEquals(0, index.find("Aa"));
+        assertEquals(1, index.find("BB"));
+        assertEquals(2, index.find("AaAa"));
+        assertEquals(3, index.find("BBBB"));
+        assertEquals(-1, index.find("AaBB"), "A key sharing the hash of others should not be found");
+    }
+
+    @Test
+    void testRejectsDuplicateKeys() {
+        assertThrows(IllegalStateException.class, () -> new KeyIndex(List.of("dune", "arrival", "dune")));
+    }
+
+    @Test
+    void testMappedIndexFindsTheSameKeys() throws IOException {
+        final List<String> keys = List.of("dune", "la casa de papel", "été", "", "x");
+        final Path snapshot = directory.resolve("keys.snapshot");
+        try (SnapshotOutput out = new SnapshotOutput(snapshot)) {
+            new KeyIndex(keys).write(out);
+        }
+
+        final KeyIndex mapped;
+        try (SnapshotInput in = new SnapshotInput(snapshot)) {
+            mapped = KeyIndex.read(in);
+        }
+        assertEquals(keys.size(), mapped.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, mapped.find(keys.get(i)), "A mapped index should find every key in place");
+        }
+        assertEquals(-1, mapped.find("dun"));
+    }
+}
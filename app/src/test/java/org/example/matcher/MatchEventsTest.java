@@ -0,0 +1,136 @@
+package org.example.matcher;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.data.DatasetGenerator;
+import org.example.model.CSVRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Flight Recorder events of the matcher.
+ */
+class MatchEventsTest {
+    private static final DatasetGenerator GENERATOR = DatasetGenerator.builder()
+            .showCount(1_000)
+            .rowCount(500)
+            .build();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEnabledEventsAreRecorded() throws IOException {
+        final List<CSVRow> rows = GENERATOR.csvRows().toList();
+        final List<RecordedEvent> events;
+        final int matchCount;
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.MatchBatch");
+            recording.enable("org.example.CatalogIndexBuild");
+            recording.enable("org.example.SlowMatchRow").withThreshold(Duration.ZERO);
+            recording.enable("org.example.WideMatchRow").with("candidateThreshold", "2");
+            recording.start();
+
+            final ShowMatcher matcher = new ShowMatcher(GENERATOR.shows().toList(), GENERATOR.showTitles().toList());
+            matchCount = matcher.findMatches(rows).size();
+            matcher.findMatches(rows.stream(), (csvRow, matches) -> { });
+
+            recording.stop();
+            final Path file = directory.resolve("matcher.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        final List<RecordedEvent> builds = eventsOf(events, "org.example.CatalogIndexBuild").stream()
+                .filter(build -> !build.getBoolean("delta"))
+                .toList();
+        assertEquals(1, builds.size(), "Building the matcher should be recorded");
+        assertEquals(1_000, builds.get(0).getInt("showCount"), "Build should carry the show count");
+
+        final List<RecordedEvent> batches = eventsOf(events, "org.example.MatchBatch");
+        assertEquals(2, batches.size(), "Both calls should be recorded");
+        for (final RecordedEvent batch : batches) {
+            final boolean streaming = batch.getBoolean("streaming");
+            assertEquals(streaming ? -1 : rows.size(), batch.getLong("rowCount"), "Batch should carry the row count");
+            assertEquals(rows.size(), batch.getLong("rowsMatched"), "Every row should be matched");
+            assertEquals(matchCount, batch.getLong("matchCount"), "Batch should carry the match count");
+            assertFalse(batch.getBoolean("failed"), "Batch should complete");
+        }
+
+        assertEquals(2 * rows.size(), eventsOf(events, "org.example.SlowMatchRow").size(),
+                "Every row should pass a zero threshold");
+        final List<RecordedEvent> wideRows = eventsOf(events, "org.example.WideMatchRow");
+        assertFalse(wideRows.isEmpty(), "Rows with several candidates should be recorded");
+        for (final RecordedEvent wideRow : wideRows) {
+            assertTrue(wideRow.getInt("candidateCount") >= 2, "Only rows above the threshold should be recorded");
+            assertNotNull(wideRow.getString("originalKey"), "Event should carry the normalized key");
+        }
+    }
+
+    @Test
+    void testEventsAreOffByDefault() throws IOException, ParseException {
+        final List<RecordedEvent> events;
+        try (Recording recording = new Recording(Configuration.getConfiguration("default"))) {
+            recording.start();
+            final ShowMatcher matcher = new ShowMatcher(GENERATOR.shows().toList(), GENERATOR.showTitles().toList());
+            matcher.findMatches(GENERATOR.csvRows().toList());
+            recording.stop();
+            final Path file = directory.resolve("default.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+        assertTrue(events.stream().noneMatch(event -> event.getEventType().getName().startsWith("org.example.")),
+                "Matcher events should not be recorded unless enabled");
+    }
+
+    @Test
+    void testRowEventsAreOnlyCreatedWhileRecorded() throws IOException {
+        final ShowMatcher matcher = new ShowMatcher(GENERATOR.shows().toList(), GENERATOR.showTitles().toList());
+        final List<CSVRow> rows = GENERATOR.csvRows().toList();
+        assertFalse(MatchRowEvent.isRecorded(), "Row events should be off without a recording");
+        matcher.findMatches(rows);
+
+        final List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.MatchBatch");
+            recording.start();
+            assertFalse(MatchRowEvent.isRecorded(), "Row events should be off unless a recording enables them");
+            matcher.findMatches(rows);
+
+            recording.enable("org.example.SlowMatchRow").withThreshold(Duration.ZERO);
+            assertTrue(MatchRowEvent.isRecorded(), "Row events should be on once a recording enables them");
+            recording.stop();
+            final Path file = directory.resolve("rows.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+        assertFalse(MatchRowEvent.isRecorded(), "Row events should be off once the recording stopped");
+        assertEquals(1, eventsOf(events, "org.example.MatchBatch").size(), "The batch should be recorded");
+        assertTrue(eventsOf(events, "org.example.SlowMatchRow").isEmpty(),
+                "No row event should be committed while row events are off");
+    }
+
+    @Test
+    void testLowestCandidateThresholdWins() {
+        final CandidateThresholdSetting setting = new CandidateThresholdSetting();
+        assertEquals("10", setting.combine(Set.of("10", "200")), "Lowest threshold should win");
+        assertEquals("1000", setting.combine(Set.of()), "Default threshold should apply");
+        setting.setValue("25");
+        assertEquals(25, setting.getThreshold(), "Value should be parsed");
+    }
+
+    private static List<RecordedEvent> eventsOf(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+    }
+}
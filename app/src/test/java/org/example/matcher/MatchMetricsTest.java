@@ -0,0 +1,183 @@
+package org.example.matcher;
+
+import org.example.data.DatasetGenerator;
+import org.example.model.CSVRow;
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the metrics of the matching pipeline.
+ */
+class MatchMetricsTest {
+
+    @Test
+    void testMetricsCountEveryRowAndMatch() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(1_000)
+                .rowCount(2_000)
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        final List<CSVRow> rows = generator.csvRows().toList();
+        assertNull(matcher.getMetrics(), "Metrics should be disabled by default");
+
+        final MatchMetrics metrics = MatchMetrics.builder().build();
+        matcher.setMetrics(metrics);
+        final int matchCount = matcher.findMatches(rows).size();
+        matcher.findMatches(rows.stream(), (csvRow, matches) -> { });
+        matcher.findMatchesForRow(rows.get(0));
+
+        final MatchMetrics.Snapshot snapshot = metrics.snapshot();
+        final long rowCount = 2L * rows.size() + 1;
+        assertEquals(rowCount, snapshot.getRowCount(), "Every row should be counted");
+        assertEquals(2L * matchCount + matcher.findMatchesForRow(rows.get(0)).size(), snapshot.getMatchCount(),
+                "Every match should be counted");
+        for (final MatchMetrics.Stage stage : MatchMetrics.Stage.values()) {
+            assertEquals(rowCount, snapshot.getStageLatency(stage).getCount(), "Every row should time " + stage);
+        }
+        assertEquals(rowCount, snapshot.getCandidateFanOut().getCount(), "Every row should record its candidates");
+        assertTrue(snapshot.getStageLatency(MatchMetrics.Stage.CANDIDATES).getMax() > 0, "Lookups should take time");
+
+        matcher.setMetrics(null);
+        matcher.findMatches(rows);
+        assertEquals(rowCount + 1, metrics.snapshot().getRowCount(), "Disabled metrics should not be recorded");
+    }
+
+    @Test
+    void testRejectionsByReason() {
+        final Show show = Show.builder()
+                .id(UUID.randomUUID())
+                .originalTitle("Garfield")
+                .producers(List.of("Davis Entertainment"))
+                .productionYear(2004)
+                .type("movie")
+                .build();
+        final ShowTitle title = ShowTitle.builder()
+                .showId(show.getId())
+                .language("en")
+                .title("Garfield")
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(List.of(show), List.of(title));
+        final MatchMetrics metrics = MatchMetrics.builder().manyCandidatesThreshold(0).build();
+        matcher.setMetrics(metrics);
+
+        matcher.findMatchesForRow(CSVRow.builder().originalTitle("Garfield").productionYear(1990).build());
+        matcher.findMatchesForRow(CSVRow.builder().originalTitle("Garfield").type("series").build());
+        matcher.findMatchesForRow(CSVRow.builder().originalTitle("Garfield").producers("Pixar").build());
+        matcher.findMatchesForRow(CSVRow.builder().originalTitle("Garfield").producers("Davis Entertainment").build());
+        matcher.findMatchesForRow(CSVRow.builder().originalTitle("Unknown Show").build());
+
+        final MatchMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getRejectionCount(MatchMetrics.Rejection.YEAR), "Year should reject once");
+        assertEquals(1, snapshot.getRejectionCount(MatchMetrics.Rejection.TYPE), "Type should reject once");
+        assertEquals(1, snapshot.getRejectionCount(MatchMetrics.Rejection.PRODUCER), "Producers should reject once");
+        assertEquals(1, snapshot.getMatchCount(), "Only the matching row should count a match");
+        assertEquals(1, snapshot.getRowsWithoutCandidates(), "Unknown title should have no candidate");
+        assertEquals(4, snapshot.getRowsWithManyCandidates(), "Rows above the threshold should be counted");
+    }
+
+    @Test
+    void testSingleRowsAreMergedAfterEachRow() throws InterruptedException {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(500)
+                .rowCount(200)
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        final List<CSVRow> rows = generator.csvRows().toList();
+        final MatchMetrics metrics = MatchMetrics.builder().build();
+        matcher.setMetrics(metrics);
+
+        // The recorder of the thread is reused, and must be empty again after each row
+        for (int i = 0; i < rows.size(); i++) {
+            matcher.findMatchesForRow(rows.get(i));
+            assertEquals(i + 1, metrics.snapshot().getRowCount(), "Each row should be merged when it returns");
+        }
+        final Thread other = new Thread(() -> rows.forEach(matcher::findMatchesForRow));
+        other.start();
+        other.join();
+
+        final MatchMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(2L * rows.size(), snapshot.getRowCount(), "Rows of every thread should be counted");
+        for (final MatchMetrics.Stage stage : MatchMetrics.Stage.values()) {
+            assertEquals(2L * rows.size(), snapshot.getStageLatency(stage).getCount(), "Every row should time " + stage);
+        }
+
+        matcher.findTopMatchesForRow(rows.get(0), MatchScoring.builder().build());
+        assertEquals(2L * rows.size(), metrics.snapshot().getRowCount(), "Scored searches should not be recorded");
+    }
+
+    @Test
+    void testHistogramPercentiles() {
+        final LogHistogram histogram = new LogHistogram();
+        final LogHistogram.Recorder recorder = new LogHistogram.Recorder();
+        for (int value = 1; value <= 10_000; value++) {
+            recorder.record(value);
+        }
+        histogram.merge(recorder);
+        histogram.merge(recorder);
+
+        final HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.getCount(), "Recorder should be reset after a merge");
+        assertEquals(5_000.5, snapshot.getMean(), 1e-9, "Mean should be exact");
+        assertEquals(10_000, snapshot.getMax(), "Max should be exact");
+        assertEquals(7, LogHistogram.highestValueOf(LogHistogram.bucketOf(7)), "Small values should be exact");
+        for (final double percentile : new double[] {1, 50, 90, 99, 99.9}) {
+            final double exact = percentile * 100;
+            final long value = snapshot.getValueAtPercentile(percentile);
+            assertTrue(value >= exact && value <= exact * 1.125,
+                    "Percentile " + percentile + " should be within 12.5%: " + value);
+        }
+        assertEquals(Long.MAX_VALUE, LogHistogram.highestValueOf(LogHistogram.bucketOf(Long.MAX_VALUE)),
+                "Last bucket should reach the largest value");
+
+        // A reused recorder merges values outside the buckets of its previous merge
+        final LogHistogram reused = new LogHistogram();
+        recorder.record(5);
+        reused.merge(recorder);
+        recorder.record(1_000_000);
+        recorder.record(0);
+        reused.merge(recorder);
+        final HistogramSnapshot merged = reused.snapshot();
+        assertEquals(3, merged.getCount());
+        assertEquals(0, merged.getValueAtPercentile(1), "The lowest value should be merged");
+        assertTrue(merged.getValueAtPercentile(100) >= 1_000_000, "The highest value should be merged");
+    }
+
+    @Test
+    void testReporterLogsOnClose() {
+        final List<LogRecord> records = new ArrayList<>();
+        final Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler() {
+            @Override
+            public synchronized void publish(LogRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        final MatchMetrics metrics = MatchMetrics.builder().build();
+        MatchMetricsReporter.start(metrics, Duration.ofHours(1), logger).close();
+        assertEquals(1, records.size(), "Closing should report once");
+        assertTrue(records.get(0).getMessage().contains("rows=0"), "Report should hold the counters");
+        assertThrows(IllegalArgumentException.class, () -> MatchMetricsReporter.start(metrics, Duration.ZERO),
+                "Period must be positive");
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.matcher;
+
+import org.example.data.DatasetGenerator;
+import org.example.model.CSVRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for compact match results.
+ */
+class MatchResultsTest {
+
+    @Test
+    void testCompactResultsMatchTheResultList() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(1_000)
+                .rowCount(2_000)
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        final List<CSVRow> rows = generator.csvRows().toList();
+
+        final MatchResults results = matcher.findMatchResults(rows);
+        final List<MatchResult> expected = matcher.findMatches(rows);
+        assertFalse(results.isEmpty(), "Generated rows should match");
+        assertEquals(expected, results.asList(), "Compact results should hold the same matches");
+
+        for (int i = 0; i < results.size(); i++) {
+            assertSame(rows.get(results.rowIndex(i)), results.csvRow(i), "Row index should point into the batch");
+            assertEquals(results.showTitle(i), results.get(i).getShowTitle(), "Views should read the same title");
+            if (i > 0) {
+                assertTrue(results.rowIndex(i - 1) <= results.rowIndex(i), "Matches should follow input order");
+            }
+        }
+    }
+
+    @Test
+    void testResultsKeepTheirCatalogVersion() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(200)
+                .rowCount(200)
+                .nearMissShare(0)
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        final List<CSVRow> rows = generator.csvRows().toList();
+        final MatchResults results = matcher.findMatchResults(rows);
+        final List<MatchResult> before = List.copyOf(results.asList());
+
+        // Titles removed after the call are still readable from the results
+        for (int i = 0; i < results.size(); i++) {
+            matcher.removeTitle(results.showTitle(i));
+        }
+        assertEquals(before, results.asList(), "Results should not change with the catalog");
+        assertTrue(matcher.findMatchResults(rows).isEmpty(), "Removed titles should not match");
+    }
+}
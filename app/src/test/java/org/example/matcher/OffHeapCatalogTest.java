@@ -0,0 +1,102 @@
+package org.example.matcher;
+
+import org.example.data.DatasetGenerator;
+import org.example.model.CSVRow;
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for catalogs kept off the heap.
+ */
+class OffHeapCatalogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testOffHeapCatalogMatchesLikeTheBuiltMatcher() throws IOException {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(2_000)
+                .rowCount(1_000)
+                .nonLatinShare(0.3)
+                .build();
+        final List<Show> shows = generator.shows().toList();
+        final List<ShowTitle> showTitles = generator.showTitles().toList();
+        final ShowMatcher matcher = new ShowMatcher(shows, showTitles);
+        final ShowMatcher offHeap = ShowMatcher.buildOffHeap(shows, showTitles);
+        final List<CSVRow> rows = generator.csvRows().toList();
+        final List<MatchResult> expected = matcher.findMatches(rows);
+        assertEquals(expected, offHeap.findMatches(rows), "Off-heap catalog should give the same matches");
+
+        offHeap.setFuzzyMatching(FuzzyMatching.builder().build());
+        matcher.setFuzzyMatching(FuzzyMatching.builder().build());
+        assertEquals(matcher.findMatches(rows), offHeap.findMatches(rows), "Fuzzy lookups should read the same keys");
+
+        final Path snapshot = directory.resolve("off-heap.snapshot");
+        offHeap.writeSnapshot(snapshot);
+        assertEquals(expected, ShowMatcher.openSnapshot(snapshot).findMatches(rows),
+                "Off-heap catalog should write the same snapshot");
+    }
+
+    @Test
+    void testCopyIsMappedFromADeletedFile() throws IOException {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(5_000)
+                .build();
+        final CatalogIndex built = CatalogIndex.build(generator.shows().toList(), generator.showTitles().toList());
+        final Path snapshot = directory.resolve("built.snapshot");
+        built.write(snapshot);
+        final long size = Files.size(snapshot);
+
+        final long direct = bufferPool("direct").getMemoryUsed();
+        final Path copies = Files.createDirectory(directory.resolve("copies"));
+        final CatalogIndex copy = built.copyOffHeap(copies);
+        assertTrue(copy.isOffHeap());
+        try (Stream<Path> files = Files.list(copies)) {
+            assertEquals(0, files.count(), "The temporary snapshot should be deleted once mapped");
+        }
+        assertTrue(bufferPool("direct").getMemoryUsed() - direct < size / 2,
+                "The copy should not be held in direct memory, bounded by MaxDirectMemorySize");
+        assertEquals(built.records().show(42).getId(), copy.records().show(42).getId());
+    }
+
+    @Test
+    void testMergedChangesStayOffHeap() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(500)
+                .build();
+        final CatalogIndex built = CatalogIndex.build(generator.shows().toList(), generator.showTitles().toList());
+        assertFalse(built.isOffHeap());
+        final CatalogIndex copy = built.copyOffHeap();
+        assertTrue(copy.isOffHeap());
+        assertSame(copy, copy.copyOffHeap(), "An off-heap index should not be copied again");
+        assertEquals(built.records().showCount(), copy.records().showCount());
+        assertEquals(built.records().show(42).getId(), copy.records().show(42).getId());
+
+        final Show show = Show.builder().id(UUID.randomUUID()).originalTitle("Off Heap").build();
+        assertTrue(new CatalogVersion(copy).withShow(show).compact().base().isOffHeap(),
+                "Merged changes should stay off the heap");
+        assertFalse(new CatalogVersion(built).withShow(show).compact().base().isOffHeap(),
+                "Merged changes should stay on the heap");
+    }
+
+    private static BufferPoolMXBean bufferPool(String name) {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.matcher;
+
+import org.example.data.DatasetGenerator;
+import org.example.model.CSVRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the deduplication of repeated rows within a batch.
+ */
+class RowDeduplicationTest {
+
+    @Test
+    void testRepeatedRowsMatchLikeSingleRows() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(1_000)
+                .rowCount(500)
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+
+        // Every row is followed by copies, one of them in upper case
+        final List<CSVRow> rows = new ArrayList<>();
+        for (final CSVRow row : generator.csvRows().toList()) {
+            rows.add(row);
+            rows.add(row);
+            rows.add(CSVRow.builder()
+                    .originalTitle(row.getOriginalTitle() != null ? row.getOriginalTitle().toUpperCase(Locale.ROOT) : null)
+                    .translatedTitle(row.getTranslatedTitle())
+                    .producers(row.getProducers() != null ? row.getProducers().toUpperCase(Locale.ROOT) : null)
+                    .productionYear(row.getProductionYear())
+                    .type(row.getType())
+                    .build());
+        }
+        final List<MatchResult> expected = new ArrayList<>();
+        for (final CSVRow row : rows) {
+            expected.addAll(matcher.findMatchesForRow(row));
+        }
+
+        final MatchMetrics metrics = MatchMetrics.builder().build();
+        matcher.setMetrics(metrics);
+        assertEquals(expected, matcher.findMatches(rows), "Repeated rows should match like single rows");
+        final List<MatchResult> streamed = new ArrayList<>();
+        matcher.findMatches(rows.stream(), (csvRow, matches) -> streamed.addAll(matches));
+        assertEquals(expected, streamed, "Repeated rows of a stream should match like single rows");
+
+        final MatchMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(2L * rows.size(), snapshot.getRowCount(), "Repeated rows should still be counted");
+        assertEquals(2L * expected.size(), snapshot.getMatchCount(), "Copied matches should be counted");
+        // The first two rows of a key are searched, so that rows seen once are never recorded
+        assertTrue(snapshot.getRowsDeduplicated() >= 2L * generator.getRowCount(),
+                "Every further copy should reuse the matches of its row");
+    }
+
+    @Test
+    void testRowsSeenOnceAreNotRecorded() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(1_000)
+                .build();
+        final CatalogIndex index = CatalogIndex.build(generator.shows().toList(), generator.showTitles().toList());
+        final int rowCount = 5_000;
+        final RowDeduplicator deduplicator = new RowDeduplicator(rowCount);
+        final IntList titleRefs = new IntList();
+        titleRefs.add(7);
+        for (int i = 0; i < rowCount; i++) {
+            final CSVRow row = CSVRow.builder().originalTitle("Distinct Show " + i).productionYear(2000).build();
+            final RowDeduplicator.QueryKey key = RowDeduplicator.QueryKey.of(CompiledRow.compile(row, index.producerDictionary()));
+            assertNull(deduplicator.get(key), "No row should repeat");
+            deduplicator.put(key, titleRefs, 0, 1);
+        }
+        // Keys sharing a bit of the doorkeeper are still recorded, but few of them
+        assertTrue(deduplicator.size() < rowCount / 10,
+                "Rows seen once should not be kept, but " + deduplicator.size() + " were");
+
+        final CSVRow repeated = CSVRow.builder().originalTitle("Repeated Show").build();
+        final RowDeduplicator.QueryKey key = RowDeduplicator.QueryKey.of(CompiledRow.compile(repeated, index.producerDictionary()));
+        deduplicator.put(key, titleRefs, 0, 1);
+        deduplicator.put(key, titleRefs, 0, 1);
+        assertArrayEquals(new int[] {7}, deduplicator.get(key).titleRefs(), "A repeated row should be recorded");
+    }
+
+    @Test
+    void testDistinctRowsMatchLikeSingleRows() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(1_000)
+                .rowCount(500)
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        final List<CSVRow> rows = generator.csvRows().toList();
+        final List<MatchResult> expected = new ArrayList<>();
+        for (final CSVRow row : rows) {
+            expected.addAll(matcher.findMatchesForRow(row));
+        }
+        assertEquals(expected, matcher.findMatches(rows), "Rows that do not repeat should match like single rows");
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.matcher;
+
+import org.example.data.DatasetGenerator;
+import org.example.model.CSVRow;
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for scored top-K matching.
+ */
+class ScoredMatchingTest {
+
+    @Test
+    void testRanksShowsByScore() {
+        final List<Show> shows = List.of(
+                show("Love Actually", 2003, "movie", "Legendary"),
+                show("Love", 2015, null, "Netflix"),
+                show("Love", null, "series", null),
+                show("Lovesick", 2014, "series", "Netflix"));
+        final List<ShowTitle> titles = new ArrayList<>();
+        for (final Show show : shows) {
+            titles.add(ShowTitle.builder().showId(show.getId()).language("en").title(show.getOriginalTitle()).build());
+        }
+        final ShowMatcher matcher = new ShowMatcher(shows, titles);
+        final CSVRow row = CSVRow.builder()
+                .originalTitle("Love")
+                .productionYear(2015)
+                .producers("Netflix, Legendary")
+                .build();
+
+        final List<ScoredMatch> matches = matcher.findTopMatchesForRow(row, MatchScoring.builder().build());
+        assertEquals(List.of(shows.get(1), shows.get(2)), matches.stream().map(ScoredMatch::getShow).toList(),
+                "Exact titles should rank first, and shows of other years should be filtered out");
+        assertEquals(ScoredMatch.TitleMatch.EXACT, matches.get(0).getTitleMatch());
+        assertEquals(1.0 + 0.5 / 2 + 0.25, matches.get(0).getScore(), 1e-9, "Half the producers and the year agree");
+        assertEquals(1.0, matches.get(1).getScore(), 1e-9, "Unknown year and producers add nothing");
+        assertEquals(List.of(MatchResult.match(row, titles.get(1))), matches.get(0).toMatchResults());
+
+        final List<ScoredMatch> containing = matcher.findTopMatchesForRow(
+                CSVRow.builder().originalTitle("Love").build(), MatchScoring.builder().maxShows(3).build());
+        assertEquals(3, containing.size(), "Only the best shows should be kept");
+        assertEquals(ScoredMatch.TitleMatch.CONTAINED, containing.get(2).getTitleMatch());
+        assertEquals(shows.get(0), containing.get(2).getShow(), "Ties should keep the order the shows were found in");
+    }
+
+    @Test
+    void testTopMatchesAreTheBestOfAllMatches() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(1_000)
+                .rowCount(500)
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        final MatchScoring everyShow = MatchScoring.builder().maxShows(1_000).build();
+        final MatchScoring topShows = MatchScoring.builder().maxShows(2).build();
+
+        for (final CSVRow row : generator.csvRows().toList()) {
+            final Set<UUID> expected = new HashSet<>();
+            for (final MatchResult match : matcher.findMatchesForRow(row)) {
+                expected.add(match.getShowTitle().getShowId());
+            }
+
+            final List<ScoredMatch> all = matcher.findTopMatchesForRow(row, everyShow);
+            final Set<UUID> scored = new HashSet<>();
+            for (int i = 0; i < all.size(); i++) {
+                scored.add(all.get(i).getShow().getId());
+                if (i > 0) {
+                    assertTrue(all.get(i - 1).getScore() >= all.get(i).getScore(), "Scores should decrease");
+                }
+            }
+            assertEquals(expected, scored, "Scored matching should find the shows of unscored matching");
+
+            final List<ScoredMatch> top = matcher.findTopMatchesForRow(row, topShows);
+            assertEquals(all.subList(0, Math.min(2, all.size())).stream().map(ScoredMatch::getScore).toList(),
+                    top.stream().map(ScoredMatch::getScore).toList(), "Top shows should have the best scores");
+        }
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalStateException.class, () -> MatchScoring.builder().maxShows(0).build(),
+                "Show count must be positive");
+        assertThrows(IllegalStateException.class, () -> MatchScoring.builder().yearWeight(-1).build(),
+                "Weights must not be negative");
+        assertThrows(IllegalStateException.class, () -> MatchScoring.builder().titleScores(0.5, 0.8, 0.2).build(),
+                "Title scores must decrease from exact to approximate matches");
+    }
+
+    private static Show show(String title, Integer year, String type, String producer) {
+        return Show.builder()
+                .id(UUID.randomUUID())
+                .originalTitle(title)
+                .productionYear(year)
+                .type(type)
+                .producers(producer != null ? List.of(producer) : List.of())
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.matcher;
+
+import org.example.data.DatasetGenerator;
+import org.example.model.CSVRow;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the execution options of the matcher.
+ */
+class ShowMatcherExecutionTest {
+    private static final DatasetGenerator GENERATOR = DatasetGenerator.builder()
+            .showCount(1_000)
+            .rowCount(2_000)
+            .build();
+
+    private final ShowMatcher matcher = new ShowMatcher(GENERATOR.shows().toList(), GENERATOR.showTitles().toList());
+    private final List<CSVRow> rows = GENERATOR.csvRows().toList();
+
+    @Test
+    void testExecutorsGiveTheSameMatchesInOrder() {
+        final List<MatchResult> expected = matcher.findMatches(rows);
+        assertFalse(expected.isEmpty(), "Generated rows should match");
+
+        try (MatchExecutor pool = MatchExecutor.builder().parallelism(3).chunkSize(100).build();
+             MatchExecutor virtualThreads = MatchExecutor.builder().virtualThreads().chunkSize(64).build()) {
+            assertEquals(expected, matcher.findMatches(rows, MatchOptions.builder().executor(pool).build()),
+                    "Dedicated pool should give the same matches");
+            assertEquals(expected, matcher.findMatches(rows, MatchOptions.builder().executor(virtualThreads).build()),
+                    "Virtual threads should give the same matches");
+        }
+    }
+
+    @Test
+    void testProgressReachesEveryRow() {
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong total = new AtomicLong();
+        final MatchOptions options = MatchOptions.builder()
+                .executor(MatchExecutor.builder().chunkSize(128).build())
+                .progressListener((completedRows, totalRows) -> {
+                    completed.accumulateAndGet(completedRows, Math::max);
+                    total.set(totalRows);
+                })
+                .build();
+
+        matcher.findMatches(rows, options);
+        assertEquals(rows.size(), completed.get(), "Progress should reach every row");
+        assertEquals(rows.size(), total.get(), "Progress should report the row count");
+
+        completed.set(0);
+        final List<MatchResult> streamed = new ArrayList<>();
+        final long rowCount = matcher.findMatches(rows.stream(), (csvRow, matches) -> streamed.addAll(matches), options);
+        assertEquals(rows.size(), rowCount, "Every row should be read");
+        assertEquals(rows.size(), completed.get(), "Streaming progress should reach every row");
+        assertEquals(-1, total.get(), "Stream row count is unknown");
+        assertEquals(matcher.findMatches(rows), streamed, "Streamed matches should keep input order");
+    }
+
+    @Test
+    void testDeadlineStopsMatching() {
+        final MatchOptions expired = MatchOptions.builder().timeout(Duration.ZERO).build();
+        assertThrows(CancellationException.class, () -> matcher.findMatches(rows, expired),
+                "Expired deadline should fail the call");
+        assertThrows(CancellationException.class,
+                () -> matcher.findMatches(rows.stream(), (csvRow, matches) -> { }, expired),
+                "Expired deadline should fail the streaming call");
+    }
+
+    @Test
+    void testCancellingTheFutureStopsMatching() {
+        final AtomicLong completed = new AtomicLong();
+        try (MatchExecutor pool = MatchExecutor.builder().parallelism(1).chunkSize(1).build()) {
+            final CompletableFuture<List<MatchResult>> matches = matcher.findMatchesAsync(rows,
+                    MatchOptions.builder()
+                            .executor(pool)
+                            .progressListener((completedRows, totalRows) -> completed.set(completedRows))
+                            .build());
+            assertTrue(matches.cancel(false), "Running call should be cancellable");
+            assertThrows(CancellationException.class, matches::join, "Cancelled call should not complete");
+        }
+        assertTrue(completed.get() < rows.size(), "Cancelled call should not match every row");
+    }
+
+    @Test
+    void testRejectsConflictingExecutors() {
+        assertThrows(IllegalStateException.class,
+                () -> MatchExecutor.builder().parallelism(2).virtualThreads().build(),
+                "Only one kind of threads can be chosen");
+        assertThrows(IllegalStateException.class, () -> MatchExecutor.builder().chunkSize(0).build(),
+                "Chunk size must be positive");
+    }
+}
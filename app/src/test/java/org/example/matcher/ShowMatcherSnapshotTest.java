@@ -0,0 +1,75 @@
+package org.example.matcher;
+
+import org.example.data.DatasetGenerator;
+import org.example.data.MockData;
+import org.example.model.CSVRow;
+import org.example.model.Show;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for matcher snapshots.
+ */
+class ShowMatcherSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSnapshotMatchesLikeTheBuiltMatcher() throws IOException {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(2_000)
+                .titlesPerShow(8)
+                .rowCount(1_000)
+                .nonLatinShare(0.3)
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(generator.shows().toList(), generator.showTitles().toList());
+        final Path snapshot = directory.resolve("catalog.snapshot");
+        matcher.writeSnapshot(snapshot);
+
+        final ShowMatcher opened = ShowMatcher.openSnapshot(snapshot);
+        final List<CSVRow> rows = generator.csvRows().toList();
+        assertEquals(matcher.findMatches(rows), opened.findMatches(rows), "Snapshot should give the same matches");
+    }
+
+    @Test
+    void testSnapshotCanBeWrittenAgain() throws IOException {
+        final List<Show> shows = MockData.createMockShows();
+        final ShowMatcher matcher = new ShowMatcher(shows, MockData.createMockShowTitles(shows));
+        final Path first = directory.resolve("first.snapshot");
+        final Path second = directory.resolve("second.snapshot");
+        matcher.writeSnapshot(first);
+        ShowMatcher.openSnapshot(first).writeSnapshot(second);
+
+        final List<CSVRow> rows = MockData.createMockCSVRows();
+        assertEquals(matcher.findMatches(rows), ShowMatcher.openSnapshot(second).findMatches(rows),
+                "A snapshot written from a snapshot should give the same matches");
+    }
+
+    @Test
+    void testRejectsSnapshotsOfOtherVersions() throws IOException {
+        final List<Show> shows = MockData.createMockShows();
+        final Path snapshot = directory.resolve("old.snapshot");
+        new ShowMatcher(shows, MockData.createMockShowTitles(shows)).writeSnapshot(snapshot);
+
+        // The format version follows the 8-byte magic number, in little-endian order
+        final byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[Long.BYTES] = 1;
+        Files.write(snapshot, bytes);
+        assertThrows(IOException.class, () -> ShowMatcher.openSnapshot(snapshot),
+                "A snapshot of the first format should be rejected");
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        final Path file = Files.writeString(directory.resolve("rows.csv"), "originalTitle\nGarfield\n");
+        assertThrows(IOException.class, () -> ShowMatcher.openSnapshot(file), "A CSV file is not a snapshot");
+    }
+}
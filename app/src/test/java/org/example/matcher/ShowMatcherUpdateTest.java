@@ -0,0 +1,170 @@
+package org.example.matcher;
+
+import org.example.data.DatasetGenerator;
+import org.example.model.CSVRow;
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for catalog changes on a live matcher.
+ */
+class ShowMatcherUpdateTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testChangesMatchLikeARebuiltMatcher() throws IOException {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(2_000)
+                .titlesPerShow(6)
+                .rowCount(1_000)
+                .build();
+        final List<Show> shows = new ArrayList<>(generator.shows().toList());
+        final List<ShowTitle> showTitles = new ArrayList<>(generator.showTitles().toList());
+        final ShowMatcher matcher = new ShowMatcher(shows, showTitles);
+
+        // Enough changes for the delta to be merged into the base at least once
+        for (int i = 0; i < 200; i++) {
+            final Show show = shows.get(i * 7);
+            switch (i % 4) {
+                case 0 -> {
+                    assertTrue(matcher.removeShow(show.getId()), "Show should be removed");
+                    shows.remove(show);
+                    showTitles.removeIf(title -> title.getShowId().equals(show.getId()));
+                }
+                case 1 -> {
+                    final Show updated = Show.builder()
+                            .id(show.getId())
+                            .originalTitle(show.getOriginalTitle())
+                            .producers(List.of("Updated Producer " + i))
+                            .productionYear(show.getProductionYear() == null ? 1990 : show.getProductionYear() + 1)
+                            .type(show.getType())
+                            .build();
+                    matcher.updateShow(updated);
+                    shows.set(shows.indexOf(show), updated);
+                }
+                case 2 -> {
+                    final ShowTitle title = ShowTitle.builder()
+                            .showId(show.getId())
+                            .language("xx")
+                            .title("Added Title " + i)
+                            .build();
+                    matcher.addTitle(title);
+                    showTitles.add(title);
+                }
+                default -> {
+                    showTitles.stream()
+                            .filter(candidate -> candidate.getShowId().equals(show.getId()))
+                            .findFirst()
+                            .ifPresent(title -> {
+                                assertTrue(matcher.removeTitle(title), "Title should be removed");
+                                showTitles.removeIf(title::equals);
+                            });
+                }
+            }
+        }
+        final Show added = Show.builder().id(UUID.randomUUID()).originalTitle("Freshly Added Show").build();
+        matcher.addShow(added);
+        shows.add(added);
+        final ShowTitle addedTitle = ShowTitle.builder().showId(added.getId()).language("en").title("Freshly Added Show").build();
+        matcher.addTitle(addedTitle);
+        showTitles.add(addedTitle);
+
+        // Changed shows move to the end of the catalog order, so compare the matches regardless of order
+        final List<CSVRow> rows = new ArrayList<>(generator.csvRows().toList());
+        rows.add(CSVRow.builder().originalTitle("Freshly Added").build());
+        final Map<MatchResult, Long> expected = counts(new ShowMatcher(shows, showTitles).findMatches(rows));
+        assertEquals(expected, counts(matcher.findMatches(rows)), "Changes should match like a rebuilt catalog");
+
+        final Path snapshot = directory.resolve("changed.snapshot");
+        matcher.writeSnapshot(snapshot);
+        assertEquals(expected, counts(ShowMatcher.openSnapshot(snapshot).findMatches(rows)),
+                "Snapshot should include the changes");
+        assertEquals(expected, counts(matcher.findMatches(rows)), "Writing a snapshot should not change the matches");
+    }
+
+    @Test
+    void testAddedShowTakesTitlesAddedBefore() {
+        final Show show = Show.builder().id(UUID.randomUUID()).originalTitle("Late Arrival").build();
+        final ShowMatcher matcher = new ShowMatcher(List.of(), List.of(
+                ShowTitle.builder().showId(show.getId()).language("en").title("Late Arrival").build()));
+        matcher.addTitle(ShowTitle.builder().showId(show.getId()).language("fr").title("Arrivee Tardive").build());
+        final CSVRow row = CSVRow.builder().originalTitle("Late Arrival").translatedTitle("Arrivee Tardive").build();
+        assertTrue(matcher.findMatchesForRow(row).isEmpty(), "Titles without a show should not match");
+
+        matcher.addShow(show);
+        assertEquals(2, matcher.findMatchesForRow(row).size(), "Added show should own the titles added before it");
+
+        assertTrue(matcher.removeShow(show.getId()), "Show should be removed");
+        assertFalse(matcher.removeShow(show.getId()), "Show should already be removed");
+        assertTrue(matcher.findMatchesForRow(row).isEmpty(), "Removed show should not match");
+    }
+
+    @Test
+    void testRejectsInvalidChanges() {
+        final Show show = Show.builder().id(UUID.randomUUID()).originalTitle("Only Show").build();
+        final ShowMatcher matcher = new ShowMatcher(List.of(show), List.of());
+        assertThrows(IllegalArgumentException.class, () -> matcher.addShow(show), "Show IDs should be unique");
+        assertThrows(IllegalArgumentException.class,
+                () -> matcher.updateShow(Show.builder().id(UUID.randomUUID()).originalTitle("Other").build()),
+                "Unknown shows cannot be updated");
+        assertFalse(matcher.removeTitle(ShowTitle.builder().showId(show.getId()).language("en").title("Only Show").build()),
+                "Unknown titles cannot be removed");
+    }
+
+    @Test
+    void testReadersNeverSeeHalfAppliedChanges() throws InterruptedException {
+        final Show show = Show.builder()
+                .id(UUID.randomUUID())
+                .originalTitle("Concurrent Show")
+                .producers(List.of("First Studio"))
+                .build();
+        final List<ShowTitle> titles = List.of(
+                ShowTitle.builder().showId(show.getId()).language("en").title("Concurrent Show").build(),
+                ShowTitle.builder().showId(show.getId()).language("fr").title("Spectacle Concurrent").build(),
+                ShowTitle.builder().showId(show.getId()).language("de").title("Gleichzeitige Show").build());
+        final ShowMatcher matcher = new ShowMatcher(List.of(show), titles);
+        final List<CSVRow> rows = List.of(CSVRow.builder().originalTitle("Concurrent Show").producers("First Studio").build());
+
+        // The writer alternates the producers, so a row either matches every title of the show or none
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final Thread writer = new Thread(() -> {
+            for (int i = 0; running.get(); i++) {
+                matcher.updateShow(Show.builder()
+                        .id(show.getId())
+                        .originalTitle(show.getOriginalTitle())
+                        .producers(List.of(i % 2 == 0 ? "Second Studio" : "First Studio"))
+                        .build());
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                final int matchCount = matcher.findMatches(rows).size();
+                assertTrue(matchCount == 0 || matchCount == titles.size(), "Unexpected match count " + matchCount);
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+
+    private static Map<MatchResult, Long> counts(List<MatchResult> matches) {
+        return matches.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.matcher;
+
+import org.example.data.DatasetGenerator;
+import org.example.model.CSVRow;
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for similarity title matching.
+ */
+class SimilarityMatchingTest {
+
+    @Test
+    void testReorderedTitlesMatchAboveTheThreshold() {
+        final Show show = Show.builder()
+                .id(UUID.randomUUID())
+                .originalTitle("The Great British Bake Off")
+                .productionYear(2010)
+                .type("series")
+                .build();
+        final ShowTitle title = ShowTitle.builder()
+                .showId(show.getId())
+                .language("en")
+                .title("The Great British Bake Off")
+                .build();
+        final ShowMatcher matcher = new ShowMatcher(List.of(show), List.of(title));
+        final CSVRow reordered = CSVRow.builder().originalTitle("Great British Bake Off, The").productionYear(2010).build();
+        assertTrue(matcher.findMatchesForRow(reordered).isEmpty(), "Reordered title should not match exactly");
+
+        matcher.setSimilarityMatching(SimilarityMatching.builder().build());
+        assertEquals(1, matcher.findMatchesForRow(reordered).size(), "Reordered title should match by similarity");
+        assertTrue(matcher.findMatchesForRow(CSVRow.builder().originalTitle("Great British Bake Off, The").productionYear(1995).build()).isEmpty(),
+                "Similar titles should still be filtered by year");
+        assertTrue(matcher.findMatchesForRow(CSVRow.builder().originalTitle("The Great British Sewing Bee").build()).isEmpty(),
+                "Titles below the threshold should not match");
+
+        matcher.setSimilarityMatching(SimilarityMatching.builder().threshold(0.9).build());
+        assertTrue(matcher.findMatchesForRow(reordered).isEmpty(), "Higher threshold should reject the title");
+
+        matcher.setSimilarityMatching(null);
+        assertNull(matcher.getSimilarityMatching());
+        assertTrue(matcher.findMatchesForRow(reordered).isEmpty(), "Disabled similarity matching should match exactly");
+    }
+
+    @Test
+    void testIndexFindsMostOfTheSimilarKeys() {
+        final DatasetGenerator generator = DatasetGenerator.builder()
+                .showCount(2_000)
+                .build();
+        final CatalogRecords records = new ColumnarCatalogRecords(generator.shows().toList(), generator.showTitles().toList());
+        final String[] showKeys = CatalogKeys.showKeys(records);
+        final String[] titleKeys = CatalogKeys.titleKeys(records);
+        final SimilarityMatching similarity = SimilarityMatching.builder().maxCandidates(1_000).build();
+        final SimilarityTitleIndex index = SimilarityTitleIndex.build(showKeys, titleKeys, similarity);
+        final Random random = new Random(42);
+
+        int expected = 0;
+        int found = 0;
+        for (int i = 0; i < 300; i++) {
+            // Move the start of a key to its end, as a reordered title would
+            final String original = titleKeys[random.nextInt(titleKeys.length)];
+            if (original.length() < similarity.getMinKeyLength()) {
+                continue;
+            }
+            final int cut = 1 + random.nextInt(3);
+            final String key = original.substring(cut) + original.substring(0, cut);
+
+            final ShowCandidates shows = new ShowCandidates();
+            final IntList titles = new IntList();
+            index.collect(key, similarity, shows, titles);
+            final Set<Integer> foundTitles = new HashSet<>();
+            for (int j = 0; j < titles.size(); j++) {
+                foundTitles.add(titles.get(j));
+            }
+
+            final long[] grams = SimilarityTitleIndex.trigrams(key);
+            for (int j = 0; j < titleKeys.length; j++) {
+                final boolean indexed = titleKeys[j].length() >= similarity.getMinKeyLength();
+                final double score = SimilarityTitleIndex.jaccard(grams, SimilarityTitleIndex.trigrams(titleKeys[j]));
+                if (foundTitles.contains(j)) {
+                    assertTrue(indexed && score >= similarity.getThreshold(), "Found title should be similar to " + key);
+                }
+                if (indexed && score >= 0.7) {
+                    expected++;
+                    if (foundTitles.contains(j)) {
+                        found++;
+                    }
+                }
+            }
+        }
+        assertTrue(expected > 0, "Reordered keys should stay similar");
+        assertTrue(found >= 0.95 * expected, "Index should find most similar titles: " + found + " of " + expected);
+    }
+
+    @Test
+    void testKeepsTheMostSimilarKeys() {
+        final String[] showKeys = {"breakingbadmovie", "breakingbadthemovie", "breakingbadthemovies"};
+        final SimilarityMatching similarity = SimilarityMatching.builder().maxCandidates(2).build();
+        final SimilarityTitleIndex index = SimilarityTitleIndex.build(showKeys, new String[0], similarity);
+
+        final ShowCandidates shows = new ShowCandidates();
+        index.collect("breakingbadthemovie", similarity, shows, new IntList());
+        assertEquals(2, shows.size(), "Only the best candidates should be kept");
+        assertEquals(1, shows.get(0), "Equal key should come first");
+        assertEquals(2, shows.get(1), "Closest key should come next");
+
+        assertEquals(1.0, SimilarityTitleIndex.jaccard(SimilarityTitleIndex.trigrams("aaaa"),
+                SimilarityTitleIndex.trigrams("aaa")), "Trigrams should be distinct");
+        assertEquals(0.5, SimilarityTitleIndex.jaccard(SimilarityTitleIndex.trigrams("abcd"),
+                SimilarityTitleIndex.trigrams("abc")), 1e-9);
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalStateException.class, () -> SimilarityMatching.builder().threshold(0).build(),
+                "Threshold must be positive");
+        assertThrows(IllegalStateException.class, () -> SimilarityMatching.builder().threshold(1.5).build(),
+                "Threshold must be at most 1");
+        assertThrows(IllegalStateException.class, () -> SimilarityMatching.builder().maxCandidates(0).build(),
+                "Candidate count must be positive");
+        assertThrows(IllegalStateException.class, () -> SimilarityMatching.builder().bands(64).rowsPerBand(4).build(),
+                "Signatures must be at most 128 values long");
+        assertThrows(IllegalStateException.class, () -> SimilarityMatching.builder().minKeyLength(2).build(),
+                "Keys must hold a trigram");
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.matcher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Aho-Corasick automaton over the normalized titles.
+ */
+class TitleAutomatonTest {
+
+    @Test
+    void testOverlappingTitlesAreAllReported() {
+        final String[] titles = {"abcd", "bcde", "cdef", "aaa", "zzz"};
+        assertEquals(List.of(0, 1, 2), scan(titles, "abcdef"), "Overlapping titles should all be reported");
+        assertEquals(List.of(3, 3, 3), scan(titles, "aaaaa"), "Every occurrence should be reported");
+        assertEquals(List.of(), scan(titles, "abcxdef"), "Titles broken by another character should not be reported");
+    }
+
+    @Test
+    void testTitlesAreReportedThroughOutputLinks() {
+        // The longest prefixes reached are not titles, so the titles ending there are only reached by output links
+        final String[] titles = {"abcde", "bcd", "xcd", "cd x"};
+        assertEquals(List.of(1), scan(titles, "abcdz"), "A suffix title should be reported at the end of a longer prefix");
+
+        final String[] chained = {"abcdef", "bcde", "ycde", "cde", "de d"};
+        assertEquals(List.of(1, 3), scan(chained, "zabcdez"), "Output links should chain through every suffix title");
+    }
+
+    @Test
+    void testAccentedAndSupplementaryCharacters() {
+        final String[] titles = {"\u00e9t\u00e9", "🎬🎬", "ñandú", "e\u0301te\u0301"};
+        assertEquals(List.of(0), scan(titles, "un \u00e9t\u00e9"), "Accented titles should be found");
+        assertEquals(List.of(1), scan(titles, "x🎬🎬x"),
+                "Titles outside the basic plane should be found");
+        assertEquals(List.of(), scan(titles, "🎭🎭"),
+                "Characters sharing a high surrogate should not match");
+        assertEquals(List.of(2), scan(titles, "el ñandú"));
+        assertEquals(List.of(3), scan(titles, "un e\u0301te\u0301"), "Combining marks should be compared as characters");
+        assertEquals(List.of(), scan(titles, "un e\u0301te"), "A title missing its last mark should not be found");
+    }
+
+    @Test
+    void testManyChildrenAndCollidingTransitions() {
+        // Thousands of children of the root and of one node, with characters far apart in the table
+        final List<String> titles = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            titles.add((char) ('a' + i * 17) + "xy");
+            titles.add("q" + (char) (0x100 + i) + "z");
+        }
+        final String[] keys = titles.toArray(String[]::new);
+        final TitleAutomaton automaton = compile(keys);
+        for (int i = 0; i < keys.length; i++) {
+            final IntList matches = new IntList();
+            automaton.collectTitlesContainedIn("-" + keys[i] + "-", matches);
+            assertEquals(1, matches.size(), "Each title should be found once: " + keys[i]);
+            assertEquals(i, matches.get(0));
+        }
+    }
+
+    @Test
+    void testFindsWhatAContainsScanFinds() {
+        // A small alphabet gives many shared prefixes, suffixes and repeated titles
+        final Random random = new Random(42);
+        final String[] titles = new String[2_000];
+        for (int i = 0; i < titles.length; i++) {
+            titles[i] = word(random, 1 + random.nextInt(7));
+        }
+        final TitleAutomaton automaton = compile(titles);
+
+        for (int k = 0; k < 1_000; k++) {
+            final String key = word(random, 1 + random.nextInt(20));
+            final Set<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < titles.length; i++) {
+                if (CatalogKeys.isSubstringKey(titles[i]) && key.contains(titles[i])) {
+                    expected.add(i);
+                }
+            }
+            final IntList matches = new IntList();
+            automaton.collectTitlesContainedIn(key, matches);
+            final Set<Integer> actual = new TreeSet<>();
+            for (int i = 0; i < matches.size(); i++) {
+                actual.add(matches.get(i));
+            }
+            assertEquals(expected, actual, "The automaton should find the titles of a scan for " + key);
+        }
+    }
+
+    private static String word(Random random, int length) {
+        final StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append("ab c".charAt(random.nextInt(4)));
+        }
+        return word.toString();
+    }
+
+    private static TitleAutomaton compile(String[] titles) {
+        return new TitleAutomaton(titles, IntStream.range(0, titles.length).toArray());
+    }
+
+    private static List<Integer> scan(String[] titles, String key) {
+        final IntList matches = new IntList();
+        compile(titles).collectTitlesContainedIn(key, matches);
+        final List<Integer> found = new ArrayList<>();
+        for (int i = 0; i < matches.size(); i++) {
+            found.add(matches.get(i));
+        }
+        return found;
+    }
+}
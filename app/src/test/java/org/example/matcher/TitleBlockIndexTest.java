@@ -0,0 +1,135 @@
+package org.example.matcher;
+
+import org.example.model.CSVRow;
+import org.example.model.Show;
+import org.example.model.ShowTitle;
+import org.example.util.TitleNormalizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the title partitions by production year and type.
+ */
+class TitleBlockIndexTest {
+
+    private static final String[] WORDS = {"dune", "star", "night", "the", "of", "war", "blue", "house", "moon"};
+    private static final Integer[] YEARS = {null, 1990, 1991, 1992, 1993, 1994, 1995};
+    private static final String[] TYPES = {null, "movie", "Series", "SERIES", "episode"};
+
+    @Test
+    void testRowsWithoutYearSearchEveryYear() {
+        final List<Show> shows = new ArrayList<>();
+        final List<ShowTitle> titles = new ArrayList<>();
+        final Integer[] years = {1999, 2005, null};
+        final String[] types = {"movie", "Series", null};
+        for (final Integer year : years) {
+            for (final String type : types) {
+                final Show show = Show.builder()
+                        .id(UUID.randomUUID())
+                        .originalTitle("Dune " + year + " " + type)
+                        .productionYear(year)
+                        .type(type)
+                        .build();
+                shows.add(show);
+                titles.add(ShowTitle.builder().showId(show.getId()).language("en").title("Dune").build());
+            }
+        }
+        final ShowMatcher matcher = new ShowMatcher(shows, titles);
+
+        assertEquals(shows.size(), matchedShows(matcher, CSVRow.builder().originalTitle("Dune").build()).size(),
+                "A row without year or type should find the shows of every year and type");
+        assertEquals(ids(shows, 0, 2, 3, 5, 6, 8),
+                matchedShows(matcher, CSVRow.builder().originalTitle("Dune").type("MOVIE").build()),
+                "A row without a year should find the shows of its type and without type, in every year");
+        assertEquals(ids(shows, 0, 2, 6, 8),
+                matchedShows(matcher, CSVRow.builder().originalTitle("Dune").productionYear(1999).type("movie").build()),
+                "A row with a year should only find its year and the shows without a year");
+    }
+
+    @Test
+    void testPartitionsFindWhatAScanFinds() {
+        // A small vocabulary gives many titles containing each other across partitions
+        final Random random = new Random(42);
+        final List<Show> shows = new ArrayList<>();
+        final List<ShowTitle> titles = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            final Show show = Show.builder()
+                    .id(UUID.randomUUID())
+                    .originalTitle(phrase(random))
+                    .productionYear(YEARS[random.nextInt(YEARS.length)])
+                    .type(TYPES[random.nextInt(TYPES.length)])
+                    .build();
+            shows.add(show);
+            titles.add(ShowTitle.builder().showId(show.getId()).language("en").title(phrase(random)).build());
+        }
+        // A title whose show is not in the catalog is never indexed
+        titles.add(ShowTitle.builder().showId(UUID.randomUUID()).language("en").title("dune").build());
+
+        final CatalogRecords records = new ColumnarCatalogRecords(shows, titles);
+        final String[] titleKeys = CatalogKeys.titleKeys(records);
+        final TitleBlockIndex index = new TitleBlockIndex(records, titleKeys);
+
+        for (int k = 0; k < 300; k++) {
+            final String key = TitleNormalizer.normalize(phrase(random));
+            final Integer year = YEARS[random.nextInt(YEARS.length)];
+            final String type = TYPES[random.nextInt(TYPES.length)];
+            if (!CatalogKeys.isSubstringKey(key)) {
+                continue;
+            }
+            final IntList found = new IntList();
+            index.collectTitles(key, year, type, found);
+
+            final Set<Integer> expected = new TreeSet<>();
+            for (int title = 0; title < titleKeys.length; title++) {
+                final String titleKey = titleKeys[title];
+                final int show = records.showOfTitle(title);
+                if (show >= 0 && CatalogKeys.isSubstringKey(titleKey)
+                        && (titleKey.contains(key) || key.contains(titleKey))
+                        && (year == null || records.productionYear(show) == null
+                        || year.equals(records.productionYear(show)))
+                        && (type == null || records.type(show) == null
+                        || type.equalsIgnoreCase(records.type(show)))) {
+                    expected.add(title);
+                }
+            }
+            final Set<Integer> actual = new TreeSet<>();
+            for (int i = 0; i < found.size(); i++) {
+                actual.add(found.get(i));
+            }
+            assertEquals(expected, actual, "Partitions should find the titles of a scan for " + key + ", "
+                    + year + ", " + type);
+        }
+    }
+
+    private static String phrase(Random random) {
+        final StringBuilder phrase = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        for (int words = random.nextInt(3); words > 0; words--) {
+            phrase.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return phrase.toString();
+    }
+
+    private static Set<UUID> ids(List<Show> shows, int... positions) {
+        final Set<UUID> ids = new TreeSet<>();
+        for (final int position : positions) {
+            ids.add(shows.get(position).getId());
+        }
+        return ids;
+    }
+
+    private static Set<UUID> matchedShows(ShowMatcher matcher, CSVRow row) {
+        final Set<UUID> shows = new TreeSet<>();
+        for (final MatchResult match : matcher.findMatchesForRow(row)) {
+            shows.add(match.getShowTitle().getShowId());
+        }
+        return shows;
+    }
+}